@@ -23,6 +23,9 @@ import com.intellij.openapi.actionSystem.ActionManager;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.DefaultActionGroup;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.MessageType;
 import com.intellij.openapi.ui.popup.Balloon;
@@ -49,6 +52,7 @@ import org.codinjutsu.tools.nosql.commons.view.action.RefreshServerAction;
 import org.codinjutsu.tools.nosql.commons.view.action.ViewCollectionValuesAction;
 import org.codinjutsu.tools.nosql.commons.view.editor.NoSqlDatabaseFileSystem;
 import org.codinjutsu.tools.nosql.commons.view.editor.NoSqlDatabaseObjectFile;
+import org.codinjutsu.tools.nosql.mongo.view.action.SortCollectionsBySizeAction;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -60,6 +64,7 @@ import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreeNode;
+import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 import java.awt.BorderLayout;
 import java.awt.Dimension;
@@ -71,6 +76,7 @@ import java.net.URL;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Objects;
 
 import static java.awt.BorderLayout.CENTER;
 import static java.awt.BorderLayout.NORTH;
@@ -109,6 +115,7 @@ public class NoSqlExplorerPanel extends JPanel implements Disposable {
     }
 
     void reloadAllServerConfigurations() {
+        cancelRefreshes();
         databaseVendorClientManager.cleanUpServers();
         databaseTree.setRootVisible(false);
 
@@ -134,6 +141,20 @@ public class NoSqlExplorerPanel extends JPanel implements Disposable {
         TreeUtil.expand(databaseTree, 2);
     }
 
+    private void cancelRefreshes() {
+        TreeModel treeModel = databaseTree.getModel();
+        TreeNode rootNode = treeModel != null ? (TreeNode) treeModel.getRoot() : null;
+        if (rootNode == null) {
+            return;
+        }
+        for (int i = 0; i < rootNode.getChildCount(); i++) {
+            Object folder = ((DefaultMutableTreeNode) rootNode.getChildAt(i)).getUserObject();
+            if (folder instanceof DatabaseServerFolder) {
+                ((DatabaseServerFolder) folder).cancelRefresh();
+            }
+        }
+    }
+
     @NotNull
     private DatabaseServerFolder createDatabaseServerFolder(DatabaseServer databaseServer) {
         return databaseServer.getVendor().getDatabaseVendorInformation().createDatabaseServerFolder(databaseServer, project);
@@ -142,40 +163,111 @@ public class NoSqlExplorerPanel extends JPanel implements Disposable {
     private void reloadServerConfiguration(final DefaultMutableTreeNode serverNode, final boolean expandAfterLoading) {
         databaseTree.setPaintBusy(true);
 
-        ApplicationManager.getApplication().executeOnPooledThread(() -> {
-            DatabaseServerFolder databaseServerFolder = (DatabaseServerFolder) serverNode.getUserObject();
-            final DatabaseServer databaseServer = databaseServerFolder.getData();
-            try {
-                databaseVendorClientManager.loadServer(databaseServer);
+        DatabaseServerFolder databaseServerFolder = (DatabaseServerFolder) serverNode.getUserObject();
+        final DatabaseServer databaseServer = databaseServerFolder.getData();
+        // loading a server may take a while, e.g. indexing a large Redis dump, so it runs as a cancellable task
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, format("Loading %s", databaseServer.getLabel()), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    databaseVendorClientManager.loadServer(databaseServer);
 
-                GuiUtils.runInSwingThread(() -> {
-                    databaseTree.invalidate();
+                    GuiUtils.runInSwingThread(() -> {
+                        databaseTree.invalidate();
 
-                    serverNode.removeAllChildren();
-                    addDatabasesIfAny(databaseServerFolder, serverNode);
+                        serverNode.removeAllChildren();
+                        addDatabasesIfAny(databaseServerFolder, serverNode);
 
-                    ((DefaultTreeModel) databaseTree.getModel()).reload(serverNode);
+                        ((DefaultTreeModel) databaseTree.getModel()).reload(serverNode);
 
-                    databaseTree.revalidate();
+                        databaseTree.revalidate();
 
-                    if (expandAfterLoading) {
-                        GuiUtils.expand(databaseTree, TreeUtil.getPathFromRoot(serverNode), 1);
-                    }
+                        if (expandAfterLoading) {
+                            GuiUtils.expand(databaseTree, TreeUtil.getPathFromRoot(serverNode), 1);
+                        }
 
-                });
+                        databaseServerFolder.scheduleRefresh(() -> GuiUtils.runInSwingThread(() -> refreshNodes(serverNode)));
+                    });
 
-            } catch (ConfigurationException | DatabaseException confEx) {
-                databaseServer.setStatus(DatabaseServer.Status.ERROR);
-                showNotification(treePanel,
-                        MessageType.ERROR,
-                        format("Error when connecting on %s", databaseServer.getLabel()),
-                        Balloon.Position.atLeft);
-            } finally {
-                databaseTree.setPaintBusy(false);
+                } catch (ConfigurationException | DatabaseException confEx) {
+                    databaseServer.setStatus(DatabaseServer.Status.ERROR);
+                    showNotification(treePanel,
+                            MessageType.ERROR,
+                            format("Error when connecting on %s", databaseServer.getLabel()),
+                            Balloon.Position.atLeft);
+                } finally {
+                    databaseTree.setPaintBusy(false);
+                }
             }
         });
     }
 
+    private void refreshNodes(DefaultMutableTreeNode serverNode) {
+        if (databaseTree == null || serverNode.getParent() == null) {
+            return;
+        }
+        DefaultTreeModel treeModel = (DefaultTreeModel) databaseTree.getModel();
+        treeModel.nodeChanged(serverNode);
+        for (int i = 0; i < serverNode.getChildCount(); i++) {
+            DefaultMutableTreeNode databaseNode = (DefaultMutableTreeNode) serverNode.getChildAt(i);
+            Folder<?, ?> databaseFolder = (Folder<?, ?>) databaseNode.getUserObject();
+            if (!hasSameChildren(databaseFolder, databaseNode)) {
+                rebuildChildren(treeModel, databaseFolder, databaseNode);
+            } else {
+                treeModel.nodeChanged(databaseNode);
+                int[] childIndices = new int[databaseNode.getChildCount()];
+                for (int childIndex = 0; childIndex < childIndices.length; childIndex++) {
+                    childIndices[childIndex] = childIndex;
+                }
+                treeModel.nodesChanged(databaseNode, childIndices);
+            }
+        }
+    }
+
+    /**
+     * Recreates the children of the node, keeping the node expanded and the same child selected if they were.
+     */
+    private void rebuildChildren(DefaultTreeModel treeModel, Folder<?, ?> folder, DefaultMutableTreeNode node) {
+        TreePath path = new TreePath(node.getPath());
+        boolean expanded = databaseTree.isExpanded(path);
+        TreePath selectionPath = databaseTree.getSelectionPath();
+        String selectedName = selectionPath != null && path.equals(selectionPath.getParentPath())
+                ? ((Folder<?, ?>) ((DefaultMutableTreeNode) selectionPath.getLastPathComponent()).getUserObject()).getName()
+                : null;
+
+        node.removeAllChildren();
+        addDatabasesIfAny(folder, node);
+        treeModel.nodeStructureChanged(node);
+
+        if (expanded) {
+            databaseTree.expandPath(path);
+        }
+        if (selectedName != null) {
+            for (int i = 0; i < node.getChildCount(); i++) {
+                DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(i);
+                if (selectedName.equals(((Folder<?, ?>) child.getUserObject()).getName())) {
+                    databaseTree.setSelectionPath(path.pathByAddingChild(child));
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean hasSameChildren(Folder<?, ?> folder, DefaultMutableTreeNode node) {
+        Collection<? extends Folder<?, ?>> children = folder.getChildren();
+        if (children.size() != node.getChildCount()) {
+            return false;
+        }
+        int index = 0;
+        for (Folder<?, ?> child : children) {
+            Folder<?, ?> displayedChild = (Folder<?, ?>) ((DefaultMutableTreeNode) node.getChildAt(index++)).getUserObject();
+            if (!Objects.equals(child.getName(), displayedChild.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void addDatabasesIfAny(Folder databaseServerFolder, DefaultMutableTreeNode serverNode) {
         Collection<Folder<?, ?>> children = databaseServerFolder.getChildren();
         for (Folder child : children) {
@@ -247,6 +339,7 @@ public class NoSqlExplorerPanel extends JPanel implements Disposable {
             actionPopupGroup.add(refreshServerAction);
             actionPopupGroup.add(viewCollectionValuesAction);
             actionPopupGroup.add(addCollectionAction);
+            actionPopupGroup.add(new SortCollectionsBySizeAction(this));
             actionPopupGroup.add(new DropCollectionAction(this));
             actionPopupGroup.add(new DropDatabaseAction(this));
         }
@@ -288,6 +381,7 @@ public class NoSqlExplorerPanel extends JPanel implements Disposable {
 
     @Override
     public void dispose() {
+        cancelRefreshes();
         databaseTree = null;
     }
 
@@ -400,6 +494,13 @@ public class NoSqlExplorerPanel extends JPanel implements Disposable {
         reloadServerConfiguration(getSelectedServerNode(), true);
     }
 
+    public void refreshSelectedServerNodes() {
+        DefaultMutableTreeNode serverNode = getSelectedServerNode();
+        if (serverNode != null) {
+            refreshNodes(serverNode);
+        }
+    }
+
     private class ExplorerTree extends Tree {
 
         private final JComponent myLabel = new JLabel(format("<html><center>NoSql server list is empty<br><br>You may use <img src=\"%s\"> to add configuration</center></html>", pluginSettingsUrl));
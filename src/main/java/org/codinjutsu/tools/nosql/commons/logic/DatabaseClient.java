@@ -61,6 +61,13 @@ public interface DatabaseClient {
         return false;
     }
 
+    /**
+     * Whether the data can only be browsed, in which case the actions changing it are disabled.
+     */
+    default boolean isReadOnly(ServerConfiguration serverConfiguration) {
+        return false;
+    }
+
     @Nullable
     default Object createFolder(ServerConfiguration serverconfiguration, String parentFolderName, String folderName) {
         return null;
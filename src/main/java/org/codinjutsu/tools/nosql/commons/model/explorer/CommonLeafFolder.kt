@@ -8,7 +8,7 @@ import org.codinjutsu.tools.nosql.commons.model.DatabaseServer
 import org.codinjutsu.tools.nosql.commons.model.NamedObject
 import org.codinjutsu.tools.nosql.commons.view.editor.NoSqlDatabaseObjectFile
 
-internal class CommonLeafFolder<out TYPE : NamedObject, DATABASE : Database>(
+internal open class CommonLeafFolder<out TYPE : NamedObject, DATABASE : Database>(
         override val data: TYPE,
         override val parent: DatabaseFolder<DATABASE>,
         private val deletablePredicate: (FolderType) -> Boolean,
@@ -28,6 +28,16 @@ abstract class DatabaseServerFolder<DATABASE : Database> constructor(override va
 
     internal abstract fun createDatabaseFolder(database: Database): DatabaseFolder<DATABASE>
 
+    /**
+     * Called once the server is loaded, for vendors that keep refreshing what the tree shows.
+     */
+    open fun scheduleRefresh(onRefresh: Runnable) {}
+
+    /**
+     * Called once the server leaves the tree, to stop what [scheduleRefresh] started.
+     */
+    open fun cancelRefresh() {}
+
     override fun updateTreeCell(renderer: ColoredTreeCellRenderer) {
         renderer.apply {
             val label = databaseServer.label
@@ -14,7 +14,9 @@ import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.LoadingDecorator;
+import com.intellij.openapi.ui.MessageType;
 import com.intellij.openapi.ui.Splitter;
+import com.intellij.openapi.ui.popup.Balloon;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ui.NumberDocument;
@@ -49,6 +51,7 @@ import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryPanel;
 import org.codinjutsu.tools.nosql.commons.view.scripting.ScriptExecutor;
 import org.codinjutsu.tools.nosql.commons.view.scripting.ScriptingDatabaseWrapper;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.Box;
 import javax.swing.JComponent;
@@ -58,6 +61,7 @@ import javax.swing.JTextField;
 import java.awt.BorderLayout;
 import java.io.File;
 import java.io.IOException;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public abstract class DatabasePanel extends NoSqlResultView {
@@ -213,6 +217,10 @@ public abstract class DatabasePanel extends NoSqlResultView {
         return context;
     }
 
+    protected Project getProject() {
+        return project;
+    }
+
     @Override
     public Object getRecords() {
         return null;
@@ -226,7 +234,11 @@ public abstract class DatabasePanel extends NoSqlResultView {
         executeQuery(currentPage);
     }
 
-    private void executeQuery(final Page currentPage) {
+    protected void executeQuery(final Page currentPage) {
+        executeInBackground(indicator -> GuiUtils.runInSwingThread(() -> resultPanel.updateResultTableTree(getSearchResult(currentPage))));
+    }
+
+    protected void executeInBackground(Consumer<ProgressIndicator> query) {
         errorPanel.setVisible(false);
         validateQuery();
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Executing query", true) {
@@ -234,7 +246,7 @@ public abstract class DatabasePanel extends NoSqlResultView {
             public void run(@NotNull final ProgressIndicator indicator) {
                 try {
                     GuiUtils.runInSwingThread(() -> loadingDecorator.startLoading(false));
-                    GuiUtils.runInSwingThread(() -> resultPanel.updateResultTableTree(getSearchResult(currentPage)));
+                    query.accept(indicator);
                 } catch (final Exception ex) {
                     GuiUtils.runInSwingThread(() -> updateErrorPanel(ex));
                 } finally {
@@ -244,7 +256,7 @@ public abstract class DatabasePanel extends NoSqlResultView {
         });
     }
 
-    private void updateErrorPanel(Exception ex) {
+    protected void updateErrorPanel(Exception ex) {
         errorPanel.invalidate();
         errorPanel.removeAll();
         errorPanel.add(new ErrorPanel(ex), BorderLayout.CENTER);
@@ -320,11 +332,28 @@ public abstract class DatabasePanel extends NoSqlResultView {
     @NotNull
     public Page getCurrentPage() {
         if (currentPage == null) {
-            currentPage = new Page(10, 0, getSearchResult().getTotalCount());
+            currentPage = new Page(getPageSize(), 0, countRecords());
         }
         return currentPage;
     }
 
+    protected int getPageSize() {
+        return 10;
+    }
+
+    protected int countRecords() {
+        return getSearchResult().getTotalCount();
+    }
+
+    /**
+     * Keeps the current page but replaces its item count, once a count computed in the background is known.
+     */
+    protected void setItemCount(int itemCount) {
+        if (currentPage != null) {
+            currentPage = new Page(currentPage.getPageSize(), currentPage.getPageIndex(), itemCount);
+        }
+    }
+
     @SuppressWarnings("unused")
     public void moveToPage(@NotNull Page page) {
         executeQuery(page);
@@ -336,20 +365,22 @@ public abstract class DatabasePanel extends NoSqlResultView {
         if (dialog.showAndGet()) {
             File file = dialog.getSelectedFile();
             if (file.exists()) {
-                try {
-                    GuiUtils.runInSwingThread(() -> loadingDecorator.startLoading(false));
-                    GuiUtils.runInSwingThread(() -> {
-                        ImportResultState result = context.getClient().importFile(context, file);
-                    });
-                } catch (Exception e) {
-                    updateErrorPanel(e);
-                } finally {
-                    GuiUtils.runInSwingThread(loadingDecorator::stopLoading);
-                }
+                executeInBackground(indicator -> {
+                    ImportResultState result = importFile(file, indicator);
+                    if (result != null) {
+                        GuiUtils.showNotification(resultPanel, result.getSuccess() ? MessageType.INFO : MessageType.WARNING,
+                                result.getMessage(), Balloon.Position.above);
+                    }
+                });
             }
         }
     }
 
+    @Nullable
+    protected ImportResultState importFile(File file, ProgressIndicator indicator) {
+        return context.getClient().importFile(context, file);
+    }
+
     public void runScript() {
         VirtualFile chooseFile = FileChooser.chooseFile(new FileChooserDescriptor(true, false, false, false, false, false), project, null);
         if (chooseFile == null) {
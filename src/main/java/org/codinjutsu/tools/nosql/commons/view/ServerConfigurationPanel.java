@@ -34,6 +34,7 @@ import org.codinjutsu.tools.nosql.commons.configuration.WriteableConsoleRunnerCo
 import org.codinjutsu.tools.nosql.commons.configuration.WriteableServerConfiguration;
 import org.codinjutsu.tools.nosql.commons.logic.DatabaseClient;
 import org.codinjutsu.tools.nosql.commons.view.authentication.AuthenticationView;
+import org.codinjutsu.tools.nosql.commons.view.authentication.ServerSettingsView;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.JButton;
@@ -152,6 +153,9 @@ public class ServerConfigurationPanel extends JPanel {
         autoConnectCheckBox.setSelected(configuration.isConnectOnIdeStartup());
 
         authenticationView.load(configuration.getAuthenticationSettings());
+        if (authenticationView instanceof ServerSettingsView) {
+            ((ServerSettingsView) authenticationView).loadConfiguration(configuration);
+        }
     }
 
     public void applyConfigurationData(WriteableServerConfiguration configuration) {
@@ -165,6 +169,9 @@ public class ServerConfigurationPanel extends JPanel {
             consoleRunnerConfiguration.setShellWorkingDir(getShellWorkingDir());
         }
         configuration.setConnectOnIdeStartup(isAutoConnect());
+        if (authenticationView instanceof ServerSettingsView) {
+            ((ServerSettingsView) authenticationView).applyConfiguration(configuration);
+        }
     }
 
     public ValidationInfo validateInputs() {
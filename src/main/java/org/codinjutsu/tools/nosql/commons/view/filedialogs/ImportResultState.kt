@@ -2,5 +2,7 @@ package org.codinjutsu.tools.nosql.commons.view.filedialogs
 
 internal data class ImportResultState(
         val success: Boolean,
-        val message: String?
-)
\ No newline at end of file
+        val message: String?,
+        val imported: Long = 0,
+        val failed: Long = 0
+)
@@ -34,6 +34,10 @@ import java.awt.event.MouseEvent
 import java.util.*
 import javax.swing.JPanel
 import javax.swing.tree.DefaultMutableTreeNode
+import javax.swing.tree.DefaultTreeModel
+import javax.swing.tree.MutableTreeNode
+import javax.swing.tree.TreeNode
+import javax.swing.tree.TreePath
 
 internal open class NoSQLResultPanel(
         private val project: Project,
@@ -92,7 +96,36 @@ internal open class NoSQLResultPanel(
     protected open fun writeableColumnInfoDecider(): WriteableColumnInfoDecider = DONT_WRITE
 
     fun updateResultTableTree(searchResult: SearchResult) {
-        resultTableView = createTableView(searchResult)
+        updateResultTableTree(prepareResultTree(searchResult))
+    }
+
+    /**
+     * Adds the records of a partial result under the current root, keeping the rows that are already displayed.
+     */
+    fun appendResultTableTree(searchResult: SearchResult) {
+        val tableView = resultTableView
+        if (tableView == null) {
+            updateResultTableTree(searchResult)
+            return
+        }
+        val tree = tableView.tree
+        val root = tree.model.root as DefaultMutableTreeNode
+        val batchRoot = prepareResultTree(searchResult) as DefaultMutableTreeNode
+        val firstIndex = root.childCount
+        while (batchRoot.childCount > 0) {
+            root.add(batchRoot.getChildAt(0) as MutableTreeNode)
+        }
+        (tree.model as DefaultTreeModel).nodesWereInserted(root, IntArray(root.childCount - firstIndex) { firstIndex + it })
+        (firstIndex until root.childCount).forEach {
+            GuiUtils.expand(tree, TreePath(arrayOf(root, root.getChildAt(it))), 1)
+        }
+    }
+
+    fun prepareResultTree(searchResult: SearchResult): TreeNode =
+            treePreparator.prepare(treeBuilder.build(searchResult, nodeDescriptorFactory))
+
+    fun updateResultTableTree(treeNode: TreeNode) {
+        resultTableView = createTableView(treeNode)
         with(resultTableView) {
             name = "resultTreeTable"
 
@@ -115,10 +148,8 @@ internal open class NoSQLResultPanel(
         resultTreePanel.validate()
     }
 
-    protected open fun createTableView(searchResult: SearchResult): JsonTreeTableView {
-        val treeNode = treeBuilder.build(searchResult, nodeDescriptorFactory)
-        return JsonTreeTableView(treePreparator.prepare(treeNode), JsonTreeTableView.KEY, JsonTreeTableView.READONLY_VALUE)
-    }
+    protected open fun createTableView(treeNode: TreeNode): JsonTreeTableView =
+            JsonTreeTableView(treeNode, JsonTreeTableView.KEY, JsonTreeTableView.READONLY_VALUE)
 
     protected open fun buildPopupMenu() {
         val actionPopupGroup = DefaultActionGroup("NoSQLResultPopupGroup", true)
@@ -16,20 +16,28 @@
 
 package org.codinjutsu.tools.nosql.mongo.logic;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
-import com.mongodb.AggregationOutput;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.mongodb.BasicDBObject;
+import com.mongodb.CommandResult;
 import com.mongodb.DBCollection;
-import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
 import com.mongodb.MongoClientURI;
 import com.mongodb.MongoException;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoIterable;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
 import org.codinjutsu.tools.nosql.commons.configuration.ServerConfiguration;
 import org.codinjutsu.tools.nosql.commons.exceptions.ConfigurationException;
+import org.codinjutsu.tools.nosql.commons.exceptions.DatabaseException;
 import org.codinjutsu.tools.nosql.commons.logic.DatabaseClient;
 import org.codinjutsu.tools.nosql.commons.model.AuthenticationSettings;
 import org.codinjutsu.tools.nosql.commons.model.Database;
@@ -39,22 +47,34 @@ import org.codinjutsu.tools.nosql.commons.model.SearchResult;
 import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseElement;
 import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject;
 import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabasePrimitive;
+import org.codinjutsu.tools.nosql.commons.view.filedialogs.ImportResultState;
+import org.codinjutsu.tools.nosql.commons.view.panel.query.Page;
 import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptions;
 import org.codinjutsu.tools.nosql.mongo.configuration.MongoServerConfiguration;
 import org.codinjutsu.tools.nosql.mongo.model.MongoCollection;
+import org.codinjutsu.tools.nosql.mongo.model.MongoCollectionStatistics;
 import org.codinjutsu.tools.nosql.mongo.model.MongoContext;
 import org.codinjutsu.tools.nosql.mongo.model.MongoDatabase;
+import org.codinjutsu.tools.nosql.mongo.model.MongoPageBoundaries;
 import org.codinjutsu.tools.nosql.mongo.model.MongoQueryOptions;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -63,12 +83,24 @@ import static org.apache.commons.lang.StringUtils.isNotEmpty;
 import static org.codinjutsu.tools.nosql.mongo.model.internal.MongoHelperKt.revert;
 import static org.codinjutsu.tools.nosql.mongo.model.internal.MongoHelperKt.toDatabaseElement;
 import static org.codinjutsu.tools.nosql.mongo.model.internal.MongoHelperKt.toDatabaseObject;
+import static org.codinjutsu.tools.nosql.mongo.model.internal.MongoHelperKt.unwrap;
 
-public class MongoClient implements DatabaseClient {
+public class MongoClient implements DatabaseClient, Disposable {
 
     private static final Logger LOG = Logger.getLogger(MongoClient.class);
     public static final String ID_DESCRIPTOR_KEY = "_id"; //NON-NLS
+    public static final int DEFAULT_IMPORT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_IMPORT_PARALLELISM = 4;
+    private static final int COLLECTION_LOADING_PARALLELISM = 4;
+    private static final long STATISTICS_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
     private final List<DatabaseServer> databaseServers = new LinkedList<>();
+    private final MongoClientRegistry clientRegistry = new MongoClientRegistry(this::createMongoClient);
+    // a bounded view of the shared application pool, the explorer does not own any thread
+    private final ExecutorService collectionLoader = AppExecutorUtil.createBoundedApplicationPoolExecutor("Mongo collections", //NON-NLS
+            COLLECTION_LOADING_PARALLELISM);
+    private final ConcurrentMap<ServerConfiguration, Map<String, MongoCollectionStatistics>> collectionStatistics = new ConcurrentHashMap<>();
+    private volatile boolean sortCollectionsBySize;
+    private volatile boolean disposed;
 
     @NotNull
     public static MongoClient getInstance(Project project) {
@@ -94,6 +126,14 @@ public class MongoClient implements DatabaseClient {
 
     public void cleanUpServers() {
         databaseServers.clear();
+        collectionStatistics.clear();
+        clientRegistry.closeAll();
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        clientRegistry.dispose();
     }
 
     public void registerServer(DatabaseServer databaseServer) {
@@ -119,20 +159,26 @@ public class MongoClient implements DatabaseClient {
         databaseServer.setStatus(DatabaseServer.Status.OK);
     }
 
+    /**
+     * Lists the databases only: their collections are fetched afterwards by {@link #loadCollections}, so that the
+     * server shows up without waiting for every database.
+     */
     @NotNull
     private List<Database> loadDatabaseCollections(ServerConfiguration configuration) {
-        try (com.mongodb.MongoClient mongo = createMongoClient(configuration)) {
-            String userDatabase = configuration.getUserDatabase();
-            if (isNotEmpty(userDatabase)) {
-                List<Database> mongoDatabases = new LinkedList<>();
-                mongoDatabases.add(createMongoDatabaseAndItsCollections(mongo.getDatabase(userDatabase)));
-                return mongoDatabases;
-            }
-            List<String> databaseNames = toList(mongo.listDatabaseNames());
-            Collections.sort(databaseNames);
-            return databaseNames.stream()
-                    .map(databaseName -> createMongoDatabaseAndItsCollections(mongo.getDatabase(databaseName)))
-                    .collect(Collectors.toCollection(LinkedList::new));
+        try {
+            return withPooledMongoClient(configuration, mongo -> {
+                String userDatabase = configuration.getUserDatabase();
+                if (isNotEmpty(userDatabase)) {
+                    List<Database> mongoDatabases = new LinkedList<>();
+                    mongoDatabases.add(createMongoDatabaseAndItsCollections(mongo.getDatabase(userDatabase)));
+                    return mongoDatabases;
+                }
+                List<String> databaseNames = toList(mongo.listDatabaseNames());
+                Collections.sort(databaseNames);
+                return databaseNames.stream()
+                        .map(databaseName -> new MongoDatabase(databaseName, null))
+                        .collect(Collectors.toCollection(LinkedList::new));
+            });
         } catch (MongoException mongoEx) {
             throw new ConfigurationException(mongoEx);
         }
@@ -143,6 +189,86 @@ public class MongoClient implements DatabaseClient {
         return new MongoDatabase(database.getName(), new HashSet<>(toList(database.listCollectionNames())));
     }
 
+    /**
+     * Fetches the collections of the databases not loaded yet, a few databases at a time, then the statistics of their
+     * collections which are not cached or expired. A database whose collections cannot be listed, for instance for lack
+     * of a role, keeps the error and does not prevent the others from loading.
+     *
+     * @param onLoaded called each time the collections of a database, or their statistics, are known
+     */
+    public void loadCollections(ServerConfiguration configuration, Collection<MongoDatabase> databases, Runnable onLoaded) {
+        for (MongoDatabase database : databases) {
+            collectionLoader.execute(() -> {
+                if (disposed) {
+                    return;
+                }
+                if (!database.isLoaded()) {
+                    try {
+                        database.setCollections(withPooledMongoClient(configuration, mongo -> toList(mongo.getDatabase(database.getName()).listCollectionNames())));
+                    } catch (RuntimeException ex) {
+                        LOG.warn("Unable to list the collections of " + database.getName(), ex); //NON-NLS
+                        database.setLoadError(ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+                    }
+                    onLoaded.run();
+                }
+                if (loadCollectionStatistics(configuration, database)) {
+                    onLoaded.run();
+                }
+            });
+        }
+    }
+
+    private boolean loadCollectionStatistics(ServerConfiguration configuration, MongoDatabase database) {
+        Map<String, MongoCollectionStatistics> statistics = collectionStatistics.computeIfAbsent(configuration, key -> new ConcurrentHashMap<>());
+        List<MongoCollection> expiredCollections = database.getCollections().stream()
+                .filter(collection -> {
+                    MongoCollectionStatistics cached = statistics.get(getNamespace(collection));
+                    return cached == null || cached.isExpired(STATISTICS_TTL_MILLIS);
+                })
+                .collect(Collectors.toList());
+        if (expiredCollections.isEmpty()) {
+            return false;
+        }
+        try {
+            withPooledMongoClient(configuration, mongo -> {
+                com.mongodb.client.MongoDatabase mongoDatabase = mongo.getDatabase(database.getName());
+                for (MongoCollection collection : expiredCollections) {
+                    try {
+                        statistics.put(getNamespace(collection), MongoCollectionStatistics.parse(mongoDatabase.runCommand(new Document("collStats", collection.getName())))); //NON-NLS
+                    } catch (MongoException ex) {
+                        LOG.debug("No statistics for " + getNamespace(collection), ex); //NON-NLS
+                    }
+                }
+                return null;
+            });
+        } catch (MongoException ex) {
+            LOG.warn("Unable to load the statistics of " + database.getName(), ex); //NON-NLS
+        }
+        return true;
+    }
+
+    /**
+     * @return the last statistics fetched for the collection, even expired ones until they are fetched again
+     */
+    @Nullable
+    public MongoCollectionStatistics getCollectionStatistics(ServerConfiguration configuration, MongoCollection collection) {
+        Map<String, MongoCollectionStatistics> statistics = collectionStatistics.get(configuration);
+        return statistics != null ? statistics.get(getNamespace(collection)) : null;
+    }
+
+    public boolean isSortCollectionsBySize() {
+        return sortCollectionsBySize;
+    }
+
+    public void setSortCollectionsBySize(boolean sortCollectionsBySize) {
+        this.sortCollectionsBySize = sortCollectionsBySize;
+    }
+
+    @NotNull
+    private static String getNamespace(MongoCollection collection) {
+        return collection.getDatabaseName() + "." + collection.getName();
+    }
+
     @Override
     public void update(DatabaseContext context, DatabaseElement document) {
         withMongoClient(context, mongo -> {
@@ -165,6 +291,10 @@ public class MongoClient implements DatabaseClient {
         return mongo.getDB(mongoCollection.getDatabaseName()).getCollection(mongoCollection.getName());
     }
 
+    private com.mongodb.client.MongoCollection<RawBsonDocument> getRawCollection(com.mongodb.MongoClient mongo, MongoCollection mongoCollection) {
+        return mongo.getDatabase(mongoCollection.getDatabaseName()).getCollection(mongoCollection.getName(), RawBsonDocument.class);
+    }
+
     @Override
     public void dropFolder(ServerConfiguration configuration, Object mongoCollection) {
         withMongoClient(configuration, mongo -> getCollection(mongo, (MongoCollection) mongoCollection).drop());
@@ -175,13 +305,123 @@ public class MongoClient implements DatabaseClient {
         withMongoClient(configuration, mongo -> mongo.dropDatabase(database.getName()));
     }
 
+    @Override
+    public ImportResultState importFile(DatabaseContext context, File file) {
+        return importFile(context, file, DEFAULT_IMPORT_BATCH_SIZE, DEFAULT_IMPORT_PARALLELISM, progress -> {
+        }, () -> false);
+    }
+
+    /**
+     * Imports a JSON array or one document after the other (the default output of {@code mongoexport}) in unordered
+     * batches written in parallel. Documents which cannot be parsed or inserted are counted and do not stop the import.
+     */
     @NotNull
-    private SearchResult loadCollectionValues(MongoContext context, MongoQueryOptions mongoQueryOptions) {
+    public ImportResultState importFile(DatabaseContext context, File file, int batchSize, int parallelism,
+                                        Consumer<String> progressConsumer, BooleanSupplier isCancelled) {
+        return withMongoClient(context, mongo -> {
+            MongoImporter importer = new MongoImporter(getRawCollection(mongo, ((MongoContext) context).getMongoCollection()), batchSize, parallelism);
+            try {
+                return importer.importFile(file, progressConsumer, isCancelled);
+            } catch (IOException ex) {
+                throw new DatabaseException("Unable to read " + file.getPath(), ex); //NON-NLS
+            }
+        });
+    }
+
+    /**
+     * Runs the query again without the row limit nor paging, and writes every document it returns to the file as the
+     * cursor reads them.
+     *
+     * @return the number of documents exported
+     */
+    public long export(DatabaseContext context, MongoQueryOptions mongoQueryOptions, File file, MongoExportFormat format,
+                       Consumer<String> progressConsumer, BooleanSupplier isCancelled) {
+        return withMongoClient(context, mongo -> {
+            MongoExtraSettings extraSettings = new MongoExtraSettings(context.getServerConfiguration().getAuthenticationSettings().getExtras());
+            int batchSize = Math.max(1, extraSettings.getBatchSize());
+            com.mongodb.client.MongoCollection<RawBsonDocument> collection = getRawCollection(mongo, ((MongoContext) context).getMongoCollection());
+            MongoIterable<RawBsonDocument> iterable;
+            if (mongoQueryOptions.isAggregate()) {
+                List<Bson> pipeline = new ArrayList<>();
+                for (Object operation : mongoQueryOptions.getOperations()) {
+                    pipeline.add(toBson((DBObject) operation));
+                }
+                iterable = collection.aggregate(pipeline).allowDiskUse(extraSettings.isAllowDiskUse()).batchSize(batchSize);
+            } else {
+                DBObject sort = mongoQueryOptions.getSort();
+                FindIterable<RawBsonDocument> cursor = findCursor(mongoQueryOptions.getFilter(), mongoQueryOptions, collection).batchSize(batchSize);
+                iterable = sort != null ? cursor.sort(toBson(sort)) : cursor;
+            }
+            try (MongoCursor<RawBsonDocument> cursor = iterable.iterator()) {
+                return new MongoExporter(progressConsumer, isCancelled).export(cursor, file, format, mongoQueryOptions.isAggregate() ? null : mongoQueryOptions.getProjection());
+            } catch (IOException ex) {
+                throw new DatabaseException("Unable to write " + file.getPath(), ex); //NON-NLS
+            }
+        });
+    }
+
+    @NotNull
+    private SearchResult loadCollectionValues(MongoContext context, MongoQueryOptions mongoQueryOptions,
+                                              Consumer<List<DatabaseObject>> batchConsumer, BooleanSupplier isCancelled) {
         return withMongoClient(context, mongo -> {
             MongoCollection mongoCollection = context.getMongoCollection();
-            DBCollection collection = getCollection(mongo, mongoCollection);
-            List<DatabaseObject> objectWrappers = mongoQueryOptions.isAggregate() ? aggregate(mongoQueryOptions, collection) : find(mongoQueryOptions, collection);
-            return new SearchResult(mongoCollection.getName(), objectWrappers, objectWrappers.size());
+            MongoExtraSettings extraSettings = new MongoExtraSettings(context.getServerConfiguration().getAuthenticationSettings().getExtras());
+            int batchSize = Math.max(1, extraSettings.getBatchSize());
+            com.mongodb.client.MongoCollection<RawBsonDocument> collection = getRawCollection(mongo, mongoCollection);
+            List<DatabaseObject> objectWrappers = mongoQueryOptions.isAggregate()
+                    ? aggregate(mongoQueryOptions, collection, extraSettings, batchSize, batchConsumer, isCancelled)
+                    : find(mongoQueryOptions, collection, batchSize, batchConsumer, isCancelled);
+            Page page = mongoQueryOptions.getPage();
+            return new SearchResult(mongoCollection.getName(), objectWrappers, page != null ? page.getItemCount() : objectWrappers.size());
+        });
+    }
+
+    /**
+     * Counts the documents matched by the filter without loading them. An empty filter is answered from the
+     * collection metadata; aggregations are not paged and count as empty.
+     */
+    public int countRecords(DatabaseContext context, QueryOptions query) {
+        MongoQueryOptions mongoQueryOptions = new MongoQueryOptions(query);
+        if (mongoQueryOptions.isAggregate()) {
+            return 0;
+        }
+        return withMongoClient(context, mongo -> {
+            DBCollection collection = getCollection((MongoContext) context, mongo);
+            DBObject filter = mongoQueryOptions.getFilter();
+            long count = filter.keySet().isEmpty() ? collection.count() : collection.count(filter);
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        });
+    }
+
+    /**
+     * Runs the query through the {@code explain} command with the {@code executionStats} verbosity, so that the plan
+     * comes with the keys and documents examined by each stage.
+     */
+    @NotNull
+    public DBObject explain(DatabaseContext context, QueryOptions query) {
+        MongoQueryOptions mongoQueryOptions = new MongoQueryOptions(query);
+        return withMongoClient(context, mongo -> {
+            MongoCollection mongoCollection = ((MongoContext) context).getMongoCollection();
+            BasicDBObject explained;
+            if (mongoQueryOptions.isAggregate()) {
+                explained = new BasicDBObject("aggregate", mongoCollection.getName()) //NON-NLS
+                        .append("pipeline", mongoQueryOptions.getLimitedOperations()) //NON-NLS
+                        .append("cursor", new BasicDBObject()); //NON-NLS
+            } else {
+                explained = new BasicDBObject("find", mongoCollection.getName()) //NON-NLS
+                        .append("filter", mongoQueryOptions.getFilter()) //NON-NLS
+                        .append("limit", mongoQueryOptions.getResultLimit()); //NON-NLS
+                if (mongoQueryOptions.getProjection() != null) {
+                    explained.append("projection", mongoQueryOptions.getProjection()); //NON-NLS
+                }
+                if (mongoQueryOptions.getSort() != null) {
+                    explained.append("sort", mongoQueryOptions.getSort()); //NON-NLS
+                }
+            }
+            CommandResult result = mongo.getDB(mongoCollection.getDatabaseName())
+                    .command(new BasicDBObject("explain", explained).append("verbosity", "executionStats")); //NON-NLS
+            result.throwOnError();
+            return result;
         });
     }
 
@@ -230,46 +470,123 @@ public class MongoClient implements DatabaseClient {
     @Override
     @NotNull
     public SearchResult loadRecords(DatabaseContext context, QueryOptions query) {
-        return loadCollectionValues((MongoContext) context, new MongoQueryOptions(query));
+        return loadRecords(context, new MongoQueryOptions(query));
     }
 
     @NotNull
-    private List<DatabaseObject> aggregate(MongoQueryOptions mongoQueryOptions, DBCollection collection) {
-        List<DatabaseObject> result = new ArrayList<>();
-        AggregationOutput aggregate = collection.aggregate(mongoQueryOptions.getOperations());
-        int index = 0;
-        Iterator<DBObject> iterator = aggregate.results().iterator();
-        while (iterator.hasNext() && index++ < mongoQueryOptions.getResultLimit()) {
-            result.add(toDatabaseObject(iterator.next()));
+    public SearchResult loadRecords(DatabaseContext context, MongoQueryOptions mongoQueryOptions) {
+        return loadRecords(context, mongoQueryOptions, batch -> {}, () -> false);
+    }
+
+    /**
+     * Reads the cursor batch by batch, handing each converted batch to {@code batchConsumer} as soon as it arrives.
+     * The cursor is closed as soon as {@code isCancelled} reports a cancellation.
+     */
+    @NotNull
+    public SearchResult loadRecords(DatabaseContext context, MongoQueryOptions mongoQueryOptions,
+                                    Consumer<List<DatabaseObject>> batchConsumer, BooleanSupplier isCancelled) {
+        return loadCollectionValues((MongoContext) context, mongoQueryOptions, batchConsumer, isCancelled);
+    }
+
+    @NotNull
+    private List<DatabaseObject> aggregate(MongoQueryOptions mongoQueryOptions, com.mongodb.client.MongoCollection<RawBsonDocument> collection,
+                                           MongoExtraSettings extraSettings, int batchSize,
+                                           Consumer<List<DatabaseObject>> batchConsumer, BooleanSupplier isCancelled) {
+        List<Bson> pipeline = new ArrayList<>();
+        for (Object operation : mongoQueryOptions.getLimitedOperations()) {
+            pipeline.add(toBson((DBObject) operation));
+        }
+        AggregateIterable<RawBsonDocument> aggregate = collection.aggregate(pipeline)
+                .allowDiskUse(extraSettings.isAllowDiskUse())
+                .batchSize(batchSize);
+        if (extraSettings.getMaxTimeMS() > 0) {
+            aggregate = aggregate.maxTime(extraSettings.getMaxTimeMS(), TimeUnit.MILLISECONDS);
+        }
+        try (MongoCursor<RawBsonDocument> cursor = aggregate.iterator()) {
+            return readBatches(cursor, mongoQueryOptions.getResultLimit(), batchSize, batchConsumer, isCancelled);
+        }
+    }
+
+    @NotNull
+    private List<DatabaseObject> find(MongoQueryOptions mongoQueryOptions, com.mongodb.client.MongoCollection<RawBsonDocument> collection, int batchSize,
+                                      Consumer<List<DatabaseObject>> batchConsumer, BooleanSupplier isCancelled) {
+        int pageIndex = mongoQueryOptions.getPageIndex();
+        MongoPageBoundaries pageBoundaries = mongoQueryOptions.getPageBoundaries();
+        Object lastSeenId = null;
+        if (pageBoundaries != null) {
+            pageBoundaries.useQuery(String.valueOf(mongoQueryOptions.getFilter()) + mongoQueryOptions.getSort() + mongoQueryOptions.getResultLimit());
+            lastSeenId = pageIndex > 0 ? pageBoundaries.getLastId(pageIndex - 1) : null;
+        }
+        List<DatabaseObject> result;
+        try (MongoCursor<RawBsonDocument> cursor = createCursor(mongoQueryOptions, collection, lastSeenId).batchSize(batchSize).iterator()) {
+            result = readBatches(cursor, mongoQueryOptions.getResultLimit(), batchSize, batchConsumer, isCancelled);
+        }
+        if (pageBoundaries != null && !result.isEmpty() && mongoQueryOptions.isKeysetPageable() && !isCancelled.getAsBoolean()) {
+            pageBoundaries.setLastId(pageIndex, unwrap(result.get(result.size() - 1).get(ID_DESCRIPTOR_KEY)));
         }
         return result;
     }
 
     @NotNull
-    private List<DatabaseObject> find(MongoQueryOptions mongoQueryOptions, DBCollection collection) {
+    private static List<DatabaseObject> readBatches(MongoCursor<RawBsonDocument> cursor, int resultLimit, int batchSize,
+                                                    Consumer<List<DatabaseObject>> batchConsumer, BooleanSupplier isCancelled) {
         List<DatabaseObject> result = new ArrayList<>();
-        try (DBCursor cursor = createCursor(mongoQueryOptions, collection)) {
-            int index = 0;
-            while (cursor.hasNext() && index < mongoQueryOptions.getResultLimit()) {
-                result.add(toDatabaseObject(cursor.next()));
-                index++;
+        List<DatabaseObject> batch = new ArrayList<>(batchSize);
+        while (!isCancelled.getAsBoolean() && cursor.hasNext() && result.size() + batch.size() < resultLimit) {
+            batch.add(toDatabaseObject(cursor.next()));
+            if (batch.size() == batchSize) {
+                result.addAll(batch);
+                batchConsumer.accept(batch);
+                batch = new ArrayList<>(batchSize);
             }
         }
+        if (!batch.isEmpty()) {
+            result.addAll(batch);
+            batchConsumer.accept(batch);
+        }
         return result;
     }
 
+    /**
+     * Pages ordered by {@code _id} start right after the last document of the previous page, which the {@code _id}
+     * index resolves directly. Other sort orders, or pages whose predecessor was never loaded, fall back to skipping.
+     */
     @NotNull
-    private DBCursor createCursor(MongoQueryOptions mongoQueryOptions, DBCollection collection) {
-        DBCursor cursor = findCursor(mongoQueryOptions, collection);
-        DBObject sort = mongoQueryOptions.getSort();
-        return sort != null ? cursor.sort(sort) : cursor;
+    private FindIterable<RawBsonDocument> createCursor(MongoQueryOptions mongoQueryOptions, com.mongodb.client.MongoCollection<RawBsonDocument> collection,
+                                                       @Nullable Object lastSeenId) {
+        int skip = mongoQueryOptions.getPageIndex() * mongoQueryOptions.getResultLimit();
+        if (!mongoQueryOptions.isKeysetPageable()) {
+            FindIterable<RawBsonDocument> cursor = findCursor(mongoQueryOptions.getFilter(), mongoQueryOptions, collection);
+            DBObject sort = mongoQueryOptions.getSort();
+            return page(sort != null ? cursor.sort(toBson(sort)) : cursor, skip, mongoQueryOptions.getResultLimit());
+        }
+
+        int direction = mongoQueryOptions.getKeysetDirection();
+        DBObject filter = mongoQueryOptions.getFilter();
+        if (lastSeenId != null) {
+            BasicDBObject afterLastSeen = new BasicDBObject(ID_DESCRIPTOR_KEY, new BasicDBObject(direction > 0 ? "$gt" : "$lt", lastSeenId)); //NON-NLS
+            filter = filter.keySet().isEmpty() ? afterLastSeen : new BasicDBObject("$and", Arrays.asList(filter, afterLastSeen)); //NON-NLS
+            skip = 0;
+        }
+        FindIterable<RawBsonDocument> cursor = findCursor(filter, mongoQueryOptions, collection).sort(new BasicDBObject(ID_DESCRIPTOR_KEY, direction));
+        return page(cursor, skip, mongoQueryOptions.getResultLimit());
     }
 
     @NotNull
-    private DBCursor findCursor(MongoQueryOptions mongoQueryOptions, DBCollection collection) {
-        DBObject filter = mongoQueryOptions.getFilter();
+    private static FindIterable<RawBsonDocument> page(FindIterable<RawBsonDocument> cursor, int skip, int limit) {
+        return (skip > 0 ? cursor.skip(skip) : cursor).limit(limit);
+    }
+
+    @NotNull
+    private FindIterable<RawBsonDocument> findCursor(DBObject filter, MongoQueryOptions mongoQueryOptions, com.mongodb.client.MongoCollection<RawBsonDocument> collection) {
         DBObject projection = mongoQueryOptions.getProjection();
-        return projection == null ? collection.find(filter) : collection.find(filter, projection);
+        FindIterable<RawBsonDocument> cursor = collection.find(toBson(filter));
+        return projection == null ? cursor : cursor.projection(toBson(projection));
+    }
+
+    @NotNull
+    private static Bson toBson(DBObject dbObject) {
+        return dbObject instanceof Bson ? (Bson) dbObject : new BasicDBObject(dbObject.toMap());
     }
 
     @NotNull
@@ -296,6 +613,10 @@ public class MongoClient implements DatabaseClient {
             uriBuilder.sslEnabled();
         }
 
+        uriBuilder.setMaxPoolSize(mongoExtraSettings.getMaxPoolSize());
+        uriBuilder.setConnectTimeout(mongoExtraSettings.getConnectTimeout());
+        uriBuilder.setSocketTimeout(mongoExtraSettings.getSocketTimeout());
+
         return new com.mongodb.MongoClient(new MongoClientURI(uriBuilder.build()));
     }
 
@@ -307,8 +628,7 @@ public class MongoClient implements DatabaseClient {
     @Override
     @NotNull
     public MongoCollection createFolder(ServerConfiguration serverConfiguration, String parentFolderName, String folderName) {
-        com.mongodb.client.MongoDatabase database = createMongoClient(serverConfiguration).getDatabase(parentFolderName);
-        database.createCollection(folderName);
+        withMongoClient(serverConfiguration, mongo -> mongo.getDatabase(parentFolderName).createCollection(folderName));
         return new MongoCollection(folderName, parentFolderName);
     }
 
@@ -324,14 +644,22 @@ public class MongoClient implements DatabaseClient {
     }
 
     private void withMongoClient(ServerConfiguration serverConfiguration, Consumer<com.mongodb.MongoClient> consumer) {
-        try (com.mongodb.MongoClient mongo = createMongoClient(serverConfiguration)) {
+        withPooledMongoClient(serverConfiguration, mongo -> {
             consumer.accept(mongo);
-        }
+            return null;
+        });
     }
 
     private <T> T withMongoClient(DatabaseContext context, Function<com.mongodb.MongoClient, T> function) {
-        try (com.mongodb.MongoClient mongo = createMongoClient(context.getServerConfiguration())) {
-            return function.apply(mongo);
+        return withPooledMongoClient(context.getServerConfiguration(), function);
+    }
+
+    private <T> T withPooledMongoClient(ServerConfiguration serverConfiguration, Function<com.mongodb.MongoClient, T> function) {
+        MongoClientRegistry.PooledClient pooledClient = clientRegistry.acquire(serverConfiguration);
+        try {
+            return function.apply(pooledClient.getClient());
+        } finally {
+            clientRegistry.release(pooledClient);
         }
     }
 }
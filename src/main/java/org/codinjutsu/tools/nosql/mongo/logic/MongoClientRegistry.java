@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.mongo.logic;
+
+import com.intellij.concurrency.JobScheduler;
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.nosql.commons.configuration.ServerConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps one pooled driver client per server configuration so that successive operations share
+ * the same connection pool and topology instead of reconnecting each time.
+ */
+class MongoClientRegistry {
+
+    private static final Logger LOG = Logger.getLogger(MongoClientRegistry.class);
+    private static final long EVICTION_PERIOD_IN_SECONDS = 30;
+
+    private final ConcurrentMap<ServerConfiguration, PooledClient> clients = new ConcurrentHashMap<>();
+    private final Function<ServerConfiguration, com.mongodb.MongoClient> clientFactory;
+
+    private ScheduledFuture<?> evictionTask;
+
+    MongoClientRegistry(Function<ServerConfiguration, com.mongodb.MongoClient> clientFactory) {
+        this.clientFactory = clientFactory;
+    }
+
+    @NotNull
+    PooledClient acquire(ServerConfiguration configuration) {
+        PooledClient pooledClient = clients.compute(configuration, (key, current) -> {
+            PooledClient result = current != null ? current : new PooledClient(clientFactory.apply(key), getIdleTimeout(key));
+            result.acquire();
+            return result;
+        });
+        scheduleEviction();
+        return pooledClient;
+    }
+
+    void release(PooledClient pooledClient) {
+        pooledClient.release();
+    }
+
+    void evictIdleClients() {
+        long now = System.currentTimeMillis();
+        for (ServerConfiguration configuration : clients.keySet()) {
+            clients.computeIfPresent(configuration, (key, current) -> current.retireIfIdle(now) ? null : current);
+        }
+    }
+
+    void closeAll() {
+        for (ServerConfiguration configuration : clients.keySet()) {
+            PooledClient pooledClient = clients.remove(configuration);
+            if (pooledClient != null) {
+                pooledClient.retire();
+            }
+        }
+    }
+
+    synchronized void dispose() {
+        if (evictionTask != null) {
+            evictionTask.cancel(false);
+            evictionTask = null;
+        }
+        closeAll();
+    }
+
+    private synchronized void scheduleEviction() {
+        if (evictionTask == null) {
+            evictionTask = JobScheduler.getScheduler().scheduleWithFixedDelay(
+                    this::evictIdleClients, EVICTION_PERIOD_IN_SECONDS, EVICTION_PERIOD_IN_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private static long getIdleTimeout(ServerConfiguration configuration) {
+        MongoExtraSettings extraSettings = new MongoExtraSettings(configuration.getAuthenticationSettings().getExtras());
+        return TimeUnit.SECONDS.toMillis(extraSettings.getClientIdleTimeout());
+    }
+
+    static class PooledClient {
+
+        private final com.mongodb.MongoClient client;
+        private final long idleTimeout;
+        private int inUse = 0;
+        private long lastUsed = System.currentTimeMillis();
+        private boolean retired = false;
+
+        private PooledClient(com.mongodb.MongoClient client, long idleTimeout) {
+            this.client = client;
+            this.idleTimeout = idleTimeout;
+        }
+
+        @NotNull
+        com.mongodb.MongoClient getClient() {
+            return client;
+        }
+
+        private synchronized void acquire() {
+            inUse++;
+        }
+
+        private synchronized void release() {
+            inUse--;
+            lastUsed = System.currentTimeMillis();
+            if (retired && inUse == 0) {
+                close();
+            }
+        }
+
+        private synchronized boolean retireIfIdle(long now) {
+            if (inUse > 0 || now - lastUsed < idleTimeout) {
+                return false;
+            }
+            retire();
+            return true;
+        }
+
+        private synchronized void retire() {
+            retired = true;
+            if (inUse == 0) {
+                close();
+            }
+        }
+
+        private void close() {
+            try {
+                client.close();
+            } catch (RuntimeException ex) {
+                LOG.warn("Error when closing Mongo client", ex); //NON-NLS
+            }
+        }
+    }
+}
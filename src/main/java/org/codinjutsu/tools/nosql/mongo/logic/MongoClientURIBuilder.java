@@ -35,6 +35,9 @@ class MongoClientURIBuilder {
     private String authDatabase;
     private AuthenticationMechanism authenticationMecanism;
     private boolean sslEnabled = false;
+    private Integer maxPoolSize;
+    private Integer connectTimeout;
+    private Integer socketTimeout;
 
     private MongoClientURIBuilder() {
     }
@@ -74,6 +77,18 @@ class MongoClientURIBuilder {
         if (sslEnabled) {
             options.put("ssl", Boolean.TRUE.toString()); //NON-NLS
         }
+
+        if (maxPoolSize != null) {
+            options.put("maxPoolSize", String.valueOf(maxPoolSize)); //NON-NLS
+        }
+
+        if (connectTimeout != null) {
+            options.put("connectTimeoutMS", String.valueOf(connectTimeout)); //NON-NLS
+        }
+
+        if (socketTimeout != null) {
+            options.put("socketTimeoutMS", String.valueOf(socketTimeout)); //NON-NLS
+        }
         if (options.size() == 0) {
             return strBuilder.toString();
         }
@@ -90,6 +105,21 @@ class MongoClientURIBuilder {
         return this;
     }
 
+    MongoClientURIBuilder setMaxPoolSize(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+        return this;
+    }
+
+    MongoClientURIBuilder setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    MongoClientURIBuilder setSocketTimeout(int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+        return this;
+    }
+
     private static String buildOptions(Map<String, String> options) {
         List<String> optionList = new LinkedList<String>();
         for (Map.Entry<String, String> keyValue : options.entrySet()) {
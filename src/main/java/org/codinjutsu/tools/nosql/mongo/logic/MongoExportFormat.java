@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.nosql.mongo.logic;
+
+import org.jetbrains.annotations.NotNull;
+
+public enum MongoExportFormat {
+
+    NDJSON("ndjson"), //NON-NLS
+    CSV("csv"), //NON-NLS
+    BSON("bson"); //NON-NLS
+
+    private final String extension;
+
+    MongoExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @return the format matching the extension of the file name, one JSON document per line by default.
+     */
+    @NotNull
+    public static MongoExportFormat fromFileName(String fileName) {
+        String lowerCaseName = fileName.toLowerCase();
+        for (MongoExportFormat format : values()) {
+            if (lowerCaseName.endsWith("." + format.extension)) {
+                return format;
+            }
+        }
+        return NDJSON;
+    }
+}
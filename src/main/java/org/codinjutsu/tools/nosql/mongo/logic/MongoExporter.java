@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.nosql.mongo.logic;
+
+import com.mongodb.DBObject;
+import com.mongodb.client.MongoCursor;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.ByteBuf;
+import org.bson.RawBsonDocument;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Writes the documents of a cursor to a file as they arrive, so that only the current batch of the cursor is held in
+ * memory whatever the size of the result.
+ */
+class MongoExporter {
+
+    private static final JsonWriterSettings JSON_SETTINGS = JsonWriterSettings.builder().outputMode(JsonMode.RELAXED).build();
+    private static final long PROGRESS_INTERVAL_MILLIS = 500;
+
+    private final Consumer<String> progressConsumer;
+    private final BooleanSupplier isCancelled;
+    private long exported;
+    private long startTime;
+    private long lastProgressTime;
+
+    MongoExporter(Consumer<String> progressConsumer, BooleanSupplier isCancelled) {
+        this.progressConsumer = progressConsumer;
+        this.isCancelled = isCancelled;
+    }
+
+    /**
+     * @param projection the projection of the query: the fields it includes are the CSV columns. Without projection,
+     *                   the columns are the fields of the first document.
+     * @return the number of documents written
+     */
+    long export(MongoCursor<RawBsonDocument> cursor, File file, MongoExportFormat format, @Nullable DBObject projection) throws IOException {
+        startTime = System.nanoTime();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()))) {
+            if (format == MongoExportFormat.BSON) {
+                copy(cursor, document -> {
+                    ByteBuf buffer = document.getByteBuffer();
+                    out.write(buffer.array(), buffer.position(), buffer.remaining());
+                });
+                return exported;
+            }
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                if (format == MongoExportFormat.CSV) {
+                    exportCsv(cursor, writer, projection);
+                } else {
+                    copy(cursor, document -> {
+                        writer.write(document.toJson(JSON_SETTINGS));
+                        writer.write('\n');
+                    });
+                }
+            }
+        }
+        return exported;
+    }
+
+    private void exportCsv(MongoCursor<RawBsonDocument> cursor, Writer writer, @Nullable DBObject projection) throws IOException {
+        List<String> columns = getIncludedFields(projection);
+        if (!columns.isEmpty()) {
+            writeCsvLine(writer, columns);
+        }
+        copy(cursor, document -> {
+            if (columns.isEmpty()) {
+                columns.addAll(document.keySet());
+                writeCsvLine(writer, columns);
+            }
+            List<String> values = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                values.add(toCsvValue(getValue(document, column)));
+            }
+            writeCsvLine(writer, values);
+        });
+    }
+
+    private void copy(MongoCursor<RawBsonDocument> cursor, DocumentWriter documentWriter) throws IOException {
+        while (!isCancelled.getAsBoolean() && cursor.hasNext()) {
+            documentWriter.write(cursor.next());
+            exported++;
+            long now = System.nanoTime();
+            if (TimeUnit.NANOSECONDS.toMillis(now - lastProgressTime) >= PROGRESS_INTERVAL_MILLIS) {
+                lastProgressTime = now;
+                long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(now - startTime));
+                progressConsumer.accept(String.format("%d documents exported (%d documents/s)", exported, exported * 1000 / elapsedMillis)); //NON-NLS
+            }
+        }
+    }
+
+    /**
+     * @return the fields included by the projection, {@code _id} first unless excluded; nothing for an exclusion
+     * projection.
+     */
+    @NotNull
+    static List<String> getIncludedFields(@Nullable DBObject projection) {
+        List<String> fields = new ArrayList<>();
+        if (projection == null) {
+            return fields;
+        }
+        for (String key : projection.keySet()) {
+            if (!MongoClient.ID_DESCRIPTOR_KEY.equals(key) && isIncluded(projection.get(key))) {
+                fields.add(key);
+            }
+        }
+        if (!fields.isEmpty() && isIncluded(projection.containsField(MongoClient.ID_DESCRIPTOR_KEY) ? projection.get(MongoClient.ID_DESCRIPTOR_KEY) : true)) {
+            fields.add(0, MongoClient.ID_DESCRIPTOR_KEY);
+        }
+        return fields;
+    }
+
+    private static boolean isIncluded(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        return !Boolean.FALSE.equals(value);
+    }
+
+    /**
+     * Follows dotted paths through embedded documents and array indexes, like the {@code mongoexport} field list.
+     */
+    @Nullable
+    static BsonValue getValue(BsonDocument document, String path) {
+        BsonValue value = document;
+        for (String key : path.split("\\.")) {
+            if (value.isDocument()) {
+                value = value.asDocument().get(key);
+            } else if (value.isArray() && key.matches("\\d+") && Integer.parseInt(key) < value.asArray().size()) {
+                value = value.asArray().get(Integer.parseInt(key));
+            } else {
+                return null;
+            }
+            if (value == null) {
+                return null;
+            }
+        }
+        return value;
+    }
+
+    @NotNull
+    static String toCsvValue(@Nullable BsonValue value) {
+        if (value == null || value.isNull()) {
+            return "";
+        }
+        switch (value.getBsonType()) {
+            case STRING:
+                return value.asString().getValue();
+            case OBJECT_ID:
+                return value.asObjectId().getValue().toHexString();
+            case INT32:
+                return String.valueOf(value.asInt32().getValue());
+            case INT64:
+                return String.valueOf(value.asInt64().getValue());
+            case DOUBLE:
+                return String.valueOf(value.asDouble().getValue());
+            case DECIMAL128:
+                return value.asDecimal128().getValue().toString();
+            case BOOLEAN:
+                return String.valueOf(value.asBoolean().getValue());
+            case DATE_TIME:
+                return Instant.ofEpochMilli(value.asDateTime().getValue()).toString();
+            default:
+                return toJson(value);
+        }
+    }
+
+    /**
+     * Only documents can be written as JSON by the driver: the value is written as the single field of a wrapping
+     * document, which is then stripped.
+     */
+    @NotNull
+    private static String toJson(BsonValue value) {
+        String json = new BsonDocument("v", value).toJson(JSON_SETTINGS); //NON-NLS
+        return json.substring(json.indexOf(':') + 1, json.lastIndexOf('}')).trim();
+    }
+
+    private static void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values.get(i)));
+        }
+        writer.write('\n');
+    }
+
+    @NotNull
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private interface DocumentWriter {
+        void write(RawBsonDocument document) throws IOException;
+    }
+}
@@ -28,6 +28,21 @@ public class MongoExtraSettings {
     private static final String SSL = "ssl"; //NON-NLS
     private static final String AUTH_DATABASE = "authDatabase"; //NON-NLS
     private static final String AUTH_MECHANISM = "authMechanism"; //NON-NLS
+    private static final String MAX_POOL_SIZE = "maxPoolSize"; //NON-NLS
+    private static final String CONNECT_TIMEOUT = "connectTimeout"; //NON-NLS
+    private static final String SOCKET_TIMEOUT = "socketTimeout"; //NON-NLS
+    private static final String CLIENT_IDLE_TIMEOUT = "clientIdleTimeout"; //NON-NLS
+    private static final String BATCH_SIZE = "batchSize"; //NON-NLS
+    private static final String ALLOW_DISK_USE = "allowDiskUse"; //NON-NLS
+    private static final String MAX_TIME_MS = "maxTimeMS"; //NON-NLS
+
+    private static final int DEFAULT_MAX_POOL_SIZE = 10;
+    private static final int DEFAULT_CONNECT_TIMEOUT = 10000;
+    private static final int DEFAULT_SOCKET_TIMEOUT = 0;
+    private static final int DEFAULT_CLIENT_IDLE_TIMEOUT = 300;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_MAX_TIME_MS = 0;
+
     private Map<String, String> extras = new HashMap<>();
 
     public MongoExtraSettings() {
@@ -52,6 +67,50 @@ public class MongoExtraSettings {
         return isSsl == null ? false : Boolean.valueOf(isSsl);
     }
 
+    public int getMaxPoolSize() {
+        return getInt(MAX_POOL_SIZE, DEFAULT_MAX_POOL_SIZE);
+    }
+
+    public int getConnectTimeout() {
+        return getInt(CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    public int getSocketTimeout() {
+        return getInt(SOCKET_TIMEOUT, DEFAULT_SOCKET_TIMEOUT);
+    }
+
+    public int getClientIdleTimeout() {
+        return getInt(CLIENT_IDLE_TIMEOUT, DEFAULT_CLIENT_IDLE_TIMEOUT);
+    }
+
+    public int getBatchSize() {
+        return getInt(BATCH_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    public boolean isAllowDiskUse() {
+        String allowDiskUse = extras.get(ALLOW_DISK_USE);
+        return allowDiskUse == null || Boolean.valueOf(allowDiskUse);
+    }
+
+    /**
+     * @return the time limit of aggregations in milliseconds, 0 for none
+     */
+    public int getMaxTimeMS() {
+        return getInt(MAX_TIME_MS, DEFAULT_MAX_TIME_MS);
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = extras.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
     public void setAuthenticationDatabase(String authenticationDatabase) {
         extras.put(AUTH_DATABASE, authenticationDatabase);
     }
@@ -66,6 +125,34 @@ public class MongoExtraSettings {
         extras.put(SSL, String.valueOf(isSsl));
     }
 
+    public void setMaxPoolSize(int maxPoolSize) {
+        extras.put(MAX_POOL_SIZE, String.valueOf(maxPoolSize));
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        extras.put(CONNECT_TIMEOUT, String.valueOf(connectTimeout));
+    }
+
+    public void setSocketTimeout(int socketTimeout) {
+        extras.put(SOCKET_TIMEOUT, String.valueOf(socketTimeout));
+    }
+
+    public void setClientIdleTimeout(int clientIdleTimeout) {
+        extras.put(CLIENT_IDLE_TIMEOUT, String.valueOf(clientIdleTimeout));
+    }
+
+    public void setBatchSize(int batchSize) {
+        extras.put(BATCH_SIZE, String.valueOf(batchSize));
+    }
+
+    public void setAllowDiskUse(boolean allowDiskUse) {
+        extras.put(ALLOW_DISK_USE, String.valueOf(allowDiskUse));
+    }
+
+    public void setMaxTimeMS(int maxTimeMS) {
+        extras.put(MAX_TIME_MS, String.valueOf(maxTimeMS));
+    }
+
     public Map<String, String> get() {
         return extras;
     }
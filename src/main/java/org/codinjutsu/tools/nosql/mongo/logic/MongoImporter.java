@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.nosql.mongo.logic;
+
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.apache.log4j.Logger;
+import org.bson.RawBsonDocument;
+import org.codinjutsu.tools.nosql.commons.view.filedialogs.ImportResultState;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Streams the documents of a JSON file into a collection. The file is parsed while the previous batches are written by
+ * a fixed number of writers; unordered inserts let the server go on after a failing document, which is counted instead
+ * of aborting the import.
+ */
+class MongoImporter {
+
+    private static final Logger LOG = Logger.getLogger(MongoImporter.class);
+
+    /**
+     * Batches parsed ahead of the writers, per writer, bounding the memory used by an import.
+     */
+    static final int PENDING_BATCHES_PER_WRITER = 2;
+
+    private final MongoCollection<RawBsonDocument> collection;
+    private final int batchSize;
+    private final int parallelism;
+
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicReference<String> firstError = new AtomicReference<>();
+    private long startTime;
+
+    MongoImporter(MongoCollection<RawBsonDocument> collection, int batchSize, int parallelism) {
+        this.collection = collection;
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @NotNull
+    ImportResultState importFile(File file, Consumer<String> progressConsumer, BooleanSupplier isCancelled) throws IOException {
+        startTime = System.nanoTime();
+        int maxPendingBatches = parallelism * PENDING_BATCHES_PER_WRITER;
+        Semaphore pendingBatches = new Semaphore(maxPendingBatches);
+        // a bounded view of the shared application pool, the writers do not own any thread
+        ExecutorService writers = AppExecutorUtil.createBoundedApplicationPoolExecutor("Mongo import", parallelism); //NON-NLS
+        try (MongoJsonDocumentReader reader = new MongoJsonDocumentReader(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
+            List<RawBsonDocument> batch = new ArrayList<>(batchSize);
+            long index = 0;
+            String json;
+            while (!isCancelled.getAsBoolean() && (json = reader.next()) != null) {
+                index++;
+                try {
+                    batch.add(RawBsonDocument.parse(json));
+                } catch (RuntimeException e) {
+                    fail(1, "document " + index + ": " + e.getMessage()); //NON-NLS
+                }
+                if (batch.size() == batchSize) {
+                    submit(writers, pendingBatches, batch, progressConsumer);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty() && !isCancelled.getAsBoolean()) {
+                submit(writers, pendingBatches, batch, progressConsumer);
+            }
+        } finally {
+            // waits for the batches already submitted, the threads of the shared pool are not interrupted
+            pendingBatches.acquireUninterruptibly(maxPendingBatches);
+        }
+
+        String message = describe() + (firstError.get() != null ? ". First error: " + firstError.get() : ""); //NON-NLS
+        LOG.info("Import of " + file.getName() + " into " + collection.getNamespace() + ": " + message); //NON-NLS
+        return new ImportResultState(failed.get() == 0 && !isCancelled.getAsBoolean(), message, imported.get(), failed.get());
+    }
+
+    private void submit(ExecutorService writers, Semaphore pendingBatches, List<RawBsonDocument> batch, Consumer<String> progressConsumer) {
+        pendingBatches.acquireUninterruptibly();
+        writers.execute(() -> {
+            try {
+                insert(batch);
+            } finally {
+                pendingBatches.release();
+                progressConsumer.accept(describe());
+            }
+        });
+    }
+
+    private void insert(List<RawBsonDocument> batch) {
+        try {
+            collection.insertMany(batch, new InsertManyOptions().ordered(false));
+            imported.addAndGet(batch.size());
+        } catch (MongoBulkWriteException e) {
+            int errors = e.getWriteErrors().size();
+            imported.addAndGet(batch.size() - errors);
+            fail(errors, e.getWriteErrors().isEmpty() ? e.getMessage() : e.getWriteErrors().get(0).getMessage());
+        } catch (MongoException e) {
+            fail(batch.size(), e.getMessage());
+        }
+    }
+
+    private void fail(int count, String error) {
+        failed.addAndGet(count);
+        firstError.compareAndSet(null, error);
+    }
+
+    private String describe() {
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return String.format("%d documents imported, %d failed in %.1f s (%d documents/s)", //NON-NLS
+                imported.get(), failed.get(), elapsedMillis / 1000.0, imported.get() * 1000 / elapsedMillis);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.nosql.mongo.logic;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a JSON file into the text of its documents without holding more than one document in memory. It reads a
+ * single JSON array of documents (as written by {@code mongoexport --jsonArray}) as well as documents written one after
+ * the other, one per line or pretty-printed (as written by {@code mongoexport} by default). The text of each document
+ * is left to the Extended JSON parser of the driver.
+ */
+class MongoJsonDocumentReader implements Closeable {
+
+    private static final int END = -1;
+
+    private final Reader reader;
+    private final StringBuilder document = new StringBuilder();
+    private boolean started;
+    private boolean inArray;
+    private int pending = END;
+    private boolean hasPending;
+
+    MongoJsonDocumentReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the text of the next document, or {@code null} once the input is exhausted. A value which is not a
+     * document is returned as is, so that the parser reports it.
+     */
+    @Nullable
+    String next() throws IOException {
+        int c = skipWhitespace();
+        if (!started) {
+            started = true;
+            if (c == '[') {
+                inArray = true;
+                c = skipWhitespace();
+            }
+        }
+        if (inArray && c == ',') {
+            c = skipWhitespace();
+        }
+        if (c == END || (inArray && c == ']')) {
+            return null;
+        }
+
+        document.setLength(0);
+        int depth = 0;
+        int quote = 0;
+        boolean escaped = false;
+        while (c != END) {
+            if (quote == 0 && depth == 0 && document.length() > 0 && (c == ',' || c == ']' || c == '\n')) {
+                unread(c);
+                break;
+            }
+            document.append((char) c);
+            if (quote != 0) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 0) {
+                    break;
+                }
+            }
+            c = read();
+        }
+        return document.toString().trim();
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while (c != END && Character.isWhitespace(c)) {
+            c = read();
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (hasPending) {
+            hasPending = false;
+            return pending;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+        hasPending = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
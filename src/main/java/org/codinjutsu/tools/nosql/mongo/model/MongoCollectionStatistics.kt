@@ -0,0 +1,32 @@
+package org.codinjutsu.tools.nosql.mongo.model
+
+import org.bson.Document
+
+/**
+ * The metadata `collStats` keeps about a collection: reading it does not scan any document.
+ */
+data class MongoCollectionStatistics(val documentCount: Long, val dataSize: Long, val storageSize: Long,
+                                     val indexSize: Long, val indexCount: Int,
+                                     val loadedAt: Long = System.currentTimeMillis()) {
+
+    val totalSize: Long
+        get() = storageSize + indexSize
+
+    fun isExpired(ttlMillis: Long) = System.currentTimeMillis() - loadedAt >= ttlMillis
+
+    companion object {
+
+        /**
+         * Parses the reply of `collStats`, whose `count` is the same metadata count `estimatedDocumentCount` returns.
+         */
+        @JvmStatic
+        fun parse(collStats: Document) = MongoCollectionStatistics(
+                collStats.longValue("count"),
+                collStats.longValue("size"),
+                collStats.longValue("storageSize"),
+                collStats.longValue("totalIndexSize"),
+                (collStats["nindexes"] as? Number)?.toInt() ?: 0)
+
+        private fun Document.longValue(key: String) = (this[key] as? Number)?.toLong() ?: 0L
+    }
+}
@@ -3,6 +3,12 @@ package org.codinjutsu.tools.nosql.mongo.model
 import org.codinjutsu.tools.nosql.commons.configuration.ServerConfiguration
 import org.codinjutsu.tools.nosql.commons.model.AbstractDatabaseContext
 import org.codinjutsu.tools.nosql.mongo.logic.MongoClient
+import org.codinjutsu.tools.nosql.mongo.view.MongoImportPanelSettings
 
 internal class MongoContext(mongoClient: MongoClient, serverConfiguration: ServerConfiguration, val mongoCollection: MongoCollection) :
-        AbstractDatabaseContext(mongoClient, serverConfiguration)
+        AbstractDatabaseContext(mongoClient, serverConfiguration) {
+
+    private val importPanelSettings by lazy { MongoImportPanelSettings() }
+
+    override fun getImportPanelSettings() = importPanelSettings
+}
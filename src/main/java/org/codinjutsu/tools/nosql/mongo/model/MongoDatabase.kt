@@ -19,13 +19,33 @@ package org.codinjutsu.tools.nosql.mongo.model
 import org.codinjutsu.tools.nosql.commons.model.Database
 import java.util.*
 
-class MongoDatabase(name: String, collectionNames: Set<String> = emptySet()) : Database(name) {
+/**
+ * A database listed without its collections is not loaded yet: its collections are set once fetched, or the reason
+ * why they could not be fetched.
+ */
+class MongoDatabase(name: String, collectionNames: Set<String>? = emptySet()) : Database(name) {
+
+    @Volatile
+    private var collections: TreeSet<MongoCollection>? = collectionNames?.let { toCollections(it) }
+
+    @Volatile
+    var loadError: String? = null
 
-    private val collections = TreeSet<MongoCollection>(collectionNames.map { MongoCollection(it, name) })
+    val isLoaded: Boolean
+        get() = collections != null || loadError != null
 
-    fun getCollections() = collections
+    fun getCollections(): Set<MongoCollection> = collections ?: emptySet<MongoCollection>()
 
+    fun setCollections(collectionNames: Collection<String>) {
+        collections = toCollections(collectionNames)
+    }
+
+    /**
+     * A database not loaded yet gets the collection with the others once they are listed.
+     */
     fun addCollection(collection: MongoCollection) {
-        collections.add(collection)
+        collections?.add(collection)
     }
+
+    private fun toCollections(collectionNames: Collection<String>) = TreeSet<MongoCollection>(collectionNames.map { MongoCollection(it, name) })
 }
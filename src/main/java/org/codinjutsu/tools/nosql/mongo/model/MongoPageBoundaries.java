@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.nosql.mongo.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Remembers the last {@code _id} of every page already loaded, so that the following page can be requested with
+ * a range condition on {@code _id} instead of skipping over all the preceding documents.
+ */
+public class MongoPageBoundaries {
+
+    private final Map<Integer, Object> lastIds = new HashMap<>();
+    private String query;
+
+    /**
+     * Forgets the known boundaries when the filter, sort or page size changed since the last page was loaded.
+     */
+    public synchronized void useQuery(String query) {
+        if (!Objects.equals(this.query, query)) {
+            this.query = query;
+            lastIds.clear();
+        }
+    }
+
+    public synchronized Object getLastId(int pageIndex) {
+        return lastIds.get(pageIndex);
+    }
+
+    public synchronized void setLastId(int pageIndex, Object lastId) {
+        lastIds.put(pageIndex, lastId);
+    }
+}
@@ -22,8 +22,10 @@ import com.mongodb.DBObject;
 import com.mongodb.util.JSON;
 import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.nosql.NoSqlException;
+import org.codinjutsu.tools.nosql.commons.view.panel.query.Page;
 import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptions;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -32,6 +34,8 @@ public class MongoQueryOptions {
     private static final int DEFAULT_RESULT_LIMIT = 300;
 
     private static final BasicDBObject EMPTY_FILTER = new BasicDBObject();
+    private static final String ID_KEY = "_id"; //NON-NLS
+    private static final String LIMIT_OPERATOR = "$limit"; //NON-NLS
     private final List<Object> operations = new LinkedList<Object>();
 
     private DBObject filter = EMPTY_FILTER;
@@ -40,6 +44,9 @@ public class MongoQueryOptions {
 
     private int resultLimit = DEFAULT_RESULT_LIMIT;
 
+    private Page page;
+    private MongoPageBoundaries pageBoundaries;
+
     public MongoQueryOptions(QueryOptions queryOptions) {
         if (queryOptions.getOperations() != null) {
             setOperations(queryOptions.getOperations());
@@ -48,6 +55,7 @@ public class MongoQueryOptions {
         setProjection(queryOptions.getProjection());
         setSort(queryOptions.getSort());
         setResultLimit(queryOptions.getResultLimit());
+        setPage(queryOptions.getPage());
     }
 
     public boolean isAggregate() {
@@ -58,6 +66,26 @@ public class MongoQueryOptions {
         return operations;
     }
 
+    /**
+     * The pipeline ending with a {@code $limit} on the result limit, so that the server stops producing documents that
+     * would not be displayed. Pipelines writing their output to a collection are left untouched.
+     */
+    public List<Object> getLimitedOperations() {
+        List<Object> limitedOperations = new ArrayList<>(operations);
+        if (!operations.isEmpty()) {
+            DBObject lastOperation = (DBObject) operations.get(operations.size() - 1);
+            if (lastOperation.containsField("$out") || lastOperation.containsField("$merge")) { //NON-NLS
+                return limitedOperations;
+            }
+            Object limit = lastOperation.get(LIMIT_OPERATOR);
+            if (limit instanceof Number && ((Number) limit).intValue() <= resultLimit) {
+                return limitedOperations;
+            }
+        }
+        limitedOperations.add(new BasicDBObject(LIMIT_OPERATOR, resultLimit));
+        return limitedOperations;
+    }
+
     public void setOperations(String aggregateQuery) {
         operations.clear();
         BasicDBList operations = (BasicDBList) JSON.parse(aggregateQuery);
@@ -106,4 +134,47 @@ public class MongoQueryOptions {
     public void setResultLimit(int resultLimit) {
         this.resultLimit = resultLimit;
     }
+
+    public Page getPage() {
+        return page;
+    }
+
+    public void setPage(Page page) {
+        this.page = page;
+    }
+
+    public int getPageIndex() {
+        return page != null ? page.getPageIndex() : 0;
+    }
+
+    public MongoPageBoundaries getPageBoundaries() {
+        return pageBoundaries;
+    }
+
+    public void setPageBoundaries(MongoPageBoundaries pageBoundaries) {
+        this.pageBoundaries = pageBoundaries;
+    }
+
+    /**
+     * Pages can be chained on {@code _id} only when the documents are ordered by it and it is part of the results.
+     */
+    public boolean isKeysetPageable() {
+        if (isAggregate() || (projection != null && isExcluded(projection.get(ID_KEY)))) {
+            return false;
+        }
+        return sort == null || sort.keySet().isEmpty() || (sort.keySet().size() == 1 && sort.containsField(ID_KEY));
+    }
+
+    /**
+     * @return 1 when pages follow ascending {@code _id} values (also the default order), -1 otherwise
+     */
+    public int getKeysetDirection() {
+        Object direction = sort != null ? sort.get(ID_KEY) : null;
+        return direction instanceof Number && ((Number) direction).intValue() < 0 ? -1 : 1;
+    }
+
+    private static boolean isExcluded(Object projectionValue) {
+        return Boolean.FALSE.equals(projectionValue)
+                || (projectionValue instanceof Number && ((Number) projectionValue).intValue() == 0);
+    }
 }
@@ -0,0 +1,32 @@
+package org.codinjutsu.tools.nosql.mongo.model.explorer
+
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.ui.ColoredTreeCellRenderer
+import com.intellij.ui.SimpleTextAttributes.GRAYED_ATTRIBUTES
+import org.codinjutsu.tools.nosql.commons.model.explorer.CommonLeafFolder
+import org.codinjutsu.tools.nosql.commons.model.explorer.FolderType.MONGO_DATABASE
+import org.codinjutsu.tools.nosql.mongo.logic.MongoClient
+import org.codinjutsu.tools.nosql.mongo.model.MongoCollection
+import org.codinjutsu.tools.nosql.mongo.model.MongoCollectionStatistics
+import org.codinjutsu.tools.nosql.mongo.model.MongoDatabase
+import org.codinjutsu.tools.nosql.mongo.view.editor.MongoObjectFile
+
+internal class MongoCollectionFolder(data: MongoCollection, override val parent: MongoDatabaseFolder) :
+        CommonLeafFolder<MongoCollection, MongoDatabase>(data, parent, { it == MONGO_DATABASE }, {
+            MongoObjectFile(it, parent.databaseServer.configuration, data)
+        }) {
+
+    val statistics: MongoCollectionStatistics?
+        get() = (parent.parent.databaseClient as MongoClient).getCollectionStatistics(databaseServer.configuration, data)
+
+    override fun updateTreeCell(renderer: ColoredTreeCellRenderer) {
+        super.updateTreeCell(renderer)
+        val statistics = statistics ?: return
+        renderer.apply {
+            append(" ${statistics.documentCount} docs, ${StringUtil.formatFileSize(statistics.totalSize)}", GRAYED_ATTRIBUTES)
+            toolTipText = "Data: ${StringUtil.formatFileSize(statistics.dataSize)}, " +
+                    "storage: ${StringUtil.formatFileSize(statistics.storageSize)}, " +
+                    "indexes: ${StringUtil.formatFileSize(statistics.indexSize)} (${statistics.indexCount})"
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package org.codinjutsu.tools.nosql.mongo.model.explorer
 
 import com.intellij.openapi.project.Project
+import com.intellij.ui.ColoredTreeCellRenderer
+import com.intellij.ui.SimpleTextAttributes.ERROR_ATTRIBUTES
+import com.intellij.ui.SimpleTextAttributes.GRAYED_ATTRIBUTES
 import org.codinjutsu.tools.nosql.commons.model.DatabaseServer
 import org.codinjutsu.tools.nosql.commons.model.explorer.CommonLeafFolder
 import org.codinjutsu.tools.nosql.commons.model.explorer.DatabaseFolder
@@ -9,27 +12,21 @@ import org.codinjutsu.tools.nosql.commons.model.explorer.FolderType
 import org.codinjutsu.tools.nosql.commons.model.explorer.FolderType.MONGO_COLLECTION
 import org.codinjutsu.tools.nosql.commons.model.explorer.FolderType.MONGO_DATABASE
 import org.codinjutsu.tools.nosql.commons.view.editor.NoSqlDatabaseObjectFile
+import org.codinjutsu.tools.nosql.mongo.logic.MongoClient
 import org.codinjutsu.tools.nosql.mongo.model.MongoCollection
 import org.codinjutsu.tools.nosql.mongo.model.MongoDatabase
-import org.codinjutsu.tools.nosql.mongo.view.editor.MongoObjectFile
 import javax.swing.JOptionPane
 
 internal class MongoDatabaseFolder(override val data: MongoDatabase, override val parent: MongoDatabaseServerFolder) : DatabaseFolder<MongoDatabase>(data) {
 
     override val children: Collection<Folder<*, MongoDatabase>>
-        get() = data.getCollections().map { createChildFolder(it) }
-
-    private fun createChildFolder(type: MongoCollection): CommonLeafFolder<MongoCollection, MongoDatabase> {
-        return CommonLeafFolder(
-                type,
-                this,
-                {
-                    it == MONGO_DATABASE
-                }
-        ) {
-            MongoObjectFile(it, databaseServer.configuration, type)
+        get() {
+            val children = data.getCollections().map { MongoCollectionFolder(it, this) }
+            if (!(parent.databaseClient as MongoClient).isSortCollectionsBySize) {
+                return children
+            }
+            return children.sortedByDescending { it.statistics?.totalSize ?: -1L }
         }
-    }
 
     override val databaseServer: DatabaseServer
         get() = parent.databaseServer
@@ -49,7 +46,7 @@ internal class MongoDatabaseFolder(override val data: MongoDatabase, override va
             val collection = parent.databaseClient.createFolder(databaseServer.configuration, data.name, collectionName)
             if (collection is MongoCollection) {
                 data.addCollection(collection)
-                return createChildFolder(collection)
+                return MongoCollectionFolder(collection, this)
             }
         }
         return null
@@ -60,4 +57,16 @@ internal class MongoDatabaseFolder(override val data: MongoDatabase, override va
     }
 
     override fun canShowConsoleApplication() = parent.canShowConsoleApplication()
+
+    override fun updateTreeCell(renderer: ColoredTreeCellRenderer) {
+        super.updateTreeCell(renderer)
+        val loadError = data.loadError
+        when {
+            loadError != null -> renderer.apply {
+                append(" unavailable", ERROR_ATTRIBUTES)
+                toolTipText = loadError
+            }
+            !data.isLoaded -> renderer.append(" loading...", GRAYED_ATTRIBUTES)
+        }
+    }
 }
\ No newline at end of file
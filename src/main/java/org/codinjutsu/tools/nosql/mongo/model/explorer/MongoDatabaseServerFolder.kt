@@ -6,6 +6,7 @@ import org.codinjutsu.tools.nosql.commons.model.DatabaseServer
 import org.codinjutsu.tools.nosql.commons.model.explorer.Folder
 import org.codinjutsu.tools.nosql.commons.model.explorer.FolderDatabaseServerFolder
 import org.codinjutsu.tools.nosql.commons.view.editor.NoSqlDatabaseObjectFile
+import org.codinjutsu.tools.nosql.mongo.logic.MongoClient
 import org.codinjutsu.tools.nosql.mongo.model.MongoDatabase
 
 internal class MongoDatabaseServerFolder(databaseserver: DatabaseServer, project: Project)
@@ -21,4 +22,8 @@ internal class MongoDatabaseServerFolder(databaseserver: DatabaseServer, project
     }
 
     override fun canShowConsoleApplication() = true
+
+    override fun scheduleRefresh(onRefresh: Runnable) {
+        (databaseClient as MongoClient).loadCollections(configuration, data.databases.filterIsInstance<MongoDatabase>(), onRefresh)
+    }
 }
@@ -3,6 +3,7 @@ package org.codinjutsu.tools.nosql.mongo.model.internal
 import com.mongodb.BasicDBList
 import com.mongodb.BasicDBObject
 import com.mongodb.DBObject
+import org.bson.RawBsonDocument
 import org.bson.types.ObjectId
 import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseArray
 import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseElement
@@ -28,6 +29,21 @@ internal fun DBObject.toDatabaseObject(): DatabaseObject {
     }
 }
 
+internal fun RawBsonDocument.toDatabaseObject(): DatabaseObject {
+    val buffer = byteBuffer
+    return RawBsonDatabaseObject(buffer.array(), buffer.position())
+}
+
+/**
+ * The driver value of an element, as needed to use it again in a query.
+ */
+internal fun unwrap(element: DatabaseElement?): Any? =
+        if (element is DatabasePrimitive) {
+            element.value()
+        } else {
+            revert(element)
+        }
+
 private fun BasicDBList.convertToInternalArray(): DatabaseElement {
     val result = InternalDatabaseArray()
     (0 until size).forEach { i -> result.add(convertUnknown(get(i))) }
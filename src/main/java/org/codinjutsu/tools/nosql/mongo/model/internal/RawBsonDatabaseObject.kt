@@ -0,0 +1,179 @@
+package org.codinjutsu.tools.nosql.mongo.model.internal
+
+import com.mongodb.DBRef
+import org.bson.BSON
+import org.bson.types.BSONTimestamp
+import org.bson.types.Binary
+import org.bson.types.Code
+import org.bson.types.CodeWScope
+import org.bson.types.Decimal128
+import org.bson.types.MaxKey
+import org.bson.types.MinKey
+import org.bson.types.ObjectId
+import org.bson.types.Symbol
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseArray
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseElement
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.internal.InternalDatabasePrimitive
+import java.lang.Double.longBitsToDouble
+import java.util.*
+import java.util.regex.Pattern
+import kotlin.text.Charsets.UTF_8
+
+/**
+ * A document read straight from the BSON bytes returned by the server: the position of each field is found on first
+ * access, and a value is only decoded when it is asked for. Embedded documents and arrays are views over the same bytes.
+ */
+internal class RawBsonDatabaseObject(private val bytes: ByteArray, private val offset: Int) : DatabaseObject {
+
+    private val elements: Map<String, Int> by lazy {
+        val elements = LinkedHashMap<String, Int>()
+        forEachElement(bytes, offset) { elements[elementName(bytes, it)] = it }
+        elements
+    }
+
+    override fun names() = elements.keys
+
+    override fun get(key: String) = elements[key]?.let { decodeElement(bytes, it) }
+
+    override fun asObject() = this
+
+    override fun toString() = toMap().toString()
+}
+
+internal class RawBsonDatabaseArray(private val bytes: ByteArray, private val offset: Int) : DatabaseArray {
+
+    private val elements: List<Int> by lazy {
+        val elements = ArrayList<Int>()
+        forEachElement(bytes, offset) { elements.add(it) }
+        elements
+    }
+
+    override fun size() = elements.size
+
+    override fun get(index: Int) = elements.getOrNull(index)?.let { decodeElement(bytes, it) }
+
+    override fun iterator() = elements.asSequence().map { decodeElement(bytes, it) }.iterator()
+
+    override fun toString() = toList().toString()
+}
+
+private inline fun forEachElement(bytes: ByteArray, offset: Int, action: (Int) -> Unit) {
+    var position = offset + 4
+    while (bytes[position] != 0.toByte()) {
+        action(position)
+        val valueStart = cStringEnd(bytes, position + 1) + 1
+        position = valueStart + valueSize(bytes, type(bytes, position), valueStart)
+    }
+}
+
+private fun elementName(bytes: ByteArray, position: Int) =
+        String(bytes, position + 1, cStringEnd(bytes, position + 1) - position - 1, UTF_8)
+
+private fun decodeElement(bytes: ByteArray, position: Int): DatabaseElement {
+    val valueStart = cStringEnd(bytes, position + 1) + 1
+    return when (type(bytes, position)) {
+        0x03 -> RawBsonDatabaseObject(bytes, valueStart)
+        0x04 -> RawBsonDatabaseArray(bytes, valueStart)
+        else -> InternalDatabasePrimitive(decodeValue(bytes, type(bytes, position), valueStart))
+    }
+}
+
+/**
+ * Decodes to the same Java types as the legacy `DBObject` decoder, which the node descriptors expect.
+ */
+private fun decodeValue(bytes: ByteArray, type: Int, position: Int): Any? = when (type) {
+    0x01 -> longBitsToDouble(int64(bytes, position))
+    0x02 -> string(bytes, position)
+    0x05 -> binary(bytes, position)
+    0x06, 0x0A -> null
+    0x07 -> ObjectId(bytes.copyOfRange(position, position + 12))
+    0x08 -> bytes[position] != 0.toByte()
+    0x09 -> Date(int64(bytes, position))
+    0x0B -> {
+        val patternEnd = cStringEnd(bytes, position)
+        val options = String(bytes, patternEnd + 1, cStringEnd(bytes, patternEnd + 1) - patternEnd - 1, UTF_8)
+        Pattern.compile(String(bytes, position, patternEnd - position, UTF_8), BSON.regexFlags(options))
+    }
+    0x0C -> {
+        val idStart = position + 4 + int32(bytes, position)
+        DBRef(string(bytes, position), ObjectId(bytes.copyOfRange(idStart, idStart + 12)))
+    }
+    0x0D -> Code(string(bytes, position))
+    0x0E -> Symbol(string(bytes, position))
+    0x0F -> CodeWScope(string(bytes, position + 4), revert(RawBsonDatabaseObject(bytes, position + 8 + int32(bytes, position + 4)))!!)
+    0x10 -> int32(bytes, position)
+    0x11 -> BSONTimestamp(int32(bytes, position + 4), int32(bytes, position))
+    0x12 -> int64(bytes, position)
+    0x13 -> Decimal128.fromIEEE754BIDEncoding(int64(bytes, position + 8), int64(bytes, position))
+    0x7F -> MaxKey()
+    0xFF -> MinKey()
+    else -> throw IllegalStateException("Unsupported BSON type $type")
+}
+
+private fun valueSize(bytes: ByteArray, type: Int, position: Int): Int = when (type) {
+    0x01, 0x09, 0x11, 0x12 -> 8
+    0x02, 0x0D, 0x0E -> 4 + int32(bytes, position)
+    0x03, 0x04, 0x0F -> int32(bytes, position)
+    0x05 -> 5 + int32(bytes, position)
+    0x06, 0x0A, 0x7F, 0xFF -> 0
+    0x07 -> 12
+    0x08 -> 1
+    0x0B -> cStringEnd(bytes, cStringEnd(bytes, position) + 1) + 1 - position
+    0x0C -> 16 + int32(bytes, position)
+    0x10 -> 4
+    0x13 -> 16
+    else -> throw IllegalStateException("Unsupported BSON type $type")
+}
+
+/**
+ * The deprecated generic binary subtype, whose data starts with its own length.
+ */
+private const val OLD_BINARY_SUBTYPE: Byte = 2
+
+private fun binary(bytes: ByteArray, position: Int): Any {
+    val length = int32(bytes, position)
+    val subtype = bytes[position + 4]
+    if (subtype == OLD_BINARY_SUBTYPE) {
+        return bytes.copyOfRange(position + 9, position + 5 + length)
+    }
+    val data = bytes.copyOfRange(position + 5, position + 5 + length)
+    return when {
+        subtype == 0.toByte() -> data
+        subtype == 3.toByte() && length == 16 -> UUID(littleEndian(data, 0, 8), littleEndian(data, 8, 8))
+        subtype == 4.toByte() && length == 16 -> UUID(bigEndian(data, 0), bigEndian(data, 8))
+        else -> Binary(subtype, data)
+    }
+}
+
+private fun type(bytes: ByteArray, position: Int) = bytes[position].toInt() and 0xFF
+
+private fun string(bytes: ByteArray, position: Int) = String(bytes, position + 4, int32(bytes, position) - 1, UTF_8)
+
+private fun cStringEnd(bytes: ByteArray, position: Int): Int {
+    var end = position
+    while (bytes[end] != 0.toByte()) {
+        end++
+    }
+    return end
+}
+
+private fun int32(bytes: ByteArray, position: Int) = littleEndian(bytes, position, 4).toInt()
+
+private fun int64(bytes: ByteArray, position: Int) = littleEndian(bytes, position, 8)
+
+private fun littleEndian(bytes: ByteArray, position: Int, length: Int): Long {
+    var value = 0L
+    for (i in 0 until length) {
+        value = value or ((bytes[position + i].toLong() and 0xFF) shl (8 * i))
+    }
+    return value
+}
+
+private fun bigEndian(bytes: ByteArray, position: Int): Long {
+    var value = 0L
+    for (i in 0 until 8) {
+        value = (value shl 8) or (bytes[position + i].toLong() and 0xFF)
+    }
+    return value
+}
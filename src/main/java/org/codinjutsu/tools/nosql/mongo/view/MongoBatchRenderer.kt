@@ -0,0 +1,38 @@
+package org.codinjutsu.tools.nosql.mongo.view
+
+import org.codinjutsu.tools.nosql.commons.model.SearchResult
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Consumer
+
+/**
+ * Hands the batches read from a cursor to the result tree: the first batch replaces the tree, the following ones are
+ * appended under its root. When no batch was read at all, [finish] still replaces the tree with the final result.
+ */
+internal class MongoBatchRenderer(
+        private val collectionName: String,
+        private val replace: Consumer<SearchResult>,
+        private val append: Consumer<SearchResult>
+) : Consumer<List<DatabaseObject>> {
+
+    private val loaded = AtomicInteger()
+
+    val loadedCount: Int
+        get() = loaded.get()
+
+    override fun accept(batch: List<DatabaseObject>) {
+        val count = loaded.addAndGet(batch.size)
+        val batchResult = SearchResult(collectionName, batch, count)
+        if (count == batch.size) {
+            replace.accept(batchResult)
+        } else {
+            append.accept(batchResult)
+        }
+    }
+
+    fun finish(searchResult: SearchResult) {
+        if (loaded.get() == 0) {
+            replace.accept(searchResult)
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.codinjutsu.tools.nosql.mongo.view
+
+import com.intellij.icons.AllIcons
+import com.intellij.ui.SimpleTextAttributes
+import com.mongodb.DBObject
+import org.codinjutsu.tools.nosql.commons.style.StyleAttributesProvider
+import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.keyvalue.TypedKeyValueDescriptor
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.result.NullResultDescriptor
+
+private const val COLLECTION_SCAN = "COLLSCAN"
+
+/**
+ * A stage examining at least this many times the documents it returns is reported, as it hints at a missing index.
+ */
+private const val EXAMINED_RATIO_THRESHOLD = 10
+private const val EXAMINED_MINIMUM = 100
+
+internal fun buildExplainTree(explain: DBObject): NoSqlTreeNode {
+    val rootNode = NoSqlTreeNode(NullResultDescriptor())
+    val stages = explain["stages"] as? List<*>
+    if (stages == null) {
+        addQueryNodes(rootNode, explain)
+        return rootNode
+    }
+    stages.filterIsInstance<DBObject>().forEach { stage ->
+        val name = stage.keySet().first()
+        val content = stage[name]
+        if (name == "\$cursor" && content is DBObject) {
+            val cursorNode = createNode(name, "")
+            addQueryNodes(cursorNode, content)
+            rootNode.add(cursorNode)
+        } else {
+            val time = stage.getLong("executionTimeMillisEstimate")?.let { ", ~$it ms" } ?: ""
+            rootNode.add(createNode(name, "$content$time"))
+        }
+    }
+    return rootNode
+}
+
+private fun addQueryNodes(parentNode: NoSqlTreeNode, explain: DBObject) {
+    val stats = explain["executionStats"] as? DBObject
+    val plan = stats?.get("executionStages") as? DBObject
+            ?: (explain["queryPlanner"] as? DBObject)?.get("winningPlan") as? DBObject
+    if (stats != null) {
+        val returned = stats.getLong("nReturned") ?: 0L
+        val keysExamined = stats.getLong("totalKeysExamined") ?: 0L
+        val docsExamined = stats.getLong("totalDocsExamined") ?: 0L
+        parentNode.add(createNode("Returned", returned.toString()))
+        parentNode.add(createNode("Keys examined", keysExamined.toString(), isExcessive(keysExamined, returned)))
+        parentNode.add(createNode("Documents examined", docsExamined.toString(), isExcessive(docsExamined, returned)))
+        parentNode.add(createNode("Execution time", "${stats.getLong("executionTimeMillis") ?: 0L} ms"))
+    }
+    if (plan != null) {
+        val indexes = collectIndexes(plan)
+        parentNode.add(if (indexes.isEmpty()) createNode("Index used", "none", true) else createNode("Index used", indexes.joinToString(", ")))
+        val planNode = createNode("Winning plan", "")
+        planNode.add(createStageNode(plan))
+        parentNode.add(planNode)
+    }
+}
+
+private fun createStageNode(stage: DBObject): NoSqlTreeNode {
+    val name = stage["stage"]?.toString() ?: "?"
+    val returned = stage.getLong("nReturned")
+    val examined = maxOf(stage.getLong("keysExamined") ?: 0L, stage.getLong("docsExamined") ?: 0L)
+    val details = listOfNotNull(
+            stage["indexName"]?.let { "index: $it" },
+            returned?.let { "returned: $it" },
+            stage.getLong("keysExamined")?.let { "keys examined: $it" },
+            stage.getLong("docsExamined")?.let { "docs examined: $it" },
+            stage.getLong("executionTimeMillisEstimate")?.let { "~$it ms" })
+    val highlighted = name == COLLECTION_SCAN || (returned != null && isExcessive(examined, returned))
+    val stageNode = createNode(name, details.joinToString(", "), highlighted)
+    inputStages(stage).forEach { stageNode.add(createStageNode(it)) }
+    return stageNode
+}
+
+private fun collectIndexes(stage: DBObject): List<String> =
+        listOfNotNull(stage["indexName"]?.toString()) + inputStages(stage).flatMap { collectIndexes(it) }
+
+/**
+ * Sharded plans list the plan of every shard, other plans nest one or several input stages.
+ */
+private fun inputStages(stage: DBObject): List<DBObject> =
+        listOfNotNull(stage["inputStage"] as? DBObject) +
+                (stage["inputStages"] as? List<*>).orEmpty().filterIsInstance<DBObject>() +
+                (stage["shards"] as? List<*>).orEmpty().filterIsInstance<DBObject>()
+                        .mapNotNull { it["executionStages"] as? DBObject ?: it["winningPlan"] as? DBObject }
+
+internal fun isExcessive(examined: Long, returned: Long) =
+        examined >= EXAMINED_MINIMUM && examined >= EXAMINED_RATIO_THRESHOLD * maxOf(returned, 1L)
+
+private fun DBObject.getLong(key: String) = (this[key] as? Number)?.toLong()
+
+private fun createNode(key: String, value: String, highlighted: Boolean = false) =
+        NoSqlTreeNode(ExplainDescriptor(key, value, highlighted))
+
+/**
+ * A line of the explain tree, shown as an error when it hints at a slow query.
+ */
+internal class ExplainDescriptor(key: String, value: String, val highlighted: Boolean) : TypedKeyValueDescriptor<String>(
+        key,
+        value,
+        if (highlighted) SimpleTextAttributes.ERROR_ATTRIBUTES else StyleAttributesProvider.getStringAttribute(),
+        if (highlighted) AllIcons.General.Warning else null)
@@ -0,0 +1,38 @@
+package org.codinjutsu.tools.nosql.mongo.view
+
+import com.intellij.ui.NumberDocument
+import com.intellij.ui.components.JBLabel
+import org.codinjutsu.tools.nosql.commons.view.filedialogs.ImportPanelSettings
+import org.codinjutsu.tools.nosql.mongo.logic.MongoClient.DEFAULT_IMPORT_BATCH_SIZE
+import org.codinjutsu.tools.nosql.mongo.logic.MongoClient.DEFAULT_IMPORT_PARALLELISM
+import java.awt.FlowLayout
+import javax.swing.JPanel
+import javax.swing.JTextField
+
+/**
+ * Lets the user tune the size of the insert batches and the number of batches written at the same time.
+ */
+internal class MongoImportPanelSettings : ImportPanelSettings {
+
+    private val batchSizeField = JTextField(NumberDocument(), DEFAULT_IMPORT_BATCH_SIZE.toString(), 6)
+    private val parallelismField = JTextField(NumberDocument(), DEFAULT_IMPORT_PARALLELISM.toString(), 3)
+
+    private val panel: JPanel by lazy {
+        JPanel(FlowLayout(FlowLayout.LEFT)).apply {
+            add(JBLabel("Batch size:"))
+            add(batchSizeField)
+            add(JBLabel("Parallel writers:"))
+            add(parallelismField)
+        }
+    }
+
+    override fun getPanel() = panel
+
+    override fun getExtensions() = arrayOf(".json", ".ndjson", ".jsonl")
+
+    val batchSize: Int
+        get() = batchSizeField.text.toIntOrNull()?.coerceAtLeast(1) ?: DEFAULT_IMPORT_BATCH_SIZE
+
+    val parallelism: Int
+        get() = parallelismField.text.toIntOrNull()?.coerceAtLeast(1) ?: DEFAULT_IMPORT_PARALLELISM
+}
@@ -1,22 +1,51 @@
 package org.codinjutsu.tools.nosql.mongo.view;
 
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.MessageType;
+import com.intellij.openapi.ui.popup.Balloon;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
 import org.codinjutsu.tools.nosql.commons.model.DataType;
 import org.codinjutsu.tools.nosql.commons.model.DatabaseContext;
+import org.codinjutsu.tools.nosql.commons.model.SearchResult;
+import org.codinjutsu.tools.nosql.commons.utils.GuiUtils;
 import org.codinjutsu.tools.nosql.commons.view.DatabasePanel;
 import org.codinjutsu.tools.nosql.commons.view.columninfo.WriteableColumnInfoDecider;
+import org.codinjutsu.tools.nosql.commons.view.filedialogs.ImportResultState;
 import org.codinjutsu.tools.nosql.commons.view.panel.DefaultTreeBuilder;
 import org.codinjutsu.tools.nosql.commons.view.panel.NoSQLResultPanel;
+import org.codinjutsu.tools.nosql.commons.view.panel.Pageable;
 import org.codinjutsu.tools.nosql.commons.view.panel.TreePreparator;
+import org.codinjutsu.tools.nosql.commons.view.panel.query.Page;
+import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptions;
+import org.codinjutsu.tools.nosql.mongo.logic.MongoClient;
+import org.codinjutsu.tools.nosql.mongo.logic.MongoExportFormat;
 import org.codinjutsu.tools.nosql.mongo.model.MongoContext;
+import org.codinjutsu.tools.nosql.mongo.model.MongoPageBoundaries;
+import org.codinjutsu.tools.nosql.mongo.model.MongoQueryOptions;
+import org.codinjutsu.tools.nosql.mongo.view.action.ExplainQueryAction;
+import org.codinjutsu.tools.nosql.mongo.view.action.ExportQueryAction;
 import org.codinjutsu.tools.nosql.mongo.view.columninfo.MongoWriteableColumnInfoDecider;
 import org.codinjutsu.tools.nosql.mongo.view.model.MongoNodeDescriptorFactory;
 import org.codinjutsu.tools.nosql.mongo.view.panel.query.MongoQueryPanel;
 import org.jetbrains.annotations.NotNull;
 
+import javax.swing.tree.TreeNode;
+import java.io.File;
+import java.util.Arrays;
+
 import static org.codinjutsu.tools.nosql.mongo.logic.MongoClient.ID_DESCRIPTOR_KEY;
+import static org.codinjutsu.tools.nosql.mongo.view.MongoExplainTreeKt.buildExplainTree;
+
+public class MongoPanel extends DatabasePanel implements Pageable {
 
-public class MongoPanel extends DatabasePanel {
+    private final MongoPageBoundaries pageBoundaries = new MongoPageBoundaries();
+    private volatile int recordCount;
+    private volatile String countedQuery;
 
     public MongoPanel(Project project, DatabaseContext context) {
         super(project, context, ID_DESCRIPTOR_KEY, MongoQueryPanel::new);
@@ -33,6 +62,117 @@ public class MongoPanel extends DatabasePanel {
         };
     }
 
+    /**
+     * Displays the documents batch by batch as the cursor returns them; cancelling the task closes the cursor.
+     * The documents are then counted in the same task, unless only the page changed since the last count.
+     */
+    @Override
+    protected void executeQuery(Page page) {
+        QueryOptions queryOptions = createQueryOptions(page);
+        MongoQueryOptions mongoQueryOptions = new MongoQueryOptions(queryOptions);
+        mongoQueryOptions.setPageBoundaries(pageBoundaries);
+        DatabaseContext context = getContext();
+        String name = ((MongoContext) context.getDelegatedContext()).getMongoCollection().getName();
+        executeInBackground(indicator -> {
+            MongoBatchRenderer renderer = new MongoBatchRenderer(name,
+                    result -> GuiUtils.runInSwingThread(() -> getResultPanel().updateResultTableTree(result)),
+                    result -> GuiUtils.runInSwingThread(() -> getResultPanel().appendResultTableTree(result)));
+            SearchResult searchResult = ((MongoClient) context.getClient()).loadRecords(context, mongoQueryOptions, batch -> {
+                renderer.accept(batch);
+                indicator.setText2(renderer.getLoadedCount() + " documents loaded"); //NON-NLS
+            }, indicator::isCanceled);
+            renderer.finish(searchResult);
+            if (!indicator.isCanceled()) {
+                updateRecordCount(context, queryOptions, page == null);
+            }
+        });
+    }
+
+    private void updateRecordCount(DatabaseContext context, QueryOptions queryOptions, boolean force) {
+        String countedQuery = queryOptions.getFilter() + queryOptions.getOperations();
+        if (!force && countedQuery.equals(this.countedQuery)) {
+            return;
+        }
+        int count = ((MongoClient) context.getClient()).countRecords(context, queryOptions);
+        recordCount = count;
+        this.countedQuery = countedQuery;
+        GuiUtils.runInSwingThread(() -> setItemCount(count));
+    }
+
+    public void explainQuery() {
+        QueryOptions queryOptions = createQueryOptions(null);
+        DatabaseContext context = getContext();
+        executeInBackground(indicator -> {
+            TreeNode treeNode = buildExplainTree(((MongoClient) context.getClient()).explain(context, queryOptions));
+            GuiUtils.runInSwingThread(() -> {
+                getResultPanel().updateResultTableTree(treeNode);
+                expandAll();
+            });
+        });
+    }
+
+    public void exportQuery() {
+        DatabaseContext context = getContext();
+        String name = ((MongoContext) context.getDelegatedContext()).getMongoCollection().getName();
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("Export documents", "Export the documents matching the query", //NON-NLS
+                Arrays.stream(MongoExportFormat.values()).map(MongoExportFormat::getExtension).toArray(String[]::new));
+        VirtualFileWrapper target = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, getProject())
+                .save(null, name + "." + MongoExportFormat.NDJSON.getExtension());
+        if (target == null) {
+            return;
+        }
+        File file = target.getFile();
+        MongoQueryOptions mongoQueryOptions = new MongoQueryOptions(createQueryOptions(null));
+        executeInBackground(indicator -> {
+            long exported = ((MongoClient) context.getClient()).export(context, mongoQueryOptions, file,
+                    MongoExportFormat.fromFileName(file.getName()), indicator::setText2, indicator::isCanceled);
+            String message = indicator.isCanceled()
+                    ? "Export cancelled after " + exported + " documents" //NON-NLS
+                    : exported + " documents exported to " + file.getName(); //NON-NLS
+            GuiUtils.showNotification(getResultPanel(), indicator.isCanceled() ? MessageType.WARNING : MessageType.INFO, message, Balloon.Position.above);
+        });
+    }
+
+    @Override
+    protected ImportResultState importFile(File file, ProgressIndicator indicator) {
+        DatabaseContext context = getContext();
+        MongoImportPanelSettings settings = ((MongoContext) context.getDelegatedContext()).getImportPanelSettings();
+        ImportResultState result = ((MongoClient) context.getClient()).importFile(context, file, settings.getBatchSize(),
+                settings.getParallelism(), indicator::setText2, indicator::isCanceled);
+        if (result.getImported() > 0) {
+            GuiUtils.runInSwingThread(this::executeQuery);
+        }
+        return result;
+    }
+
+    @Override
+    protected void addActions(DefaultActionGroup actionResultGroup, AnAction expandAllAction, AnAction collapseAllAction) {
+        actionResultGroup.add(new ExplainQueryAction(this));
+        actionResultGroup.add(new ExportQueryAction(this));
+        super.addActions(actionResultGroup, expandAllAction, collapseAllAction);
+    }
+
+    @NotNull
+    @Override
+    protected SearchResult getSearchResult(DatabaseContext context, QueryOptions queryOptions) {
+        MongoQueryOptions mongoQueryOptions = new MongoQueryOptions(queryOptions);
+        mongoQueryOptions.setPageBoundaries(pageBoundaries);
+        return ((MongoClient) context.getClient()).loadRecords(context, mongoQueryOptions);
+    }
+
+    @Override
+    protected int getPageSize() {
+        return createQueryOptions(null).getResultLimit();
+    }
+
+    /**
+     * @return the count made after the last query, so that the paging actions never query the server themselves
+     */
+    @Override
+    protected int countRecords() {
+        return recordCount;
+    }
+
     @Override
     public Object getRecords() {
         return ((MongoContext) getContext().getDelegatedContext()).getMongoCollection();
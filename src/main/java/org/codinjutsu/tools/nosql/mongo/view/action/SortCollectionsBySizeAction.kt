@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.nosql.mongo.view.action
+
+import com.intellij.openapi.actionSystem.AnActionEvent
+import com.intellij.openapi.actionSystem.ToggleAction
+import com.intellij.openapi.project.DumbAware
+import org.codinjutsu.tools.nosql.NoSqlExplorerPanel
+import org.codinjutsu.tools.nosql.commons.model.explorer.FolderType
+import org.codinjutsu.tools.nosql.mongo.logic.MongoClient
+
+class SortCollectionsBySizeAction(private val noSqlExplorerPanel: NoSqlExplorerPanel) : ToggleAction("Sort collections by size", "List the largest collections first, indexes included", null), DumbAware {
+
+    override fun isSelected(event: AnActionEvent) = event.project?.let { MongoClient.getInstance(it).isSortCollectionsBySize } ?: false
+
+    override fun setSelected(event: AnActionEvent, state: Boolean) {
+        val project = event.project ?: return
+        MongoClient.getInstance(project).isSortCollectionsBySize = state
+        noSqlExplorerPanel.refreshSelectedServerNodes()
+    }
+
+    override fun update(event: AnActionEvent) {
+        super.update(event)
+        event.presentation.isVisible = noSqlExplorerPanel.canCreateChildAtSelectedFolder(FolderType.MONGO_COLLECTION)
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.codinjutsu.tools.nosql.mongo.view.authentication;
 
+import com.intellij.ui.NumberDocument;
 import com.mongodb.AuthenticationMechanism;
 import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.nosql.commons.model.AuthenticationSettings;
@@ -39,6 +40,13 @@ public class MongoAuthenticationPanel implements AuthenticationView {
     private JRadioButton mongoCRAuthRadioButton;
     private JRadioButton defaultAuthMethodRadioButton;
     private JCheckBox sslConnectionField;
+    private JTextField maxPoolSizeField;
+    private JTextField connectTimeoutField;
+    private JTextField socketTimeoutField;
+    private JTextField clientIdleTimeoutField;
+    private JTextField batchSizeField;
+    private JCheckBox allowDiskUseField;
+    private JTextField maxTimeMSField;
 
     public MongoAuthenticationPanel() {
         usernameField.setName("usernameField"); //NON-NLS
@@ -48,6 +56,20 @@ public class MongoAuthenticationPanel implements AuthenticationView {
         scramSHA1AuthRadioButton.setName("scramSHA1AuthField"); //NON-NLS
         defaultAuthMethodRadioButton.setName("defaultAuthMethod"); //NON-NLS
         sslConnectionField.setName("sslConnectionField"); //NON-NLS
+        maxPoolSizeField.setName("maxPoolSizeField"); //NON-NLS
+        connectTimeoutField.setName("connectTimeoutField"); //NON-NLS
+        socketTimeoutField.setName("socketTimeoutField"); //NON-NLS
+        clientIdleTimeoutField.setName("clientIdleTimeoutField"); //NON-NLS
+        batchSizeField.setName("batchSizeField"); //NON-NLS
+        allowDiskUseField.setName("allowDiskUseField"); //NON-NLS
+        maxTimeMSField.setName("maxTimeMSField"); //NON-NLS
+
+        maxPoolSizeField.setDocument(new NumberDocument());
+        connectTimeoutField.setDocument(new NumberDocument());
+        socketTimeoutField.setDocument(new NumberDocument());
+        clientIdleTimeoutField.setDocument(new NumberDocument());
+        batchSizeField.setDocument(new NumberDocument());
+        maxTimeMSField.setDocument(new NumberDocument());
 
         ButtonGroup authMethodGroup = new ButtonGroup();
         authMethodGroup.add(mongoCRAuthRadioButton);
@@ -75,6 +97,13 @@ public class MongoAuthenticationPanel implements AuthenticationView {
         mongoExtraSettings.setSsl(isSslConnection());
         mongoExtraSettings.setAuthenticationDatabase(getAuthenticationDatabase());
         mongoExtraSettings.setAuthenticationMechanism(getAuthenticationMechanism());
+        mongoExtraSettings.setMaxPoolSize(getIntValue(maxPoolSizeField, mongoExtraSettings.getMaxPoolSize()));
+        mongoExtraSettings.setConnectTimeout(getIntValue(connectTimeoutField, mongoExtraSettings.getConnectTimeout()));
+        mongoExtraSettings.setSocketTimeout(getIntValue(socketTimeoutField, mongoExtraSettings.getSocketTimeout()));
+        mongoExtraSettings.setClientIdleTimeout(getIntValue(clientIdleTimeoutField, mongoExtraSettings.getClientIdleTimeout()));
+        mongoExtraSettings.setBatchSize(getIntValue(batchSizeField, mongoExtraSettings.getBatchSize()));
+        mongoExtraSettings.setAllowDiskUse(allowDiskUseField.isSelected());
+        mongoExtraSettings.setMaxTimeMS(getIntValue(maxTimeMSField, mongoExtraSettings.getMaxTimeMS()));
         authenticationSettings.setExtras(mongoExtraSettings.get());
 
         return authenticationSettings;
@@ -87,6 +116,13 @@ public class MongoAuthenticationPanel implements AuthenticationView {
         MongoExtraSettings mongoExtraSettings = new MongoExtraSettings(settings.getExtras());
         authenticationDatabaseField.setText(mongoExtraSettings.getAuthenticationDatabase());
         sslConnectionField.setSelected(mongoExtraSettings.isSsl());
+        maxPoolSizeField.setText(String.valueOf(mongoExtraSettings.getMaxPoolSize()));
+        connectTimeoutField.setText(String.valueOf(mongoExtraSettings.getConnectTimeout()));
+        socketTimeoutField.setText(String.valueOf(mongoExtraSettings.getSocketTimeout()));
+        clientIdleTimeoutField.setText(String.valueOf(mongoExtraSettings.getClientIdleTimeout()));
+        batchSizeField.setText(String.valueOf(mongoExtraSettings.getBatchSize()));
+        allowDiskUseField.setSelected(mongoExtraSettings.isAllowDiskUse());
+        maxTimeMSField.setText(String.valueOf(mongoExtraSettings.getMaxTimeMS()));
         AuthenticationMechanism authentificationMethod = mongoExtraSettings.getAuthenticationMechanism();
         if (AuthenticationMechanism.MONGODB_CR.equals(authentificationMethod)) {
             mongoCRAuthRadioButton.setSelected(true);
@@ -134,4 +170,18 @@ public class MongoAuthenticationPanel implements AuthenticationView {
         return null;
     }
 
+    /**
+     * The number typed in the field, or the default one when it is blank or too large for an int.
+     */
+    static int getIntValue(JTextField field, int defaultValue) {
+        String value = field.getText();
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException ex) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
 }
@@ -46,7 +46,7 @@ internal class FilterPanel(project: Project, private val updateAlarm: (JComponen
     }
 
     override fun buildQueryOptions(rowLimit: String, page: Page?): QueryOptions {
-        val queryOptions = QueryOptionsImpl()
+        val queryOptions = QueryOptionsImpl(page = page)
         try {
             queryOptions.filter = getQueryFrom(selectEditor)
             queryOptions.projection = getQueryFrom(projectionEditor)
@@ -18,7 +18,7 @@ internal object RedisVendorInformation : DatabaseVendorInformation(true) {
             RedisConsoleRunner(project, configuration, database)
 
     override fun createDatabaseServerFolder(databaseServer: DatabaseServer, project: Project) =
-            RedisDatabaseServerFolder(databaseServer)
+            RedisDatabaseServerFolder(databaseServer, project)
 
     override fun getDatabaseUIClass() = RedisUI::class.java
 
@@ -13,13 +13,34 @@ internal class RedisServerConfiguration(
         isConnectOnIdeStartup: Boolean = false,
         authenticationSettings: AuthenticationSettings = AuthenticationSettings(),
         shellArgumentsLine: String? = null,
-        shellWorkingDir: String? = null
+        shellWorkingDir: String? = null,
+        var poolMaxTotal: Int = 8,
+        var poolMaxIdle: Int = 8,
+        var poolMinIdle: Int = 0,
+        var connectionTimeout: Int = 2000,
+        var socketTimeout: Int = 2000,
+        var pipelineChunkSize: Int = 100,
+        var valuePageSize: Int = 100,
+        var profilerKeysPerSecond: Int = 1000,
+        var isClusterMode: Boolean = false,
+        var clusterScanParallelism: Int = 4,
+        var liveUpdateDelay: Int = 500,
+        var bulkChunkSize: Int = 500,
+        var bulkKeysPerSecond: Int = 10000,
+        var isHideEmptyDatabases: Boolean = true,
+        var statisticsRefreshInterval: Int = 30,
+        var replicaUrls: String? = null,
+        var sentinelMasterName: String? = null,
+        var replicaPingInterval: Int = 10
 ) : WriteableConsoleRunnerConfiguration(label, serverUrl, userDatabase, isConnectOnIdeStartup, authenticationSettings, shellArgumentsLine, shellWorkingDir) {
 
     override val databaseVendor: DatabaseVendor
         get() = REDIS
 
     override fun copy(): ServerConfiguration {
-        return RedisServerConfiguration(label, serverUrl, userDatabase, isConnectOnIdeStartup, authenticationSettings, shellArgumentsLine, shellWorkingDir)
+        return RedisServerConfiguration(label, serverUrl, userDatabase, isConnectOnIdeStartup, authenticationSettings, shellArgumentsLine, shellWorkingDir,
+                poolMaxTotal, poolMaxIdle, poolMinIdle, connectionTimeout, socketTimeout, pipelineChunkSize, valuePageSize, profilerKeysPerSecond,
+                isClusterMode, clusterScanParallelism, liveUpdateDelay, bulkChunkSize, bulkKeysPerSecond,
+                isHideEmptyDatabases, statisticsRefreshInterval, replicaUrls, sentinelMasterName, replicaPingInterval)
     }
-}
\ No newline at end of file
+}
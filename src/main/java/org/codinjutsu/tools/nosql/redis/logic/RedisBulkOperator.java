@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic;
+
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyOperation;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
+/**
+ * Applies an operation to every key matching a pattern, one pipeline per chunk of scanned keys,
+ * pausing between batches so that the server is never busy with a single long command.
+ */
+class RedisBulkOperator {
+
+    private final RedisKeyOperation operation;
+    private final int ttlSeconds;
+    private final int scanCount;
+    private final int chunkSize;
+    private final RedisRateLimiter rateLimiter;
+
+    private long affectedKeys;
+
+    RedisBulkOperator(RedisKeyOperation operation, int ttlSeconds, int scanCount, int chunkSize, int keysPerSecond) {
+        this.operation = operation;
+        this.ttlSeconds = ttlSeconds;
+        this.scanCount = scanCount;
+        this.chunkSize = chunkSize;
+        this.rateLimiter = new RedisRateLimiter(keysPerSecond);
+    }
+
+    /**
+     * Keys are buffered across SCAN batches, which are often smaller than a chunk when few keys match the pattern.
+     *
+     * @return whether all the matching keys were processed
+     */
+    boolean apply(Jedis jedis, String pattern, LongConsumer progressConsumer, BooleanSupplier isCancelled) {
+        ScanParams scanParams = new ScanParams().match(pattern).count(scanCount);
+        List<String> pendingKeys = new ArrayList<>(chunkSize);
+        String cursor = SCAN_POINTER_START;
+        do {
+            long batchStart = System.nanoTime();
+            ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+            List<String> keys = scanResult.getResult();
+            pendingKeys.addAll(keys);
+            while (pendingKeys.size() >= chunkSize) {
+                List<String> chunk = pendingKeys.subList(0, chunkSize);
+                apply(jedis, chunk);
+                chunk.clear();
+            }
+            cursor = scanResult.getStringCursor();
+            progressConsumer.accept(affectedKeys);
+            if (!rateLimiter.throttle(keys.size(), System.nanoTime() - batchStart)) {
+                break;
+            }
+        } while (!SCAN_POINTER_START.equals(cursor) && !isCancelled.getAsBoolean());
+        if (!pendingKeys.isEmpty()) {
+            apply(jedis, pendingKeys);
+            progressConsumer.accept(affectedKeys);
+        }
+        return SCAN_POINTER_START.equals(cursor);
+    }
+
+    void apply(Jedis jedis, List<String> keys) {
+        List<Response<?>> responses = request(jedis, keys);
+        if (operation.loadIfMissing(jedis, responses)) {
+            responses = request(jedis, keys);
+        }
+        for (Response<?> response : responses) {
+            affectedKeys += RedisKeyOperation.getAffectedCount(response);
+        }
+    }
+
+    @NotNull
+    private List<Response<?>> request(Jedis jedis, List<String> keys) {
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<?>> responses = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            responses.add(operation.request(pipeline, key, ttlSeconds));
+        }
+        pipeline.sync();
+        return responses;
+    }
+
+    long getAffectedKeys() {
+        return affectedKeys;
+    }
+}
@@ -16,8 +16,12 @@
 
 package org.codinjutsu.tools.nosql.redis.logic;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.apache.log4j.Logger;
+import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.nosql.commons.configuration.ServerConfiguration;
 import org.codinjutsu.tools.nosql.commons.logic.DatabaseClient;
 import org.codinjutsu.tools.nosql.commons.model.Database;
@@ -29,26 +33,78 @@ import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject;
 import org.codinjutsu.tools.nosql.commons.model.internal.layer.SingleDatabaseObject;
 import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptions;
 import org.codinjutsu.tools.nosql.redis.configuration.RedisServerConfiguration;
+import org.codinjutsu.tools.nosql.redis.logic.dump.RedisDumpClient;
 import org.codinjutsu.tools.nosql.redis.model.RedisContext;
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyOperation;
 import org.codinjutsu.tools.nosql.redis.model.RedisKeyType;
+import org.codinjutsu.tools.nosql.redis.model.RedisMemoryProfile;
+import org.codinjutsu.tools.nosql.redis.model.RedisScanResult;
+import org.codinjutsu.tools.nosql.redis.model.RedisScript;
+import org.codinjutsu.tools.nosql.redis.model.RedisServerStatistics;
+import org.codinjutsu.tools.nosql.redis.model.RedisValuePage;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.util.SafeEncoder;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 import static java.util.Collections.singletonList;
 import static java.util.Collections.singletonMap;
+import static org.apache.commons.lang.StringUtils.isBlank;
+import static org.apache.commons.lang.StringUtils.isNotBlank;
 import static org.apache.commons.lang.StringUtils.isNotEmpty;
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
 
-public class RedisClient implements DatabaseClient {
+public class RedisClient implements DatabaseClient, Disposable {
+
+    private static final Logger LOG = Logger.getLogger(RedisClient.class);
+
+    private static final int SCAN_COUNT = 100;
+    private static final int VALUE_CHUNK_SIZE = 1024 * 1024;
+    private static final int CLUSTER_MAX_ATTEMPTS = 5;
+    private static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events"; //NON-NLS
+    private static final String NOTIFIED_EVENT_CLASSES = "Ag$lshzxetdmn"; //NON-NLS
 
     private final List<DatabaseServer> databaseServers = new LinkedList<>();
+    private final ConcurrentMap<ServerConfiguration, JedisPool> pools = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ServerConfiguration, JedisCluster> clusters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ServerConfiguration, RedisClusterTopology> topologies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ServerConfiguration, RedisServerStatistics> statistics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ServerConfiguration, ScheduledFuture<?>> statisticsRefreshes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ServerConfiguration, RedisReplicaRouter> routers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ServerConfiguration, ScheduledFuture<?>> routerRefreshes = new ConcurrentHashMap<>();
+    private final RedisDumpClient dumpClient = new RedisDumpClient();
 
     public static RedisClient getInstance(Project project) {
         return ServiceManager.getService(project, RedisClient.class);
@@ -56,35 +112,180 @@ public class RedisClient implements DatabaseClient {
 
     @Override
     public void connect(ServerConfiguration serverConfiguration) {
-        Jedis jedis = createJedis(serverConfiguration);
-        jedis.connect();
+        if (RedisDumpClient.isDumpFile(serverConfiguration)) {
+            dumpClient.connect(serverConfiguration);
+            return;
+        }
+        if (isCluster(serverConfiguration)) {
+            try (JedisCluster cluster = createCluster(serverConfiguration)) {
+                RedisClusterTopology.load(cluster);
+            } catch (IOException ex) {
+                throw new JedisConnectionException(ex);
+            }
+            return;
+        }
         String userDatabase = serverConfiguration.getUserDatabase();
-        int index = 0;
-        if (isNotEmpty(userDatabase)) {
-            index = Integer.parseInt(userDatabase);
+        int index = isNotEmpty(userDatabase) ? Integer.parseInt(userDatabase) : 0;
+        RedisServerConfiguration redisConfiguration = (RedisServerConfiguration) serverConfiguration;
+        if (RedisReplicaRouter.isReplicated(redisConfiguration)) {
+            RedisReplicaRouter router = new RedisReplicaRouter(redisConfiguration, createPoolConfig(redisConfiguration));
+            try {
+                router.refresh();
+                try (Jedis jedis = router.getMaster()) {
+                    jedis.select(index);
+                }
+            } finally {
+                router.close();
+            }
+            return;
+        }
+        try (Jedis jedis = new Jedis(createUri(serverConfiguration))) {
+            jedis.connect();
+            jedis.select(index);
         }
-        jedis.select(index);
     }
 
     @Override
     public void loadServer(DatabaseServer databaseServer) {
-        Jedis jedis = createJedis(databaseServer.getConfiguration());
-        List<String> databaseNumberTuple = jedis.configGet("databases"); //NON-NLS
+        ServerConfiguration configuration = databaseServer.getConfiguration();
+        if (RedisDumpClient.isDumpFile(configuration)) {
+            dumpClient.loadServer(databaseServer);
+            statistics.put(configuration, dumpClient.loadStatistics(configuration));
+            return;
+        }
+        if (isCluster(configuration)) {
+            // a cluster only serves the database 0
+            databaseServer.setDatabases(singletonList(new Database("0")));
+            loadStatisticsQuietly(configuration);
+            return;
+        }
+        List<String> databaseNumberTuple;
+        try (Jedis jedis = getJedis(configuration)) {
+            databaseNumberTuple = jedis.configGet("databases"); //NON-NLS
+        }
         List<Database> databases = new LinkedList<>();
-        String userDatabase = databaseServer.getConfiguration().getUserDatabase();
+        String userDatabase = configuration.getUserDatabase();
         if (isNotEmpty(userDatabase)) {
             databases.add(new Database(userDatabase));
+            loadStatisticsQuietly(configuration);
         } else {
+            RedisServerStatistics serverStatistics = loadStatisticsQuietly(configuration);
+            boolean hideEmptyDatabases = serverStatistics != null && ((RedisServerConfiguration) configuration).isHideEmptyDatabases();
             int totalNumberOfDatabase = Integer.parseInt(databaseNumberTuple.get(1));
             for (int databaseNumber = 0; databaseNumber < totalNumberOfDatabase; databaseNumber++) {
-                databases.add(new Database(String.valueOf(databaseNumber)));
+                String name = String.valueOf(databaseNumber);
+                // the default database stays visible so that an empty server still shows something to open
+                if (!hideEmptyDatabases || databaseNumber == 0 || serverStatistics.getDatabase(name) != null) {
+                    databases.add(new Database(name));
+                }
             }
         }
         databaseServer.setDatabases(databases);
     }
 
+    @Nullable
+    public RedisServerStatistics getServerStatistics(ServerConfiguration serverConfiguration) {
+        return statistics.get(serverConfiguration);
+    }
+
+    /**
+     * Reads INFO keyspace and INFO memory once, summed over the masters of a cluster.
+     */
+    @NotNull
+    public RedisServerStatistics loadStatistics(ServerConfiguration serverConfiguration) {
+        RedisServerStatistics serverStatistics;
+        if (RedisDumpClient.isDumpFile(serverConfiguration)) {
+            serverStatistics = dumpClient.loadStatistics(serverConfiguration);
+        } else if (isCluster(serverConfiguration)) {
+            serverStatistics = new RedisServerStatistics(0, Collections.emptyMap());
+            for (String master : getTopology(serverConfiguration).getMasters()) {
+                try (Jedis jedis = getClusterNode(serverConfiguration, master)) {
+                    serverStatistics = serverStatistics.plus(RedisServerStatistics.parse(jedis.info("keyspace"), jedis.info("memory"))); //NON-NLS
+                }
+            }
+        } else {
+            try (Jedis jedis = getJedis(serverConfiguration)) {
+                serverStatistics = RedisServerStatistics.parse(jedis.info("keyspace"), jedis.info("memory")); //NON-NLS
+            }
+        }
+        statistics.put(serverConfiguration, serverStatistics);
+        return serverStatistics;
+    }
+
+    /**
+     * Refreshes the statistics in the background every {@link RedisServerConfiguration#getStatisticsRefreshInterval()} seconds,
+     * replacing any refresh previously scheduled for this server.
+     */
+    public void scheduleStatisticsRefresh(ServerConfiguration serverConfiguration, Runnable onRefresh) {
+        cancelStatisticsRefresh(serverConfiguration);
+        int interval = ((RedisServerConfiguration) serverConfiguration).getStatisticsRefreshInterval();
+        if (interval <= 0 || RedisDumpClient.isDumpFile(serverConfiguration)) {
+            return;
+        }
+        statisticsRefreshes.put(serverConfiguration, AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(() -> {
+            // an exception escaping the task would silently stop the refresh
+            try {
+                if (loadStatisticsQuietly(serverConfiguration) != null) {
+                    onRefresh.run();
+                }
+            } catch (RuntimeException ex) {
+                LOG.warn("Unable to refresh the statistics of " + serverConfiguration.getServerUrl(), ex); //NON-NLS
+            }
+        }, interval, interval, TimeUnit.SECONDS));
+    }
+
+    @Nullable
+    private RedisServerStatistics loadStatisticsQuietly(ServerConfiguration serverConfiguration) {
+        try {
+            return loadStatistics(serverConfiguration);
+        } catch (JedisException ex) {
+            LOG.info("Unable to read statistics of " + serverConfiguration.getServerUrl() + ": " + ex.getMessage()); //NON-NLS
+            return null;
+        }
+    }
+
+    public void cancelStatisticsRefresh(ServerConfiguration serverConfiguration) {
+        ScheduledFuture<?> refresh = statisticsRefreshes.remove(serverConfiguration);
+        if (refresh != null) {
+            refresh.cancel(false);
+        }
+    }
+
     public void cleanUpServers() {
         databaseServers.clear();
+        dumpClient.cleanUpServers();
+        cancelStatisticsRefreshes();
+        closePools();
+        closeRouters();
+        closeClusters();
+    }
+
+    @Override
+    public void dispose() {
+        cancelStatisticsRefreshes();
+        closePools();
+        closeRouters();
+        closeClusters();
+    }
+
+    @Nullable
+    public RedisPoolStatistics getPoolStatistics(ServerConfiguration serverConfiguration) {
+        RedisReplicaRouter router = routers.get(serverConfiguration);
+        JedisPool pool = router != null ? router.getMasterPool() : pools.get(serverConfiguration);
+        if (pool == null || pool.isClosed()) {
+            return null;
+        }
+        return new RedisPoolStatistics(pool.getNumActive(), pool.getNumIdle(), pool.getNumWaiters());
+    }
+
+    /**
+     * The replica reads are currently sent to, or null when they go to the master.
+     */
+    @Nullable
+    public String getReadEndpoint(ServerConfiguration serverConfiguration) {
+        RedisReplicaRouter router = routers.get(serverConfiguration);
+        HostAndPort readNode = router != null ? router.getReadNode() : null;
+        return readNode != null ? readNode.toString() : null;
     }
 
     public void registerServer(DatabaseServer databaseServer) {
@@ -105,34 +306,508 @@ public class RedisClient implements DatabaseClient {
 
     @Override
     public SearchResult loadRecords(DatabaseContext context, QueryOptions query) {
-        Jedis jedis = createJedis(context.getServerConfiguration());
-        jedis.connect();
         String name = ((RedisContext) context).getDatabase().getName();
-        int index = Integer.parseInt(name);
-        jedis.select(index);
+        List<DatabaseObject> elements = scanRecords(context, query, SCAN_POINTER_START, batch -> {}, () -> false).getRecords();
+        return new SearchResult(name, elements, elements.size());
+    }
+
+    @NotNull
+    public RedisScanResult scanRecords(DatabaseContext context, QueryOptions query, String cursor,
+                                       Consumer<List<DatabaseObject>> batchConsumer, BooleanSupplier isCancelled) {
+        if (RedisDumpClient.isDumpFile(context.getServerConfiguration())) {
+            return dumpClient.scanRecords(context, query, cursor, batchConsumer, isCancelled);
+        }
+        int index = Integer.parseInt(((RedisContext) context).getDatabase().getName());
+        ScanParams scanParams = new ScanParams().match(isNotBlank(query.getFilter()) ? query.getFilter() : "*").count(SCAN_COUNT);
+        int resultLimit = query.getResultLimit();
+        int chunkSize = Math.max(1, ((RedisServerConfiguration) context.getServerConfiguration()).getPipelineChunkSize());
+        if (isCluster(context.getServerConfiguration())) {
+            return scanCluster((RedisServerConfiguration) context.getServerConfiguration(), cursor, scanParams, resultLimit, chunkSize,
+                    batchConsumer, isCancelled);
+        }
 
         List<DatabaseObject> elements = new ArrayList<>();
-        try {
-            Set<String> keys = jedis.keys(query.getFilter());
-            for (String key : keys) {
-                RedisKeyType keyType = RedisKeyType.getKeyType(jedis.type(key));
+        String nextCursor = cursor;
+        try (Jedis jedis = getReadJedis(context.getServerConfiguration(), index)) {
+            do {
+                ScanResult<String> scanResult = jedis.scan(nextCursor, scanParams);
+                List<DatabaseObject> batch = fetchRecords(jedis, scanResult.getResult(), chunkSize);
+                nextCursor = scanResult.getStringCursor();
+                if (!batch.isEmpty()) {
+                    elements.addAll(batch);
+                    batchConsumer.accept(batch);
+                }
+            } while (!SCAN_POINTER_START.equals(nextCursor) && elements.size() < resultLimit && !isCancelled.getAsBoolean());
+        }
+        return new RedisScanResult(elements, nextCursor);
+    }
+
+    @NotNull
+    public RedisValuePage loadValues(RedisContext context, RedisKeyType keyType, String key, String cursor) {
+        if (RedisDumpClient.isDumpFile(context.getServerConfiguration())) {
+            return dumpClient.loadValues(context, key, cursor);
+        }
+        int index = Integer.parseInt(context.getDatabase().getName());
+        int pageSize = Math.max(1, ((RedisServerConfiguration) context.getServerConfiguration()).getValuePageSize());
+        if (isCluster(context.getServerConfiguration())) {
+            try (Jedis jedis = getClusterNode(context.getServerConfiguration(), getTopology(context.getServerConfiguration()).getMaster(key))) {
+                return keyType.loadPage(jedis, key, cursor, pageSize);
+            }
+        }
+        try (Jedis jedis = getReadJedis(context.getServerConfiguration(), index)) {
+            return keyType.loadPage(jedis, key, cursor, pageSize);
+        }
+    }
+
+    /**
+     * Reads a whole string value as consecutive GETRANGE chunks, reporting the number of bytes read so far.
+     *
+     * @return the value, or null when cancelled
+     */
+    @Nullable
+    public byte[] loadFullValue(RedisContext context, String key, LongConsumer progressConsumer, BooleanSupplier isCancelled) {
+        if (RedisDumpClient.isDumpFile(context.getServerConfiguration())) {
+            return dumpClient.loadFullValue(context, key, progressConsumer, isCancelled);
+        }
+        ServerConfiguration configuration = context.getServerConfiguration();
+        try (Jedis jedis = isCluster(configuration)
+                ? getClusterNode(configuration, getTopology(configuration).getMaster(key))
+                : getReadJedis(configuration, Integer.parseInt(context.getDatabase().getName()))) {
+            byte[] rawKey = SafeEncoder.encode(key);
+            long length = jedis.strlen(rawKey);
+            // the buffer grows with the chunks read, a cancelled load never holds the whole value
+            ByteArrayOutputStream value = new ByteArrayOutputStream((int) Math.min(length, VALUE_CHUNK_SIZE));
+            while (value.size() < length) {
+                if (isCancelled.getAsBoolean()) {
+                    return null;
+                }
+                byte[] chunk = jedis.getrange(rawKey, value.size(), value.size() + VALUE_CHUNK_SIZE - 1);
+                if (chunk.length == 0) {
+                    // the value was shortened meanwhile
+                    break;
+                }
+                value.write(chunk, 0, chunk.length);
+                progressConsumer.accept(value.size());
+            }
+            return value.toByteArray();
+        }
+    }
+
+    @NotNull
+    public RedisMemoryProfile profileMemory(RedisContext context, String separator,
+                                            Consumer<RedisMemoryProfile> progressConsumer, BooleanSupplier isCancelled) {
+        if (RedisDumpClient.isDumpFile(context.getServerConfiguration())) {
+            return dumpClient.profileMemory(context, separator, progressConsumer, isCancelled);
+        }
+        int index = Integer.parseInt(context.getDatabase().getName());
+        RedisServerConfiguration configuration = (RedisServerConfiguration) context.getServerConfiguration();
+        RedisMemoryProfile profile = new RedisMemoryProfile(separator, 1, 50);
+        boolean complete = true;
+        if (isCluster(configuration)) {
+            for (String master : getTopology(configuration).getMasters()) {
+                if (!complete || isCancelled.getAsBoolean()) {
+                    complete = false;
+                    break;
+                }
+                try (Jedis jedis = getClusterNode(configuration, master)) {
+                    complete = createProfiler(jedis, configuration).profile(profile, progressConsumer, isCancelled);
+                }
+            }
+        } else {
+            try (Jedis jedis = getReadJedis(configuration, index)) {
+                complete = createProfiler(jedis, configuration).profile(profile, progressConsumer, isCancelled);
+            }
+        }
+        profile.setComplete(complete);
+        progressConsumer.accept(profile);
+        return profile;
+    }
+
+    /**
+     * Applies the operation to every key matching the pattern, in pipelined chunks and within the configured rate.
+     *
+     * @return the number of keys the operation changed
+     */
+    public long applyToKeys(RedisContext context, String pattern, RedisKeyOperation operation, int ttlSeconds,
+                            LongConsumer progressConsumer, BooleanSupplier isCancelled) {
+        RedisServerConfiguration configuration = (RedisServerConfiguration) context.getServerConfiguration();
+        checkWritable(configuration);
+        RedisBulkOperator operator = new RedisBulkOperator(operation, ttlSeconds, SCAN_COUNT,
+                Math.max(1, configuration.getBulkChunkSize()), configuration.getBulkKeysPerSecond());
+        if (isCluster(configuration)) {
+            for (String master : getTopology(configuration).getMasters()) {
+                if (isCancelled.getAsBoolean()) {
+                    break;
+                }
+                try (Jedis jedis = getClusterNode(configuration, master)) {
+                    operator.apply(jedis, pattern, progressConsumer, isCancelled);
+                }
+            }
+        } else {
+            try (Jedis jedis = getJedis(configuration, Integer.parseInt(context.getDatabase().getName()))) {
+                operator.apply(jedis, pattern, progressConsumer, isCancelled);
+            }
+        }
+        return operator.getAffectedKeys();
+    }
+
+    /**
+     * Re-reads the given keys, pipelined per node. Keys that no longer exist are left out of the result.
+     */
+    @NotNull
+    public List<DatabaseObject> fetchKeys(RedisContext context, Collection<String> keys) {
+        RedisServerConfiguration configuration = (RedisServerConfiguration) context.getServerConfiguration();
+        int chunkSize = Math.max(1, configuration.getPipelineChunkSize());
+        List<String> keyList = new ArrayList<>(keys);
+        if (!isCluster(configuration)) {
+            try (Jedis jedis = getJedis(configuration, Integer.parseInt(context.getDatabase().getName()))) {
+                return fetchRecords(jedis, keyList, chunkSize);
+            }
+        }
+        RedisClusterTopology topology = getTopology(configuration);
+        Map<String, List<String>> keysByMaster = new LinkedHashMap<>();
+        for (String key : keyList) {
+            keysByMaster.computeIfAbsent(topology.getMaster(key), master -> new ArrayList<>()).add(key);
+        }
+        List<DatabaseObject> records = new ArrayList<>(keyList.size());
+        for (Map.Entry<String, List<String>> masterKeys : keysByMaster.entrySet()) {
+            try (Jedis jedis = getClusterNode(configuration, masterKeys.getKey())) {
+                records.addAll(fetchRecords(jedis, masterKeys.getValue(), chunkSize));
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Subscribes to the keyspace notifications of the keys matching the pattern, on every master of a cluster.
+     * Each subscription holds a connection of its own, outside of the pools, until the returned subscription is disposed.
+     */
+    @NotNull
+    public Disposable subscribeKeyspace(RedisContext context, String keyPattern, Consumer<String> keyConsumer, Consumer<Exception> errorConsumer) {
+        ServerConfiguration configuration = context.getServerConfiguration();
+        if (isReadOnly(configuration)) {
+            // a dump file never changes
+            return () -> {
+            };
+        }
+        int index = Integer.parseInt(context.getDatabase().getName());
+        RedisKeyspaceSubscription subscription = new RedisKeyspaceSubscription(index, keyPattern, keyConsumer, errorConsumer);
+        if (isCluster(configuration)) {
+            for (String master : getTopology(configuration).getMasters()) {
+                checkKeyspaceNotifications(() -> getClusterNode(configuration, master));
+                subscription.subscribe(() -> createSubscriber(configuration, HostAndPort.parseString(master)));
+            }
+        } else {
+            checkKeyspaceNotifications(() -> getJedis(configuration));
+            subscription.subscribe(() -> createSubscriber(configuration));
+        }
+        return subscription;
+    }
+
+    @Override
+    public boolean isReadOnly(ServerConfiguration serverConfiguration) {
+        return RedisDumpClient.isDumpFile(serverConfiguration);
+    }
+
+    private void checkWritable(ServerConfiguration configuration) {
+        if (isReadOnly(configuration)) {
+            throw new IllegalStateException(configuration.getServerUrl() + " is read-only"); //NON-NLS
+        }
+    }
+
+    /**
+     * Fails when the server is known not to publish the notifications. A server refusing CONFIG GET, as managed ones
+     * often do, may still publish them, so the subscription goes ahead.
+     */
+    static void checkKeyspaceNotifications(Supplier<Jedis> connection) {
+        List<String> events;
+        try (Jedis jedis = connection.get()) {
+            events = jedis.configGet(NOTIFY_KEYSPACE_EVENTS);
+        } catch (JedisDataException ex) {
+            LOG.warn("Unable to read notify-keyspace-events, subscribing anyway: " + ex.getMessage()); //NON-NLS
+            return;
+        }
+        String flags = events.size() > 1 ? events.get(1) : "";
+        if (!flags.contains("K") || !StringUtils.containsAny(flags, NOTIFIED_EVENT_CLASSES)) {
+            throw new IllegalStateException("Keyspace notifications are disabled on the server, " + //NON-NLS
+                    "enable them with CONFIG SET notify-keyspace-events KA"); //NON-NLS
+        }
+    }
+
+    @NotNull
+    private static RedisMemoryProfiler createProfiler(Jedis jedis, RedisServerConfiguration configuration) {
+        return new RedisMemoryProfiler(jedis, SCAN_COUNT, Math.max(1, configuration.getPipelineChunkSize()), configuration.getProfilerKeysPerSecond());
+    }
+
+    @NotNull
+    private RedisScanResult scanCluster(RedisServerConfiguration configuration, String cursor, ScanParams scanParams, int resultLimit, int chunkSize,
+                                        Consumer<List<DatabaseObject>> batchConsumer, BooleanSupplier isCancelled) {
+        if (SCAN_POINTER_START.equals(cursor)) {
+            topologies.remove(configuration);
+        }
+        RedisClusterScanner scanner = new RedisClusterScanner(getCluster(configuration), getTopology(configuration),
+                configuration.getClusterScanParallelism(), chunkSize);
+        return scanner.scan(cursor, scanParams, resultLimit, batchConsumer, isCancelled);
+    }
+
+    @NotNull
+    static List<DatabaseObject> fetchRecords(Jedis jedis, List<String> keys, int chunkSize) {
+        List<DatabaseObject> records = new ArrayList<>(keys.size());
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            List<String> chunk = keys.subList(from, Math.min(keys.size(), from + chunkSize));
+
+            Pipeline typePipeline = jedis.pipelined();
+            List<Response<String>> types = new ArrayList<>(chunk.size());
+            for (String key : chunk) {
+                types.add(typePipeline.type(key));
+            }
+            typePipeline.sync();
+
+            List<String> fetchedKeys = new ArrayList<>(chunk.size());
+            List<RedisKeyType> fetchedTypes = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                RedisKeyType keyType = RedisKeyType.getKeyType(types.get(i).get());
                 if (keyType != null) {
-                    DatabaseElement databaseElement = keyType.toDatabaseElement(jedis, key);
-                    elements.add(new SingleDatabaseObject(singletonList(key), singletonMap(key, databaseElement)));
+                    fetchedKeys.add(chunk.get(i));
+                    fetchedTypes.add(keyType);
+                }
+            }
+
+            List<Response<?>> sizes = new ArrayList<>(fetchedKeys.size());
+            List<Response<Long>> ttls = new ArrayList<>(fetchedKeys.size());
+            List<Response<?>> previews = new ArrayList<>(fetchedKeys.size());
+            requestMetadata(jedis, fetchedKeys, fetchedTypes, sizes, ttls, previews);
+            if (RedisScript.isMissing(sizes) || RedisScript.isMissing(previews)) {
+                for (RedisKeyType keyType : new HashSet<>(fetchedTypes)) {
+                    keyType.loadScripts(jedis);
                 }
+                sizes.clear();
+                ttls.clear();
+                previews.clear();
+                requestMetadata(jedis, fetchedKeys, fetchedTypes, sizes, ttls, previews);
+            }
+
+            for (int i = 0; i < fetchedKeys.size(); i++) {
+                String key = fetchedKeys.get(i);
+                DatabaseElement databaseElement = fetchedTypes.get(i).toDatabaseElement(key, sizes.get(i), ttls.get(i), previews.get(i));
+                records.add(new SingleDatabaseObject(singletonList(key), singletonMap(key, databaseElement)));
             }
-        } catch (Exception ignored) {
         }
-        return new SearchResult(name, elements, elements.size());
+        return records;
+    }
+
+    private static void requestMetadata(Jedis jedis, List<String> keys, List<RedisKeyType> keyTypes,
+                                        List<Response<?>> sizes, List<Response<Long>> ttls, List<Response<?>> previews) {
+        Pipeline metadataPipeline = jedis.pipelined();
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            RedisKeyType keyType = keyTypes.get(i);
+            sizes.add(keyType.requestSize(metadataPipeline, key));
+            ttls.add(metadataPipeline.ttl(key));
+            previews.add(keyType.requestPreview(metadataPipeline, key));
+        }
+        metadataPipeline.sync();
+    }
+
+    @NotNull
+    private Jedis getJedis(ServerConfiguration serverConfiguration, int index) {
+        return select(getJedis(serverConfiguration), index);
+    }
+
+    @NotNull
+    private static Jedis select(Jedis jedis, int index) {
+        try {
+            if (jedis.getDB() != index) {
+                jedis.select(index);
+            }
+        } catch (RuntimeException ex) {
+            jedis.close();
+            throw ex;
+        }
+        return jedis;
     }
 
-    protected Jedis createJedis(ServerConfiguration serverConfiguration) {
-        return new Jedis(createUri(serverConfiguration.getAuthenticationSettings().getPassword(), serverConfiguration.getServerUrl()));
+    @NotNull
+    protected Jedis getJedis(ServerConfiguration serverConfiguration) {
+        if (RedisReplicaRouter.isReplicated((RedisServerConfiguration) serverConfiguration)) {
+            return getRouter(serverConfiguration).getMaster();
+        }
+        return pools.computeIfAbsent(serverConfiguration, this::createPool).getResource();
     }
 
+    /**
+     * A connection for read-only commands, on the fastest replica when replicas are configured.
+     */
     @NotNull
-    private String createUri(String password, String serverUrl) {
-        return "redis://" + (isNotEmpty(password) ? ":" + password + "@" : "") + serverUrl; //NON-NLS
+    private Jedis getReadJedis(ServerConfiguration serverConfiguration, int index) {
+        if (!RedisReplicaRouter.isReplicated((RedisServerConfiguration) serverConfiguration)) {
+            return getJedis(serverConfiguration, index);
+        }
+        return select(getRouter(serverConfiguration).getReader(), index);
+    }
+
+    /**
+     * A connection of the server, or of its master when replicas are configured, that no pool hands out again.
+     */
+    @NotNull
+    private Jedis createSubscriber(ServerConfiguration serverConfiguration) {
+        if (RedisReplicaRouter.isReplicated((RedisServerConfiguration) serverConfiguration)) {
+            HostAndPort master = getRouter(serverConfiguration).getMasterNode();
+            if (master == null) {
+                throw new JedisConnectionException("No master known for " + serverConfiguration.getServerUrl()); //NON-NLS
+            }
+            return createSubscriber(serverConfiguration, master);
+        }
+        // no read timeout, the server only writes to a subscriber when a key changes
+        return new Jedis(createUri(serverConfiguration), ((RedisServerConfiguration) serverConfiguration).getConnectionTimeout(), 0);
+    }
+
+    @NotNull
+    private static Jedis createSubscriber(ServerConfiguration serverConfiguration, HostAndPort node) {
+        Jedis jedis = new Jedis(node.getHost(), node.getPort(), ((RedisServerConfiguration) serverConfiguration).getConnectionTimeout(), 0);
+        String password = serverConfiguration.getAuthenticationSettings().getPassword();
+        if (isNotEmpty(password)) {
+            try {
+                jedis.auth(password);
+            } catch (RuntimeException ex) {
+                jedis.close();
+                throw ex;
+            }
+        }
+        return jedis;
+    }
+
+    @NotNull
+    private RedisReplicaRouter getRouter(ServerConfiguration serverConfiguration) {
+        RedisReplicaRouter router = routers.get(serverConfiguration);
+        if (router != null) {
+            return router;
+        }
+        RedisServerConfiguration redisConfiguration = (RedisServerConfiguration) serverConfiguration;
+        RedisReplicaRouter newRouter = new RedisReplicaRouter(redisConfiguration, createPoolConfig(redisConfiguration));
+        // refreshing asks the sentinels and pings the replicas, which must not block the other servers of the map
+        newRouter.refresh();
+        router = routers.putIfAbsent(serverConfiguration, newRouter);
+        if (router != null) {
+            newRouter.close();
+            return router;
+        }
+        int interval = redisConfiguration.getReplicaPingInterval();
+        if (interval > 0) {
+            routerRefreshes.put(serverConfiguration, AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(() -> {
+                try {
+                    newRouter.refresh();
+                } catch (JedisException ex) {
+                    LOG.info("Unable to refresh the replicas of " + serverConfiguration.getServerUrl() + ": " + ex.getMessage()); //NON-NLS
+                }
+            }, interval, interval, TimeUnit.SECONDS));
+        }
+        return newRouter;
+    }
+
+    @NotNull
+    private JedisPool createPool(ServerConfiguration serverConfiguration) {
+        RedisServerConfiguration redisConfiguration = (RedisServerConfiguration) serverConfiguration;
+        return new JedisPool(createPoolConfig(redisConfiguration), createUri(serverConfiguration),
+                redisConfiguration.getConnectionTimeout(), redisConfiguration.getSocketTimeout());
+    }
+
+    @NotNull
+    private static JedisPoolConfig createPoolConfig(RedisServerConfiguration redisConfiguration) {
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(redisConfiguration.getPoolMaxTotal());
+        poolConfig.setMaxIdle(redisConfiguration.getPoolMaxIdle());
+        poolConfig.setMinIdle(redisConfiguration.getPoolMinIdle());
+        return poolConfig;
+    }
+
+    private static boolean isCluster(ServerConfiguration serverConfiguration) {
+        RedisServerConfiguration redisConfiguration = (RedisServerConfiguration) serverConfiguration;
+        // several sentinels are listed as several servers too
+        return redisConfiguration.isClusterMode()
+                || !serverConfiguration.isSingleServer() && isBlank(redisConfiguration.getSentinelMasterName());
+    }
+
+    @NotNull
+    private JedisCluster getCluster(ServerConfiguration serverConfiguration) {
+        return clusters.computeIfAbsent(serverConfiguration, this::createCluster);
+    }
+
+    @NotNull
+    private RedisClusterTopology getTopology(ServerConfiguration serverConfiguration) {
+        return topologies.computeIfAbsent(serverConfiguration, configuration -> RedisClusterTopology.load(getCluster(configuration)));
+    }
+
+    @NotNull
+    private Jedis getClusterNode(ServerConfiguration serverConfiguration, String node) {
+        JedisPool pool = getCluster(serverConfiguration).getClusterNodes().get(node);
+        if (pool == null) {
+            throw new JedisConnectionException("Unknown cluster node " + node); //NON-NLS
+        }
+        return pool.getResource();
+    }
+
+    @NotNull
+    private JedisCluster createCluster(ServerConfiguration serverConfiguration) {
+        RedisServerConfiguration redisConfiguration = (RedisServerConfiguration) serverConfiguration;
+        Set<HostAndPort> nodes = new HashSet<>();
+        for (String node : serverConfiguration.getServerUrl().split(",")) {
+            if (isNotBlank(node)) {
+                nodes.add(HostAndPort.parseString(node.trim()));
+            }
+        }
+        String password = serverConfiguration.getAuthenticationSettings().getPassword();
+        return new JedisCluster(nodes, redisConfiguration.getConnectionTimeout(), redisConfiguration.getSocketTimeout(), CLUSTER_MAX_ATTEMPTS,
+                isNotEmpty(password) ? password : null, createPoolConfig(redisConfiguration));
+    }
+
+    private void closeClusters() {
+        topologies.clear();
+        for (ServerConfiguration serverConfiguration : clusters.keySet()) {
+            JedisCluster cluster = clusters.remove(serverConfiguration);
+            if (cluster != null) {
+                try {
+                    cluster.close();
+                } catch (IOException ignored) {
+                    // the node pools are closed regardless
+                }
+            }
+        }
+    }
+
+    private void cancelStatisticsRefreshes() {
+        for (ServerConfiguration serverConfiguration : statisticsRefreshes.keySet()) {
+            cancelStatisticsRefresh(serverConfiguration);
+        }
+        statistics.clear();
+    }
+
+    private void closeRouters() {
+        for (ServerConfiguration serverConfiguration : routers.keySet()) {
+            ScheduledFuture<?> refresh = routerRefreshes.remove(serverConfiguration);
+            if (refresh != null) {
+                refresh.cancel(false);
+            }
+            RedisReplicaRouter router = routers.remove(serverConfiguration);
+            if (router != null) {
+                router.close();
+            }
+        }
+    }
+
+    private void closePools() {
+        for (ServerConfiguration serverConfiguration : pools.keySet()) {
+            JedisPool pool = pools.remove(serverConfiguration);
+            if (pool != null) {
+                pool.close();
+            }
+        }
+    }
+
+    @NotNull
+    private URI createUri(ServerConfiguration serverConfiguration) {
+        String password = serverConfiguration.getAuthenticationSettings().getPassword();
+        return URI.create("redis://" + (isNotEmpty(password) ? ":" + password + "@" : "") + serverConfiguration.getServerUrl()); //NON-NLS
     }
 
     @NotNull
@@ -155,6 +830,14 @@ public class RedisClient implements DatabaseClient {
 
     @Override
     public void delete(@NotNull DatabaseContext redisPanelContext, @NotNull Object _id) {
-
+        RedisContext context = (RedisContext) redisPanelContext;
+        String key = _id.toString();
+        ServerConfiguration configuration = context.getServerConfiguration();
+        checkWritable(configuration);
+        try (Jedis jedis = isCluster(configuration)
+                ? getClusterNode(configuration, getTopology(configuration).getMaster(key))
+                : getJedis(configuration, Integer.parseInt(context.getDatabase().getName()))) {
+            RedisKeyOperation.UNLINK.apply(jedis, key, 0);
+        }
     }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic;
+
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.codinjutsu.tools.nosql.commons.exceptions.DatabaseException;
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject;
+import org.codinjutsu.tools.nosql.redis.model.RedisScanResult;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
+/**
+ * Scans every master of a cluster in parallel. Each round issues one SCAN per unfinished master, fetches the
+ * metadata of the returned keys through a pipeline on that same master, and merges the rounds in slot order.
+ * <p>
+ * The cursor handed back to the caller lists the pending per-master cursors as {@code node=cursor,...}.
+ */
+class RedisClusterScanner {
+
+    private static final String NODE_SEPARATOR = ","; //NON-NLS
+    private static final String CURSOR_SEPARATOR = "="; //NON-NLS
+
+    private final JedisCluster cluster;
+    private final RedisClusterTopology topology;
+    private final int parallelism;
+    private final int chunkSize;
+
+    RedisClusterScanner(JedisCluster cluster, RedisClusterTopology topology, int parallelism, int chunkSize) {
+        this.cluster = cluster;
+        this.topology = topology;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+    }
+
+    @NotNull
+    RedisScanResult scan(String cursor, ScanParams scanParams, int resultLimit,
+                         Consumer<List<DatabaseObject>> batchConsumer, BooleanSupplier isCancelled) {
+        Map<String, String> cursors = decodeCursor(cursor);
+        List<DatabaseObject> records = new ArrayList<>();
+        if (cursors.isEmpty()) {
+            return new RedisScanResult(records, SCAN_POINTER_START);
+        }
+
+        // a bounded view of the shared application pool, no thread is created per scan
+        ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Redis cluster scan", //NON-NLS
+                Math.max(1, Math.min(parallelism, cursors.size())));
+        while (!cursors.isEmpty() && records.size() < resultLimit && !isCancelled.getAsBoolean()) {
+            Map<String, Future<NodeScan>> scans = new LinkedHashMap<>();
+            List<DatabaseObject> batch = new ArrayList<>();
+            try {
+                for (Map.Entry<String, String> nodeCursor : cursors.entrySet()) {
+                    scans.put(nodeCursor.getKey(), executor.submit(() -> scanNode(nodeCursor.getKey(), nodeCursor.getValue(), scanParams)));
+                }
+                for (Map.Entry<String, Future<NodeScan>> scan : scans.entrySet()) {
+                    NodeScan nodeScan = getResult(scan.getValue());
+                    batch.addAll(nodeScan.records);
+                    if (SCAN_POINTER_START.equals(nodeScan.cursor)) {
+                        cursors.remove(scan.getKey());
+                    } else {
+                        cursors.put(scan.getKey(), nodeScan.cursor);
+                    }
+                }
+            } finally {
+                // drops the scans not started yet when a node failed, the threads of the shared pool are not interrupted
+                for (Future<NodeScan> scan : scans.values()) {
+                    scan.cancel(false);
+                }
+            }
+            if (!batch.isEmpty()) {
+                records.addAll(batch);
+                batchConsumer.accept(batch);
+            }
+        }
+        return new RedisScanResult(records, encodeCursor(cursors));
+    }
+
+    @NotNull
+    private NodeScan scanNode(String node, String cursor, ScanParams scanParams) {
+        JedisPool pool = cluster.getClusterNodes().get(node);
+        if (pool == null) {
+            throw new JedisConnectionException("Unknown cluster node " + node); //NON-NLS
+        }
+        try (Jedis jedis = pool.getResource()) {
+            ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+            return new NodeScan(RedisClient.fetchRecords(jedis, scanResult.getResult(), chunkSize), scanResult.getStringCursor());
+        }
+    }
+
+    @NotNull
+    Map<String, String> decodeCursor(String cursor) {
+        Map<String, String> cursors = new LinkedHashMap<>();
+        if (SCAN_POINTER_START.equals(cursor)) {
+            for (String master : topology.getMasters()) {
+                cursors.put(master, SCAN_POINTER_START);
+            }
+            return cursors;
+        }
+        for (String nodeCursor : cursor.split(NODE_SEPARATOR)) {
+            int separator = nodeCursor.lastIndexOf(CURSOR_SEPARATOR);
+            cursors.put(nodeCursor.substring(0, separator), nodeCursor.substring(separator + 1));
+        }
+        return cursors;
+    }
+
+    @NotNull
+    static String encodeCursor(Map<String, String> cursors) {
+        if (cursors.isEmpty()) {
+            return SCAN_POINTER_START;
+        }
+        StringBuilder cursor = new StringBuilder();
+        for (Map.Entry<String, String> nodeCursor : cursors.entrySet()) {
+            if (cursor.length() > 0) {
+                cursor.append(NODE_SEPARATOR);
+            }
+            cursor.append(nodeCursor.getKey()).append(CURSOR_SEPARATOR).append(nodeCursor.getValue());
+        }
+        return cursor.toString();
+    }
+
+    @NotNull
+    private static NodeScan getResult(Future<NodeScan> scan) {
+        try {
+            return scan.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException("Interrupted while scanning the cluster", ex); //NON-NLS
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new DatabaseException("Unable to scan the cluster", ex.getCause()); //NON-NLS
+        }
+    }
+
+    private static class NodeScan {
+
+        private final List<DatabaseObject> records;
+        private final String cursor;
+
+        NodeScan(List<DatabaseObject> records, String cursor) {
+            this.records = records;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic;
+
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.util.JedisClusterCRC16;
+import redis.clients.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Slot ownership of the master nodes of a cluster, as reported by CLUSTER SLOTS.
+ */
+class RedisClusterTopology {
+
+    private static final int SLOT_COUNT = 16384;
+
+    private final List<String> masters;
+    private final String[] slotOwners;
+
+    private RedisClusterTopology(List<String> masters, String[] slotOwners) {
+        this.masters = masters;
+        this.slotOwners = slotOwners;
+    }
+
+    @NotNull
+    static RedisClusterTopology load(JedisCluster cluster) {
+        JedisConnectionException lastError = new JedisConnectionException("No reachable cluster node"); //NON-NLS
+        for (JedisPool pool : cluster.getClusterNodes().values()) {
+            try (Jedis jedis = pool.getResource()) {
+                return parse(jedis.clusterSlots());
+            } catch (JedisConnectionException ex) {
+                lastError = ex;
+            }
+        }
+        throw lastError;
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private static RedisClusterTopology parse(List<Object> slotRanges) {
+        List<List<Object>> ranges = new ArrayList<>();
+        for (Object slotRange : slotRanges) {
+            ranges.add((List<Object>) slotRange);
+        }
+        ranges.sort(Comparator.comparingLong(range -> (Long) range.get(0)));
+
+        Set<String> masters = new LinkedHashSet<>();
+        String[] slotOwners = new String[SLOT_COUNT];
+        for (List<Object> range : ranges) {
+            List<Object> master = (List<Object>) range.get(2);
+            String node = SafeEncoder.encode((byte[]) master.get(0)) + ":" + master.get(1);
+            masters.add(node);
+            for (int slot = ((Long) range.get(0)).intValue(); slot <= ((Long) range.get(1)).intValue(); slot++) {
+                slotOwners[slot] = node;
+            }
+        }
+        return new RedisClusterTopology(Collections.unmodifiableList(new ArrayList<>(masters)), slotOwners);
+    }
+
+    /**
+     * Master nodes in slot order, so that merged scans list keys in a stable order.
+     */
+    @NotNull
+    List<String> getMasters() {
+        return masters;
+    }
+
+    String getMaster(String key) {
+        return slotOwners[JedisClusterCRC16.getSlot(key)];
+    }
+}
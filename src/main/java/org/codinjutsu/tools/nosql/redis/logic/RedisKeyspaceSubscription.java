@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keyspace notification subscriptions, each holding a dedicated connection on its own thread until disposed.
+ */
+class RedisKeyspaceSubscription implements Disposable {
+
+    private final String channelPattern;
+    private final Consumer<String> keyConsumer;
+    private final Consumer<Exception> errorConsumer;
+    private final List<KeyspaceListener> listeners = new ArrayList<>();
+
+    private volatile boolean disposed;
+
+    RedisKeyspaceSubscription(int database, String keyPattern, Consumer<String> keyConsumer, Consumer<Exception> errorConsumer) {
+        this.channelPattern = "__keyspace@" + database + "__:" + keyPattern; //NON-NLS
+        this.keyConsumer = keyConsumer;
+        this.errorConsumer = errorConsumer;
+    }
+
+    void subscribe(Supplier<Jedis> connection) {
+        KeyspaceListener listener = new KeyspaceListener();
+        synchronized (listeners) {
+            listeners.add(listener);
+        }
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try (Jedis jedis = connection.get()) {
+                if (!disposed) {
+                    jedis.psubscribe(listener, channelPattern);
+                }
+            } catch (RuntimeException ex) {
+                if (!disposed) {
+                    errorConsumer.accept(ex);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+        synchronized (listeners) {
+            for (KeyspaceListener listener : listeners) {
+                if (listener.isSubscribed()) {
+                    listener.punsubscribe();
+                }
+            }
+        }
+    }
+
+    private class KeyspaceListener extends JedisPubSub {
+
+        @Override
+        public void onPSubscribe(String pattern, int subscribedChannels) {
+            // the subscription may have been disposed while connecting
+            if (disposed) {
+                punsubscribe();
+            }
+        }
+
+        @Override
+        public void onPMessage(String pattern, String channel, String message) {
+            keyConsumer.accept(channel.substring(channel.indexOf(':') + 1));
+        }
+    }
+}
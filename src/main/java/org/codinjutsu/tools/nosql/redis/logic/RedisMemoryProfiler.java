@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic;
+
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyStatistics;
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyType;
+import org.codinjutsu.tools.nosql.redis.model.RedisMemoryProfile;
+import org.codinjutsu.tools.nosql.redis.model.RedisScript;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
+/**
+ * Scans a database and collects per-key memory statistics, pausing between batches so that the
+ * number of inspected keys per second stays under the configured rate.
+ */
+class RedisMemoryProfiler {
+
+    private static final Logger LOG = Logger.getLogger(RedisMemoryProfiler.class);
+
+    // Jedis has no MEMORY command, the reply is converted to a bulk string to fit the pipeline's eval builder
+    private static final RedisScript MEMORY_USAGE_SCRIPT = new RedisScript(
+            "local usage = redis.call('MEMORY', 'USAGE', KEYS[1]) if usage then return tostring(usage) end return nil"); //NON-NLS
+
+    private final Jedis jedis;
+    private final int scanCount;
+    private final int chunkSize;
+    private final RedisRateLimiter rateLimiter;
+
+    private boolean memoryUsageSupported = true;
+
+    RedisMemoryProfiler(Jedis jedis, int scanCount, int chunkSize, int keysPerSecond) {
+        this.jedis = jedis;
+        this.scanCount = scanCount;
+        this.chunkSize = chunkSize;
+        this.rateLimiter = new RedisRateLimiter(keysPerSecond);
+    }
+
+    /**
+     * @return whether the whole database was scanned
+     */
+    boolean profile(RedisMemoryProfile profile, Consumer<RedisMemoryProfile> progressConsumer, BooleanSupplier isCancelled) {
+        ScanParams scanParams = new ScanParams().count(scanCount);
+        String cursor = SCAN_POINTER_START;
+        do {
+            long batchStart = System.nanoTime();
+            ScanResult<String> scanResult = jedis.scan(cursor, scanParams);
+            List<String> keys = scanResult.getResult();
+            for (int from = 0; from < keys.size(); from += chunkSize) {
+                collectStatistics(keys.subList(from, Math.min(keys.size(), from + chunkSize)), profile);
+            }
+            cursor = scanResult.getStringCursor();
+            progressConsumer.accept(profile);
+            if (!rateLimiter.throttle(keys.size(), System.nanoTime() - batchStart)) {
+                break;
+            }
+        } while (!SCAN_POINTER_START.equals(cursor) && !isCancelled.getAsBoolean());
+        return SCAN_POINTER_START.equals(cursor);
+    }
+
+    private void collectStatistics(List<String> keys, RedisMemoryProfile profile) {
+        Pipeline typePipeline = jedis.pipelined();
+        List<Response<String>> types = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            types.add(typePipeline.type(key));
+        }
+        typePipeline.sync();
+        collectStatistics(keys, types, profile, false);
+    }
+
+    private void collectStatistics(List<String> keys, List<Response<String>> types, RedisMemoryProfile profile, boolean scriptLoaded) {
+        Pipeline statisticsPipeline = jedis.pipelined();
+        List<String> profiledKeys = new ArrayList<>(keys.size());
+        List<RedisKeyType> profiledTypes = new ArrayList<>(keys.size());
+        List<Response<String>> memoryUsages = new ArrayList<>(keys.size());
+        List<Response<String>> encodings = new ArrayList<>(keys.size());
+        List<Response<Long>> ttls = new ArrayList<>(keys.size());
+        List<Response<?>> cardinalities = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            RedisKeyType keyType = RedisKeyType.getKeyType(types.get(i).get());
+            if (keyType != null) {
+                String key = keys.get(i);
+                profiledKeys.add(key);
+                profiledTypes.add(keyType);
+                memoryUsages.add(memoryUsageSupported ? MEMORY_USAGE_SCRIPT.request(statisticsPipeline, key) : null);
+                encodings.add(statisticsPipeline.objectEncoding(key));
+                ttls.add(statisticsPipeline.ttl(key));
+                cardinalities.add(keyType.requestSize(statisticsPipeline, key));
+            }
+        }
+        statisticsPipeline.sync();
+        if (!scriptLoaded && RedisScript.isMissing(memoryUsages)) {
+            MEMORY_USAGE_SCRIPT.load(jedis);
+            collectStatistics(keys, types, profile, true);
+            return;
+        }
+
+        for (int i = 0; i < profiledKeys.size(); i++) {
+            profile.add(new RedisKeyStatistics(profiledKeys.get(i), profiledTypes.get(i),
+                    getMemoryUsage(memoryUsages.get(i)), getValue(encodings.get(i)), getLong(ttls.get(i)), getLong(cardinalities.get(i))));
+        }
+    }
+
+    private long getMemoryUsage(@Nullable Response<String> response) {
+        if (response == null) {
+            return -1;
+        }
+        try {
+            String memoryUsage = response.get();
+            return memoryUsage != null ? Long.parseLong(memoryUsage) : -1;
+        } catch (JedisDataException ex) {
+            LOG.info("MEMORY USAGE is not available, falling back to cardinalities: " + ex.getMessage()); //NON-NLS
+            memoryUsageSupported = false;
+            return -1;
+        }
+    }
+
+    @Nullable
+    private static <T> T getValue(Response<T> response) {
+        try {
+            return response.get();
+        } catch (JedisDataException ex) {
+            return null;
+        }
+    }
+
+    private static long getLong(Response<?> response) {
+        Object value = getValue(response);
+        return value != null ? RedisKeyType.toLong(value) : -1;
+    }
+}
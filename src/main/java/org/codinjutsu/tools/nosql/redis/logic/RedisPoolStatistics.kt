@@ -0,0 +1,3 @@
+package org.codinjutsu.tools.nosql.redis.logic
+
+data class RedisPoolStatistics(val active: Int, val idle: Int, val waiters: Int)
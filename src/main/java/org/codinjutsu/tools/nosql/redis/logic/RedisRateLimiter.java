@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pauses between batches so that the number of keys processed per second stays under a limit.
+ */
+class RedisRateLimiter {
+
+    private final int keysPerSecond;
+
+    RedisRateLimiter(int keysPerSecond) {
+        this.keysPerSecond = keysPerSecond;
+    }
+
+    /**
+     * @return false if the thread was interrupted while pausing
+     */
+    boolean throttle(int processedKeys, long elapsedNanos) {
+        if (keysPerSecond <= 0) {
+            return true;
+        }
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(TimeUnit.SECONDS.toNanos(processedKeys) / keysPerSecond - elapsedNanos);
+        if (remainingMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(remainingMillis);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic;
+
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.nosql.redis.configuration.RedisServerConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+import static org.apache.commons.lang.StringUtils.isNotEmpty;
+
+/**
+ * Sends reads to the replica answering PING the fastest, and everything else to the master. The master and the
+ * replicas are either configured or asked to Sentinel, in which case the server URL lists the sentinels.
+ */
+class RedisReplicaRouter {
+
+    private static final Logger LOG = Logger.getLogger(RedisReplicaRouter.class);
+
+    // weight of the last PING in the smoothed latency, so that a single slow reply does not move all the reads
+    private static final double LATENCY_SMOOTHING = 0.3;
+
+    private final RedisServerConfiguration configuration;
+    private final JedisPoolConfig poolConfig;
+    private final ConcurrentMap<HostAndPort, JedisPool> pools = new ConcurrentHashMap<>();
+    private final Map<HostAndPort, Double> latencies = new HashMap<>();
+
+    private volatile HostAndPort master;
+    private volatile HostAndPort readNode;
+
+    RedisReplicaRouter(RedisServerConfiguration configuration, JedisPoolConfig poolConfig) {
+        this.configuration = configuration;
+        this.poolConfig = poolConfig;
+    }
+
+    static boolean isReplicated(RedisServerConfiguration configuration) {
+        return isNotBlank(configuration.getSentinelMasterName()) || isNotBlank(configuration.getReplicaUrls());
+    }
+
+    /**
+     * Resolves the master and pings the replicas. A replica that fails is skipped until a later refresh finds it healthy again.
+     * The pools of the nodes that left the topology are closed.
+     */
+    synchronized void refresh() {
+        List<HostAndPort> replicas;
+        if (isNotBlank(configuration.getSentinelMasterName())) {
+            replicas = askSentinels();
+        } else {
+            master = HostAndPort.parseString(configuration.getServerUrl().trim());
+            replicas = parseNodes(configuration.getReplicaUrls());
+        }
+
+        HostAndPort fastest = null;
+        double fastestLatency = Double.MAX_VALUE;
+        for (HostAndPort replica : replicas) {
+            Double latency = ping(replica);
+            if (latency == null) {
+                latencies.remove(replica);
+                continue;
+            }
+            double smoothed = latencies.containsKey(replica)
+                    ? (1 - LATENCY_SMOOTHING) * latencies.get(replica) + LATENCY_SMOOTHING * latency
+                    : latency;
+            latencies.put(replica, smoothed);
+            if (smoothed < fastestLatency) {
+                fastest = replica;
+                fastestLatency = smoothed;
+            }
+        }
+        latencies.keySet().retainAll(replicas);
+        readNode = fastest;
+        closeStalePools(replicas);
+    }
+
+    private void closeStalePools(List<HostAndPort> replicas) {
+        HostAndPort currentMaster = master;
+        for (HostAndPort node : pools.keySet()) {
+            if (!node.equals(currentMaster) && !replicas.contains(node)) {
+                JedisPool pool = pools.remove(node);
+                if (pool != null) {
+                    pool.close();
+                }
+            }
+        }
+    }
+
+    @NotNull
+    Jedis getMaster() {
+        HostAndPort node = master;
+        if (node == null) {
+            throw new JedisConnectionException("No master known for " + configuration.getServerUrl()); //NON-NLS
+        }
+        return getPool(node).getResource();
+    }
+
+    /**
+     * The fastest healthy replica, or the master when none answers.
+     */
+    @NotNull
+    Jedis getReader() {
+        HostAndPort node = readNode;
+        if (node != null) {
+            try {
+                return getPool(node).getResource();
+            } catch (JedisConnectionException ex) {
+                LOG.info("Replica " + node + " is not reachable, reading from the master: " + ex.getMessage()); //NON-NLS
+                readNode = null;
+            }
+        }
+        return getMaster();
+    }
+
+    @Nullable
+    HostAndPort getReadNode() {
+        return readNode;
+    }
+
+    @Nullable
+    HostAndPort getMasterNode() {
+        return master;
+    }
+
+    @Nullable
+    JedisPool getMasterPool() {
+        HostAndPort node = master;
+        return node != null ? pools.get(node) : null;
+    }
+
+    void close() {
+        for (HostAndPort node : pools.keySet()) {
+            JedisPool pool = pools.remove(node);
+            if (pool != null) {
+                pool.close();
+            }
+        }
+    }
+
+    @NotNull
+    private List<HostAndPort> askSentinels() {
+        JedisException lastError = new JedisConnectionException("No sentinel configured"); //NON-NLS
+        for (HostAndPort sentinel : parseNodes(configuration.getServerUrl())) {
+            try (Jedis jedis = new Jedis(sentinel.getHost(), sentinel.getPort(), configuration.getConnectionTimeout(), configuration.getSocketTimeout())) {
+                List<String> masterAddress = jedis.sentinelGetMasterAddrByName(configuration.getSentinelMasterName());
+                if (masterAddress == null || masterAddress.size() != 2) {
+                    lastError = new JedisConnectionException("Sentinel " + sentinel + " does not know " + configuration.getSentinelMasterName()); //NON-NLS
+                    continue;
+                }
+                master = new HostAndPort(masterAddress.get(0), Integer.parseInt(masterAddress.get(1)));
+                return parseSentinelReplicas(jedis.sentinelSlaves(configuration.getSentinelMasterName()));
+            } catch (JedisException ex) {
+                lastError = ex;
+            }
+        }
+        throw lastError;
+    }
+
+    /**
+     * Keeps the replicas of a SENTINEL SLAVES reply that are neither down nor disconnected from their master.
+     */
+    @NotNull
+    static List<HostAndPort> parseSentinelReplicas(List<Map<String, String>> replies) {
+        List<HostAndPort> replicas = new ArrayList<>();
+        for (Map<String, String> replica : replies) {
+            String flags = replica.get("flags"); //NON-NLS
+            if (flags != null && !flags.contains("down") && !flags.contains("disconnected")) { //NON-NLS
+                replicas.add(new HostAndPort(replica.get("ip"), Integer.parseInt(replica.get("port")))); //NON-NLS
+            }
+        }
+        return replicas;
+    }
+
+    /**
+     * @return the PING round trip in milliseconds, or null when the replica does not answer
+     */
+    @Nullable
+    protected Double ping(HostAndPort replica) {
+        try (Jedis jedis = getPool(replica).getResource()) {
+            long start = System.nanoTime();
+            jedis.ping();
+            return (System.nanoTime() - start) / 1_000_000.0;
+        } catch (JedisException ex) {
+            LOG.debug("Replica " + replica + " did not answer PING: " + ex.getMessage()); //NON-NLS
+            return null;
+        }
+    }
+
+    @NotNull
+    private JedisPool getPool(HostAndPort node) {
+        return pools.computeIfAbsent(node, this::createPool);
+    }
+
+    @NotNull
+    protected JedisPool createPool(HostAndPort node) {
+        String password = configuration.getAuthenticationSettings().getPassword();
+        return new JedisPool(poolConfig, node.getHost(), node.getPort(), configuration.getConnectionTimeout(),
+                configuration.getSocketTimeout(), isNotEmpty(password) ? password : null, Protocol.DEFAULT_DATABASE, null);
+    }
+
+    @NotNull
+    static List<HostAndPort> parseNodes(@Nullable String nodes) {
+        List<HostAndPort> addresses = new ArrayList<>();
+        if (nodes != null) {
+            for (String node : nodes.split(",")) {
+                if (isNotBlank(node)) {
+                    addresses.add(HostAndPort.parseString(node.trim()));
+                }
+            }
+        }
+        return addresses;
+    }
+}
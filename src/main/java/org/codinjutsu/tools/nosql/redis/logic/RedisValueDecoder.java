@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic;
+
+import org.codinjutsu.tools.nosql.redis.model.RedisDecodedValue;
+import org.codinjutsu.tools.nosql.redis.model.RedisValueFormat;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Guesses how a string value was written (gzip, snappy, UTF-8 text or plain bytes) and turns it into displayable text.
+ */
+public class RedisValueDecoder {
+
+    private static final int GZIP_MAGIC_1 = 0x1F;
+    private static final int GZIP_MAGIC_2 = 0x8B;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private RedisValueDecoder() {
+    }
+
+    /**
+     * @param truncated whether {@code bytes} is only the beginning of the value, in which case a character or a
+     *                  compressed block cut at the end is dropped instead of turning the value into binary
+     */
+    @NotNull
+    public static RedisDecodedValue decode(byte[] bytes, boolean truncated) {
+        if (isGzip(bytes)) {
+            try {
+                return new RedisDecodedValue(RedisValueFormat.GZIP, toText(gunzip(bytes), truncated));
+            } catch (IOException ignored) {
+                // not gzip after all
+            }
+        }
+        if (Snappy.isFramed(bytes)) {
+            try {
+                return new RedisDecodedValue(RedisValueFormat.SNAPPY, toText(Snappy.uncompressFramed(bytes), truncated));
+            } catch (IllegalArgumentException ignored) {
+                // not snappy after all
+            }
+        }
+        String text = decodeText(bytes, truncated);
+        if (text != null) {
+            return new RedisDecodedValue(RedisValueFormat.TEXT, text);
+        }
+        // a raw snappy block has no header, only a complete and successfully decoded value is trusted
+        if (!truncated) {
+            try {
+                String uncompressed = decodeText(Snappy.uncompress(bytes), false);
+                if (uncompressed != null) {
+                    return new RedisDecodedValue(RedisValueFormat.SNAPPY, uncompressed);
+                }
+            } catch (IllegalArgumentException ignored) {
+                // plain binary
+            }
+        }
+        return new RedisDecodedValue(RedisValueFormat.BINARY, toHex(bytes));
+    }
+
+    private static boolean isGzip(byte[] bytes) {
+        return bytes.length > 2 && (bytes[0] & 0xFF) == GZIP_MAGIC_1 && (bytes[1] & 0xFF) == GZIP_MAGIC_2;
+    }
+
+    /**
+     * Inflates as much as possible, a value cut in the middle of the stream gives the text decoded so far.
+     */
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length * 4);
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        } catch (EOFException ignored) {
+            // truncated value
+        }
+        return output.toByteArray();
+    }
+
+    private static String toText(byte[] bytes, boolean truncated) {
+        String text = decodeText(bytes, truncated);
+        return text != null ? text : toHex(bytes);
+    }
+
+    private static String decodeText(byte[] bytes, boolean truncated) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer input = ByteBuffer.wrap(bytes);
+        CharBuffer output = CharBuffer.allocate(bytes.length);
+        CoderResult result = decoder.decode(input, output, !truncated);
+        if (result.isError() || (!truncated && decoder.flush(output).isError())) {
+            return null;
+        }
+        output.flip();
+        for (int i = 0; i < output.length(); i++) {
+            char c = output.charAt(i);
+            if (Character.isISOControl(c) && !Character.isWhitespace(c)) {
+                return null;
+            }
+        }
+        return output.toString();
+    }
+
+    @NotNull
+    public static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0x0F];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0x0F];
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Minimal Snappy decoder for the raw block format and the framing format (without CRC checks).
+ */
+class Snappy {
+
+    private static final byte[] STREAM_IDENTIFIER = {(byte) 0xFF, 0x06, 0x00, 0x00, 's', 'N', 'a', 'P', 'p', 'Y'};
+    private static final int CHUNK_COMPRESSED = 0x00;
+    private static final int CHUNK_UNCOMPRESSED = 0x01;
+    private static final int CHUNK_HEADER_SIZE = 4;
+    private static final int CHECKSUM_SIZE = 4;
+    // a copy of 64 bytes takes 3 bytes of input, nothing expands more than that
+    private static final int MAX_EXPANSION = 22;
+
+    private Snappy() {
+    }
+
+    static boolean isFramed(byte[] input) {
+        if (input.length < STREAM_IDENTIFIER.length) {
+            return false;
+        }
+        for (int i = 0; i < STREAM_IDENTIFIER.length; i++) {
+            if (input[i] != STREAM_IDENTIFIER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the complete chunks of a framed stream, a truncated last chunk is ignored.
+     */
+    static byte[] uncompressFramed(byte[] input) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(input.length * 2);
+        int index = STREAM_IDENTIFIER.length;
+        while (index + CHUNK_HEADER_SIZE <= input.length) {
+            int type = input[index] & 0xFF;
+            int length = (input[index + 1] & 0xFF) | (input[index + 2] & 0xFF) << 8 | (input[index + 3] & 0xFF) << 16;
+            int start = index + CHUNK_HEADER_SIZE;
+            if (start + length > input.length) {
+                break;
+            }
+            if (type == CHUNK_COMPRESSED) {
+                byte[] chunk = uncompress(input, start + CHECKSUM_SIZE, length - CHECKSUM_SIZE);
+                output.write(chunk, 0, chunk.length);
+            } else if (type == CHUNK_UNCOMPRESSED) {
+                output.write(input, start + CHECKSUM_SIZE, length - CHECKSUM_SIZE);
+            } else if (type < 0x80) {
+                throw new IllegalArgumentException("Unsupported snappy chunk type " + type); //NON-NLS
+            }
+            index = start + length;
+        }
+        return output.toByteArray();
+    }
+
+    static byte[] uncompress(byte[] input) {
+        return uncompress(input, 0, input.length);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input is not a valid raw snappy block
+     */
+    static byte[] uncompress(byte[] input, int offset, int length) {
+        int end = offset + length;
+        int index = offset;
+        long uncompressedLength = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (index >= end || shift > 28) {
+                throw new IllegalArgumentException("Invalid snappy length"); //NON-NLS
+            }
+            int b = input[index++] & 0xFF;
+            uncompressedLength |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) {
+                break;
+            }
+        }
+        if (uncompressedLength > (long) length * MAX_EXPANSION) {
+            throw new IllegalArgumentException("Invalid snappy length " + uncompressedLength); //NON-NLS
+        }
+
+        byte[] output = new byte[(int) uncompressedLength];
+        int outputIndex = 0;
+        while (index < end) {
+            int tag = input[index++] & 0xFF;
+            int elementLength;
+            int copyOffset;
+            switch (tag & 0x03) {
+                case 0: {
+                    elementLength = tag >>> 2;
+                    if (elementLength >= 60) {
+                        int bytes = elementLength - 59;
+                        checkAvailable(index + bytes, end);
+                        elementLength = (int) littleEndian(input, index, bytes);
+                        index += bytes;
+                    }
+                    elementLength++;
+                    checkAvailable(index + elementLength, end);
+                    checkAvailable(outputIndex + elementLength, output.length);
+                    System.arraycopy(input, index, output, outputIndex, elementLength);
+                    index += elementLength;
+                    outputIndex += elementLength;
+                    continue;
+                }
+                case 1:
+                    checkAvailable(index + 1, end);
+                    elementLength = ((tag >>> 2) & 0x07) + 4;
+                    copyOffset = (tag >>> 5) << 8 | (input[index++] & 0xFF);
+                    break;
+                case 2:
+                    checkAvailable(index + 2, end);
+                    elementLength = (tag >>> 2) + 1;
+                    copyOffset = (int) littleEndian(input, index, 2);
+                    index += 2;
+                    break;
+                default:
+                    checkAvailable(index + 4, end);
+                    elementLength = (tag >>> 2) + 1;
+                    copyOffset = (int) littleEndian(input, index, 4);
+                    index += 4;
+                    break;
+            }
+            if (copyOffset <= 0 || copyOffset > outputIndex) {
+                throw new IllegalArgumentException("Invalid snappy copy offset " + copyOffset); //NON-NLS
+            }
+            checkAvailable(outputIndex + elementLength, output.length);
+            for (int i = 0; i < elementLength; i++, outputIndex++) {
+                output[outputIndex] = output[outputIndex - copyOffset];
+            }
+        }
+        if (outputIndex != output.length) {
+            throw new IllegalArgumentException("Truncated snappy block"); //NON-NLS
+        }
+        return output;
+    }
+
+    private static void checkAvailable(int required, int limit) {
+        if (required < 0 || required > limit) {
+            throw new IllegalArgumentException("Truncated snappy block"); //NON-NLS
+        }
+    }
+
+    private static long littleEndian(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (long) (bytes[offset + i] & 0xFF) << (8 * i);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic.dump;
+
+class Lzf {
+
+    private Lzf() {
+    }
+
+    /**
+     * Decompresses at most {@code length} bytes, stopping early when only the beginning of the value is needed.
+     */
+    static byte[] decompress(byte[] input, int length) {
+        byte[] output = new byte[length];
+        int inputIndex = 0;
+        int outputIndex = 0;
+        while (inputIndex < input.length && outputIndex < length) {
+            int control = input[inputIndex++] & 0xFF;
+            if (control < 32) {
+                int literalLength = control + 1;
+                int copied = Math.min(literalLength, length - outputIndex);
+                System.arraycopy(input, inputIndex, output, outputIndex, copied);
+                inputIndex += literalLength;
+                outputIndex += copied;
+            } else {
+                int referenceLength = control >> 5;
+                if (referenceLength == 7) {
+                    referenceLength += input[inputIndex++] & 0xFF;
+                }
+                int reference = outputIndex - ((control & 0x1F) << 8) - 1 - (input[inputIndex++] & 0xFF);
+                for (int i = 0; i < referenceLength + 2 && outputIndex < length; i++) {
+                    output[outputIndex++] = output[reference++];
+                }
+            }
+        }
+        return output;
+    }
+}
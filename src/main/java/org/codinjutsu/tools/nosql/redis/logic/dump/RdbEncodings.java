@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic.dump;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decoders for the compact encodings (ziplist, listpack, intset, zipmap) that the dump stores as single strings.
+ */
+class RdbEncodings {
+
+    private static final int ZIPLIST_HEADER_SIZE = 10;
+    private static final int LISTPACK_HEADER_SIZE = 6;
+    private static final int INTSET_HEADER_SIZE = 8;
+
+    private static final int UNKNOWN_COUNT = 0xFFFF;
+
+    private RdbEncodings() {
+    }
+
+    static long ziplistCount(byte[] ziplist) {
+        long count = littleEndian(ziplist, 8, 2);
+        return count != UNKNOWN_COUNT ? count : decodeZiplist(ziplist).size();
+    }
+
+    static long listpackCount(byte[] listpack) {
+        long count = littleEndian(listpack, 4, 2);
+        return count != UNKNOWN_COUNT ? count : decodeListpack(listpack).size();
+    }
+
+    static long intsetCount(byte[] intset) {
+        return littleEndian(intset, 4, 4);
+    }
+
+    static List<String> decodeZiplist(byte[] ziplist) {
+        List<String> entries = new ArrayList<>();
+        int index = ZIPLIST_HEADER_SIZE;
+        while (index < ziplist.length && (ziplist[index] & 0xFF) != 0xFF) {
+            index += (ziplist[index] & 0xFF) == 0xFE ? 5 : 1;
+            int encoding = ziplist[index] & 0xFF;
+            switch (encoding >> 6) {
+                case 0:
+                    entries.add(string(ziplist, index + 1, encoding & 0x3F));
+                    index += 1 + (encoding & 0x3F);
+                    continue;
+                case 1: {
+                    int length = ((encoding & 0x3F) << 8) | (ziplist[index + 1] & 0xFF);
+                    entries.add(string(ziplist, index + 2, length));
+                    index += 2 + length;
+                    continue;
+                }
+                case 2: {
+                    int length = (int) bigEndian(ziplist, index + 1, 4);
+                    entries.add(string(ziplist, index + 5, length));
+                    index += 5 + length;
+                    continue;
+                }
+                default:
+                    break;
+            }
+            index++;
+            switch (encoding) {
+                case 0xC0:
+                    entries.add(String.valueOf((short) littleEndian(ziplist, index, 2)));
+                    index += 2;
+                    break;
+                case 0xD0:
+                    entries.add(String.valueOf((int) littleEndian(ziplist, index, 4)));
+                    index += 4;
+                    break;
+                case 0xE0:
+                    entries.add(String.valueOf(littleEndian(ziplist, index, 8)));
+                    index += 8;
+                    break;
+                case 0xF0:
+                    entries.add(String.valueOf(((int) littleEndian(ziplist, index, 3) << 8) >> 8));
+                    index += 3;
+                    break;
+                case 0xFE:
+                    entries.add(String.valueOf(ziplist[index]));
+                    index += 1;
+                    break;
+                default:
+                    entries.add(String.valueOf((encoding & 0x0F) - 1));
+                    break;
+            }
+        }
+        return entries;
+    }
+
+    static List<String> decodeListpack(byte[] listpack) {
+        List<String> entries = new ArrayList<>();
+        int index = LISTPACK_HEADER_SIZE;
+        while (index < listpack.length && (listpack[index] & 0xFF) != 0xFF) {
+            int encoding = listpack[index] & 0xFF;
+            int entryLength;
+            if ((encoding & 0x80) == 0) {
+                entries.add(String.valueOf(encoding & 0x7F));
+                entryLength = 1;
+            } else if ((encoding & 0xC0) == 0x80) {
+                int length = encoding & 0x3F;
+                entries.add(string(listpack, index + 1, length));
+                entryLength = 1 + length;
+            } else if ((encoding & 0xE0) == 0xC0) {
+                int value = ((encoding & 0x1F) << 8) | (listpack[index + 1] & 0xFF);
+                entries.add(String.valueOf(value >= 1 << 12 ? value - (1 << 13) : value));
+                entryLength = 2;
+            } else if ((encoding & 0xF0) == 0xE0) {
+                int length = ((encoding & 0x0F) << 8) | (listpack[index + 1] & 0xFF);
+                entries.add(string(listpack, index + 2, length));
+                entryLength = 2 + length;
+            } else {
+                switch (encoding) {
+                    case 0xF0: {
+                        int length = (int) littleEndian(listpack, index + 1, 4);
+                        entries.add(string(listpack, index + 5, length));
+                        entryLength = 5 + length;
+                        break;
+                    }
+                    case 0xF1:
+                        entries.add(String.valueOf((short) littleEndian(listpack, index + 1, 2)));
+                        entryLength = 3;
+                        break;
+                    case 0xF2:
+                        entries.add(String.valueOf(((int) littleEndian(listpack, index + 1, 3) << 8) >> 8));
+                        entryLength = 4;
+                        break;
+                    case 0xF3:
+                        entries.add(String.valueOf((int) littleEndian(listpack, index + 1, 4)));
+                        entryLength = 5;
+                        break;
+                    case 0xF4:
+                        entries.add(String.valueOf(littleEndian(listpack, index + 1, 8)));
+                        entryLength = 9;
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown listpack encoding " + encoding); //NON-NLS
+                }
+            }
+            index += entryLength + backLengthSize(entryLength);
+        }
+        return entries;
+    }
+
+    static List<String> decodeIntset(byte[] intset) {
+        int width = (int) littleEndian(intset, 0, 4);
+        int count = (int) intsetCount(intset);
+        List<String> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long value = littleEndian(intset, INTSET_HEADER_SIZE + i * width, width);
+            if (width == 2) {
+                value = (short) value;
+            } else if (width == 4) {
+                value = (int) value;
+            }
+            entries.add(String.valueOf(value));
+        }
+        return entries;
+    }
+
+    static List<String> decodeZipmap(byte[] zipmap) {
+        List<String> entries = new ArrayList<>();
+        int index = 1;
+        while (index < zipmap.length && (zipmap[index] & 0xFF) != 0xFF) {
+            int keyLength = zipmapLength(zipmap, index);
+            index += zipmapLengthSize(zipmap, index);
+            entries.add(string(zipmap, index, keyLength));
+            index += keyLength;
+
+            int valueLength = zipmapLength(zipmap, index);
+            index += zipmapLengthSize(zipmap, index);
+            int free = zipmap[index++] & 0xFF;
+            entries.add(string(zipmap, index, valueLength));
+            index += valueLength + free;
+        }
+        return entries;
+    }
+
+    private static int zipmapLength(byte[] zipmap, int index) {
+        int length = zipmap[index] & 0xFF;
+        return length < 254 ? length : (int) littleEndian(zipmap, index + 1, 4);
+    }
+
+    private static int zipmapLengthSize(byte[] zipmap, int index) {
+        return (zipmap[index] & 0xFF) < 254 ? 1 : 5;
+    }
+
+    private static int backLengthSize(int entryLength) {
+        if (entryLength < 128) {
+            return 1;
+        } else if (entryLength < 16384) {
+            return 2;
+        } else if (entryLength < 2097152) {
+            return 3;
+        } else if (entryLength < 268435456) {
+            return 4;
+        }
+        return 5;
+    }
+
+    private static String string(byte[] bytes, int offset, int length) {
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static long littleEndian(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (long) (bytes[offset + i] & 0xFF) << (8 * i);
+        }
+        return value;
+    }
+
+    private static long bigEndian(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
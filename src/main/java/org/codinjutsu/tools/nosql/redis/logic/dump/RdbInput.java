@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic.dump;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a dump file through a sliding memory-mapped window, so that files larger than the heap
+ * (or than a single 2 GB mapping) can be traversed.
+ */
+class RdbInput implements Closeable {
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    RdbInput(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+    }
+
+    long position() {
+        return position;
+    }
+
+    long size() {
+        return size;
+    }
+
+    void seek(long position) {
+        this.position = position;
+    }
+
+    void skip(long length) throws IOException {
+        if (position + length > size) {
+            throw new EOFException("Unexpected end of dump file at " + position); //NON-NLS
+        }
+        position += length;
+    }
+
+    int readUnsignedByte() throws IOException {
+        ensureMapped(1);
+        return window.get((int) (position++ - windowStart)) & 0xFF;
+    }
+
+    byte[] readBytes(int length) throws IOException {
+        ensureMapped(length);
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = window.duplicate();
+        buffer.position((int) (position - windowStart));
+        buffer.get(bytes);
+        position += length;
+        return bytes;
+    }
+
+    long readLittleEndian(int length) throws IOException {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value |= (long) readUnsignedByte() << (8 * i);
+        }
+        return value;
+    }
+
+    long readBigEndian(int length) throws IOException {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | readUnsignedByte();
+        }
+        return value;
+    }
+
+    private void ensureMapped(int length) throws IOException {
+        if (position + length > size) {
+            throw new EOFException("Unexpected end of dump file at " + position); //NON-NLS
+        }
+        if (window == null || position < windowStart || position + length > windowStart + window.limit()) {
+            long mappedLength = Math.min(size - position, Math.max(WINDOW_SIZE, length));
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, mappedLength);
+            windowStart = position;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
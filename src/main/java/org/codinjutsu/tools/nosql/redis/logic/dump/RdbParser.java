@@ -0,0 +1,653 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic.dump;
+
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyType;
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.Tuple;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
+/**
+ * Streaming decoder of the RDB format. Indexing only keeps the keys and the position of their values,
+ * values are decoded later on demand, one page at a time.
+ */
+class RdbParser {
+
+    private static final int OPCODE_SLOT_INFO = 0xF4;
+    private static final int OPCODE_FUNCTION2 = 0xF5;
+    private static final int OPCODE_FUNCTION_PRE_GA = 0xF6;
+    private static final int OPCODE_MODULE_AUX = 0xF7;
+    private static final int OPCODE_IDLE = 0xF8;
+    private static final int OPCODE_FREQ = 0xF9;
+    private static final int OPCODE_AUX = 0xFA;
+    private static final int OPCODE_RESIZEDB = 0xFB;
+    private static final int OPCODE_EXPIRETIME_MS = 0xFC;
+    private static final int OPCODE_EXPIRETIME = 0xFD;
+    private static final int OPCODE_SELECTDB = 0xFE;
+    private static final int OPCODE_EOF = 0xFF;
+
+    private static final int STRING_CHUNK_SIZE = 1024 * 1024;
+
+    private static final int TYPE_STRING = 0;
+    private static final int TYPE_LIST = 1;
+    private static final int TYPE_SET = 2;
+    private static final int TYPE_ZSET = 3;
+    private static final int TYPE_HASH = 4;
+    private static final int TYPE_ZSET_2 = 5;
+    private static final int TYPE_MODULE_2 = 7;
+    private static final int TYPE_HASH_ZIPMAP = 9;
+    private static final int TYPE_LIST_ZIPLIST = 10;
+    private static final int TYPE_SET_INTSET = 11;
+    private static final int TYPE_ZSET_ZIPLIST = 12;
+    private static final int TYPE_HASH_ZIPLIST = 13;
+    private static final int TYPE_LIST_QUICKLIST = 14;
+    private static final int TYPE_STREAM_LISTPACKS = 15;
+    private static final int TYPE_HASH_LISTPACK = 16;
+    private static final int TYPE_ZSET_LISTPACK = 17;
+    private static final int TYPE_LIST_QUICKLIST_2 = 18;
+    private static final int TYPE_STREAM_LISTPACKS_2 = 19;
+    private static final int TYPE_SET_LISTPACK = 20;
+    private static final int TYPE_STREAM_LISTPACKS_3 = 21;
+
+    private static final int ENCODING_INT8 = 0;
+    private static final int ENCODING_INT16 = 1;
+    private static final int ENCODING_INT32 = 2;
+    private static final int ENCODING_LZF = 3;
+
+    private static final int QUICKLIST_NODE_PLAIN = 1;
+
+    private final RdbInput input;
+    private boolean encodedLength;
+
+    RdbParser(RdbInput input) {
+        this.input = input;
+    }
+
+    static RedisDumpIndex index(Path path, BooleanSupplier isCancelled) throws IOException {
+        RedisDumpIndex index = new RedisDumpIndex(path);
+        try (RdbInput input = new RdbInput(path)) {
+            new RdbParser(input).index(index, isCancelled);
+        }
+        index.sortEntries();
+        return index;
+    }
+
+    @Nullable
+    byte[] readStringPreview(RedisDumpEntry entry, int length) throws IOException {
+        if (entry.valueType != TYPE_STRING) {
+            return null;
+        }
+        seekValue(entry);
+        return readString(length);
+    }
+
+    /**
+     * Reads a whole string value by chunks, reporting the number of bytes read so far. Compressed and integer
+     * encoded strings are small enough to be read at once.
+     *
+     * @return the value, or null when the value is not a string or when cancelled
+     */
+    @Nullable
+    byte[] readString(RedisDumpEntry entry, LongConsumer progressConsumer, BooleanSupplier isCancelled) throws IOException {
+        if (entry.valueType != TYPE_STRING) {
+            return null;
+        }
+        seekValue(entry);
+        long start = input.position();
+        long length = readLength();
+        if (encodedLength) {
+            input.seek(start);
+            byte[] value = readString(Integer.MAX_VALUE);
+            progressConsumer.accept(value.length);
+            return value;
+        }
+        ByteArrayOutputStream value = new ByteArrayOutputStream((int) Math.min(length, STRING_CHUNK_SIZE));
+        while (value.size() < length) {
+            if (isCancelled.getAsBoolean()) {
+                return null;
+            }
+            byte[] chunk = input.readBytes((int) Math.min(length - value.size(), STRING_CHUNK_SIZE));
+            value.write(chunk, 0, chunk.length);
+            progressConsumer.accept(value.size());
+        }
+        return value.toByteArray();
+    }
+
+    List<Object> readValues(RedisDumpEntry entry, long start, int count) throws IOException {
+        seekValue(entry);
+        return readValues(entry.valueType, start, count);
+    }
+
+    @Nullable
+    static RedisKeyType getKeyType(int valueType) {
+        switch (valueType) {
+            case TYPE_STRING:
+                return RedisKeyType.STRING;
+            case TYPE_LIST:
+            case TYPE_LIST_ZIPLIST:
+            case TYPE_LIST_QUICKLIST:
+            case TYPE_LIST_QUICKLIST_2:
+                return RedisKeyType.LIST;
+            case TYPE_SET:
+            case TYPE_SET_INTSET:
+            case TYPE_SET_LISTPACK:
+                return RedisKeyType.SET;
+            case TYPE_ZSET:
+            case TYPE_ZSET_2:
+            case TYPE_ZSET_ZIPLIST:
+            case TYPE_ZSET_LISTPACK:
+                return RedisKeyType.ZSET;
+            case TYPE_HASH:
+            case TYPE_HASH_ZIPMAP:
+            case TYPE_HASH_ZIPLIST:
+            case TYPE_HASH_LISTPACK:
+                return RedisKeyType.HASH;
+            default:
+                return null;
+        }
+    }
+
+    static String getEncoding(int valueType) {
+        switch (valueType) {
+            case TYPE_STRING:
+                return "string"; //NON-NLS
+            case TYPE_LIST:
+                return "linkedlist"; //NON-NLS
+            case TYPE_SET:
+            case TYPE_HASH:
+                return "hashtable"; //NON-NLS
+            case TYPE_ZSET:
+            case TYPE_ZSET_2:
+                return "skiplist"; //NON-NLS
+            case TYPE_HASH_ZIPMAP:
+                return "zipmap"; //NON-NLS
+            case TYPE_LIST_ZIPLIST:
+            case TYPE_ZSET_ZIPLIST:
+            case TYPE_HASH_ZIPLIST:
+                return "ziplist"; //NON-NLS
+            case TYPE_SET_INTSET:
+                return "intset"; //NON-NLS
+            case TYPE_HASH_LISTPACK:
+            case TYPE_ZSET_LISTPACK:
+            case TYPE_SET_LISTPACK:
+                return "listpack"; //NON-NLS
+            case TYPE_LIST_QUICKLIST:
+            case TYPE_LIST_QUICKLIST_2:
+                return "quicklist"; //NON-NLS
+            case TYPE_STREAM_LISTPACKS:
+            case TYPE_STREAM_LISTPACKS_2:
+            case TYPE_STREAM_LISTPACKS_3:
+                return "stream"; //NON-NLS
+            case TYPE_MODULE_2:
+                return "module"; //NON-NLS
+            default:
+                return "unknown"; //NON-NLS
+        }
+    }
+
+    private void index(RedisDumpIndex index, BooleanSupplier isCancelled) throws IOException {
+        readHeader();
+        int database = 0;
+        long expireAt = -1;
+        while (!isCancelled.getAsBoolean()) {
+            long offset = input.position();
+            int type = input.readUnsignedByte();
+            switch (type) {
+                case OPCODE_EOF:
+                    return;
+                case OPCODE_SELECTDB:
+                    database = (int) readLength();
+                    break;
+                case OPCODE_EXPIRETIME:
+                    expireAt = input.readLittleEndian(4) * 1000;
+                    break;
+                case OPCODE_EXPIRETIME_MS:
+                    expireAt = input.readLittleEndian(8);
+                    break;
+                case OPCODE_RESIZEDB:
+                    readLength();
+                    readLength();
+                    break;
+                case OPCODE_AUX:
+                    skipString();
+                    skipString();
+                    break;
+                case OPCODE_MODULE_AUX:
+                    readLength();
+                    readLength();
+                    readLength();
+                    skipModuleValue();
+                    break;
+                case OPCODE_IDLE:
+                    readLength();
+                    break;
+                case OPCODE_FREQ:
+                    input.readUnsignedByte();
+                    break;
+                case OPCODE_FUNCTION2:
+                    skipString();
+                    break;
+                case OPCODE_SLOT_INFO:
+                    readLength();
+                    readLength();
+                    readLength();
+                    break;
+                case OPCODE_FUNCTION_PRE_GA:
+                    throw new IOException("Functions from pre-release Redis 7 dumps are not supported"); //NON-NLS
+                default:
+                    String key = utf8(readString(Integer.MAX_VALUE));
+                    long cardinality = skipValue(type);
+                    index.add(database, new RedisDumpEntry(key, type, offset, input.position() - offset, expireAt, cardinality));
+                    expireAt = -1;
+            }
+        }
+    }
+
+    private void readHeader() throws IOException {
+        byte[] header = input.readBytes(9);
+        if (!"REDIS".equals(new String(header, 0, 5, StandardCharsets.US_ASCII))) { //NON-NLS
+            throw new IOException("Not a Redis dump file"); //NON-NLS
+        }
+    }
+
+    private void seekValue(RedisDumpEntry entry) throws IOException {
+        input.seek(entry.offset + 1);
+        skipString();
+    }
+
+    private long skipValue(int type) throws IOException {
+        switch (type) {
+            case TYPE_STRING:
+                return skipString();
+            case TYPE_LIST:
+            case TYPE_SET: {
+                long size = readLength();
+                for (long i = 0; i < size; i++) {
+                    skipString();
+                }
+                return size;
+            }
+            case TYPE_ZSET: {
+                long size = readLength();
+                for (long i = 0; i < size; i++) {
+                    skipString();
+                    skipDoubleString();
+                }
+                return size;
+            }
+            case TYPE_ZSET_2: {
+                long size = readLength();
+                for (long i = 0; i < size; i++) {
+                    skipString();
+                    input.skip(8);
+                }
+                return size;
+            }
+            case TYPE_HASH: {
+                long size = readLength();
+                for (long i = 0; i < size; i++) {
+                    skipString();
+                    skipString();
+                }
+                return size;
+            }
+            case TYPE_HASH_ZIPMAP:
+                return RdbEncodings.decodeZipmap(readString(Integer.MAX_VALUE)).size() / 2;
+            case TYPE_LIST_ZIPLIST:
+                return RdbEncodings.ziplistCount(readString(Integer.MAX_VALUE));
+            case TYPE_ZSET_ZIPLIST:
+            case TYPE_HASH_ZIPLIST:
+                return RdbEncodings.ziplistCount(readString(Integer.MAX_VALUE)) / 2;
+            case TYPE_SET_INTSET:
+                return RdbEncodings.intsetCount(readString(Integer.MAX_VALUE));
+            case TYPE_SET_LISTPACK:
+                return RdbEncodings.listpackCount(readString(Integer.MAX_VALUE));
+            case TYPE_HASH_LISTPACK:
+            case TYPE_ZSET_LISTPACK:
+                return RdbEncodings.listpackCount(readString(Integer.MAX_VALUE)) / 2;
+            case TYPE_LIST_QUICKLIST:
+            case TYPE_LIST_QUICKLIST_2: {
+                long nodes = readLength();
+                long size = 0;
+                for (long i = 0; i < nodes; i++) {
+                    size += countQuicklistNode(type);
+                }
+                return size;
+            }
+            case TYPE_STREAM_LISTPACKS:
+            case TYPE_STREAM_LISTPACKS_2:
+            case TYPE_STREAM_LISTPACKS_3:
+                return skipStream(type);
+            case TYPE_MODULE_2:
+                readLength();
+                skipModuleValue();
+                return 0;
+            default:
+                throw new IOException("Unsupported value type " + type + " at offset " + input.position()); //NON-NLS
+        }
+    }
+
+    private long countQuicklistNode(int type) throws IOException {
+        if (type == TYPE_LIST_QUICKLIST) {
+            return RdbEncodings.ziplistCount(readString(Integer.MAX_VALUE));
+        }
+        if (readLength() == QUICKLIST_NODE_PLAIN) {
+            skipString();
+            return 1;
+        }
+        return RdbEncodings.listpackCount(readString(Integer.MAX_VALUE));
+    }
+
+    private long skipStream(int type) throws IOException {
+        long listpacks = readLength();
+        for (long i = 0; i < listpacks; i++) {
+            skipString();
+            skipString();
+        }
+        long length = readLength();
+        readLength();
+        readLength();
+        if (type != TYPE_STREAM_LISTPACKS) {
+            for (int i = 0; i < 5; i++) {
+                readLength();
+            }
+        }
+        long groups = readLength();
+        for (long i = 0; i < groups; i++) {
+            skipString();
+            readLength();
+            readLength();
+            if (type != TYPE_STREAM_LISTPACKS) {
+                readLength();
+            }
+            long pendingEntries = readLength();
+            for (long j = 0; j < pendingEntries; j++) {
+                input.skip(16 + 8);
+                readLength();
+            }
+            long consumers = readLength();
+            for (long j = 0; j < consumers; j++) {
+                skipString();
+                input.skip(type == TYPE_STREAM_LISTPACKS_3 ? 16 : 8);
+                input.skip(16 * readLength());
+            }
+        }
+        return length;
+    }
+
+    private void skipModuleValue() throws IOException {
+        long opcode;
+        while ((opcode = readLength()) != 0) {
+            switch ((int) opcode) {
+                case 1:
+                case 2:
+                    readLength();
+                    break;
+                case 3:
+                    input.skip(4);
+                    break;
+                case 4:
+                    input.skip(8);
+                    break;
+                case 5:
+                    skipString();
+                    break;
+                default:
+                    throw new IOException("Unknown module opcode " + opcode); //NON-NLS
+            }
+        }
+    }
+
+    private List<Object> readValues(int type, long start, int count) throws IOException {
+        switch (type) {
+            case TYPE_LIST:
+            case TYPE_SET: {
+                long size = readLength();
+                for (long i = 0; i < Math.min(start, size); i++) {
+                    skipString();
+                }
+                List<Object> values = new ArrayList<>();
+                for (long i = start; i < size && values.size() < count; i++) {
+                    values.add(utf8(readString(Integer.MAX_VALUE)));
+                }
+                return values;
+            }
+            case TYPE_ZSET:
+            case TYPE_ZSET_2: {
+                long size = readLength();
+                List<Object> values = new ArrayList<>();
+                for (long i = 0; i < size && values.size() < count; i++) {
+                    if (i < start) {
+                        skipString();
+                        skipScore(type);
+                    } else {
+                        String member = utf8(readString(Integer.MAX_VALUE));
+                        values.add(new Tuple(member, readScore(type)));
+                    }
+                }
+                return values;
+            }
+            case TYPE_HASH: {
+                long size = readLength();
+                List<Object> values = new ArrayList<>();
+                for (long i = 0; i < size && values.size() < count; i++) {
+                    if (i < start) {
+                        skipString();
+                        skipString();
+                    } else {
+                        String field = utf8(readString(Integer.MAX_VALUE));
+                        values.add(new AbstractMap.SimpleImmutableEntry<>(field, utf8(readString(Integer.MAX_VALUE))));
+                    }
+                }
+                return values;
+            }
+            case TYPE_HASH_ZIPMAP:
+                return toEntries(RdbEncodings.decodeZipmap(readString(Integer.MAX_VALUE)), start, count);
+            case TYPE_HASH_ZIPLIST:
+                return toEntries(RdbEncodings.decodeZiplist(readString(Integer.MAX_VALUE)), start, count);
+            case TYPE_HASH_LISTPACK:
+                return toEntries(RdbEncodings.decodeListpack(readString(Integer.MAX_VALUE)), start, count);
+            case TYPE_ZSET_ZIPLIST:
+                return toTuples(RdbEncodings.decodeZiplist(readString(Integer.MAX_VALUE)), start, count);
+            case TYPE_ZSET_LISTPACK:
+                return toTuples(RdbEncodings.decodeListpack(readString(Integer.MAX_VALUE)), start, count);
+            case TYPE_LIST_ZIPLIST:
+                return page(RdbEncodings.decodeZiplist(readString(Integer.MAX_VALUE)), start, count);
+            case TYPE_SET_INTSET:
+                return page(RdbEncodings.decodeIntset(readString(Integer.MAX_VALUE)), start, count);
+            case TYPE_SET_LISTPACK:
+                return page(RdbEncodings.decodeListpack(readString(Integer.MAX_VALUE)), start, count);
+            case TYPE_LIST_QUICKLIST:
+            case TYPE_LIST_QUICKLIST_2:
+                return readQuicklist(type, start, count);
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+    private List<Object> readQuicklist(int type, long start, int count) throws IOException {
+        long nodes = readLength();
+        List<Object> values = new ArrayList<>();
+        long index = 0;
+        for (long i = 0; i < nodes && values.size() < count; i++) {
+            boolean plain = type == TYPE_LIST_QUICKLIST_2 && readLength() == QUICKLIST_NODE_PLAIN;
+            byte[] node = readString(Integer.MAX_VALUE);
+            if (plain) {
+                if (index++ >= start) {
+                    values.add(utf8(node));
+                }
+                continue;
+            }
+            long nodeSize = type == TYPE_LIST_QUICKLIST ? RdbEncodings.ziplistCount(node) : RdbEncodings.listpackCount(node);
+            if (index + nodeSize <= start) {
+                index += nodeSize;
+                continue;
+            }
+            List<String> entries = type == TYPE_LIST_QUICKLIST ? RdbEncodings.decodeZiplist(node) : RdbEncodings.decodeListpack(node);
+            for (String entry : entries) {
+                if (index++ >= start && values.size() < count) {
+                    values.add(entry);
+                }
+            }
+        }
+        return values;
+    }
+
+    private static List<Object> page(List<String> entries, long start, int count) {
+        int from = (int) Math.min(start, entries.size());
+        return new ArrayList<>(entries.subList(from, (int) Math.min(entries.size(), (long) from + count)));
+    }
+
+    private static List<Object> toEntries(List<String> flattened, long start, int count) {
+        List<Object> entries = new ArrayList<>();
+        for (long i = start * 2; i + 1 < flattened.size() && entries.size() < count; i += 2) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(flattened.get((int) i), flattened.get((int) i + 1)));
+        }
+        return entries;
+    }
+
+    private static List<Object> toTuples(List<String> flattened, long start, int count) {
+        List<Object> tuples = new ArrayList<>();
+        for (long i = start * 2; i + 1 < flattened.size() && tuples.size() < count; i += 2) {
+            tuples.add(new Tuple(flattened.get((int) i), Double.valueOf(flattened.get((int) i + 1))));
+        }
+        return tuples;
+    }
+
+    private long readLength() throws IOException {
+        int first = input.readUnsignedByte();
+        encodedLength = false;
+        switch (first >> 6) {
+            case 0:
+                return first & 0x3F;
+            case 1:
+                return ((first & 0x3F) << 8) | input.readUnsignedByte();
+            case 2:
+                if (first == 0x80) {
+                    return input.readBigEndian(4);
+                }
+                if (first == 0x81) {
+                    return input.readBigEndian(8);
+                }
+                throw new IOException("Unknown length encoding " + first + " at offset " + input.position()); //NON-NLS
+            default:
+                encodedLength = true;
+                return first & 0x3F;
+        }
+    }
+
+    private byte[] readString(int maxLength) throws IOException {
+        long length = readLength();
+        if (encodedLength) {
+            switch ((int) length) {
+                case ENCODING_INT8:
+                    return ascii((byte) input.readUnsignedByte());
+                case ENCODING_INT16:
+                    return ascii((short) input.readLittleEndian(2));
+                case ENCODING_INT32:
+                    return ascii((int) input.readLittleEndian(4));
+                case ENCODING_LZF: {
+                    long compressedLength = readLength();
+                    long uncompressedLength = readLength();
+                    byte[] compressed = input.readBytes((int) compressedLength);
+                    return Lzf.decompress(compressed, (int) Math.min(uncompressedLength, maxLength));
+                }
+                default:
+                    throw new IOException("Unknown string encoding " + length + " at offset " + input.position()); //NON-NLS
+            }
+        }
+        if (length <= maxLength) {
+            return input.readBytes((int) length);
+        }
+        byte[] prefix = input.readBytes(maxLength);
+        input.skip(length - maxLength);
+        return prefix;
+    }
+
+    private long skipString() throws IOException {
+        long length = readLength();
+        if (encodedLength) {
+            switch ((int) length) {
+                case ENCODING_INT8:
+                case ENCODING_INT16:
+                case ENCODING_INT32:
+                    input.seek(input.position() - 1);
+                    return readString(Integer.MAX_VALUE).length;
+                case ENCODING_LZF: {
+                    long compressedLength = readLength();
+                    long uncompressedLength = readLength();
+                    input.skip(compressedLength);
+                    return uncompressedLength;
+                }
+                default:
+                    throw new IOException("Unknown string encoding " + length + " at offset " + input.position()); //NON-NLS
+            }
+        }
+        input.skip(length);
+        return length;
+    }
+
+    private void skipDoubleString() throws IOException {
+        int length = input.readUnsignedByte();
+        if (length < 253) {
+            input.skip(length);
+        }
+    }
+
+    private void skipScore(int type) throws IOException {
+        if (type == TYPE_ZSET_2) {
+            input.skip(8);
+        } else {
+            skipDoubleString();
+        }
+    }
+
+    private double readScore(int type) throws IOException {
+        if (type == TYPE_ZSET_2) {
+            return Double.longBitsToDouble(input.readLittleEndian(8));
+        }
+        int length = input.readUnsignedByte();
+        switch (length) {
+            case 253:
+                return Double.NaN;
+            case 254:
+                return Double.POSITIVE_INFINITY;
+            case 255:
+                return Double.NEGATIVE_INFINITY;
+            default:
+                return Double.parseDouble(new String(input.readBytes(length), StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static byte[] ascii(long value) {
+        return String.valueOf(value).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String utf8(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
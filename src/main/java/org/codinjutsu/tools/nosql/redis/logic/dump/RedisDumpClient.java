@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic.dump;
+
+import com.intellij.openapi.progress.ProgressManager;
+import org.codinjutsu.tools.nosql.commons.configuration.ServerConfiguration;
+import org.codinjutsu.tools.nosql.commons.exceptions.DatabaseException;
+import org.codinjutsu.tools.nosql.commons.logic.DatabaseClient;
+import org.codinjutsu.tools.nosql.commons.model.Database;
+import org.codinjutsu.tools.nosql.commons.model.DatabaseContext;
+import org.codinjutsu.tools.nosql.commons.model.DatabaseServer;
+import org.codinjutsu.tools.nosql.commons.model.SearchResult;
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseElement;
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject;
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.SingleDatabaseObject;
+import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptions;
+import org.codinjutsu.tools.nosql.redis.configuration.RedisServerConfiguration;
+import org.codinjutsu.tools.nosql.redis.model.RedisBinaryValue;
+import org.codinjutsu.tools.nosql.redis.model.RedisContext;
+import org.codinjutsu.tools.nosql.redis.model.RedisDatabaseStatistics;
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyStatistics;
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyType;
+import org.codinjutsu.tools.nosql.redis.model.RedisMemoryProfile;
+import org.codinjutsu.tools.nosql.redis.model.RedisScanResult;
+import org.codinjutsu.tools.nosql.redis.model.RedisServerStatistics;
+import org.codinjutsu.tools.nosql.redis.model.RedisValuePage;
+import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseKey;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+import static org.codinjutsu.tools.nosql.redis.model.RedisKeyType.STRING_PREVIEW_LENGTH;
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
+/**
+ * Read-only client browsing a local dump.rdb file. The file is indexed once, values are decoded from it when needed.
+ */
+public class RedisDumpClient implements DatabaseClient {
+
+    private static final String DUMP_FILE_EXTENSION = ".rdb"; //NON-NLS
+    private static final String FILE_SCHEME = "file:"; //NON-NLS
+    private static final int BATCH_SIZE = 100;
+
+    private final List<DatabaseServer> databaseServers = new LinkedList<>();
+    private final ConcurrentMap<Path, RedisDumpIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * A server URL is a dump when it is a file: URL, or the path of a local .rdb file, so that a host name ending with
+     * .rdb still reaches a server.
+     */
+    public static boolean isDumpFile(ServerConfiguration serverConfiguration) {
+        String serverUrl = serverConfiguration.getServerUrl().trim();
+        if (serverUrl.startsWith(FILE_SCHEME)) {
+            return true;
+        }
+        if (!serverUrl.toLowerCase().endsWith(DUMP_FILE_EXTENSION)) {
+            return false;
+        }
+        try {
+            return Files.isRegularFile(Paths.get(serverUrl));
+        } catch (InvalidPathException ex) {
+            return false;
+        }
+    }
+
+    @Override
+    public void connect(ServerConfiguration serverConfiguration) {
+        getIndex(serverConfiguration);
+    }
+
+    @Override
+    public void loadServer(DatabaseServer databaseServer) {
+        RedisDumpIndex index = getIndex(databaseServer.getConfiguration());
+        List<Database> databases = new LinkedList<>();
+        for (Integer database : index.getDatabases()) {
+            databases.add(new Database(String.valueOf(database)));
+        }
+        databaseServer.setDatabases(databases);
+    }
+
+    @Override
+    public void cleanUpServers() {
+        databaseServers.clear();
+        indexes.clear();
+    }
+
+    @Override
+    public void registerServer(DatabaseServer databaseServer) {
+        databaseServers.add(databaseServer);
+    }
+
+    @NotNull
+    @Override
+    public Collection<DatabaseServer> getServers() {
+        return databaseServers;
+    }
+
+    @NotNull
+    @Override
+    public ServerConfiguration defaultConfiguration() {
+        return new RedisServerConfiguration();
+    }
+
+    @Override
+    public SearchResult loadRecords(DatabaseContext context, QueryOptions query) {
+        String name = ((RedisContext) context).getDatabase().getName();
+        List<DatabaseObject> records = scanRecords(context, query, SCAN_POINTER_START, batch -> {}, () -> false).getRecords();
+        return new SearchResult(name, records, records.size());
+    }
+
+    @NotNull
+    public RedisScanResult scanRecords(DatabaseContext context, QueryOptions query, String cursor,
+                                       Consumer<List<DatabaseObject>> batchConsumer, BooleanSupplier isCancelled) {
+        RedisDumpIndex index = getIndex(context.getServerConfiguration());
+        List<RedisDumpEntry> entries = index.getEntries(Integer.parseInt(((RedisContext) context).getDatabase().getName()));
+        Pattern pattern = toPattern(isNotBlank(query.getFilter()) ? query.getFilter() : "*");
+        long now = System.currentTimeMillis();
+
+        List<DatabaseObject> records = new ArrayList<>();
+        List<DatabaseObject> batch = new ArrayList<>();
+        int position = Integer.parseInt(cursor);
+        try (RdbInput input = new RdbInput(index.getPath())) {
+            RdbParser parser = new RdbParser(input);
+            while (position < entries.size() && records.size() + batch.size() < query.getResultLimit() && !isCancelled.getAsBoolean()) {
+                RedisDumpEntry entry = entries.get(position++);
+                RedisKeyType keyType = RdbParser.getKeyType(entry.valueType);
+                if (keyType == null || !pattern.matcher(entry.key).matches()) {
+                    continue;
+                }
+                byte[] preview = parser.readStringPreview(entry, STRING_PREVIEW_LENGTH);
+                DatabaseElement databaseElement = new RedisDatabaseKey(entry.key, keyType, entry.cardinality, entry.getTtl(now),
+                        preview != null ? new RedisBinaryValue(preview, entry.cardinality) : null);
+                batch.add(new SingleDatabaseObject(singletonList(entry.key), singletonMap(entry.key, databaseElement)));
+                if (batch.size() == BATCH_SIZE) {
+                    records.addAll(batch);
+                    batchConsumer.accept(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+        } catch (IOException ex) {
+            throw new DatabaseException("Unable to read " + index.getPath(), ex); //NON-NLS
+        }
+        if (!batch.isEmpty()) {
+            records.addAll(batch);
+            batchConsumer.accept(batch);
+        }
+        return new RedisScanResult(records, position < entries.size() ? String.valueOf(position) : SCAN_POINTER_START);
+    }
+
+    @NotNull
+    public RedisValuePage loadValues(RedisContext context, String key, String cursor) {
+        RedisDumpIndex index = getIndex(context.getServerConfiguration());
+        RedisDumpEntry entry = index.getEntry(Integer.parseInt(context.getDatabase().getName()), key);
+        if (entry == null) {
+            return new RedisValuePage(Collections.emptyList(), SCAN_POINTER_START);
+        }
+        int pageSize = Math.max(1, ((RedisServerConfiguration) context.getServerConfiguration()).getValuePageSize());
+        long start = Long.parseLong(cursor);
+        try (RdbInput input = new RdbInput(index.getPath())) {
+            List<Object> values = new RdbParser(input).readValues(entry, start, pageSize);
+            return new RedisValuePage(values, values.size() < pageSize ? SCAN_POINTER_START : String.valueOf(start + pageSize));
+        } catch (IOException ex) {
+            throw new DatabaseException("Unable to read " + index.getPath(), ex); //NON-NLS
+        }
+    }
+
+    /**
+     * @return the value, or null when cancelled
+     */
+    @Nullable
+    public byte[] loadFullValue(RedisContext context, String key, LongConsumer progressConsumer, BooleanSupplier isCancelled) {
+        RedisDumpIndex index = getIndex(context.getServerConfiguration());
+        RedisDumpEntry entry = index.getEntry(Integer.parseInt(context.getDatabase().getName()), key);
+        if (entry == null) {
+            return null;
+        }
+        try (RdbInput input = new RdbInput(index.getPath())) {
+            return new RdbParser(input).readString(entry, progressConsumer, isCancelled);
+        } catch (IOException ex) {
+            throw new DatabaseException("Unable to read " + index.getPath(), ex); //NON-NLS
+        }
+    }
+
+    @NotNull
+    public RedisServerStatistics loadStatistics(ServerConfiguration serverConfiguration) {
+        RedisDumpIndex index = getIndex(serverConfiguration);
+        Map<String, RedisDatabaseStatistics> databases = new LinkedHashMap<>();
+        long serializedSize = 0;
+        for (Integer database : index.getDatabases()) {
+            List<RedisDumpEntry> entries = index.getEntries(database);
+            long expires = 0;
+            for (RedisDumpEntry entry : entries) {
+                serializedSize += entry.serializedSize;
+                if (entry.expireAt >= 0) {
+                    expires++;
+                }
+            }
+            databases.put(String.valueOf(database), new RedisDatabaseStatistics(entries.size(), expires));
+        }
+        return new RedisServerStatistics(serializedSize, databases);
+    }
+
+    @NotNull
+    public RedisMemoryProfile profileMemory(RedisContext context, String separator,
+                                            Consumer<RedisMemoryProfile> progressConsumer, BooleanSupplier isCancelled) {
+        RedisDumpIndex index = getIndex(context.getServerConfiguration());
+        List<RedisDumpEntry> entries = index.getEntries(Integer.parseInt(context.getDatabase().getName()));
+        RedisMemoryProfile profile = new RedisMemoryProfile(separator, 1, 50);
+        long now = System.currentTimeMillis();
+        int position = 0;
+        while (position < entries.size() && !isCancelled.getAsBoolean()) {
+            for (int end = Math.min(entries.size(), position + BATCH_SIZE * 10); position < end; position++) {
+                RedisDumpEntry entry = entries.get(position);
+                RedisKeyType keyType = RdbParser.getKeyType(entry.valueType);
+                if (keyType != null) {
+                    profile.add(new RedisKeyStatistics(entry.key, keyType, entry.serializedSize, RdbParser.getEncoding(entry.valueType),
+                            entry.getTtl(now), entry.cardinality));
+                }
+            }
+            progressConsumer.accept(profile);
+        }
+        profile.setComplete(position == entries.size());
+        progressConsumer.accept(profile);
+        return profile;
+    }
+
+    @NotNull
+    @Override
+    public SearchResult findAll(DatabaseContext context) {
+        String name = ((RedisContext) context).getDatabase().getName();
+        return new SearchResult(name, Collections.emptyList(), 0);
+    }
+
+    @Nullable
+    @Override
+    public DatabaseElement findDocument(DatabaseContext context, @NotNull Object _id) {
+        return null;
+    }
+
+    @Override
+    public void update(DatabaseContext context, DatabaseElement document) {
+        throw readOnly(context.getServerConfiguration());
+    }
+
+    @Override
+    public void delete(@NotNull DatabaseContext context, @NotNull Object _id) {
+        throw readOnly(context.getServerConfiguration());
+    }
+
+    @NotNull
+    private static IllegalStateException readOnly(ServerConfiguration serverConfiguration) {
+        return new IllegalStateException(serverConfiguration.getServerUrl() + " is a dump file, it cannot be changed"); //NON-NLS
+    }
+
+    @NotNull
+    private RedisDumpIndex getIndex(ServerConfiguration serverConfiguration) {
+        return indexes.computeIfAbsent(getPath(serverConfiguration), path -> {
+            try {
+                return RdbParser.index(path, RedisDumpClient::checkCanceled);
+            } catch (IOException ex) {
+                throw new DatabaseException("Unable to read " + path, ex); //NON-NLS
+            }
+        });
+    }
+
+    /**
+     * Indexing a large dump takes a while, it stops through a {@link com.intellij.openapi.progress.ProcessCanceledException}
+     * when the progress it runs under is cancelled.
+     */
+    private static boolean checkCanceled() {
+        ProgressManager.checkCanceled();
+        return false;
+    }
+
+    @NotNull
+    private static Path getPath(ServerConfiguration serverConfiguration) {
+        String serverUrl = serverConfiguration.getServerUrl().trim();
+        return serverUrl.startsWith(FILE_SCHEME) ? Paths.get(URI.create(serverUrl)) : Paths.get(serverUrl);
+    }
+
+    @NotNull
+    static Pattern toPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inClass = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '\\' && i + 1 < glob.length()) {
+                regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+            } else if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                }
+                regex.append(c);
+            } else if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else if (c == '[') {
+                inClass = true;
+                regex.append(c);
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
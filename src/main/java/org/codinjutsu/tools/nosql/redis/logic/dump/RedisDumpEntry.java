@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic.dump;
+
+class RedisDumpEntry {
+
+    final String key;
+    final int valueType;
+    final long offset;
+    final long serializedSize;
+    final long expireAt;
+    final long cardinality;
+
+    RedisDumpEntry(String key, int valueType, long offset, long serializedSize, long expireAt, long cardinality) {
+        this.key = key;
+        this.valueType = valueType;
+        this.offset = offset;
+        this.serializedSize = serializedSize;
+        this.expireAt = expireAt;
+        this.cardinality = cardinality;
+    }
+
+    long getTtl(long now) {
+        return expireAt < 0 ? -1 : Math.max(0, (expireAt - now) / 1000);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic.dump;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keys of a dump file with the position of their value, grouped by database and sorted by name so that a key
+ * is found by binary search without a second map. Values themselves stay on disk.
+ */
+class RedisDumpIndex {
+
+    private static final Comparator<RedisDumpEntry> KEY_ORDER = Comparator.comparing(entry -> entry.key);
+
+    private final Path path;
+    private final Map<Integer, ArrayList<RedisDumpEntry>> databases = new TreeMap<>();
+
+    RedisDumpIndex(Path path) {
+        this.path = path;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    void add(int database, RedisDumpEntry entry) {
+        databases.computeIfAbsent(database, index -> new ArrayList<>()).add(entry);
+    }
+
+    /**
+     * Called once the whole file is indexed.
+     */
+    void sortEntries() {
+        for (ArrayList<RedisDumpEntry> entries : databases.values()) {
+            entries.sort(KEY_ORDER);
+            entries.trimToSize();
+        }
+    }
+
+    Collection<Integer> getDatabases() {
+        return databases.keySet();
+    }
+
+    List<RedisDumpEntry> getEntries(int database) {
+        List<RedisDumpEntry> entries = databases.get(database);
+        return entries != null ? entries : Collections.emptyList();
+    }
+
+    @Nullable
+    RedisDumpEntry getEntry(int database, String key) {
+        List<RedisDumpEntry> entries = getEntries(database);
+        int low = 0;
+        int high = entries.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            RedisDumpEntry entry = entries.get(middle);
+            int comparison = entry.key.compareTo(key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return entry;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+import org.codinjutsu.tools.nosql.redis.logic.RedisValueDecoder
+
+/**
+ * The first bytes of a string value, decoded only when displayed.
+ */
+internal class RedisBinaryValue(
+        val bytes: ByteArray,
+        val length: Long
+) {
+    val isTruncated: Boolean
+        get() = bytes.size < length
+
+    val decoded: RedisDecodedValue by lazy { RedisValueDecoder.decode(bytes, isTruncated) }
+
+    override fun toString() = if (isTruncated) "$decoded..." else decoded.toString()
+}
@@ -0,0 +1,8 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+data class RedisDecodedValue(
+        val format: RedisValueFormat,
+        val text: String
+) {
+    override fun toString() = if (format == RedisValueFormat.TEXT) text else "[${format.label}] $text"
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.model;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.util.Collection;
+
+public enum RedisKeyOperation {
+
+    UNLINK("Delete") {
+        @Override
+        public Response<?> request(Pipeline pipeline, String key, int ttlSeconds) {
+            return UNLINK_SCRIPT.request(pipeline, key);
+        }
+
+        @Override
+        public long apply(Jedis jedis, String key, int ttlSeconds) {
+            return RedisKeyType.toLong(UNLINK_SCRIPT.eval(jedis, key));
+        }
+
+        @Override
+        public boolean loadIfMissing(Jedis jedis, Collection<? extends Response<?>> responses) {
+            if (!RedisScript.isMissing(responses)) {
+                return false;
+            }
+            UNLINK_SCRIPT.load(jedis);
+            return true;
+        }
+    },
+    EXPIRE("Expire") {
+        @Override
+        public Response<?> request(Pipeline pipeline, String key, int ttlSeconds) {
+            return pipeline.expire(key, ttlSeconds);
+        }
+
+        @Override
+        public long apply(Jedis jedis, String key, int ttlSeconds) {
+            return jedis.expire(key, ttlSeconds);
+        }
+    },
+    PERSIST("Persist") {
+        @Override
+        public Response<?> request(Pipeline pipeline, String key, int ttlSeconds) {
+            return pipeline.persist(key);
+        }
+
+        @Override
+        public long apply(Jedis jedis, String key, int ttlSeconds) {
+            return jedis.persist(key);
+        }
+    };
+
+    // Jedis has no UNLINK command, DEL is the fallback for servers older than 4.0
+    private static final RedisScript UNLINK_SCRIPT = new RedisScript("local removed = redis.pcall('UNLINK', KEYS[1]) " + //NON-NLS
+            "if type(removed) == 'table' then removed = redis.call('DEL', KEYS[1]) end " + //NON-NLS
+            "return tostring(removed)"); //NON-NLS
+
+    private final String label;
+
+    RedisKeyOperation(String label) {
+        this.label = label;
+    }
+
+    public abstract Response<?> request(Pipeline pipeline, String key, int ttlSeconds);
+
+    /**
+     * Applies the operation to a single key, outside of any pipeline.
+     *
+     * @return the number of keys changed
+     */
+    public abstract long apply(Jedis jedis, String key, int ttlSeconds);
+
+    /**
+     * Loads on the server what the pipelined requests were missing.
+     *
+     * @return whether the requests have to be sent again
+     */
+    public boolean loadIfMissing(Jedis jedis, Collection<? extends Response<?>> responses) {
+        return false;
+    }
+
+    public static long getAffectedCount(Response<?> response) {
+        return RedisKeyType.toLong(response.get());
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,10 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+internal data class RedisKeyStatistics(
+        val key: String,
+        val type: RedisKeyType,
+        val memoryUsage: Long,
+        val encoding: String?,
+        val ttl: Long,
+        val cardinality: Long
+)
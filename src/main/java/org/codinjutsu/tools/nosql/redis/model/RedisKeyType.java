@@ -18,79 +18,221 @@ package org.codinjutsu.tools.nosql.redis.model;
 
 import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseElement;
-import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseHash;
-import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseList;
-import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseSet;
-import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseSortedSet;
-import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseString;
+import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseKey;
+import org.jetbrains.annotations.Nullable;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.util.SafeEncoder;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
 
 public enum RedisKeyType {
 
     LIST("list") {
         @Override
-        public DatabaseElement toDatabaseElement(Jedis jedis, String key) {
-            List<RedisDatabaseString> list = jedis.lrange(key, 0, -1)
-                    .stream()
-                    .map(RedisDatabaseString::new)
-                    .collect(Collectors.toList());
-            return new RedisDatabaseList(list);
+        public Response<Long> requestSize(Pipeline pipeline, String key) {
+            return pipeline.llen(key);
+        }
+
+        @Override
+        public RedisValuePage loadPage(Jedis jedis, String key, String cursor, int count) {
+            long start = Long.parseLong(cursor);
+            List<String> values = jedis.lrange(key, start, start + count - 1);
+            // a full page may also be the last one, LLEN tells apart an exact multiple of the page size
+            long next = start + count;
+            boolean complete = values.size() < count || next >= jedis.llen(key);
+            return new RedisValuePage(new ArrayList<>(values), complete ? SCAN_POINTER_START : String.valueOf(next));
         }
     },
     SET("set") { //NON-NLS
 
         @Override
-        public DatabaseElement toDatabaseElement(Jedis jedis, String key) {
-            Set<? extends DatabaseElement> values = jedis.smembers(key)
-                    .stream()
-                    .map(RedisDatabaseString::new)
-                    .collect(Collectors.toSet());
-            return new RedisDatabaseSet(values);
+        public Response<Long> requestSize(Pipeline pipeline, String key) {
+            return pipeline.scard(key);
+        }
+
+        @Override
+        public RedisValuePage loadPage(Jedis jedis, String key, String cursor, int count) {
+            ScanResult<String> scanResult = jedis.sscan(key, cursor, new ScanParams().count(count));
+            return new RedisValuePage(new ArrayList<>(scanResult.getResult()), scanResult.getStringCursor());
         }
     },
     ZSET("zset") { //NON-NLS
 
         @Override
-        public DatabaseElement toDatabaseElement(Jedis jedis, String key) {
-            SortedSet<DatabaseElement> values = jedis.zrangeByScoreWithScores(key, "-inf", "+inf") //NON-NLS
-                    .stream()
-                    .map(tuple -> new RedisDatabaseString(tuple.getElement()))
-                    .collect(Collectors.toCollection(TreeSet::new));
-            return new RedisDatabaseSortedSet(values);
+        public Response<Long> requestSize(Pipeline pipeline, String key) {
+            return pipeline.zcard(key);
+        }
+
+        @Override
+        public RedisValuePage loadPage(Jedis jedis, String key, String cursor, int count) {
+            ScanResult<?> scanResult = jedis.zscan(key, cursor, new ScanParams().count(count));
+            return new RedisValuePage(new ArrayList<>(scanResult.getResult()), scanResult.getStringCursor());
         }
     },
     HASH("hash") { //NON-NLS
 
         @Override
-        public DatabaseElement toDatabaseElement(Jedis jedis, String key) {
-            Map<String, DatabaseElement> result = jedis.hgetAll(key)
-                    .entrySet()
-                    .stream()
-                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> new RedisDatabaseString(entry.getValue()), (a, b) -> b));
-            return new RedisDatabaseHash(result);
+        public Response<Long> requestSize(Pipeline pipeline, String key) {
+            return pipeline.hlen(key);
+        }
+
+        @Override
+        public RedisValuePage loadPage(Jedis jedis, String key, String cursor, int count) {
+            ScanResult<?> scanResult = jedis.hscan(key, cursor, new ScanParams().count(count));
+            return new RedisValuePage(new ArrayList<>(scanResult.getResult()), scanResult.getStringCursor());
         }
     },
     STRING("string") { //NON-NLS
 
         @Override
-        public DatabaseElement toDatabaseElement(Jedis jedis, String key) {
-            return new RedisDatabaseString(jedis.get(key));
+        public Response<Long> requestSize(Pipeline pipeline, String key) {
+            return pipeline.strlen(key);
+        }
+
+        /**
+         * Only the first bytes are read, as bytes: the pipelined binary GETRANGE of Jedis decodes its reply as a Long,
+         * so it goes through a binary EVALSHA.
+         */
+        @Override
+        public Response<?> requestPreview(Pipeline pipeline, String key) {
+            return STRING_PREVIEW_SCRIPT.request(pipeline, SafeEncoder.encode(key), SafeEncoder.encode(String.valueOf(STRING_PREVIEW_LENGTH - 1)));
+        }
+
+        @Override
+        public void loadScripts(Jedis jedis) {
+            STRING_PREVIEW_SCRIPT.load(jedis);
+        }
+
+        @Override
+        public RedisValuePage loadPage(Jedis jedis, String key, String cursor, int count) {
+            return new RedisValuePage(Collections.emptyList(), SCAN_POINTER_START);
+        }
+    },
+    STREAM("stream") { //NON-NLS
+
+        @Override
+        public Response<?> requestSize(Pipeline pipeline, String key) {
+            return STREAM_LENGTH_SCRIPT.request(pipeline, key);
+        }
+
+        @Override
+        public Response<String> requestPreview(Pipeline pipeline, String key) {
+            return STREAM_INFO_SCRIPT.request(pipeline, key);
+        }
+
+        @Override
+        public void loadScripts(Jedis jedis) {
+            STREAM_LENGTH_SCRIPT.load(jedis);
+            STREAM_INFO_SCRIPT.load(jedis);
+        }
+
+        /**
+         * Entries are read newest first, the cursor being the id of the first entry of the next page.
+         * One extra entry is fetched to know that id, so no id arithmetic is needed.
+         */
+        @Override
+        public RedisValuePage loadPage(Jedis jedis, String key, String cursor, int count) {
+            boolean firstPage = SCAN_POINTER_START.equals(cursor);
+            List<?> replies = (List<?>) STREAM_RANGE_SCRIPT.eval(jedis, key, firstPage ? "+" : cursor, String.valueOf(count + 1));
+
+            List<Object> values = new ArrayList<>(count);
+            if (firstPage) {
+                for (Object group : (List<?>) STREAM_GROUPS_SCRIPT.eval(jedis, key)) {
+                    values.add(toStreamGroup((List<?>) group));
+                }
+            }
+            for (int i = 0; i < Math.min(count, replies.size()); i++) {
+                values.add(toStreamEntry((List<?>) replies.get(i)));
+            }
+            String nextCursor = replies.size() > count ? String.valueOf(((List<?>) replies.get(count)).get(0)) : SCAN_POINTER_START;
+            return new RedisValuePage(values, nextCursor);
         }
     };
+
+    public static final int STRING_PREVIEW_LENGTH = 1024;
+
+    private static final RedisScript STRING_PREVIEW_SCRIPT = new RedisScript("return redis.call('GETRANGE', KEYS[1], 0, ARGV[1])"); //NON-NLS
+
+    // Jedis has no stream commands, they are sent through EVAL and pipelined replies must be strings
+    private static final RedisScript STREAM_LENGTH_SCRIPT = new RedisScript("return tostring(redis.call('XLEN', KEYS[1]))"); //NON-NLS
+    private static final RedisScript STREAM_INFO_SCRIPT = new RedisScript("local info = redis.call('XINFO', 'STREAM', KEYS[1]) " + //NON-NLS
+            "local last, groups, pending = '', 0, 0 " + //NON-NLS
+            "for i = 1, #info, 2 do " + //NON-NLS
+            "  if info[i] == 'last-generated-id' then last = info[i + 1] elseif info[i] == 'groups' then groups = info[i + 1] end " + //NON-NLS
+            "end " + //NON-NLS
+            "if groups > 0 then " + //NON-NLS
+            "  for _, group in ipairs(redis.call('XINFO', 'GROUPS', KEYS[1])) do " + //NON-NLS
+            "    for i = 1, #group, 2 do if group[i] == 'pending' then pending = pending + group[i + 1] end end " + //NON-NLS
+            "  end " + //NON-NLS
+            "end " + //NON-NLS
+            "return 'last id ' .. last .. ', ' .. groups .. ' group(s), ' .. pending .. ' pending'"); //NON-NLS
+    private static final RedisScript STREAM_RANGE_SCRIPT = new RedisScript("return redis.call('XREVRANGE', KEYS[1], ARGV[1], '-', 'COUNT', ARGV[2])"); //NON-NLS
+    private static final RedisScript STREAM_GROUPS_SCRIPT = new RedisScript("return redis.call('XINFO', 'GROUPS', KEYS[1])"); //NON-NLS
+
     public final String label;
 
     RedisKeyType(String label) {
         this.label = label;
     }
 
-    public abstract DatabaseElement toDatabaseElement(Jedis jedis, String key);
+    public abstract Response<?> requestSize(Pipeline pipeline, String key);
+
+    @Nullable
+    public Response<?> requestPreview(Pipeline pipeline, String key) {
+        return null;
+    }
+
+    /**
+     * Loads the scripts that the pipelined requests of this type send by digest, once the server replied NOSCRIPT.
+     */
+    public void loadScripts(Jedis jedis) {
+    }
+
+    public abstract RedisValuePage loadPage(Jedis jedis, String key, String cursor, int count);
+
+    public DatabaseElement toDatabaseElement(String key, Response<?> size, Response<Long> ttl, @Nullable Response<?> preview) {
+        long length = toLong(size.get());
+        Object previewValue = preview == null ? null : preview.get();
+        if (previewValue instanceof byte[]) {
+            previewValue = new RedisBinaryValue((byte[]) previewValue, length);
+        }
+        return new RedisDatabaseKey(key, this, length, ttl.get(), previewValue);
+    }
+
+    public static long toLong(@Nullable Object reply) {
+        if (reply instanceof Number) {
+            return ((Number) reply).longValue();
+        }
+        return reply != null ? Long.parseLong(reply.toString()) : 0;
+    }
+
+    private static RedisStreamEntry toStreamEntry(List<?> reply) {
+        List<?> fields = (List<?>) reply.get(1);
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < fields.size(); i += 2) {
+            values.put(String.valueOf(fields.get(i)), String.valueOf(fields.get(i + 1)));
+        }
+        return new RedisStreamEntry(String.valueOf(reply.get(0)), values);
+    }
+
+    private static RedisStreamGroup toStreamGroup(List<?> reply) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < reply.size(); i += 2) {
+            info.put(String.valueOf(reply.get(i)), reply.get(i + 1));
+        }
+        return new RedisStreamGroup(String.valueOf(info.get("name")), toLong(info.get("consumers")), //NON-NLS
+                toLong(info.get("pending")), String.valueOf(info.get("last-delivered-id"))); //NON-NLS
+    }
 
     public static RedisKeyType getKeyType(String type) {
         for (RedisKeyType keyType : RedisKeyType.values()) {
@@ -0,0 +1,63 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+import org.codinjutsu.tools.nosql.commons.utils.explode
+import java.util.*
+
+internal class RedisMemoryProfile(
+        private val separator: String,
+        private val prefixDepth: Int = 1,
+        private val topCount: Int = 50
+) {
+
+    private val prefixes = HashMap<String, RedisPrefixStatistics>()
+    private val biggestKeys = PriorityQueue<RedisKeyStatistics>(KEY_SIZE_ORDER)
+
+    var scannedKeys = 0L
+        @Synchronized get
+        private set
+
+    var totalMemoryUsage = 0L
+        @Synchronized get
+        private set
+
+    @Volatile
+    var isComplete = false
+
+    @Synchronized
+    fun add(statistics: RedisKeyStatistics) {
+        scannedKeys++
+        totalMemoryUsage += Math.max(0, statistics.memoryUsage)
+
+        val prefix = prefixOf(statistics.key)
+        val current = prefixes[prefix] ?: RedisPrefixStatistics(prefix, 0, 0, 0)
+        prefixes[prefix] = RedisPrefixStatistics(prefix,
+                current.keyCount + 1,
+                current.memoryUsage + Math.max(0, statistics.memoryUsage),
+                current.cardinality + Math.max(0, statistics.cardinality))
+
+        biggestKeys.add(statistics)
+        if (biggestKeys.size > topCount) {
+            biggestKeys.poll()
+        }
+    }
+
+    @Synchronized
+    fun getPrefixes(): List<RedisPrefixStatistics> =
+            prefixes.values.sortedWith(compareByDescending<RedisPrefixStatistics> { it.memoryUsage }.thenByDescending { it.cardinality })
+
+    @Synchronized
+    fun getBiggestKeys(): List<RedisKeyStatistics> =
+            biggestKeys.sortedWith(KEY_SIZE_ORDER.reversed())
+
+    private fun prefixOf(key: String): String {
+        val fragments = explode(key, separator)
+        if (fragments.size <= 1) {
+            return ""
+        }
+        return fragments.take(Math.min(prefixDepth, fragments.size - 1)).joinToString(separator)
+    }
+
+    companion object {
+        private val KEY_SIZE_ORDER = compareBy<RedisKeyStatistics> { it.memoryUsage }.thenBy { it.cardinality }
+    }
+}
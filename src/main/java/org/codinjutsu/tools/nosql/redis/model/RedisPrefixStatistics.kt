@@ -0,0 +1,8 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+internal data class RedisPrefixStatistics(
+        val prefix: String,
+        val keyCount: Long,
+        val memoryUsage: Long,
+        val cardinality: Long
+)
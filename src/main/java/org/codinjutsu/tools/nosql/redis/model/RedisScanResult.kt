@@ -0,0 +1,12 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject
+import redis.clients.jedis.ScanParams.SCAN_POINTER_START
+
+internal data class RedisScanResult(
+        val records: List<DatabaseObject>,
+        val cursor: String
+) {
+    val isComplete: Boolean
+        get() = cursor == SCAN_POINTER_START
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.nosql.redis.model;
+
+import org.jetbrains.annotations.Nullable;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+/**
+ * A Lua script sent by its SHA1 digest, so that a pipeline does not repeat the script body for every key.
+ * A pipeline whose replies tell that the server does not know the script yet is sent again after {@link #load(Jedis)}.
+ */
+public class RedisScript {
+
+    private static final String NO_SCRIPT_ERROR = "NOSCRIPT"; //NON-NLS
+
+    private final String body;
+    private final String sha;
+
+    public RedisScript(String body) {
+        this.body = body;
+        this.sha = sha1(body);
+    }
+
+    public Response<String> request(Pipeline pipeline, String key, String... args) {
+        return pipeline.evalsha(sha, 1, keyAndArgs(key, args));
+    }
+
+    public Response<Object> request(Pipeline pipeline, byte[] key, byte[]... args) {
+        byte[][] keyAndArgs = new byte[args.length + 1][];
+        keyAndArgs[0] = key;
+        System.arraycopy(args, 0, keyAndArgs, 1, args.length);
+        return pipeline.evalsha(SafeEncoder.encode(sha), 1, keyAndArgs);
+    }
+
+    /**
+     * Runs the script on its own connection, sending the body only when the server does not know the script yet.
+     */
+    public Object eval(Jedis jedis, String key, String... args) {
+        String[] keyAndArgs = keyAndArgs(key, args);
+        try {
+            return jedis.evalsha(sha, 1, keyAndArgs);
+        } catch (JedisDataException ex) {
+            if (!isMissing(ex)) {
+                throw ex;
+            }
+            return jedis.eval(body, 1, keyAndArgs);
+        }
+    }
+
+    public void load(Jedis jedis) {
+        jedis.scriptLoad(body);
+    }
+
+    /**
+     * @return whether one of the replies failed because the script is not loaded on the server
+     */
+    public static boolean isMissing(Collection<? extends Response<?>> responses) {
+        for (Response<?> response : responses) {
+            if (isMissing(response)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isMissing(@Nullable Response<?> response) {
+        if (response == null) {
+            return false;
+        }
+        try {
+            response.get();
+            return false;
+        } catch (JedisDataException ex) {
+            return isMissing(ex);
+        }
+    }
+
+    private static boolean isMissing(JedisDataException ex) {
+        return ex.getMessage() != null && ex.getMessage().startsWith(NO_SCRIPT_ERROR);
+    }
+
+    private static String[] keyAndArgs(String key, String[] args) {
+        String[] keyAndArgs = new String[args.length + 1];
+        keyAndArgs[0] = key;
+        System.arraycopy(args, 0, keyAndArgs, 1, args.length);
+        return keyAndArgs;
+    }
+
+    static String sha1(String script) {
+        try {
+            StringBuilder sha = new StringBuilder();
+            for (byte digestByte : MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8))) { //NON-NLS
+                sha.append(String.format("%02x", digestByte)); //NON-NLS
+            }
+            return sha.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
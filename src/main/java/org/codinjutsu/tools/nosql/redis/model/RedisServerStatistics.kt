@@ -0,0 +1,43 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+data class RedisDatabaseStatistics(val keys: Long, val expires: Long) {
+
+    operator fun plus(other: RedisDatabaseStatistics) = RedisDatabaseStatistics(keys + other.keys, expires + other.expires)
+}
+
+data class RedisServerStatistics(val usedMemory: Long, val databases: Map<String, RedisDatabaseStatistics>) {
+
+    fun getDatabase(name: String): RedisDatabaseStatistics? = databases[name]
+
+    operator fun plus(other: RedisServerStatistics) = RedisServerStatistics(usedMemory + other.usedMemory,
+            (databases.keys + other.databases.keys).associate {
+                it to (databases[it] ?: EMPTY) + (other.databases[it] ?: EMPTY)
+            })
+
+    companion object {
+
+        private val EMPTY = RedisDatabaseStatistics(0, 0)
+        private val KEYSPACE_LINE = Regex("db(\\d+):(.*)")
+
+        /**
+         * Parses the replies of `INFO keyspace` (`db0:keys=12,expires=3,avg_ttl=0`) and `INFO memory` (`used_memory:1024`).
+         */
+        @JvmStatic
+        fun parse(keyspaceInfo: String, memoryInfo: String): RedisServerStatistics {
+            val databases = keyspaceInfo.lineSequence()
+                    .mapNotNull { KEYSPACE_LINE.matchEntire(it.trim()) }
+                    .associate { match ->
+                        val fields = match.groupValues[2].split(',')
+                                .map { it.split('=', limit = 2) }
+                                .filter { it.size == 2 }
+                                .associate { it[0] to it[1] }
+                        match.groupValues[1] to RedisDatabaseStatistics(fields["keys"]?.toLongOrNull() ?: 0, fields["expires"]?.toLongOrNull() ?: 0)
+                    }
+            val usedMemory = memoryInfo.lineSequence()
+                    .map { it.trim() }
+                    .firstOrNull { it.startsWith("used_memory:") }
+                    ?.substringAfter(':')?.toLongOrNull() ?: -1
+            return RedisServerStatistics(usedMemory, databases)
+        }
+    }
+}
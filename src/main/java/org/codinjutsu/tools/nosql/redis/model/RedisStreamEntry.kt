@@ -0,0 +1,6 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+internal data class RedisStreamEntry(
+        val id: String,
+        val fields: Map<String, String>
+)
@@ -0,0 +1,10 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+internal data class RedisStreamGroup(
+        val name: String,
+        val consumers: Long,
+        val pending: Long,
+        val lastDeliveredId: String
+) {
+    override fun toString() = "$consumers consumer(s), $pending pending, last delivered $lastDeliveredId"
+}
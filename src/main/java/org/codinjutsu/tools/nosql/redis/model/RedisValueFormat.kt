@@ -0,0 +1,8 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+enum class RedisValueFormat(val label: String) {
+    TEXT("text"),
+    GZIP("gzip"),
+    SNAPPY("snappy"),
+    BINARY("hex")
+}
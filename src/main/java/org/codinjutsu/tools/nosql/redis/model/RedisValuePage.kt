@@ -0,0 +1,11 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+import redis.clients.jedis.ScanParams.SCAN_POINTER_START
+
+internal data class RedisValuePage(
+        val values: List<Any>,
+        val cursor: String
+) {
+    val isComplete: Boolean
+        get() = cursor == SCAN_POINTER_START
+}
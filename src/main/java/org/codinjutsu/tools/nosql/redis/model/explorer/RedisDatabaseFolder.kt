@@ -0,0 +1,40 @@
+package org.codinjutsu.tools.nosql.redis.model.explorer
+
+import com.intellij.openapi.project.Project
+import com.intellij.ui.ColoredTreeCellRenderer
+import com.intellij.ui.SimpleTextAttributes.GRAYED_ATTRIBUTES
+import org.codinjutsu.tools.nosql.commons.model.Database
+import org.codinjutsu.tools.nosql.commons.model.DatabaseServer
+import org.codinjutsu.tools.nosql.commons.model.explorer.DatabaseFolder
+import org.codinjutsu.tools.nosql.redis.logic.RedisClient
+import org.codinjutsu.tools.nosql.redis.view.editor.RedisObjectFile
+
+internal class RedisDatabaseFolder(database: Database, override val parent: RedisDatabaseServerFolder, private val project: Project)
+    : DatabaseFolder<Database>(database) {
+
+    override val databaseServer: DatabaseServer
+        get() = parent.databaseServer
+
+    override val database: Database?
+        get() = data
+
+    override fun createNoSqlObjectFile(project: Project) = RedisObjectFile(project, databaseServer.configuration, data)
+
+    override fun isViewableContent() = true
+
+    override fun canShowConsoleApplication() = parent.canShowConsoleApplication()
+
+    override fun updateTreeCell(renderer: ColoredTreeCellRenderer) {
+        super.updateTreeCell(renderer)
+        val serverStatistics = RedisClient.getInstance(project).getServerStatistics(databaseServer.configuration) ?: return
+        val statistics = serverStatistics.getDatabase(data.name)
+        renderer.apply {
+            if (statistics == null) {
+                append(" (empty)", GRAYED_ATTRIBUTES)
+            } else {
+                append(" (${statistics.keys} keys)", GRAYED_ATTRIBUTES)
+                toolTipText = "${statistics.keys} key(s), ${statistics.expires} with an expiration"
+            }
+        }
+    }
+}
@@ -1,18 +1,43 @@
 package org.codinjutsu.tools.nosql.redis.model.explorer
 
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.util.text.StringUtil
+import com.intellij.ui.ColoredTreeCellRenderer
+import com.intellij.ui.SimpleTextAttributes.GRAYED_ATTRIBUTES
 import org.codinjutsu.tools.nosql.commons.model.Database
 import org.codinjutsu.tools.nosql.commons.model.DatabaseServer
-import org.codinjutsu.tools.nosql.commons.model.explorer.CommonDatabaseFolder
 import org.codinjutsu.tools.nosql.commons.model.explorer.DatabaseServerFolder
-import org.codinjutsu.tools.nosql.redis.view.editor.RedisObjectFile
+import org.codinjutsu.tools.nosql.redis.logic.RedisClient
 
-internal class RedisDatabaseServerFolder(databaseServer: DatabaseServer)
+internal class RedisDatabaseServerFolder(databaseServer: DatabaseServer, private val project: Project)
     : DatabaseServerFolder<Database>(databaseServer) {
 
-    override fun createDatabaseFolder(database: Database) =
-            CommonDatabaseFolder(database, this, true) {
-                RedisObjectFile(it, databaseServer.configuration, database)
-            }
+    override fun createDatabaseFolder(database: Database) = RedisDatabaseFolder(database, this, project)
 
     override fun canShowConsoleApplication() = true
-}
\ No newline at end of file
+
+    override fun scheduleRefresh(onRefresh: Runnable) {
+        RedisClient.getInstance(project).scheduleStatisticsRefresh(configuration, onRefresh)
+    }
+
+    override fun cancelRefresh() {
+        RedisClient.getInstance(project).cancelStatisticsRefresh(configuration)
+    }
+
+    override fun updateTreeCell(renderer: ColoredTreeCellRenderer) {
+        super.updateTreeCell(renderer)
+        val client = RedisClient.getInstance(project)
+        val serverStatistics = client.getServerStatistics(configuration)
+        if (serverStatistics != null && serverStatistics.usedMemory >= 0) {
+            renderer.append(" ${StringUtil.formatFileSize(serverStatistics.usedMemory)}", GRAYED_ATTRIBUTES)
+        }
+        client.getReadEndpoint(configuration)?.let {
+            renderer.toolTipText = "${renderer.toolTipText} - reads from replica $it"
+        }
+        val statistics = client.getPoolStatistics(configuration) ?: return
+        renderer.apply {
+            append(" [${statistics.active}/${statistics.idle}]", GRAYED_ATTRIBUTES)
+            toolTipText = "$toolTipText - ${statistics.active} active, ${statistics.idle} idle, ${statistics.waiters} waiting connection(s)"
+        }
+    }
+}
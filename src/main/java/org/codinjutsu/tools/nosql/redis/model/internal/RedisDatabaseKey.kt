@@ -0,0 +1,26 @@
+package org.codinjutsu.tools.nosql.redis.model.internal
+
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseElement
+import org.codinjutsu.tools.nosql.redis.model.RedisBinaryValue
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyType
+
+internal class RedisDatabaseKey(
+        val key: String,
+        val type: RedisKeyType,
+        val size: Long,
+        val ttl: Long,
+        val preview: Any? = null
+) : DatabaseElement {
+
+    val isTruncated: Boolean
+        get() = (preview as? RedisBinaryValue)?.isTruncated == true
+
+    override fun toString(): String {
+        val summary = when {
+            type == RedisKeyType.STRING -> preview?.toString() ?: ""
+            type == RedisKeyType.STREAM && preview != null -> "$size entries, $preview"
+            else -> "$size element(s)"
+        }
+        return if (ttl >= 0) "$summary (ttl: ${ttl}s)" else summary
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.view
+
+import com.intellij.openapi.ui.ComboBox
+import com.intellij.openapi.ui.DialogWrapper
+import com.intellij.openapi.ui.ValidationInfo
+import com.intellij.ui.components.JBTextField
+import com.intellij.util.ui.FormBuilder
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyOperation
+import java.awt.Component
+import javax.swing.DefaultComboBoxModel
+
+internal class RedisBulkOperationDialog(parent: Component, pattern: String) : DialogWrapper(parent, true) {
+
+    private val patternField = JBTextField(pattern)
+    private val operationCombobox = ComboBox<RedisKeyOperation>()
+    private val ttlField = JBTextField("3600")
+
+    val pattern: String
+        get() = patternField.text.trim()
+
+    val operation: RedisKeyOperation
+        get() = operationCombobox.selectedItem as RedisKeyOperation
+
+    val ttlSeconds: Int
+        get() = if (operation == RedisKeyOperation.EXPIRE) ttlField.text.trim().toInt() else 0
+
+    init {
+        title = "Apply to Matching Keys"
+        patternField.name = "patternField" //NON-NLS
+        operationCombobox.name = "operationCombobox" //NON-NLS
+        operationCombobox.model = DefaultComboBoxModel(RedisKeyOperation.values())
+        operationCombobox.addActionListener { ttlField.isEnabled = operation == RedisKeyOperation.EXPIRE }
+        ttlField.name = "ttlField" //NON-NLS
+        ttlField.isEnabled = false
+        init()
+    }
+
+    override fun createCenterPanel() = FormBuilder.createFormBuilder()
+            .addLabeledComponent("Key pattern:", patternField)
+            .addLabeledComponent("Operation:", operationCombobox)
+            .addLabeledComponent("TTL (seconds):", ttlField)
+            .panel
+
+    override fun getPreferredFocusedComponent() = patternField
+
+    override fun doValidate(): ValidationInfo? {
+        if (pattern.isEmpty()) {
+            return ValidationInfo("The key pattern is required", patternField)
+        }
+        if (operation == RedisKeyOperation.EXPIRE && (ttlField.text.trim().toIntOrNull() ?: 0) <= 0) {
+            return ValidationInfo("The TTL must be a positive number of seconds", ttlField)
+        }
+        return null
+    }
+}
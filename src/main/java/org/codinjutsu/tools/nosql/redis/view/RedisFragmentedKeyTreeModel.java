@@ -17,16 +17,13 @@
 package org.codinjutsu.tools.nosql.redis.view;
 
 import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode;
-import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.NodeDescriptor;
-import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.FragmentedKeyNodeDescriptor;
 import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisKeyValueDescriptor;
 
 import javax.swing.event.TreeModelListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
-import javax.swing.tree.MutableTreeNode;
-import java.util.Arrays;
-import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.apache.commons.lang.StringUtils.isEmpty;
 import static org.codinjutsu.tools.nosql.commons.utils.StringUtilsKt.explode;
@@ -35,6 +32,7 @@ public class RedisFragmentedKeyTreeModel extends DefaultTreeModel {
 
     private String separator;
     private DefaultTreeModel fragmentedKeyModel;
+    private final Map<String, DefaultMutableTreeNode> wrappedRoots = new HashMap<>();
 
     private boolean needsUpdate = true;
 
@@ -60,10 +58,12 @@ public class RedisFragmentedKeyTreeModel extends DefaultTreeModel {
         return (DefaultMutableTreeNode) getFragmentedKeyModel().getRoot();
     }
 
+    /**
+     * Groups the source nodes again, the listeners are notified once with the new grouped tree.
+     */
     @Override
     public void reload() {
-        super.reload();
-        getFragmentedKeyModel().reload();
+        wrappedRoots.clear();
         needsUpdate = true;
         fireSeparatorChanged();
     }
@@ -86,13 +86,18 @@ public class RedisFragmentedKeyTreeModel extends DefaultTreeModel {
     @Override
     public void addTreeModelListener(TreeModelListener listener) {
         super.addTreeModelListener(listener);
-        getFragmentedKeyModel().addTreeModelListener(listener);
+        // a grouped model still to build takes the listeners of this one
+        if (!needsUpdate) {
+            fragmentedKeyModel.addTreeModelListener(listener);
+        }
     }
 
     @Override
     public void removeTreeModelListener(TreeModelListener listener) {
         super.removeTreeModelListener(listener);
-        getFragmentedKeyModel().removeTreeModelListener(listener);
+        if (fragmentedKeyModel != null) {
+            fragmentedKeyModel.removeTreeModelListener(listener);
+        }
     }
 
     @Override
@@ -110,8 +115,7 @@ public class RedisFragmentedKeyTreeModel extends DefaultTreeModel {
 
     private void updateFilteredModel() {
         DefaultMutableTreeNode sourceRoot = (DefaultMutableTreeNode) super.getRoot();
-        DefaultMutableTreeNode targetRoot = (DefaultMutableTreeNode) sourceRoot.clone();
-        wrapNodes(sourceRoot, separator);
+        DefaultMutableTreeNode targetRoot = wrappedRoots.computeIfAbsent(separator, key -> wrapNodes(sourceRoot, key));
         fragmentedKeyModel = new DefaultTreeModel(targetRoot);
         Object[] listeners = listenerList.getListenerList();
         for (int i = listeners.length - 2; i >= 0; i -= 2) {
@@ -119,7 +123,6 @@ public class RedisFragmentedKeyTreeModel extends DefaultTreeModel {
                 fragmentedKeyModel.addTreeModelListener((TreeModelListener) listeners[i + 1]);
             }
         }
-        fireSeparatorChanged();
     }
 
     private void fireSeparatorChanged() {
@@ -130,65 +133,14 @@ public class RedisFragmentedKeyTreeModel extends DefaultTreeModel {
         if (isEmpty(separator)) {
             return source;
         }
-        DefaultMutableTreeNode targetRootNode = (DefaultMutableTreeNode) source.clone();
+        RedisKeyTrie trie = new RedisKeyTrie();
         for (int i = 0; i < source.getChildCount(); i++) {
-            DefaultMutableTreeNode originalChildNode = (DefaultMutableTreeNode) source.getChildAt(i);
-            NoSqlTreeNode clonedChildNode = (NoSqlTreeNode) originalChildNode.clone();
-            RedisKeyValueDescriptor descriptor = (RedisKeyValueDescriptor) clonedChildNode.getDescriptor();
-            String[] explodedKey = explode(descriptor.getKey(), separator);
-            if (explodedKey.length == 1) {
-                addChildren(clonedChildNode, originalChildNode);
-                targetRootNode.add(clonedChildNode);
-            } else {
-                updateTree(targetRootNode, originalChildNode, explodedKey, descriptor);
-            }
+            NoSqlTreeNode keyNode = (NoSqlTreeNode) source.getChildAt(i);
+            String key = ((RedisKeyValueDescriptor) keyNode.getDescriptor()).getKey();
+            trie.add(explode(key, separator), separator, key, keyNode);
         }
+        DefaultMutableTreeNode targetRootNode = (DefaultMutableTreeNode) source.clone();
+        trie.addNodesTo(targetRootNode);
         return targetRootNode;
     }
-
-    private static void updateTree(DefaultMutableTreeNode parentTargetNode, DefaultMutableTreeNode originalChildNode, String[] explodedKey, RedisKeyValueDescriptor sourceDescriptor) {
-        if (explodedKey.length == 0) {
-            addChildren(parentTargetNode, originalChildNode);
-            return;
-        }
-        String keyFragment = explodedKey[0];
-        NoSqlTreeNode node = findNodeByKey(parentTargetNode, keyFragment);
-        if (node == null) {
-            if (explodedKey.length == 1) {
-                node = new NoSqlTreeNode(RedisKeyValueDescriptor.createDescriptor(sourceDescriptor.getKeyType(), keyFragment, sourceDescriptor.getValue()));
-            } else {
-                node = new NoSqlTreeNode(FragmentedKeyNodeDescriptor.createDescriptor(keyFragment));
-            }
-        }
-        updateTree(node, originalChildNode, Arrays.copyOfRange(explodedKey, 1, explodedKey.length), sourceDescriptor);
-
-        parentTargetNode.add(node);
-    }
-
-    private static NoSqlTreeNode findNodeByKey(DefaultMutableTreeNode parentTargetNode, String keyFragment) {
-        for (int i = 0; i < parentTargetNode.getChildCount(); i++) {
-            NoSqlTreeNode currentChild = (NoSqlTreeNode) parentTargetNode.getChildAt(i);
-            NodeDescriptor descriptor = currentChild.getDescriptor();
-            String nodeKey;
-            if (descriptor instanceof FragmentedKeyNodeDescriptor) {
-                nodeKey = ((FragmentedKeyNodeDescriptor) descriptor).getKeyFragment();
-            } else if (descriptor instanceof RedisKeyValueDescriptor) {
-                nodeKey = ((RedisKeyValueDescriptor) descriptor).getKey();
-            } else {
-                return null;
-            }
-            if (keyFragment.equals(nodeKey)) {
-                return currentChild;
-            }
-        }
-        return null;
-    }
-
-    private static void addChildren(DefaultMutableTreeNode parentNode, DefaultMutableTreeNode originalChildNode) {
-        Enumeration children = originalChildNode.children();
-        while (children.hasMoreElements()) {
-            DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) children.nextElement();
-            parentNode.add((MutableTreeNode) childNode.clone());
-        }
-    }
 }
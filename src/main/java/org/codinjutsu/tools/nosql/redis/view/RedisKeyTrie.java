@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.view;
+
+import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode;
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.FragmentedKeyNodeDescriptor;
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisKeyValueDescriptor;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.MutableTreeNode;
+import javax.swing.tree.TreeNode;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix tree of the key fragments. Tree nodes of a group are only created when the group is first expanded.
+ * Every group keeps the exact start of its keys, since the fragments alone do not tell where separators were dropped.
+ */
+class RedisKeyTrie {
+
+    private final String keyPrefix;
+    private final Map<String, RedisKeyTrie> groups = new LinkedHashMap<>();
+    private final List<KeyLeaf> keys = new ArrayList<>();
+
+    RedisKeyTrie() {
+        this("");
+    }
+
+    private RedisKeyTrie(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    void add(String[] fragments, String separator, String key, DefaultMutableTreeNode keyNode) {
+        if (fragments.length <= 1) {
+            keys.add(new KeyLeaf(key, keyNode));
+            return;
+        }
+        RedisKeyTrie trie = this;
+        int last = fragments.length - 1;
+        for (int i = 0; i < last; i++) {
+            String groupPrefix = trie.keyPrefix + fragments[i] + separator;
+            trie = trie.groups.computeIfAbsent(fragments[i], fragment -> new RedisKeyTrie(groupPrefix));
+        }
+        trie.keys.add(new KeyLeaf(fragments[last], keyNode));
+    }
+
+    void addNodesTo(DefaultMutableTreeNode parentNode) {
+        groups.forEach((fragment, trie) -> parentNode.add(new FragmentedKeyTreeNode(fragment, trie)));
+        for (KeyLeaf leaf : keys) {
+            parentNode.add(leaf.createTreeNode());
+        }
+    }
+
+    private static class KeyLeaf {
+
+        private final String keyFragment;
+        private final DefaultMutableTreeNode sourceNode;
+
+        private KeyLeaf(String keyFragment, DefaultMutableTreeNode sourceNode) {
+            this.keyFragment = keyFragment;
+            this.sourceNode = sourceNode;
+        }
+
+        private NoSqlTreeNode createTreeNode() {
+            RedisKeyValueDescriptor descriptor = (RedisKeyValueDescriptor) ((NoSqlTreeNode) sourceNode).getDescriptor();
+            NoSqlTreeNode treeNode = new NoSqlTreeNode(RedisKeyValueDescriptor.createDescriptor(descriptor.getKeyType(), keyFragment, descriptor.getValue()));
+            Enumeration children = sourceNode.children();
+            while (children.hasMoreElements()) {
+                treeNode.add((MutableTreeNode) ((DefaultMutableTreeNode) children.nextElement()).clone());
+            }
+            return treeNode;
+        }
+    }
+
+    private static class FragmentedKeyTreeNode extends NoSqlTreeNode {
+
+        private RedisKeyTrie trie;
+
+        private FragmentedKeyTreeNode(String keyFragment, RedisKeyTrie trie) {
+            super(FragmentedKeyNodeDescriptor.createDescriptor(keyFragment, trie.keyPrefix));
+            this.trie = trie;
+        }
+
+        private void materialize() {
+            if (trie != null) {
+                RedisKeyTrie pending = trie;
+                trie = null;
+                pending.addNodesTo(this);
+            }
+        }
+
+        @Override
+        public int getChildCount() {
+            materialize();
+            return super.getChildCount();
+        }
+
+        @Override
+        public TreeNode getChildAt(int index) {
+            materialize();
+            return super.getChildAt(index);
+        }
+
+        @Override
+        public int getIndex(TreeNode child) {
+            materialize();
+            return super.getIndex(child);
+        }
+
+        @Override
+        public Enumeration children() {
+            materialize();
+            return super.children();
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return trie == null && super.isLeaf();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.view;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.Alarm;
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject;
+import org.codinjutsu.tools.nosql.redis.logic.RedisClient;
+import org.codinjutsu.tools.nosql.redis.model.RedisContext;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Collects the keys touched by keyspace notifications during a time window, then re-reads only those keys.
+ */
+class RedisKeyspaceWatcher implements Disposable {
+
+    private final RedisContext context;
+    private final int delay;
+    private final BiConsumer<Set<String>, List<DatabaseObject>> changeConsumer;
+    private final Consumer<Exception> errorConsumer;
+    private final Alarm alarm;
+    private final Set<String> pendingKeys = new LinkedHashSet<>();
+
+    RedisKeyspaceWatcher(RedisContext context, int delay,
+                         BiConsumer<Set<String>, List<DatabaseObject>> changeConsumer, Consumer<Exception> errorConsumer) {
+        this.context = context;
+        this.delay = delay;
+        this.changeConsumer = changeConsumer;
+        this.errorConsumer = errorConsumer;
+        this.alarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+    }
+
+    void start(String keyPattern) {
+        Disposable subscription = ((RedisClient) context.getClient()).subscribeKeyspace(context, keyPattern, this::keyChanged, errorConsumer);
+        Disposer.register(this, subscription);
+    }
+
+    private void keyChanged(String key) {
+        synchronized (pendingKeys) {
+            if (pendingKeys.isEmpty()) {
+                alarm.addRequest(this::refresh, delay);
+            }
+            pendingKeys.add(key);
+        }
+    }
+
+    // synchronized so that the changes of two windows are applied in order
+    private synchronized void refresh() {
+        Set<String> keys;
+        synchronized (pendingKeys) {
+            keys = new LinkedHashSet<>(pendingKeys);
+            pendingKeys.clear();
+        }
+        try {
+            changeConsumer.accept(keys, ((RedisClient) context.getClient()).fetchKeys(context, keys));
+        } catch (RuntimeException ex) {
+            errorConsumer.accept(ex);
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
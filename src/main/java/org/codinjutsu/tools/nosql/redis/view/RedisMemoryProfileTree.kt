@@ -0,0 +1,39 @@
+package org.codinjutsu.tools.nosql.redis.view
+
+import com.intellij.openapi.util.text.StringUtil
+import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.keyvalue.StringKeyValueDescriptor
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.result.NullResultDescriptor
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyStatistics
+import org.codinjutsu.tools.nosql.redis.model.RedisMemoryProfile
+import org.codinjutsu.tools.nosql.redis.model.RedisPrefixStatistics
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.FragmentedKeyNodeDescriptor
+
+internal fun buildMemoryProfileTree(profile: RedisMemoryProfile): NoSqlTreeNode {
+    val rootNode = NoSqlTreeNode(NullResultDescriptor())
+    val status = if (profile.isComplete) "" else " (partial)"
+    rootNode.add(NoSqlTreeNode(StringKeyValueDescriptor("Analyzed keys", "${profile.scannedKeys}$status")))
+    rootNode.add(NoSqlTreeNode(StringKeyValueDescriptor("Memory usage", formatMemoryUsage(profile.totalMemoryUsage))))
+
+    val prefixesNode = NoSqlTreeNode(FragmentedKeyNodeDescriptor.createDescriptor("Memory usage by prefix"))
+    profile.getPrefixes().forEach { prefixesNode.add(it.createTreeNode()) }
+    rootNode.add(prefixesNode)
+
+    val biggestKeysNode = NoSqlTreeNode(FragmentedKeyNodeDescriptor.createDescriptor("Biggest keys"))
+    profile.getBiggestKeys().forEach { biggestKeysNode.add(it.createTreeNode()) }
+    rootNode.add(biggestKeysNode)
+    return rootNode
+}
+
+private fun RedisPrefixStatistics.createTreeNode() =
+        NoSqlTreeNode(StringKeyValueDescriptor(if (prefix.isEmpty()) "(no prefix)" else prefix,
+                "${formatMemoryUsage(memoryUsage)}, $keyCount key(s), $cardinality element(s)"))
+
+private fun RedisKeyStatistics.createTreeNode(): NoSqlTreeNode {
+    val expiration = if (ttl >= 0) ", ttl: ${ttl}s" else ""
+    return NoSqlTreeNode(StringKeyValueDescriptor(key,
+            "${formatMemoryUsage(memoryUsage)}, ${type.label} (${encoding ?: "unknown"}), $cardinality element(s)$expiration"))
+}
+
+private fun formatMemoryUsage(memoryUsage: Long) =
+        if (memoryUsage >= 0) StringUtil.formatFileSize(memoryUsage) else "n/a"
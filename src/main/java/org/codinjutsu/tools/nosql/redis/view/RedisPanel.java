@@ -18,36 +18,89 @@ package org.codinjutsu.tools.nosql.redis.view;
 
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileTypes.PlainTextFileType;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.MessageType;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.popup.Balloon;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.treeStructure.treetable.ListTreeTableModelOnColumns;
 import com.intellij.ui.components.JBTextField;
 import com.intellij.ui.components.panels.NonOpaquePanel;
+import com.intellij.testFramework.LightVirtualFile;
 import org.codinjutsu.tools.nosql.commons.model.DataType;
 import org.codinjutsu.tools.nosql.commons.model.SearchResult;
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject;
+import org.codinjutsu.tools.nosql.commons.utils.GuiUtils;
 import org.codinjutsu.tools.nosql.commons.view.DatabasePanel;
+import org.codinjutsu.tools.nosql.commons.view.JsonTreeTableView;
+import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode;
 import org.codinjutsu.tools.nosql.commons.view.action.ExecuteQuery;
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.NodeDescriptor;
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.keyvalue.KeyValueDescriptor;
 import org.codinjutsu.tools.nosql.commons.view.panel.NoSQLResultPanel;
 import org.codinjutsu.tools.nosql.commons.view.panel.query.Page;
 import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptions;
 import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptionsImpl;
+import org.codinjutsu.tools.nosql.redis.configuration.RedisServerConfiguration;
+import org.codinjutsu.tools.nosql.redis.logic.RedisClient;
+import org.codinjutsu.tools.nosql.redis.logic.RedisValueDecoder;
 import org.codinjutsu.tools.nosql.redis.model.RedisContext;
+import org.codinjutsu.tools.nosql.redis.model.RedisDecodedValue;
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyOperation;
+import org.codinjutsu.tools.nosql.redis.model.RedisScanResult;
+import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseKey;
+import org.codinjutsu.tools.nosql.redis.view.action.AnalyzeMemoryAction;
+import org.codinjutsu.tools.nosql.redis.view.action.BulkKeyOperationAction;
+import org.codinjutsu.tools.nosql.redis.view.action.DeleteSelectedKeyAction;
 import org.codinjutsu.tools.nosql.redis.view.action.EnableGroupingAction;
+import org.codinjutsu.tools.nosql.redis.view.action.LiveUpdateAction;
+import org.codinjutsu.tools.nosql.redis.view.action.LoadFullValueAction;
+import org.codinjutsu.tools.nosql.redis.view.action.LoadMoreAction;
 import org.codinjutsu.tools.nosql.redis.view.action.SetSeparatorAction;
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.FragmentedKeyNodeDescriptor;
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisKeyValueDescriptor;
 import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisNodeDescriptorFactory;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.Box;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.tree.TreeNode;
+import javax.swing.tree.TreePath;
 import java.awt.BorderLayout;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.apache.commons.lang.StringUtils.isNotBlank;
+import static org.codinjutsu.tools.nosql.redis.view.RedisMemoryProfileTreeKt.buildMemoryProfileTree;
+import static org.codinjutsu.tools.nosql.redis.view.RedisTreeModelKt.buildTree;
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
 
 public class RedisPanel extends DatabasePanel {
 
+    private static final String DEFAULT_PROFILE_SEPARATOR = ":";
+    private static final long SCAN_REFRESH_INTERVAL_MS = 500;
+
     private RedisTreePreparator treePreparator;
     private JBTextField filterField;
-    private boolean groupData;
-    private String groupSeparator;
+    private volatile boolean groupData;
+    private volatile String groupSeparator;
+    private volatile SearchResult lastSearchResult;
+    private QueryOptions scanQueryOptions;
+    private String scanCursor = SCAN_POINTER_START;
+    private List<DatabaseObject> scannedRecords = Collections.emptyList();
+    private RedisKeyspaceWatcher keyspaceWatcher;
 
     public RedisPanel(Project project, RedisContext context) {
         super(project, context, "id"); //NON-NLS
@@ -76,6 +129,12 @@ public class RedisPanel extends DatabasePanel {
     @Override
     protected void addActions(DefaultActionGroup actionResultGroup, AnAction expandAllAction, AnAction collapseAllAction) {
         actionResultGroup.add(new ExecuteQuery(this));
+        actionResultGroup.add(new LoadMoreAction(this));
+        actionResultGroup.add(new LiveUpdateAction(this));
+        actionResultGroup.add(new AnalyzeMemoryAction(this));
+        actionResultGroup.add(new LoadFullValueAction(this));
+        actionResultGroup.add(new DeleteSelectedKeyAction(this));
+        actionResultGroup.add(new BulkKeyOperationAction(this));
         actionResultGroup.addSeparator();
         actionResultGroup.add(new EnableGroupingAction(this));
         actionResultGroup.add(new SetSeparatorAction(this));
@@ -87,20 +146,445 @@ public class RedisPanel extends DatabasePanel {
         return isNotBlank(filter) ? filter : "*";
     }
 
-    private void updateResultTableTree(SearchResult redisSearchResult, boolean groupByPrefix, String separator) {
+    private TreeNode updateResultTableTree(SearchResult redisSearchResult, boolean groupByPrefix, String separator) {
+        lastSearchResult = redisSearchResult;
         treePreparator.prepareTable(groupByPrefix, separator);
-        getResultPanel().updateResultTableTree(redisSearchResult);
+        TreeNode treeNode = treePreparator.prepare(redisSearchResult, groupByPrefix, separator);
+        GuiUtils.runInSwingThread(() -> {
+            if (lastSearchResult == redisSearchResult) {
+                getResultPanel().updateResultTableTree(treeNode);
+            }
+        });
+        return treeNode;
+    }
+
+    private boolean isDisplayed(TreeNode rootNode) {
+        JsonTreeTableView tableView = getResultPanel().getResultTableView();
+        return tableView != null && tableView.getTree().getModel().getRoot() == rootNode;
+    }
+
+    private void regroup() {
+        SearchResult searchResult = lastSearchResult;
+        if (searchResult == null) {
+            return;
+        }
+        boolean groupByPrefix = groupData;
+        String separator = groupSeparator;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            if (lastSearchResult == searchResult) {
+                updateResultTableTree(searchResult, groupByPrefix, separator);
+            }
+        });
     }
 
     @Override
-    public SearchResult getRecords() {
-        return getSearchResult(getContext(), new QueryOptionsImpl());
+    public Object getRecords() {
+        return ((RedisContext) getContext()).getDatabase();
+    }
+
+    @Override
+    public void executeQuery() {
+        scan(createQueryOptions(null), SCAN_POINTER_START, Collections.emptyList());
+        if (keyspaceWatcher != null) {
+            // the subscription follows the filter
+            stopLiveUpdate();
+            startLiveUpdate();
+        }
+    }
+
+    public boolean canLoadMore() {
+        return scanQueryOptions != null && !SCAN_POINTER_START.equals(scanCursor);
+    }
+
+    public void loadMore() {
+        if (canLoadMore()) {
+            scan(scanQueryOptions, scanCursor, scannedRecords);
+        }
+    }
+
+    private void scan(QueryOptions queryOptions, String cursor, List<DatabaseObject> previousRecords) {
+        RedisContext context = (RedisContext) getContext();
+        String name = context.getDatabase().getName();
+        scanQueryOptions = null;
+        executeInBackground(indicator -> {
+            List<DatabaseObject> records = new ArrayList<>(previousRecords);
+            ScanDisplay scanDisplay = new ScanDisplay(name, records);
+            RedisScanResult scanResult = ((RedisClient) context.getClient()).scanRecords(context, queryOptions, cursor, batch -> {
+                records.addAll(batch);
+                indicator.setText2(records.size() + " keys loaded"); //NON-NLS
+                scanDisplay.showBatch(batch);
+            }, indicator::isCanceled);
+            scanDisplay.showAll();
+            GuiUtils.runInSwingThread(() -> {
+                scanQueryOptions = queryOptions;
+                scanCursor = scanResult.getCursor();
+                scannedRecords = records;
+            });
+        });
+    }
+
+    /**
+     * Shows the records of a scan while its batches come in. Without grouping, each batch is appended to the displayed
+     * tree. The prefix groups can only be rebuilt from all the records, so the grouped tree is refreshed at most once
+     * every {@link #SCAN_REFRESH_INTERVAL_MS} and once the scan is over.
+     */
+    private class ScanDisplay {
+
+        private final String name;
+        private final List<DatabaseObject> records;
+        private SearchResult displayedResult;
+        private TreeNode appendableRoot;
+        private long nextRefresh;
+
+        private ScanDisplay(String name, List<DatabaseObject> records) {
+            this.name = name;
+            this.records = records;
+        }
+
+        void showBatch(List<DatabaseObject> batch) {
+            if (appendableRoot != null && !(groupData && isNotBlank(groupSeparator))) {
+                TreeNode rootNode = appendableRoot;
+                SearchResult batchResult = new SearchResult(name, batch, batch.size());
+                GuiUtils.runInSwingThread(() -> {
+                    if (isDisplayed(rootNode)) {
+                        getResultPanel().appendResultTableTree(batchResult);
+                    }
+                });
+                return;
+            }
+            appendableRoot = null;
+            if (System.currentTimeMillis() >= nextRefresh) {
+                refresh(new SearchResult(name, new ArrayList<>(records), records.size()));
+                nextRefresh = System.currentTimeMillis() + SCAN_REFRESH_INTERVAL_MS;
+            }
+        }
+
+        void showAll() {
+            SearchResult searchResult = new SearchResult(name, records, records.size());
+            if (appendableRoot == null) {
+                refresh(searchResult);
+                return;
+            }
+            TreeNode rootNode = appendableRoot;
+            SearchResult appendedResult = displayedResult;
+            GuiUtils.runInSwingThread(() -> {
+                if (lastSearchResult != appendedResult) {
+                    // another result is displayed since
+                    return;
+                }
+                lastSearchResult = searchResult;
+                if (isDisplayed(rootNode)) {
+                    // the cached trees miss the appended batches
+                    treePreparator.invalidate();
+                } else {
+                    regroup();
+                }
+            });
+        }
+
+        private void refresh(SearchResult searchResult) {
+            boolean groupByPrefix = groupData;
+            String separator = groupSeparator;
+            displayedResult = searchResult;
+            TreeNode rootNode = updateResultTableTree(searchResult, groupByPrefix, separator);
+            appendableRoot = groupByPrefix && isNotBlank(separator) ? null : rootNode;
+        }
+    }
+
+    public boolean isWritable() {
+        return !getContext().getClient().isReadOnly(getContext().getServerConfiguration());
+    }
+
+    public boolean canLiveUpdate() {
+        return isWritable();
+    }
+
+    @Nullable
+    public String getSelectedKey() {
+        TreePath selectionPath = getSelectionPath();
+        return selectionPath != null ? findKey(selectionPath) : null;
+    }
+
+    @Nullable
+    private TreePath getSelectionPath() {
+        JsonTreeTableView tableView = getResultPanel().getResultTableView();
+        return tableView != null ? tableView.getTree().getSelectionPath() : null;
+    }
+
+    /**
+     * The selected string key when only a preview of its value has been loaded.
+     */
+    @Nullable
+    public RedisDatabaseKey getSelectedTruncatedString() {
+        TreePath selectionPath = getSelectionPath();
+        if (selectionPath == null) {
+            return null;
+        }
+        NodeDescriptor descriptor = ((NoSqlTreeNode) selectionPath.getLastPathComponent()).getDescriptor();
+        Object value = descriptor instanceof RedisKeyValueDescriptor ? ((RedisKeyValueDescriptor) descriptor).getValue() : null;
+        return value instanceof RedisDatabaseKey && ((RedisDatabaseKey) value).isTruncated() ? (RedisDatabaseKey) value : null;
+    }
+
+    public void loadFullValue() {
+        RedisDatabaseKey databaseKey = getSelectedTruncatedString();
+        if (databaseKey == null) {
+            return;
+        }
+        String key = databaseKey.getKey();
+        // the editor holds the whole value in memory, as the IDE does for files too large for content loading
+        if (databaseKey.getSize() > FileUtilRt.LARGE_FOR_CONTENT_LOADING
+                && Messages.showYesNoDialog(this, "The value of '" + key + "' takes " + StringUtil.formatFileSize(databaseKey.getSize()) + ", load it anyway?",
+                "Load Full Value", Messages.getWarningIcon()) != Messages.YES) {
+            return;
+        }
+        RedisContext context = (RedisContext) getContext();
+        executeInBackground(indicator -> {
+            indicator.setText("Loading " + key); //NON-NLS
+            indicator.setIndeterminate(false);
+            byte[] value = ((RedisClient) context.getClient()).loadFullValue(context, key,
+                    loaded -> indicator.setFraction(loaded / (double) databaseKey.getSize()), indicator::isCanceled);
+            if (value == null) {
+                return;
+            }
+            RedisDecodedValue decodedValue = RedisValueDecoder.decode(value, false);
+            GuiUtils.runInSwingThread(() -> {
+                LightVirtualFile file = new LightVirtualFile(key, PlainTextFileType.INSTANCE, decodedValue.getText());
+                file.setWritable(false);
+                FileEditorManager.getInstance(getProject()).openFile(file, true);
+            });
+        });
+    }
+
+    public void deleteSelectedKey() {
+        String key = getSelectedKey();
+        if (key == null || Messages.showYesNoDialog(this, "Delete the key '" + key + "'?", "Delete Key", Messages.getQuestionIcon()) != Messages.YES) {
+            return;
+        }
+        RedisContext context = (RedisContext) getContext();
+        executeInBackground(indicator -> {
+            context.getClient().delete(context, key);
+            GuiUtils.runInSwingThread(() -> applyKeyChanges(Collections.singleton(key), Collections.emptyList()));
+        });
+    }
+
+    public void openBulkKeyOperation() {
+        RedisBulkOperationDialog dialog = new RedisBulkOperationDialog(this, getSelectedKeyPattern());
+        if (!dialog.showAndGet()) {
+            return;
+        }
+        RedisContext context = (RedisContext) getContext();
+        String pattern = dialog.getPattern();
+        RedisKeyOperation operation = dialog.getOperation();
+        int ttlSeconds = dialog.getTtlSeconds();
+        executeInBackground(indicator -> {
+            indicator.setText("Applying " + operation + " to " + pattern); //NON-NLS
+            long affectedKeys = ((RedisClient) context.getClient()).applyToKeys(context, pattern, operation, ttlSeconds,
+                    count -> indicator.setText2(count + " keys updated"), indicator::isCanceled); //NON-NLS
+            GuiUtils.showNotification(getResultPanel(), MessageType.INFO,
+                    operation + " applied to " + affectedKeys + " keys" + (indicator.isCanceled() ? " before cancellation" : ""), //NON-NLS
+                    Balloon.Position.above);
+            if (lastSearchResult != null) {
+                GuiUtils.runInSwingThread(this::executeQuery);
+            }
+        });
+    }
+
+    /**
+     * Pattern of the selected key or key group, the current filter when nothing is selected.
+     */
+    @NotNull
+    private String getSelectedKeyPattern() {
+        TreePath selectionPath = getSelectionPath();
+        if (selectionPath == null) {
+            return getFilter();
+        }
+        String key = findKey(selectionPath);
+        if (key != null) {
+            return escapeGlob(key);
+        }
+        NodeDescriptor descriptor = ((NoSqlTreeNode) selectionPath.getLastPathComponent()).getDescriptor();
+        String prefix = descriptor instanceof FragmentedKeyNodeDescriptor ? ((FragmentedKeyNodeDescriptor) descriptor).getKeyPrefix() : null;
+        return prefix != null ? escapeGlob(prefix) + "*" : getFilter();
+    }
+
+    /**
+     * The key of the key node on the path. The tree labels are only fragments of the keys once grouped, and grouping
+     * drops trailing separators, so the key is read from the value of the node, never rebuilt from the labels.
+     */
+    @Nullable
+    static String findKey(TreePath selectionPath) {
+        boolean grouped = false;
+        for (Object pathComponent : selectionPath.getPath()) {
+            NodeDescriptor descriptor = ((NoSqlTreeNode) pathComponent).getDescriptor();
+            if (descriptor instanceof RedisKeyValueDescriptor) {
+                Object value = descriptor.getValue();
+                if (value instanceof RedisDatabaseKey) {
+                    return ((RedisDatabaseKey) value).getKey();
+                }
+                return grouped ? null : ((RedisKeyValueDescriptor) descriptor).getKey();
+            }
+            grouped |= descriptor instanceof FragmentedKeyNodeDescriptor;
+        }
+        return null;
+    }
+
+    private static String escapeGlob(String key) {
+        return key.replaceAll("([*?\\[\\]\\\\])", "\\\\$1");
+    }
+
+    public boolean isLiveUpdateEnabled() {
+        return keyspaceWatcher != null;
+    }
+
+    public void toggleLiveUpdate(boolean enabled) {
+        stopLiveUpdate();
+        if (enabled) {
+            startLiveUpdate();
+        }
+    }
+
+    private void startLiveUpdate() {
+        RedisContext context = (RedisContext) getContext();
+        int delay = ((RedisServerConfiguration) context.getServerConfiguration()).getLiveUpdateDelay();
+        String filter = getFilter();
+        RedisKeyspaceWatcher watcher = new RedisKeyspaceWatcher(context, delay,
+                (keys, records) -> GuiUtils.runInSwingThread(() -> {
+                    if (keyspaceWatcher != null) {
+                        applyKeyChanges(keys, records);
+                    }
+                }),
+                ex -> GuiUtils.runInSwingThread(() -> {
+                    if (keyspaceWatcher != null) {
+                        stopLiveUpdate();
+                        updateErrorPanel(ex);
+                    }
+                }));
+        keyspaceWatcher = watcher;
+        executeInBackground(indicator -> {
+            try {
+                watcher.start(filter);
+            } catch (RuntimeException ex) {
+                GuiUtils.runInSwingThread(() -> Disposer.dispose(watcher));
+                throw ex;
+            }
+        });
+    }
+
+    private void stopLiveUpdate() {
+        if (keyspaceWatcher != null) {
+            Disposer.dispose(keyspaceWatcher);
+            keyspaceWatcher = null;
+        }
+    }
+
+    private void applyKeyChanges(Set<String> keys, List<DatabaseObject> records) {
+        SearchResult searchResult = lastSearchResult;
+        if (searchResult == null) {
+            return;
+        }
+        Map<String, DatabaseObject> fetchedRecords = new LinkedHashMap<>();
+        for (DatabaseObject record : records) {
+            fetchedRecords.put(getKey(record), record);
+        }
+        List<DatabaseObject> updatedRecords = new ArrayList<>(searchResult.getRecords().size() + records.size());
+        Set<String> knownKeys = new HashSet<>();
+        for (DatabaseObject record : searchResult.getRecords()) {
+            String key = getKey(record);
+            knownKeys.add(key);
+            if (!keys.contains(key)) {
+                updatedRecords.add(record);
+            } else if (fetchedRecords.containsKey(key)) {
+                updatedRecords.add(fetchedRecords.get(key));
+            }
+        }
+        for (Map.Entry<String, DatabaseObject> fetchedRecord : fetchedRecords.entrySet()) {
+            if (!knownKeys.contains(fetchedRecord.getKey())) {
+                updatedRecords.add(fetchedRecord.getValue());
+            }
+        }
+
+        SearchResult updatedResult = new SearchResult(searchResult.getName(), updatedRecords, updatedRecords.size());
+        scannedRecords = updatedRecords;
+        JsonTreeTableView tableView = getResultPanel().getResultTableView();
+        if (groupData || tableView == null) {
+            // the prefix groups are rebuilt from the records in memory
+            boolean groupByPrefix = groupData;
+            String separator = groupSeparator;
+            lastSearchResult = updatedResult;
+            ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                if (lastSearchResult == updatedResult) {
+                    updateResultTableTree(updatedResult, groupByPrefix, separator);
+                }
+            });
+            return;
+        }
+        lastSearchResult = updatedResult;
+        updateKeyNodes((ListTreeTableModelOnColumns) tableView.getTableModel(), keys,
+                buildTree(new SearchResult(searchResult.getName(), records, records.size())));
+    }
+
+    /**
+     * Replaces, removes or appends the nodes of the touched keys only, so that the rest of the tree keeps its state.
+     */
+    private static void updateKeyNodes(ListTreeTableModelOnColumns treeModel, Set<String> keys, NoSqlTreeNode fetchedTree) {
+        Map<String, NoSqlTreeNode> fetchedNodes = new LinkedHashMap<>();
+        for (int i = 0; i < fetchedTree.getChildCount(); i++) {
+            NoSqlTreeNode fetchedNode = (NoSqlTreeNode) fetchedTree.getChildAt(i);
+            fetchedNodes.put(getKey(fetchedNode), fetchedNode);
+        }
+        NoSqlTreeNode root = (NoSqlTreeNode) treeModel.getRoot();
+        for (int i = root.getChildCount() - 1; i >= 0; i--) {
+            NoSqlTreeNode keyNode = (NoSqlTreeNode) root.getChildAt(i);
+            String key = getKey(keyNode);
+            if (keys.contains(key)) {
+                treeModel.removeNodeFromParent(keyNode);
+                NoSqlTreeNode fetchedNode = fetchedNodes.remove(key);
+                if (fetchedNode != null) {
+                    treeModel.insertNodeInto(fetchedNode, root, i);
+                }
+            }
+        }
+        for (NoSqlTreeNode fetchedNode : fetchedNodes.values()) {
+            treeModel.insertNodeInto(fetchedNode, root, root.getChildCount());
+        }
+    }
+
+    private static String getKey(DatabaseObject record) {
+        return record.names().iterator().next();
+    }
+
+    private static String getKey(NoSqlTreeNode keyNode) {
+        return ((KeyValueDescriptor<?>) keyNode.getDescriptor()).getKey();
+    }
+
+    public void analyzeMemory() {
+        RedisContext context = (RedisContext) getContext();
+        String separator = isNotBlank(groupSeparator) ? groupSeparator : DEFAULT_PROFILE_SEPARATOR;
+        lastSearchResult = null;
+        scanQueryOptions = null;
+        executeInBackground(indicator -> ((RedisClient) context.getClient()).profileMemory(context, separator, profile -> {
+            indicator.setText2(profile.getScannedKeys() + " keys analyzed"); //NON-NLS
+            TreeNode treeNode = buildMemoryProfileTree(profile);
+            GuiUtils.runInSwingThread(() -> {
+                if (lastSearchResult == null) {
+                    getResultPanel().updateResultTableTree(treeNode);
+                }
+            });
+        }, indicator::isCanceled));
     }
 
     @Override
     protected NoSQLResultPanel createResultPanel(Project project, String idDescriptor, DataType[] dataTypes) {
         treePreparator = new RedisTreePreparator();
-        return new NoSQLResultPanel(project, this, false, new RedisNodeDescriptorFactory(), idDescriptor, dataTypes, new RedisTreeBuilder(), treePreparator);
+        return new NoSQLResultPanel(project, this, false, new RedisNodeDescriptorFactory(), idDescriptor, dataTypes, new RedisTreeBuilder(), treePreparator) {
+            @NotNull
+            @Override
+            protected JsonTreeTableView createTableView(@NotNull TreeNode treeNode) {
+                JsonTreeTableView tableView = super.createTableView(treeNode);
+                RedisValuePageLoader.install(tableView, (RedisContext) getContext(), treePreparator);
+                return tableView;
+            }
+        };
     }
 
     @NotNull
@@ -117,7 +601,7 @@ public class RedisPanel extends DatabasePanel {
 
     public void toggleGroupData(boolean enabled) {
         groupData = enabled;
-        updateResultTableTree(getSearchResult(), groupData, groupSeparator);
+        regroup();
     }
 
     public String getGroupSeparator() {
@@ -126,7 +610,13 @@ public class RedisPanel extends DatabasePanel {
 
     public void setGroupSeparator(String groupSeparator) {
         this.groupSeparator = groupSeparator;
-        updateResultTableTree(getSearchResult(), groupData, groupSeparator);
+        regroup();
+    }
+
+    @Override
+    public void dispose() {
+        stopLiveUpdate();
+        super.dispose();
     }
 
     @Override
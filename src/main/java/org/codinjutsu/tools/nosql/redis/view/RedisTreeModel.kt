@@ -21,14 +21,21 @@ import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseElement
 import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode
 import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.keyvalue.StringKeyValueDescriptor
 import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.result.NullResultDescriptor
+import org.codinjutsu.tools.nosql.redis.RedisUtils.stringifyTuple
 import org.codinjutsu.tools.nosql.redis.model.RedisKeyType
+import org.codinjutsu.tools.nosql.redis.model.RedisStreamEntry
+import org.codinjutsu.tools.nosql.redis.model.RedisStreamGroup
 import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseHash
+import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseKey
 import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseList
 import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseSet
 import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseSortedSet
 import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseString
 import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisIndexedValueDescriptor
 import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisKeyValueDescriptor
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisNextPageDescriptor
+import redis.clients.jedis.ScanParams.SCAN_POINTER_START
+import redis.clients.jedis.Tuple
 
 internal fun buildTree(searchResult: SearchResult): NoSqlTreeNode {
     val rootNode = NoSqlTreeNode(NullResultDescriptor())
@@ -48,6 +55,7 @@ internal fun buildTree(searchResult: SearchResult): NoSqlTreeNode {
 
 private fun DatabaseElement.createTreeNode(key: String) =
         when (this) {
+            is RedisDatabaseKey -> createTreeNode(key)
             is RedisDatabaseList -> createTreeNode(key)
             is RedisDatabaseSet -> createTreeNode(key)
             is RedisDatabaseSortedSet -> createTreeNode(key)
@@ -86,3 +94,32 @@ private fun RedisDatabaseHash.createTreeNode(key: String): NoSqlTreeNode {
     }
     return treeNode
 }
+
+private fun RedisDatabaseKey.createTreeNode(key: String): NoSqlTreeNode {
+    val treeNode = NoSqlTreeNode(RedisKeyValueDescriptor.createDescriptor(type, key, this))
+    if (type != RedisKeyType.STRING && size > 0) {
+        treeNode.add(createNextPageNode(this, SCAN_POINTER_START, 0))
+    }
+    return treeNode
+}
+
+internal fun createNextPageNode(databaseKey: RedisDatabaseKey, cursor: String, offset: Int) =
+        NoSqlTreeNode(RedisNextPageDescriptor(databaseKey, cursor, offset))
+
+internal fun createValueNode(keyType: RedisKeyType, index: Int, value: Any) =
+        when {
+            keyType == RedisKeyType.HASH && value is Map.Entry<*, *> ->
+                NoSqlTreeNode(StringKeyValueDescriptor(value.key.toString(), value.value.toString()))
+            value is RedisStreamEntry -> value.createTreeNode()
+            value is RedisStreamGroup -> NoSqlTreeNode(StringKeyValueDescriptor("group ${value.name}", value.toString()))
+            value is Tuple -> NoSqlTreeNode(RedisIndexedValueDescriptor.createDescriptor(index, stringifyTuple(value)))
+            else -> NoSqlTreeNode(RedisIndexedValueDescriptor.createDescriptor(index, value))
+        }
+
+private fun RedisStreamEntry.createTreeNode(): NoSqlTreeNode {
+    val treeNode = NoSqlTreeNode(StringKeyValueDescriptor(id, fields.toString()))
+    fields.forEach { (field, value) ->
+        treeNode.add(NoSqlTreeNode(StringKeyValueDescriptor(field, value)))
+    }
+    return treeNode
+}
@@ -1,17 +1,25 @@
 package org.codinjutsu.tools.nosql.redis.view;
 
+import org.codinjutsu.tools.nosql.commons.model.SearchResult;
 import org.codinjutsu.tools.nosql.commons.view.panel.TreePreparator;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeNode;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.apache.commons.lang.StringUtils.isNotBlank;
+import static org.codinjutsu.tools.nosql.redis.view.RedisTreeModelKt.buildTree;
 
 class RedisTreePreparator implements TreePreparator {
 
-    private boolean groupByPrefix;
-    private String separator;
+    private volatile boolean groupByPrefix;
+    private volatile String separator;
+
+    private SearchResult cachedSearchResult;
+    private DefaultMutableTreeNode cachedTree;
+    private final Map<String, TreeNode> groupedTrees = new HashMap<>();
 
     void prepareTable(boolean groupByPrefix, String separator) {
         this.groupByPrefix = groupByPrefix;
@@ -21,10 +29,36 @@ class RedisTreePreparator implements TreePreparator {
     @NotNull
     @Override
     public TreeNode prepare(@NotNull TreeNode treeNode) {
+        return prepare(treeNode, groupByPrefix, separator);
+    }
+
+    @NotNull
+    synchronized TreeNode prepare(@NotNull SearchResult searchResult, boolean groupByPrefix, String separator) {
+        if (searchResult != cachedSearchResult) {
+            cachedSearchResult = searchResult;
+            cachedTree = buildTree(searchResult);
+            groupedTrees.clear();
+        }
+        if (groupByPrefix && isNotBlank(separator)) {
+            return groupedTrees.computeIfAbsent(separator, key -> RedisFragmentedKeyTreeModel.wrapNodes(cachedTree, key));
+        }
+        return cachedTree;
+    }
+
+    /**
+     * Drops the cached trees, once a displayed tree has been changed in place, so the other views do not show its changes.
+     */
+    synchronized void invalidate() {
+        cachedSearchResult = null;
+        cachedTree = null;
+        groupedTrees.clear();
+    }
+
+    @NotNull
+    private static TreeNode prepare(@NotNull TreeNode treeNode, boolean groupByPrefix, String separator) {
         if (groupByPrefix && isNotBlank(separator)) {
             return RedisFragmentedKeyTreeModel.wrapNodes((DefaultMutableTreeNode) treeNode, separator);
         }
         return treeNode;
-
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.view;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.ui.treeStructure.treetable.ListTreeTableModelOnColumns;
+import com.intellij.util.ui.tree.TreeUtil;
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.nosql.commons.utils.GuiUtils;
+import org.codinjutsu.tools.nosql.commons.view.JsonTreeTableView;
+import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode;
+import org.codinjutsu.tools.nosql.redis.logic.RedisClient;
+import org.codinjutsu.tools.nosql.redis.model.RedisContext;
+import org.codinjutsu.tools.nosql.redis.model.RedisValuePage;
+import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseKey;
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisNextPageDescriptor;
+
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.TreePath;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import static org.codinjutsu.tools.nosql.redis.view.RedisTreeModelKt.createNextPageNode;
+import static org.codinjutsu.tools.nosql.redis.view.RedisTreeModelKt.createValueNode;
+
+class RedisValuePageLoader extends MouseAdapter implements TreeWillExpandListener {
+
+    private static final Logger LOG = Logger.getLogger(RedisValuePageLoader.class);
+
+    private final JsonTreeTableView tableView;
+    private final RedisContext context;
+    private final RedisTreePreparator treePreparator;
+
+    private RedisValuePageLoader(JsonTreeTableView tableView, RedisContext context, RedisTreePreparator treePreparator) {
+        this.tableView = tableView;
+        this.context = context;
+        this.treePreparator = treePreparator;
+    }
+
+    static void install(JsonTreeTableView tableView, RedisContext context, RedisTreePreparator treePreparator) {
+        RedisValuePageLoader loader = new RedisValuePageLoader(tableView, context, treePreparator);
+        TreeUtil.collapseAll(tableView.getTree(), 1);
+        tableView.getTree().addTreeWillExpandListener(loader);
+        tableView.addMouseListener(loader);
+    }
+
+    @Override
+    public void treeWillExpand(TreeExpansionEvent event) {
+        NoSqlTreeNode node = (NoSqlTreeNode) event.getPath().getLastPathComponent();
+        if (node.getChildCount() != 1) {
+            return;
+        }
+        NoSqlTreeNode child = (NoSqlTreeNode) node.getChildAt(0);
+        if (child.getDescriptor() instanceof RedisNextPageDescriptor && ((RedisNextPageDescriptor) child.getDescriptor()).getOffset() == 0) {
+            loadPage(node, child);
+        }
+    }
+
+    @Override
+    public void treeWillCollapse(TreeExpansionEvent event) {
+    }
+
+    @Override
+    public void mouseClicked(MouseEvent event) {
+        if (event.getClickCount() != 2) {
+            return;
+        }
+        TreePath path = tableView.getTree().getPathForRow(tableView.rowAtPoint(event.getPoint()));
+        if (path == null) {
+            return;
+        }
+        NoSqlTreeNode node = (NoSqlTreeNode) path.getLastPathComponent();
+        if (node.getDescriptor() instanceof RedisNextPageDescriptor) {
+            loadPage((NoSqlTreeNode) node.getParent(), node);
+        }
+    }
+
+    private void loadPage(NoSqlTreeNode parent, NoSqlTreeNode pageNode) {
+        RedisNextPageDescriptor descriptor = (RedisNextPageDescriptor) pageNode.getDescriptor();
+        if (!descriptor.startLoading()) {
+            return;
+        }
+        // the nodes and their descriptors may be shared with the cached trees of the other groupings
+        treePreparator.invalidate();
+        getTreeModel().nodeChanged(pageNode);
+        RedisDatabaseKey databaseKey = descriptor.getDatabaseKey();
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                RedisValuePage page = ((RedisClient) context.getClient()).loadValues(context, databaseKey.getType(), databaseKey.getKey(), descriptor.getCursor());
+                GuiUtils.runInSwingThread(() -> appendPage(parent, pageNode, page));
+            } catch (RuntimeException ex) {
+                LOG.warn("Unable to load values of " + databaseKey.getKey(), ex); //NON-NLS
+                descriptor.stopLoading();
+                GuiUtils.runInSwingThread(() -> getTreeModel().nodeChanged(pageNode));
+            }
+        });
+    }
+
+    private void appendPage(NoSqlTreeNode parent, NoSqlTreeNode pageNode, RedisValuePage page) {
+        RedisNextPageDescriptor descriptor = (RedisNextPageDescriptor) pageNode.getDescriptor();
+        RedisDatabaseKey databaseKey = descriptor.getDatabaseKey();
+        int insertionIndex = parent.getIndex(pageNode);
+        parent.remove(pageNode);
+
+        int offset = descriptor.getOffset();
+        for (Object value : page.getValues()) {
+            parent.insert(createValueNode(databaseKey.getType(), offset++, value), insertionIndex++);
+        }
+        if (!page.isComplete()) {
+            parent.insert(createNextPageNode(databaseKey, page.getCursor(), offset), insertionIndex);
+        }
+        getTreeModel().nodeStructureChanged(parent);
+    }
+
+    private ListTreeTableModelOnColumns getTreeModel() {
+        return (ListTreeTableModelOnColumns) tableView.getTableModel();
+    }
+}
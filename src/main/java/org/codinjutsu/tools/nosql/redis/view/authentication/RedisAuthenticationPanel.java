@@ -16,20 +16,80 @@
 
 package org.codinjutsu.tools.nosql.redis.view.authentication;
 
+import com.intellij.ui.NumberDocument;
+import org.apache.commons.lang.StringUtils;
+import org.codinjutsu.tools.nosql.commons.configuration.ServerConfiguration;
+import org.codinjutsu.tools.nosql.commons.configuration.WriteableServerConfiguration;
 import org.codinjutsu.tools.nosql.commons.model.AuthenticationSettings;
 import org.codinjutsu.tools.nosql.commons.view.authentication.AuthenticationView;
+import org.codinjutsu.tools.nosql.commons.view.authentication.ServerSettingsView;
+import org.codinjutsu.tools.nosql.redis.configuration.RedisServerConfiguration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import javax.swing.JCheckBox;
 import javax.swing.JPanel;
 import javax.swing.JPasswordField;
+import javax.swing.JTextField;
 
-public class RedisAuthenticationPanel implements AuthenticationView {
+public class RedisAuthenticationPanel implements AuthenticationView, ServerSettingsView {
 
     private JPasswordField passwordField;
     private JPanel mainPanel;
+    private JTextField poolMaxTotalField;
+    private JTextField poolMaxIdleField;
+    private JTextField poolMinIdleField;
+    private JTextField connectionTimeoutField;
+    private JTextField socketTimeoutField;
+    private JTextField pipelineChunkSizeField;
+    private JTextField valuePageSizeField;
+    private JTextField profilerKeysPerSecondField;
+    private JCheckBox clusterModeField;
+    private JTextField clusterScanParallelismField;
+    private JTextField liveUpdateDelayField;
+    private JTextField bulkChunkSizeField;
+    private JTextField bulkKeysPerSecondField;
+    private JCheckBox hideEmptyDatabasesField;
+    private JTextField statisticsRefreshIntervalField;
+    private JTextField replicaUrlsField;
+    private JTextField sentinelMasterNameField;
+    private JTextField replicaPingIntervalField;
 
     public RedisAuthenticationPanel() {
         passwordField.setName("passwordField"); //NON-NLS
+        poolMaxTotalField.setName("poolMaxTotalField"); //NON-NLS
+        poolMaxIdleField.setName("poolMaxIdleField"); //NON-NLS
+        poolMinIdleField.setName("poolMinIdleField"); //NON-NLS
+        connectionTimeoutField.setName("connectionTimeoutField"); //NON-NLS
+        socketTimeoutField.setName("socketTimeoutField"); //NON-NLS
+        pipelineChunkSizeField.setName("pipelineChunkSizeField"); //NON-NLS
+        valuePageSizeField.setName("valuePageSizeField"); //NON-NLS
+        profilerKeysPerSecondField.setName("profilerKeysPerSecondField"); //NON-NLS
+        clusterModeField.setName("clusterModeField"); //NON-NLS
+        clusterScanParallelismField.setName("clusterScanParallelismField"); //NON-NLS
+        liveUpdateDelayField.setName("liveUpdateDelayField"); //NON-NLS
+        bulkChunkSizeField.setName("bulkChunkSizeField"); //NON-NLS
+        bulkKeysPerSecondField.setName("bulkKeysPerSecondField"); //NON-NLS
+        hideEmptyDatabasesField.setName("hideEmptyDatabasesField"); //NON-NLS
+        statisticsRefreshIntervalField.setName("statisticsRefreshIntervalField"); //NON-NLS
+        replicaUrlsField.setName("replicaUrlsField"); //NON-NLS
+        sentinelMasterNameField.setName("sentinelMasterNameField"); //NON-NLS
+        replicaPingIntervalField.setName("replicaPingIntervalField"); //NON-NLS
+
+        poolMaxTotalField.setDocument(new NumberDocument());
+        poolMaxIdleField.setDocument(new NumberDocument());
+        poolMinIdleField.setDocument(new NumberDocument());
+        connectionTimeoutField.setDocument(new NumberDocument());
+        socketTimeoutField.setDocument(new NumberDocument());
+        pipelineChunkSizeField.setDocument(new NumberDocument());
+        valuePageSizeField.setDocument(new NumberDocument());
+        profilerKeysPerSecondField.setDocument(new NumberDocument());
+        clusterScanParallelismField.setDocument(new NumberDocument());
+        liveUpdateDelayField.setDocument(new NumberDocument());
+        bulkChunkSizeField.setDocument(new NumberDocument());
+        bulkKeysPerSecondField.setDocument(new NumberDocument());
+        statisticsRefreshIntervalField.setDocument(new NumberDocument());
+        replicaPingIntervalField.setDocument(new NumberDocument());
     }
 
     @NotNull
@@ -51,6 +111,52 @@ public class RedisAuthenticationPanel implements AuthenticationView {
         passwordField.setText(settings.getPassword());
     }
 
+    @Override
+    public void loadConfiguration(@NotNull ServerConfiguration configuration) {
+        RedisServerConfiguration redisConfiguration = (RedisServerConfiguration) configuration;
+        poolMaxTotalField.setText(String.valueOf(redisConfiguration.getPoolMaxTotal()));
+        poolMaxIdleField.setText(String.valueOf(redisConfiguration.getPoolMaxIdle()));
+        poolMinIdleField.setText(String.valueOf(redisConfiguration.getPoolMinIdle()));
+        connectionTimeoutField.setText(String.valueOf(redisConfiguration.getConnectionTimeout()));
+        socketTimeoutField.setText(String.valueOf(redisConfiguration.getSocketTimeout()));
+        pipelineChunkSizeField.setText(String.valueOf(redisConfiguration.getPipelineChunkSize()));
+        valuePageSizeField.setText(String.valueOf(redisConfiguration.getValuePageSize()));
+        profilerKeysPerSecondField.setText(String.valueOf(redisConfiguration.getProfilerKeysPerSecond()));
+        clusterModeField.setSelected(redisConfiguration.isClusterMode());
+        clusterScanParallelismField.setText(String.valueOf(redisConfiguration.getClusterScanParallelism()));
+        liveUpdateDelayField.setText(String.valueOf(redisConfiguration.getLiveUpdateDelay()));
+        bulkChunkSizeField.setText(String.valueOf(redisConfiguration.getBulkChunkSize()));
+        bulkKeysPerSecondField.setText(String.valueOf(redisConfiguration.getBulkKeysPerSecond()));
+        hideEmptyDatabasesField.setSelected(redisConfiguration.isHideEmptyDatabases());
+        statisticsRefreshIntervalField.setText(String.valueOf(redisConfiguration.getStatisticsRefreshInterval()));
+        replicaUrlsField.setText(redisConfiguration.getReplicaUrls());
+        sentinelMasterNameField.setText(redisConfiguration.getSentinelMasterName());
+        replicaPingIntervalField.setText(String.valueOf(redisConfiguration.getReplicaPingInterval()));
+    }
+
+    @Override
+    public void applyConfiguration(@NotNull WriteableServerConfiguration configuration) {
+        RedisServerConfiguration redisConfiguration = (RedisServerConfiguration) configuration;
+        redisConfiguration.setPoolMaxTotal(getIntValue(poolMaxTotalField, redisConfiguration.getPoolMaxTotal()));
+        redisConfiguration.setPoolMaxIdle(getIntValue(poolMaxIdleField, redisConfiguration.getPoolMaxIdle()));
+        redisConfiguration.setPoolMinIdle(getIntValue(poolMinIdleField, redisConfiguration.getPoolMinIdle()));
+        redisConfiguration.setConnectionTimeout(getIntValue(connectionTimeoutField, redisConfiguration.getConnectionTimeout()));
+        redisConfiguration.setSocketTimeout(getIntValue(socketTimeoutField, redisConfiguration.getSocketTimeout()));
+        redisConfiguration.setPipelineChunkSize(getIntValue(pipelineChunkSizeField, redisConfiguration.getPipelineChunkSize()));
+        redisConfiguration.setValuePageSize(getIntValue(valuePageSizeField, redisConfiguration.getValuePageSize()));
+        redisConfiguration.setProfilerKeysPerSecond(getIntValue(profilerKeysPerSecondField, redisConfiguration.getProfilerKeysPerSecond()));
+        redisConfiguration.setClusterMode(clusterModeField.isSelected());
+        redisConfiguration.setClusterScanParallelism(getIntValue(clusterScanParallelismField, redisConfiguration.getClusterScanParallelism()));
+        redisConfiguration.setLiveUpdateDelay(getIntValue(liveUpdateDelayField, redisConfiguration.getLiveUpdateDelay()));
+        redisConfiguration.setBulkChunkSize(getIntValue(bulkChunkSizeField, redisConfiguration.getBulkChunkSize()));
+        redisConfiguration.setBulkKeysPerSecond(getIntValue(bulkKeysPerSecondField, redisConfiguration.getBulkKeysPerSecond()));
+        redisConfiguration.setHideEmptyDatabases(hideEmptyDatabasesField.isSelected());
+        redisConfiguration.setStatisticsRefreshInterval(getIntValue(statisticsRefreshIntervalField, redisConfiguration.getStatisticsRefreshInterval()));
+        redisConfiguration.setReplicaUrls(getStringValue(replicaUrlsField));
+        redisConfiguration.setSentinelMasterName(getStringValue(sentinelMasterNameField));
+        redisConfiguration.setReplicaPingInterval(getIntValue(replicaPingIntervalField, redisConfiguration.getReplicaPingInterval()));
+    }
+
     private String getPassword() {
         char[] password = passwordField.getPassword();
         if (password != null && password.length != 0) {
@@ -58,4 +164,18 @@ public class RedisAuthenticationPanel implements AuthenticationView {
         }
         return null;
     }
+
+    private static int getIntValue(JTextField field, int defaultValue) {
+        String value = field.getText();
+        if (StringUtils.isNotBlank(value)) {
+            return Integer.parseInt(value);
+        }
+        return defaultValue;
+    }
+
+    @Nullable
+    private static String getStringValue(JTextField field) {
+        String value = field.getText();
+        return StringUtils.isNotBlank(value) ? value.trim() : null;
+    }
 }
@@ -21,27 +21,42 @@ import com.intellij.ui.ColoredTableCellRenderer;
 import com.intellij.ui.ColoredTreeCellRenderer;
 import com.intellij.ui.SimpleTextAttributes;
 import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.NodeDescriptor;
+import org.jetbrains.annotations.Nullable;
 
 import static org.codinjutsu.tools.nosql.commons.style.StyleAttributesProvider.getKeyValueAttribute;
 
 public class FragmentedKeyNodeDescriptor implements NodeDescriptor<Object> {
 
     private final String keyFragment;
+    private final String keyPrefix;
     private final SimpleTextAttributes keyAttribute;
 
-    private FragmentedKeyNodeDescriptor(String keyFragment, SimpleTextAttributes keyAttribute) {
+    private FragmentedKeyNodeDescriptor(String keyFragment, String keyPrefix, SimpleTextAttributes keyAttribute) {
         this.keyFragment = keyFragment;
+        this.keyPrefix = keyPrefix;
         this.keyAttribute = keyAttribute;
     }
 
     public static FragmentedKeyNodeDescriptor createDescriptor(String key) {
-        return new FragmentedKeyNodeDescriptor(key, getKeyValueAttribute());
+        return createDescriptor(key, null);
+    }
+
+    public static FragmentedKeyNodeDescriptor createDescriptor(String keyFragment, String keyPrefix) {
+        return new FragmentedKeyNodeDescriptor(keyFragment, keyPrefix, getKeyValueAttribute());
     }
 
     public String getKeyFragment() {
         return keyFragment;
     }
 
+    /**
+     * @return the start shared by the keys of the group, separators included, or null when the node does not group keys
+     */
+    @Nullable
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
     @Override
     public void renderValue(ColoredTableCellRenderer cellRenderer, boolean isNodeExpanded) {
 
@@ -109,6 +109,9 @@ public class RedisKeyValueDescriptor extends TypedKeyValueDescriptor<Object> {
         if (value == null) {
             return "";
         }
+        if (!(value instanceof Set)) {
+            return super.getFormattedValue();
+        }
         if (ZSET.equals(keyType)) {
             return getValueAndAbbreviateIfNecessary(stringifySortedSet((Set<Tuple>) value));
         }
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.view.nodedescriptor;
+
+import com.intellij.ui.ColoredTableCellRenderer;
+import com.intellij.ui.ColoredTreeCellRenderer;
+import com.intellij.ui.SimpleTextAttributes;
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.NodeDescriptor;
+import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseKey;
+
+public class RedisNextPageDescriptor implements NodeDescriptor<Object> {
+
+    private final RedisDatabaseKey databaseKey;
+    private final String cursor;
+    private final int offset;
+    private volatile boolean loading;
+
+    public RedisNextPageDescriptor(RedisDatabaseKey databaseKey, String cursor, int offset) {
+        this.databaseKey = databaseKey;
+        this.cursor = cursor;
+        this.offset = offset;
+    }
+
+    public RedisDatabaseKey getDatabaseKey() {
+        return databaseKey;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public boolean startLoading() {
+        if (loading) {
+            return false;
+        }
+        loading = true;
+        return true;
+    }
+
+    public void stopLoading() {
+        loading = false;
+    }
+
+    @Override
+    public void renderValue(ColoredTableCellRenderer cellRenderer, boolean isNodeExpanded) {
+        cellRenderer.append(getFormattedValue(), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+    }
+
+    @Override
+    public void renderNode(ColoredTreeCellRenderer cellRenderer) {
+        cellRenderer.append(getFormattedKey(), SimpleTextAttributes.LINK_ATTRIBUTES);
+    }
+
+    @Override
+    public String getFormattedKey() {
+        return loading || offset == 0 ? "Loading..." : "Next page";
+    }
+
+    @Override
+    public String getFormattedValue() {
+        return offset == 0 ? "" : String.format("%d of %d element(s) loaded, double-click to load more", offset, databaseKey.getSize());
+    }
+
+    @Override
+    public Object getValue() {
+        return null;
+    }
+
+    @Override
+    public void setValue(Object value) {
+    }
+}
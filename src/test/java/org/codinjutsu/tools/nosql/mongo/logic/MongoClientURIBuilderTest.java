@@ -66,4 +66,18 @@ class MongoClientURIBuilderTest {
                         .sslEnabled()
                         .build());
     }
+
+    @Test
+    void addPoolAndTimeoutOptions() {
+        String uri = MongoClientURIBuilder.builder()
+                .setServerAddresses("localhost:27018")
+                .setMaxPoolSize(5)
+                .setConnectTimeout(2000)
+                .setSocketTimeout(0)
+                .build();
+        assertThat(uri, startsWith("mongodb://localhost:27018/?"));
+        assertThat(uri, containsString("maxPoolSize=5"));
+        assertThat(uri, containsString("connectTimeoutMS=2000"));
+        assertThat(uri, containsString("socketTimeoutMS=0"));
+    }
 }
@@ -0,0 +1,123 @@
+package org.codinjutsu.tools.nosql.mongo.logic
+
+import com.mongodb.Block
+import com.mongodb.Function
+import com.mongodb.MongoException
+import com.mongodb.client.MongoCursor
+import com.mongodb.client.MongoDatabase
+import com.mongodb.client.MongoIterable
+import org.bson.Document
+import org.bson.conversions.Bson
+import org.codinjutsu.tools.nosql.commons.configuration.ServerConfiguration
+import org.codinjutsu.tools.nosql.mongo.configuration.MongoServerConfiguration
+import org.codinjutsu.tools.nosql.mongo.model.MongoCollection
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.mockito.Matchers.any
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import com.mongodb.MongoClient as DriverClient
+import org.codinjutsu.tools.nosql.mongo.model.MongoDatabase as Database
+
+internal class MongoCollectionLoadingTest {
+
+    private val configuration = MongoServerConfiguration()
+    private val driverClient = mock(DriverClient::class.java)
+    private val client = object : MongoClient() {
+        override fun createMongoClient(configuration: ServerConfiguration) = driverClient
+    }
+    private val loaded = Semaphore(0)
+
+    @AfterEach
+    fun tearDown() {
+        client.dispose()
+    }
+
+    @Test
+    fun listsTheCollectionsOfTheDatabasesNotLoaded() {
+        val users = database("users", "accounts", "profiles")
+        val orders = database("orders", "invoices")
+        val unloaded = Database("users", null)
+        val loadedAlready = Database("orders", setOf("invoices"))
+
+        client.loadCollections(configuration, listOf(unloaded, loadedAlready)) { loaded.release() }
+
+        assertTrue(loaded.tryAcquire(3, 10, TimeUnit.SECONDS))
+        assertTrue(unloaded.isLoaded)
+        assertEquals(listOf("accounts", "profiles"), unloaded.getCollections().map { it.name })
+        verify(users).listCollectionNames()
+        verify(orders, never()).listCollectionNames()
+    }
+
+    @Test
+    fun keepsTheErrorOfADatabaseWhoseCollectionsCannotBeListed() {
+        val forbidden = mock(MongoDatabase::class.java)
+        `when`(forbidden.listCollectionNames()).thenThrow(MongoException("not authorized"))
+        `when`(driverClient.getDatabase("admin")).thenReturn(forbidden)
+        database("users", "accounts")
+        val admin = Database("admin", null)
+        val users = Database("users", null)
+
+        client.loadCollections(configuration, listOf(admin, users)) { loaded.release() }
+
+        assertTrue(loaded.tryAcquire(3, 10, TimeUnit.SECONDS))
+        assertTrue(admin.isLoaded)
+        assertEquals("not authorized", admin.loadError)
+        assertTrue(admin.getCollections().isEmpty())
+        assertNull(users.loadError)
+        assertEquals(listOf("accounts"), users.getCollections().map { it.name })
+    }
+
+    @Test
+    fun fetchesTheStatisticsOfTheListedCollections() {
+        database("users", "accounts")
+        val users = Database("users", null)
+
+        client.loadCollections(configuration, listOf(users)) { loaded.release() }
+
+        assertTrue(loaded.tryAcquire(2, 10, TimeUnit.SECONDS))
+        assertEquals(12L, client.getCollectionStatistics(configuration, MongoCollection("accounts", "users"))!!.documentCount)
+        assertFalse(client.getCollectionStatistics(configuration, MongoCollection("accounts", "users"))!!.isExpired(60000))
+    }
+
+    private fun database(name: String, vararg collectionNames: String): MongoDatabase {
+        val database = mock(MongoDatabase::class.java)
+        `when`(database.listCollectionNames()).thenReturn(NameIterable(collectionNames.toList()))
+        `when`(database.runCommand(any(Bson::class.java))).thenReturn(Document("count", 12).append("size", 1024))
+        `when`(driverClient.getDatabase(name)).thenReturn(database)
+        return database
+    }
+
+    private class NameIterable(private val names: List<String>) : MongoIterable<String> {
+
+        override fun iterator(): MongoCursor<String> {
+            val iterator = names.iterator()
+            @Suppress("UNCHECKED_CAST")
+            val cursor = mock(MongoCursor::class.java) as MongoCursor<String>
+            `when`(cursor.hasNext()).thenAnswer { iterator.hasNext() }
+            `when`(cursor.next()).thenAnswer { iterator.next() }
+            return cursor
+        }
+
+        override fun first(): String? = names.firstOrNull()
+
+        override fun <U> map(mapper: Function<String, U>): MongoIterable<U> = throw UnsupportedOperationException()
+
+        override fun forEach(block: Block<in String>) = names.forEach { block.apply(it) }
+
+        override fun <A : MutableCollection<in String>> into(target: A): A {
+            target.addAll(names)
+            return target
+        }
+
+        override fun batchSize(batchSize: Int): MongoIterable<String> = this
+    }
+}
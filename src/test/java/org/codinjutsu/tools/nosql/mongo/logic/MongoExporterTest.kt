@@ -0,0 +1,32 @@
+package org.codinjutsu.tools.nosql.mongo.logic
+
+import com.mongodb.BasicDBObject
+import org.bson.RawBsonDocument
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+internal class MongoExporterTest {
+
+    private val document = RawBsonDocument.parse("{_id: {\$oid: '5a0000000000000000000000'}, owner: {tags: ['a', {label: 'x,\"y'}]}, createdAt: {\$date: 0}, counts: [1, 2], missing: null}")
+
+    @Test
+    fun usesFieldsIncludedByTheProjectionAsColumns() {
+        assertEquals(listOf("_id", "owner", "counts"), MongoExporter.getIncludedFields(BasicDBObject.parse("{owner: 1, counts: true}")))
+        assertEquals(listOf("owner"), MongoExporter.getIncludedFields(BasicDBObject.parse("{_id: 0, owner: 1}")))
+        assertEquals(emptyList<String>(), MongoExporter.getIncludedFields(BasicDBObject.parse("{owner: 0}")))
+        assertEquals(emptyList<String>(), MongoExporter.getIncludedFields(null))
+    }
+
+    @Test
+    fun formatsValuesOfDottedPaths() {
+        assertEquals("5a0000000000000000000000", csvValue("_id"))
+        assertEquals("\"x,\"\"y\"", csvValue("owner.tags.1.label"))
+        assertEquals("", csvValue("owner.tags.5"))
+        assertEquals("1970-01-01T00:00:00Z", csvValue("createdAt"))
+        assertEquals("\"[1, 2]\"", csvValue("counts"))
+        assertEquals("", csvValue("missing"))
+        assertEquals("", csvValue("unknown"))
+    }
+
+    private fun csvValue(path: String) = MongoExporter.escapeCsv(MongoExporter.toCsvValue(MongoExporter.getValue(document, path)))
+}
@@ -0,0 +1,95 @@
+package org.codinjutsu.tools.nosql.mongo.logic
+
+import com.mongodb.MongoBulkWriteException
+import com.mongodb.ServerAddress
+import com.mongodb.bulk.BulkWriteError
+import com.mongodb.bulk.BulkWriteResult
+import com.mongodb.client.MongoCollection
+import com.mongodb.client.model.InsertManyOptions
+import org.bson.BsonDocument
+import org.bson.RawBsonDocument
+import org.codinjutsu.tools.nosql.commons.view.filedialogs.ImportResultState
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.mockito.Matchers.any
+import org.mockito.Matchers.anyListOf
+import org.mockito.Mockito.doAnswer
+import org.mockito.Mockito.mock
+import java.io.File
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+internal class MongoImporterTest {
+
+    @Suppress("UNCHECKED_CAST")
+    private val collection = mock(MongoCollection::class.java) as MongoCollection<RawBsonDocument>
+
+    @Test
+    fun countsImportedAndFailedDocuments() {
+        doAnswer { invocation ->
+            val batch = invocation.arguments[0] as List<*>
+            if (batch.any { (it as RawBsonDocument).containsKey("duplicate") }) {
+                throw MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                        listOf(BulkWriteError(11000, "duplicate key", BsonDocument(), 0)), null, ServerAddress())
+            }
+            null
+        }.`when`(collection).insertMany(anyListOf(RawBsonDocument::class.java), any(InsertManyOptions::class.java))
+
+        val result = MongoImporter(collection, 2, 2).importFile(
+                file("{\"a\": 1}\n{\"a\": 2}\n{\"duplicate\": 1}\n{\"a\": 3}\n{\"a\":\n"), {}, { false })
+
+        assertEquals(3, result.imported)
+        assertEquals(2, result.failed)
+        assertFalse(result.success)
+        assertTrue(result.message!!.contains("First error: "))
+    }
+
+    @Test
+    fun reportsSuccessWhenEveryDocumentIsImported() {
+        val result = MongoImporter(collection, 10, 2).importFile(file("[{\"a\": 1}, {\"a\": 2}]"), {}, { false })
+
+        assertEquals(2, result.imported)
+        assertEquals(0, result.failed)
+        assertTrue(result.success)
+    }
+
+    @Test
+    fun stopsParsingWhileTheWritersAreBehind() {
+        val writing = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        doAnswer {
+            writing.countDown()
+            release.await(10, TimeUnit.SECONDS)
+            null
+        }.`when`(collection).insertMany(anyListOf(RawBsonDocument::class.java), any(InsertManyOptions::class.java))
+        val parsed = AtomicInteger()
+        val executor = Executors.newSingleThreadExecutor()
+        try {
+            val result = executor.submit<ImportResultState> {
+                MongoImporter(collection, 1, 1).importFile(
+                        file((1..20).joinToString("\n") { "{\"a\": $it}" }), {}, { parsed.incrementAndGet(); false })
+            }
+
+            assertTrue(writing.await(10, TimeUnit.SECONDS))
+            Thread.sleep(200)
+            assertTrue(parsed.get() <= MongoImporter.PENDING_BATCHES_PER_WRITER + 1)
+
+            release.countDown()
+            assertEquals(20, result.get(10, TimeUnit.SECONDS).imported)
+        } finally {
+            release.countDown()
+            executor.shutdownNow()
+        }
+    }
+
+    private fun file(content: String): File {
+        val file = File.createTempFile("import", ".json")
+        file.deleteOnExit()
+        file.writeText(content)
+        return file
+    }
+}
@@ -0,0 +1,32 @@
+package org.codinjutsu.tools.nosql.mongo.logic
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.io.StringReader
+
+internal class MongoJsonDocumentReaderTest {
+
+    @Test
+    fun readsDocumentsOfAnArray() {
+        assertEquals(listOf("{\"a\": 1}", "{\"b\": \"x}]\"}", "{\"c\": [1, 2]}"),
+                readAll("[ {\"a\": 1}, {\"b\": \"x}]\"} ,{\"c\": [1, 2]}]"))
+        assertEquals(emptyList<String>(), readAll("[ ]"))
+    }
+
+    @Test
+    fun readsDocumentsWrittenOneAfterTheOther() {
+        assertEquals(listOf("{\"a\": 1}", "{\"_id\": {\"\$oid\": \"5a0000000000000000000000\"}}", "{\n  \"c\": 'it\\'s'\n}"),
+                readAll("{\"a\": 1}\n\n{\"_id\": {\"\$oid\": \"5a0000000000000000000000\"}}\n{\n  \"c\": 'it\\'s'\n}\n"))
+        assertEquals(emptyList<String>(), readAll(""))
+    }
+
+    @Test
+    fun returnsInvalidContentForTheParserToReport() {
+        assertEquals(listOf("42", "{\"a\": 1}", "{\"b\":"), readAll("42\n{\"a\": 1}\n{\"b\":"))
+    }
+
+    private fun readAll(json: String): List<String> {
+        val reader = MongoJsonDocumentReader(StringReader(json))
+        return generateSequence { reader.next() }.toList()
+    }
+}
@@ -0,0 +1,35 @@
+package org.codinjutsu.tools.nosql.mongo.model
+
+import org.bson.Document
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+internal class MongoCollectionStatisticsTest {
+
+    @Test
+    fun parsesCollStatsWhateverTheNumberTypes() {
+        val statistics = MongoCollectionStatistics.parse(Document("ns", "test.users")
+                .append("count", 1200)
+                .append("size", 4096000L)
+                .append("storageSize", 2048000.0)
+                .append("totalIndexSize", 81920)
+                .append("nindexes", 2))
+
+        assertEquals(1200L, statistics.documentCount)
+        assertEquals(4096000L, statistics.dataSize)
+        assertEquals(2048000L, statistics.storageSize)
+        assertEquals(81920L, statistics.indexSize)
+        assertEquals(2, statistics.indexCount)
+        assertEquals(2129920L, statistics.totalSize)
+    }
+
+    @Test
+    fun expiresAfterTheTtl() {
+        val statistics = MongoCollectionStatistics(1, 1, 1, 1, 1, System.currentTimeMillis() - 1000)
+
+        assertFalse(statistics.isExpired(60000))
+        assertTrue(statistics.isExpired(1000))
+    }
+}
@@ -0,0 +1,51 @@
+package org.codinjutsu.tools.nosql.mongo.model
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+internal class MongoDatabaseTest {
+
+    @Test
+    fun databaseListedWithItsCollectionsIsLoaded() {
+        val database = MongoDatabase("test", setOf("users"))
+
+        assertTrue(database.isLoaded)
+        assertEquals(listOf("users"), database.getCollections().map { it.name })
+    }
+
+    @Test
+    fun databaseListedWithoutItsCollectionsIsLoadedOnceTheyAreSet() {
+        val database = MongoDatabase("test", null)
+        assertFalse(database.isLoaded)
+        assertTrue(database.getCollections().isEmpty())
+
+        database.setCollections(listOf("users", "orders"))
+
+        assertTrue(database.isLoaded)
+        assertEquals(listOf("orders", "users"), database.getCollections().map { it.name })
+        assertNull(database.loadError)
+    }
+
+    @Test
+    fun databaseWhoseCollectionsCannotBeListedIsLoadedWithTheError() {
+        val database = MongoDatabase("test", null)
+
+        database.loadError = "not authorized"
+
+        assertTrue(database.isLoaded)
+        assertTrue(database.getCollections().isEmpty())
+    }
+
+    @Test
+    fun addingACollectionToADatabaseNotLoadedWaitsForTheListing() {
+        val database = MongoDatabase("test", null)
+
+        database.addCollection(MongoCollection("users", "test"))
+
+        assertFalse(database.isLoaded)
+        assertTrue(database.getCollections().isEmpty())
+    }
+}
@@ -0,0 +1,41 @@
+package org.codinjutsu.tools.nosql.mongo.model
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+
+internal class MongoPageBoundariesTest {
+
+    private val boundaries = MongoPageBoundaries()
+
+    @Test
+    fun remembersTheLastIdOfEachPage() {
+        boundaries.useQuery("{}")
+        boundaries.setLastId(0, "a")
+        boundaries.setLastId(1, "b")
+
+        assertEquals("a", boundaries.getLastId(0))
+        assertEquals("b", boundaries.getLastId(1))
+        assertNull(boundaries.getLastId(2))
+    }
+
+    @Test
+    fun keepsTheBoundariesWhileTheQueryIsUnchanged() {
+        boundaries.useQuery("{}")
+        boundaries.setLastId(0, "a")
+
+        boundaries.useQuery("{}")
+
+        assertEquals("a", boundaries.getLastId(0))
+    }
+
+    @Test
+    fun forgetsTheBoundariesWhenTheQueryChanges() {
+        boundaries.useQuery("{}")
+        boundaries.setLastId(0, "a")
+
+        boundaries.useQuery("{ \"name\" : \"john\"}")
+
+        assertNull(boundaries.getLastId(0))
+    }
+}
@@ -0,0 +1,78 @@
+package org.codinjutsu.tools.nosql.mongo.model
+
+import com.mongodb.BasicDBObject
+import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptionsImpl
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+internal class MongoQueryOptionsTest {
+
+    @Test
+    fun unsortedFindIsKeysetPageable() {
+        assertTrue(options().isKeysetPageable)
+        assertTrue(options(sort = "{}").isKeysetPageable)
+    }
+
+    @Test
+    fun findSortedOnlyByIdIsKeysetPageable() {
+        val ascending = options(sort = "{ \"_id\" : 1}")
+        assertTrue(ascending.isKeysetPageable)
+        assertEquals(1, ascending.keysetDirection)
+
+        val descending = options(sort = "{ \"_id\" : -1}")
+        assertTrue(descending.isKeysetPageable)
+        assertEquals(-1, descending.keysetDirection)
+    }
+
+    @Test
+    fun findSortedByAnotherFieldIsNotKeysetPageable() {
+        assertFalse(options(sort = "{ \"name\" : 1}").isKeysetPageable)
+        assertFalse(options(sort = "{ \"_id\" : 1, \"name\" : 1}").isKeysetPageable)
+    }
+
+    @Test
+    fun findExcludingIdIsNotKeysetPageable() {
+        assertFalse(options(projection = "{ \"_id\" : 0}").isKeysetPageable)
+        assertFalse(options(projection = "{ \"_id\" : false}").isKeysetPageable)
+        assertTrue(options(projection = "{ \"name\" : 1}").isKeysetPageable)
+    }
+
+    @Test
+    fun aggregateIsNotKeysetPageable() {
+        assertFalse(options(operations = "[{ \"\$match\" : {}}]").isKeysetPageable)
+    }
+
+    @Test
+    fun appendsTheResultLimitToThePipeline() {
+        val operations = options(operations = "[{ \"\$match\" : { \"a\" : 1}}]").limitedOperations
+
+        assertEquals(2, operations.size)
+        assertEquals(BasicDBObject("\$limit", 300), operations[1])
+    }
+
+    @Test
+    fun keepsATrailingLimitBelowTheResultLimit() {
+        val operations = options(operations = "[{ \"\$match\" : {}}, { \"\$limit\" : 10}]").limitedOperations
+
+        assertEquals(2, operations.size)
+        assertEquals(BasicDBObject("\$limit", 10), operations[1])
+    }
+
+    @Test
+    fun appendsTheResultLimitAfterATrailingLimitAboveIt() {
+        val operations = options(operations = "[{ \"\$limit\" : 1000}]").limitedOperations
+
+        assertEquals(listOf(BasicDBObject("\$limit", 1000), BasicDBObject("\$limit", 300)), operations)
+    }
+
+    @Test
+    fun doesNotLimitPipelinesWritingToACollection() {
+        assertEquals(2, options(operations = "[{ \"\$match\" : {}}, { \"\$out\" : \"copy\"}]").limitedOperations.size)
+        assertEquals(2, options(operations = "[{ \"\$match\" : {}}, { \"\$merge\" : { \"into\" : \"copy\"}}]").limitedOperations.size)
+    }
+
+    private fun options(operations: String? = null, projection: String? = null, sort: String? = null) =
+            MongoQueryOptions(QueryOptionsImpl(operations = operations, projection = projection, sort = sort))
+}
@@ -0,0 +1,80 @@
+package org.codinjutsu.tools.nosql.mongo.model.internal
+
+import org.bson.Document
+import org.bson.RawBsonDocument
+import org.bson.codecs.DocumentCodec
+import org.bson.types.Binary
+import org.bson.types.ObjectId
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseArray
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabasePrimitive
+import org.junit.jupiter.api.Assertions.assertArrayEquals
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import java.util.*
+
+internal class RawBsonDatabaseObjectTest {
+
+    private val id = ObjectId()
+    private val date = Date(1500000000000L)
+
+    private val document = Document("_id", id)
+            .append("label", "héllo")
+            .append("count", 42)
+            .append("total", 4200000000L)
+            .append("price", 12.5)
+            .append("active", true)
+            .append("missing", null)
+            .append("createdAt", date)
+            .append("owner", Document("name", "john").append("tags", listOf("a", Document("b", 2))))
+
+    @Test
+    fun keepsFieldOrderAndDecodesPrimitives() {
+        val databaseObject = RawBsonDocument(document, DocumentCodec()).toDatabaseObject()
+
+        assertEquals(listOf("_id", "label", "count", "total", "price", "active", "missing", "createdAt", "owner"), databaseObject.names().toList())
+        assertEquals(id, primitive(databaseObject, "_id"))
+        assertEquals("héllo", primitive(databaseObject, "label"))
+        assertEquals(42, primitive(databaseObject, "count"))
+        assertEquals(4200000000L, primitive(databaseObject, "total"))
+        assertEquals(12.5, primitive(databaseObject, "price"))
+        assertEquals(true, primitive(databaseObject, "active"))
+        assertNull(primitive(databaseObject, "missing"))
+        assertEquals(date, primitive(databaseObject, "createdAt"))
+        assertNull(databaseObject["unknown"])
+    }
+
+    @Test
+    fun exposesEmbeddedDocumentsAndArraysAsViews() {
+        val owner = RawBsonDocument(document, DocumentCodec()).toDatabaseObject()["owner"] as DatabaseObject
+        assertEquals("john", primitive(owner, "name"))
+
+        val tags = owner["tags"] as DatabaseArray
+        assertEquals(2, tags.size())
+        assertEquals("a", (tags[0] as DatabasePrimitive).value())
+        assertTrue(tags[1] is DatabaseObject)
+        assertEquals(2, primitive(tags[1] as DatabaseObject, "b"))
+        assertEquals(2, tags.toList().size)
+    }
+
+    @Test
+    fun decodesGenericAndOldBinaryDataAsBytes() {
+        val bytes = byteArrayOf(1, 2, 3)
+        val databaseObject = RawBsonDocument(Document("generic", Binary(bytes)).append("old", Binary(2, bytes)), DocumentCodec()).toDatabaseObject()
+
+        assertArrayEquals(bytes, primitive(databaseObject, "generic") as ByteArray)
+        assertArrayEquals(bytes, primitive(databaseObject, "old") as ByteArray)
+    }
+
+    @Test
+    fun unwrapsIdentifiersForQueries() {
+        val databaseObject = RawBsonDocument(document, DocumentCodec()).toDatabaseObject()
+
+        assertEquals(id, unwrap(databaseObject["_id"]))
+        assertEquals("john", (unwrap(databaseObject["owner"]) as com.mongodb.DBObject)["name"])
+    }
+
+    private fun primitive(databaseObject: DatabaseObject, key: String) = (databaseObject[key] as DatabasePrimitive).value()
+}
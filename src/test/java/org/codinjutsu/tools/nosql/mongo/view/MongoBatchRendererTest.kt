@@ -0,0 +1,43 @@
+package org.codinjutsu.tools.nosql.mongo.view
+
+import org.codinjutsu.tools.nosql.commons.model.SearchResult
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.mock
+
+internal class MongoBatchRendererTest {
+
+    private val replaced = mutableListOf<SearchResult>()
+    private val appended = mutableListOf<SearchResult>()
+    private val renderer = MongoBatchRenderer("users", { replaced.add(it) }, { appended.add(it) })
+
+    @Test
+    fun replacesTheTreeWithTheFirstBatchAndAppendsTheFollowingOnes() {
+        val first = documents(2)
+        val second = documents(2)
+        val third = documents(1)
+
+        renderer.accept(first)
+        renderer.accept(second)
+        renderer.accept(third)
+        renderer.finish(SearchResult("users", first + second + third, 5))
+
+        assertEquals(listOf(SearchResult("users", first, 2)), replaced)
+        assertEquals(listOf(SearchResult("users", second, 4), SearchResult("users", third, 5)), appended)
+        assertEquals(5, renderer.loadedCount)
+    }
+
+    @Test
+    fun replacesTheTreeWithTheFinalResultWhenNoBatchWasRead() {
+        val empty = SearchResult("users", emptyList(), 0)
+
+        renderer.finish(empty)
+
+        assertEquals(listOf(empty), replaced)
+        assertTrue(appended.isEmpty())
+    }
+
+    private fun documents(count: Int) = List(count) { mock(DatabaseObject::class.java) }
+}
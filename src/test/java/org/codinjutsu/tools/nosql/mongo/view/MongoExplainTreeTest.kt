@@ -0,0 +1,83 @@
+package org.codinjutsu.tools.nosql.mongo.view
+
+import com.mongodb.BasicDBObject
+import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+internal class MongoExplainTreeTest {
+
+    @Test
+    fun highlightsCollectionScans() {
+        val tree = buildExplainTree(BasicDBObject.parse("""{
+            "queryPlanner" : { "winningPlan" : { "stage" : "COLLSCAN" } },
+            "executionStats" : { "nReturned" : 5, "totalKeysExamined" : 0, "totalDocsExamined" : 1000, "executionTimeMillis" : 3,
+                                 "executionStages" : { "stage" : "COLLSCAN", "nReturned" : 5, "docsExamined" : 1000 } } }"""))
+
+        assertEquals("5", descriptor(tree, "Returned").value)
+        assertFalse(descriptor(tree, "Keys examined").highlighted)
+        assertTrue(descriptor(tree, "Documents examined").highlighted)
+        assertEquals("none", descriptor(tree, "Index used").value)
+        assertTrue(descriptor(tree, "Index used").highlighted)
+        assertTrue(descriptor(child(tree, "Winning plan"), "COLLSCAN").highlighted)
+    }
+
+    @Test
+    fun doesNotHighlightSelectiveIndexScans() {
+        val tree = buildExplainTree(BasicDBObject.parse("""{
+            "executionStats" : { "nReturned" : 5, "totalKeysExamined" : 5, "totalDocsExamined" : 5, "executionTimeMillis" : 1,
+                                 "executionStages" : { "stage" : "FETCH", "nReturned" : 5, "docsExamined" : 5,
+                                     "inputStage" : { "stage" : "IXSCAN", "indexName" : "name_1", "nReturned" : 5, "keysExamined" : 5 } } } }"""))
+
+        assertEquals("name_1", descriptor(tree, "Index used").value)
+        assertFalse(descriptor(tree, "Index used").highlighted)
+        assertFalse(descriptor(tree, "Documents examined").highlighted)
+        val fetch = child(child(tree, "Winning plan"), "FETCH")
+        assertFalse((fetch.descriptor as ExplainDescriptor).highlighted)
+        assertEquals("index: name_1, returned: 5, keys examined: 5", descriptor(fetch, "IXSCAN").value)
+        assertFalse(descriptor(fetch, "IXSCAN").highlighted)
+    }
+
+    @Test
+    fun reportsStagesExaminingTenTimesWhatTheyReturnFromAHundredDocuments() {
+        assertFalse(isExcessive(99, 0))
+        assertTrue(isExcessive(100, 0))
+        assertTrue(isExcessive(100, 10))
+        assertFalse(isExcessive(100, 11))
+        assertTrue(isExcessive(1000, 100))
+        assertFalse(isExcessive(999, 100))
+    }
+
+    @Test
+    fun listsThePlanOfEveryShard() {
+        val tree = buildExplainTree(BasicDBObject.parse("""{
+            "queryPlanner" : { "winningPlan" : { "stage" : "SHARD_MERGE", "shards" : [
+                { "shardName" : "a", "winningPlan" : { "stage" : "IXSCAN", "indexName" : "a_1" } },
+                { "shardName" : "b", "winningPlan" : { "stage" : "COLLSCAN" } } ] } } }"""))
+
+        assertEquals("a_1", descriptor(tree, "Index used").value)
+        val merge = child(child(tree, "Winning plan"), "SHARD_MERGE")
+        assertEquals(listOf("IXSCAN", "COLLSCAN"), merge.children().toList().map { (it as NoSqlTreeNode).descriptor.formattedKey })
+        assertFalse(descriptor(merge, "IXSCAN").highlighted)
+        assertTrue(descriptor(merge, "COLLSCAN").highlighted)
+    }
+
+    @Test
+    fun unwrapsTheCursorStageOfAggregations() {
+        val tree = buildExplainTree(BasicDBObject.parse("""{ "stages" : [
+            { "${'$'}cursor" : { "queryPlanner" : { "winningPlan" : { "stage" : "IXSCAN", "indexName" : "x_1" } } } },
+            { "${'$'}group" : { "_id" : "${'$'}a" }, "executionTimeMillisEstimate" : 4 } ] }"""))
+
+        val cursor = child(tree, "\$cursor")
+        assertEquals("x_1", descriptor(cursor, "Index used").value)
+        assertEquals("IXSCAN", child(child(cursor, "Winning plan"), "IXSCAN").descriptor.formattedKey)
+        assertTrue((descriptor(tree, "\$group").value).endsWith(", ~4 ms"))
+    }
+
+    private fun child(parent: NoSqlTreeNode, key: String) =
+            parent.children().toList().map { it as NoSqlTreeNode }.first { it.descriptor.formattedKey == key }
+
+    private fun descriptor(parent: NoSqlTreeNode, key: String) = child(parent, key).descriptor as ExplainDescriptor
+}
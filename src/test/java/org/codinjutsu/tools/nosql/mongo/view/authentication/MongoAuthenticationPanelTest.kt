@@ -0,0 +1,19 @@
+package org.codinjutsu.tools.nosql.mongo.view.authentication
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import javax.swing.JTextField
+
+internal class MongoAuthenticationPanelTest {
+
+    @Test
+    fun readsTheTypedNumber() {
+        assertEquals(42, MongoAuthenticationPanel.getIntValue(JTextField("42"), 100))
+    }
+
+    @Test
+    fun keepsTheDefaultForABlankOrTooLargeNumber() {
+        assertEquals(100, MongoAuthenticationPanel.getIntValue(JTextField(" "), 100))
+        assertEquals(100, MongoAuthenticationPanel.getIntValue(JTextField("99999999999"), 100))
+    }
+}
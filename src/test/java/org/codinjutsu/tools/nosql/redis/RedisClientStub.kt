@@ -6,5 +6,5 @@ import redis.clients.jedis.Jedis
 
 internal class RedisClientStub(private val jedis: Jedis) : RedisClient() {
 
-    override fun createJedis(serverConfiguration: ServerConfiguration?) = jedis
+    override fun getJedis(serverConfiguration: ServerConfiguration?) = jedis
 }
\ No newline at end of file
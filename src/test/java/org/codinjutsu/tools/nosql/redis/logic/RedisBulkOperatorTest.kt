@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic
+
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyOperation
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Matchers.any
+import org.mockito.Matchers.contains
+import org.mockito.Matchers.eq
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.times
+import org.mockito.Mockito.verify
+import redis.clients.jedis.Builder
+import redis.clients.jedis.Jedis
+import redis.clients.jedis.Pipeline
+import redis.clients.jedis.Response
+import redis.clients.jedis.ScanParams
+import redis.clients.jedis.ScanResult
+import redis.clients.jedis.exceptions.JedisDataException
+
+internal class RedisBulkOperatorTest {
+
+    private var jedis: Jedis? = null
+
+    private var pipeline: Pipeline? = null
+
+    @BeforeEach
+    fun setUp() {
+        jedis = mock(Jedis::class.java)
+        pipeline = mock(Pipeline::class.java)
+        `when`(jedis!!.pipelined()).thenReturn(pipeline)
+    }
+
+    @Test
+    fun bufferKeysAcrossScanBatchesUpToTheChunkSize() {
+        `when`(jedis!!.scan(eq("0"), any(ScanParams::class.java))).thenReturn(ScanResult("1", listOf("a", "b")))
+        `when`(jedis!!.scan(eq("1"), any(ScanParams::class.java))).thenReturn(ScanResult("2", listOf("c", "d")))
+        `when`(jedis!!.scan(eq("2"), any(ScanParams::class.java))).thenReturn(ScanResult("0", listOf("e")))
+        `when`(pipeline!!.persist(any(String::class.java))).thenReturn(response(1L))
+        val operator = RedisBulkOperator(RedisKeyOperation.PERSIST, 0, 2, 3, 0)
+
+        val complete = operator.apply(jedis!!, "*", {}, { false })
+        verify<Pipeline>(pipeline, times(2)).sync()
+
+        assertTrue(complete)
+        assertEquals(5L, operator.affectedKeys)
+    }
+
+    @Test
+    fun unlinkLoadsTheScriptWhenMissing() {
+        `when`(pipeline!!.evalsha(any(String::class.java), eq(1), eq("a")))
+                .thenReturn(errorResponse("NOSCRIPT No matching script. Please use EVAL."), response("1"))
+        val operator = RedisBulkOperator(RedisKeyOperation.UNLINK, 0, 10, 10, 0)
+
+        operator.apply(jedis!!, listOf("a"))
+        verify<Jedis>(jedis, times(1)).scriptLoad(contains("UNLINK"))
+        verify<Pipeline>(pipeline, times(2)).sync()
+
+        assertEquals(1L, operator.affectedKeys)
+    }
+
+    @Test
+    fun unlinkASingleKeyFallsBackToEvalWhenTheScriptIsMissing() {
+        `when`(jedis!!.evalsha(any(String::class.java), eq(1), eq("a"))).thenThrow(JedisDataException("NOSCRIPT No matching script. Please use EVAL."))
+        `when`(jedis!!.eval(contains("UNLINK"), eq(1), eq("a"))).thenReturn("1")
+
+        assertEquals(1L, RedisKeyOperation.UNLINK.apply(jedis!!, "a", 0))
+    }
+
+    private fun <T> errorResponse(message: String): Response<T> {
+        val response = Response(object : Builder<T>() {
+            override fun build(data: Any?) = throw UnsupportedOperationException()
+        })
+        response.set(JedisDataException(message))
+        return response
+    }
+
+    private fun <T> response(value: T): Response<T> {
+        val response = Response(object : Builder<T>() {
+            @Suppress("UNCHECKED_CAST")
+            override fun build(data: Any?) = data as T
+        })
+        response.set(value)
+        return response
+    }
+}
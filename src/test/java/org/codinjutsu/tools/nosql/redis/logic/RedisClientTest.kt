@@ -21,21 +21,39 @@ import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptionsImpl
 import org.codinjutsu.tools.nosql.redis.RedisClientStub
 import org.codinjutsu.tools.nosql.redis.configuration.RedisServerConfiguration
 import org.codinjutsu.tools.nosql.redis.model.RedisContext
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyOperation
 import org.codinjutsu.tools.nosql.redis.model.RedisKeyType
+import org.codinjutsu.tools.nosql.redis.model.RedisStreamEntry
+import org.codinjutsu.tools.nosql.redis.model.RedisStreamGroup
+import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseKey
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import org.mockito.Matchers.any
+import org.mockito.Matchers.aryEq
+import org.mockito.Matchers.contains
+import org.mockito.Matchers.eq
 import org.mockito.Mockito.`when`
 import org.mockito.Mockito.mock
 import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
+import redis.clients.jedis.Builder
 import redis.clients.jedis.Jedis
+import redis.clients.jedis.Pipeline
+import redis.clients.jedis.Response
+import redis.clients.jedis.ScanParams
+import redis.clients.jedis.ScanResult
+import redis.clients.jedis.exceptions.JedisDataException
 import java.util.*
 
 internal class RedisClientTest {
 
     private var jedis: Jedis? = null
 
+    private var pipeline: Pipeline? = null
+
     @Test
     fun loadWithEmptyFilter() {
         val redisClient = RedisClientStub(jedis!!)
@@ -47,17 +65,193 @@ internal class RedisClientTest {
         queryOptions.resultLimit = 300
 
         val result = redisClient.loadRecords(RedisContext(redisClient, serverConfiguration, Database("1")), queryOptions)
-        verify<Jedis>(jedis, times(1)).connect()
         verify<Jedis>(jedis, times(1)).select(1)
+        verify<Jedis>(jedis, times(1)).close()
+        verify<Pipeline>(pipeline, times(2)).sync()
+
+        val databaseKey = result.records[0]["testlist"] as RedisDatabaseKey
+        assertEquals(RedisKeyType.LIST, databaseKey.type)
+        assertEquals(2L, databaseKey.size)
+    }
+
+    @Test
+    fun loadListValuesByPage() {
+        `when`(jedis!!.lrange("testlist", 0, 1)).thenReturn(Arrays.asList("value1", "value2"))
+        `when`(jedis!!.lrange("testlist", 2, 3)).thenReturn(Arrays.asList("value3"))
+        `when`(jedis!!.llen("testlist")).thenReturn(3L)
+        val redisClient = RedisClientStub(jedis!!)
+        val context = RedisContext(redisClient, RedisServerConfiguration(valuePageSize = 2), Database("0"))
+
+        val firstPage = redisClient.loadValues(context, RedisKeyType.LIST, "testlist", "0")
+        assertEquals(Arrays.asList("value1", "value2"), firstPage.values)
+        assertEquals("2", firstPage.cursor)
+
+        val lastPage = redisClient.loadValues(context, RedisKeyType.LIST, "testlist", firstPage.cursor)
+        assertEquals(Arrays.asList("value3"), lastPage.values)
+        assertTrue(lastPage.isComplete)
+    }
+
+    @Test
+    fun loadListValuesEndsOnExactMultipleOfPageSize() {
+        `when`(jedis!!.lrange("testlist", 0, 1)).thenReturn(Arrays.asList("value1", "value2"))
+        `when`(jedis!!.llen("testlist")).thenReturn(2L)
+        val redisClient = RedisClientStub(jedis!!)
+        val context = RedisContext(redisClient, RedisServerConfiguration(valuePageSize = 2), Database("0"))
+
+        val page = redisClient.loadValues(context, RedisKeyType.LIST, "testlist", "0")
+        assertEquals(Arrays.asList("value1", "value2"), page.values)
+        assertTrue(page.isComplete)
+    }
+
+    @Test
+    fun loadStreamValuesByPageNewestFirst() {
+        `when`(jedis!!.evalsha(any(String::class.java), eq(1), eq("events"), eq("+"), eq("3")))
+                .thenReturn(listOf(listOf("3-0", listOf("a", "3")), listOf("2-0", listOf("a", "2")), listOf("1-0", listOf("a", "1"))))
+        `when`(jedis!!.evalsha(any(String::class.java), eq(1), eq("events"), eq("1-0"), eq("3")))
+                .thenReturn(listOf(listOf("1-0", listOf("a", "1"))))
+        `when`(jedis!!.evalsha(any(String::class.java), eq(1), eq("events")))
+                .thenReturn(listOf(listOf("name", "workers", "consumers", 2L, "pending", 5L, "last-delivered-id", "2-0")))
+        val redisClient = RedisClientStub(jedis!!)
+        val context = RedisContext(redisClient, RedisServerConfiguration(valuePageSize = 2), Database("0"))
 
-        assertEquals(Arrays.asList("value1", "value2"), result.records.get(0))
+        val firstPage = redisClient.loadValues(context, RedisKeyType.STREAM, "events", "0")
+        assertEquals(listOf(RedisStreamGroup("workers", 2, 5, "2-0"),
+                RedisStreamEntry("3-0", mapOf("a" to "3")), RedisStreamEntry("2-0", mapOf("a" to "2"))), firstPage.values)
+        assertEquals("1-0", firstPage.cursor)
+
+        val lastPage = redisClient.loadValues(context, RedisKeyType.STREAM, "events", firstPage.cursor)
+        assertEquals(listOf(RedisStreamEntry("1-0", mapOf("a" to "1"))), lastPage.values)
+        assertTrue(lastPage.isComplete)
+    }
+
+    @Test
+    fun fetchStreamsLoadsTheStreamScriptsWhenMissing() {
+        `when`(jedis!!.scan(eq("0"), any(ScanParams::class.java))).thenReturn(ScanResult("0", listOf("events")))
+        `when`(pipeline!!.type("events")).thenReturn(response(RedisKeyType.STREAM.label))
+        `when`(pipeline!!.ttl("events")).thenReturn(response(-1L))
+        `when`(pipeline!!.evalsha(any(String::class.java), eq(1), eq("events")))
+                .thenReturn(errorResponse("NOSCRIPT No matching script. Please use EVAL."), errorResponse("NOSCRIPT No matching script. Please use EVAL."),
+                        response("3"), response("last id 3-0, 0 group(s), 0 pending"))
+        val redisClient = RedisClientStub(jedis!!)
+
+        val result = redisClient.loadRecords(RedisContext(redisClient, RedisServerConfiguration(), Database("0")), QueryOptionsImpl())
+        verify<Jedis>(jedis, times(1)).scriptLoad(contains("XLEN"))
+        verify<Jedis>(jedis, times(1)).scriptLoad(contains("XINFO"))
+
+        val databaseKey = result.records[0]["events"] as RedisDatabaseKey
+        assertEquals(3L, databaseKey.size)
+    }
+
+    @Test
+    fun scanStopsAtResultLimitAndKeepsCursor() {
+        `when`(jedis!!.scan(eq("0"), any(ScanParams::class.java))).thenReturn(ScanResult("17", listOf("testlist")))
+        val redisClient = RedisClientStub(jedis!!)
+        val serverConfiguration = RedisServerConfiguration()
+
+        val queryOptions = QueryOptionsImpl()
+        queryOptions.resultLimit = 1
+
+        val result = redisClient.scanRecords(RedisContext(redisClient, serverConfiguration, Database("0")), queryOptions, "0", {}, { false })
+        verify<Jedis>(jedis, times(1)).scan(eq("0"), any(ScanParams::class.java))
+
+        assertEquals(1, result.records.size)
+        assertEquals("17", result.cursor)
+    }
+
+    @Test
+    fun fetchValuesInPipelinedChunks() {
+        `when`(jedis!!.scan(eq("0"), any(ScanParams::class.java))).thenReturn(ScanResult("0", listOf("testlist", "teststring")))
+        `when`(pipeline!!.type("teststring")).thenReturn(response(RedisKeyType.STRING.label))
+        `when`(pipeline!!.strlen("teststring")).thenReturn(response(5L))
+        `when`(pipeline!!.ttl("teststring")).thenReturn(response(-1L))
+        `when`(pipeline!!.evalsha(any(ByteArray::class.java), eq(1), aryEq("teststring".toByteArray()), aryEq("1023".toByteArray())))
+                .thenReturn(response<Any>("value".toByteArray()))
+        val redisClient = RedisClientStub(jedis!!)
+        val serverConfiguration = RedisServerConfiguration(pipelineChunkSize = 1)
+
+        val result = redisClient.loadRecords(RedisContext(redisClient, serverConfiguration, Database("0")), QueryOptionsImpl())
+        verify<Pipeline>(pipeline, times(4)).sync()
+
+        assertEquals(2, result.records.size)
+        assertEquals("value", result.records[1]["teststring"].toString())
+    }
+
+    @Test
+    fun expireMatchingKeysInPipelinedChunks() {
+        `when`(jedis!!.scan(eq("0"), any(ScanParams::class.java))).thenReturn(ScanResult("0", listOf("testlist", "teststring", "testset")))
+        `when`(pipeline!!.expire(any(String::class.java), eq(60))).thenReturn(response(1L))
+        val redisClient = RedisClientStub(jedis!!)
+        val context = RedisContext(redisClient, RedisServerConfiguration(bulkChunkSize = 2, bulkKeysPerSecond = 0), Database("0"))
+
+        val affectedKeys = redisClient.applyToKeys(context, "test*", RedisKeyOperation.EXPIRE, 60, {}, { false })
+        verify<Pipeline>(pipeline, times(2)).sync()
+        verify<Pipeline>(pipeline, times(1)).expire("testset", 60)
+
+        assertEquals(3L, affectedKeys)
+    }
+
+    @Test
+    fun profileMemoryLoadsTheMemoryUsageScriptWhenMissing() {
+        `when`(pipeline!!.objectEncoding("testlist")).thenReturn(response("quicklist"))
+        `when`(pipeline!!.evalsha(any(String::class.java), eq(1), eq("testlist")))
+                .thenReturn(errorResponse("NOSCRIPT No matching script. Please use EVAL."), response("128"))
+        val redisClient = RedisClientStub(jedis!!)
+        val context = RedisContext(redisClient, RedisServerConfiguration(profilerKeysPerSecond = 0), Database("0"))
+
+        val profile = redisClient.profileMemory(context, ":", {}, { false })
+        verify<Jedis>(jedis, times(1)).scriptLoad(contains("MEMORY"))
+
+        assertEquals(1L, profile.scannedKeys)
+        assertEquals(128L, profile.totalMemoryUsage)
+    }
+
+    @Test
+    fun keyspaceCheckGoesAheadWhenConfigGetIsRefused() {
+        `when`(jedis!!.configGet("notify-keyspace-events")).thenThrow(JedisDataException("ERR unknown command 'CONFIG'"))
+
+        RedisClient.checkKeyspaceNotifications { jedis }
+        verify<Jedis>(jedis, times(1)).close()
+    }
+
+    @Test
+    fun keyspaceCheckFailsWhenNotificationsAreDisabled() {
+        `when`(jedis!!.configGet("notify-keyspace-events")).thenReturn(listOf("notify-keyspace-events", ""))
+
+        assertThrows(IllegalStateException::class.java) { RedisClient.checkKeyspaceNotifications { jedis } }
+    }
+
+    @Test
+    fun keyspaceCheckAcceptsKeyspaceEvents() {
+        `when`(jedis!!.configGet("notify-keyspace-events")).thenReturn(listOf("notify-keyspace-events", "KA"))
+
+        RedisClient.checkKeyspaceNotifications { jedis }
     }
 
     @BeforeEach
     fun setUp() {
         jedis = mock(Jedis::class.java)
-        `when`(jedis!!.keys("*")).thenReturn(HashSet(listOf("testlist")))
-        `when`(jedis!!.type("testlist")).thenReturn(RedisKeyType.LIST.label)
-        `when`(jedis!!.lrange("testlist", 0, -1)).thenReturn(Arrays.asList("value1", "value2"))
+        pipeline = mock(Pipeline::class.java)
+        `when`(jedis!!.pipelined()).thenReturn(pipeline)
+        `when`(jedis!!.scan(eq("0"), any(ScanParams::class.java))).thenReturn(ScanResult("0", listOf("testlist")))
+        `when`(pipeline!!.type("testlist")).thenReturn(response(RedisKeyType.LIST.label))
+        `when`(pipeline!!.llen("testlist")).thenReturn(response(2L))
+        `when`(pipeline!!.ttl("testlist")).thenReturn(response(-1L))
+    }
+
+    private fun <T> errorResponse(message: String): Response<T> {
+        val response = Response(object : Builder<T>() {
+            override fun build(data: Any?) = throw UnsupportedOperationException()
+        })
+        response.set(JedisDataException(message))
+        return response
+    }
+
+    private fun <T> response(value: T): Response<T> {
+        val response = Response(object : Builder<T>() {
+            @Suppress("UNCHECKED_CAST")
+            override fun build(data: Any?) = data as T
+        })
+        response.set(value)
+        return response
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Matchers.any
+import org.mockito.Matchers.eq
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import redis.clients.jedis.Jedis
+import redis.clients.jedis.JedisCluster
+import redis.clients.jedis.JedisPool
+import redis.clients.jedis.ScanParams
+import redis.clients.jedis.ScanResult
+
+internal class RedisClusterScannerTest {
+
+    private val masters = listOf("10.0.0.1:7000", "10.0.0.2:7001", "10.0.0.3:7002")
+
+    private var cluster: JedisCluster? = null
+    private var topology: RedisClusterTopology? = null
+
+    @BeforeEach
+    fun setUp() {
+        cluster = mock(JedisCluster::class.java)
+        topology = mock(RedisClusterTopology::class.java)
+        `when`(topology!!.masters).thenReturn(masters)
+    }
+
+    @Test
+    fun startCursorScansEveryMasterFromTheStart() {
+        val cursors = scanner().decodeCursor("0")
+
+        assertEquals(masters, cursors.keys.toList())
+        assertEquals(listOf("0", "0", "0"), cursors.values.toList())
+    }
+
+    @Test
+    fun compositeCursorListsPendingMastersInOrder() {
+        val cursors = linkedMapOf("10.0.0.2:7001" to "1792", "10.0.0.3:7002" to "18")
+
+        val cursor = RedisClusterScanner.encodeCursor(cursors)
+
+        assertEquals("10.0.0.2:7001=1792,10.0.0.3:7002=18", cursor)
+        assertEquals(cursors, scanner().decodeCursor(cursor))
+    }
+
+    @Test
+    fun finishedScanEncodesTheStartCursor() {
+        assertEquals("0", RedisClusterScanner.encodeCursor(emptyMap()))
+    }
+
+    @Test
+    fun scanResumesFromTheCompositeCursor() {
+        val finishingNode = nodeScanning("1792", "0")
+        val pendingNode = nodeScanning("18", "25")
+        `when`(cluster!!.clusterNodes).thenReturn(mapOf("10.0.0.2:7001" to finishingNode, "10.0.0.3:7002" to pendingNode))
+        var rounds = 0
+
+        val result = scanner().scan("10.0.0.2:7001=1792,10.0.0.3:7002=18", ScanParams(), 10, {}, { rounds++ > 0 })
+
+        assertEquals(0, result.records.size)
+        assertEquals("10.0.0.3:7002=25", result.cursor)
+    }
+
+    private fun scanner() = RedisClusterScanner(cluster!!, topology!!, 2, 10)
+
+    private fun nodeScanning(cursor: String, nextCursor: String): JedisPool {
+        val jedis = mock(Jedis::class.java)
+        `when`(jedis.scan(eq(cursor), any(ScanParams::class.java))).thenReturn(ScanResult(nextCursor, emptyList()))
+        val pool = mock(JedisPool::class.java)
+        `when`(pool.resource).thenReturn(jedis)
+        return pool
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.logic
+
+import org.codinjutsu.tools.nosql.redis.configuration.RedisServerConfiguration
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import redis.clients.jedis.HostAndPort
+import redis.clients.jedis.Jedis
+import redis.clients.jedis.JedisPool
+import redis.clients.jedis.JedisPoolConfig
+import redis.clients.jedis.exceptions.JedisConnectionException
+
+internal class RedisReplicaRouterTest {
+
+    private val master = HostAndPort("master", 6379)
+    private val fastReplica = HostAndPort("replica1", 6380)
+    private val slowReplica = HostAndPort("replica2", 6381)
+
+    private val connections = mutableMapOf<HostAndPort, Jedis>()
+    private val pools = mutableMapOf<HostAndPort, JedisPool>()
+
+    @Test
+    fun keepsTheSentinelReplicasThatAreUp() {
+        val replicas = RedisReplicaRouter.parseSentinelReplicas(listOf(
+                mapOf("ip" to "10.0.0.2", "port" to "6380", "flags" to "slave"),
+                mapOf("ip" to "10.0.0.3", "port" to "6381", "flags" to "s_down,slave"),
+                mapOf("ip" to "10.0.0.4", "port" to "6382", "flags" to "slave,disconnected")))
+
+        assertEquals(listOf(HostAndPort("10.0.0.2", 6380)), replicas)
+    }
+
+    @Test
+    fun readsFromTheFastestReplica() {
+        val router = router(mapOf(fastReplica to 1.0, slowReplica to 5.0))
+
+        router.refresh()
+        val reader = router.reader
+
+        assertEquals(fastReplica, router.readNode)
+        assertSame(connections[fastReplica], reader)
+    }
+
+    @Test
+    fun readsFromTheMasterWhenNoReplicaAnswers() {
+        val router = router(mapOf(fastReplica to null, slowReplica to null))
+
+        router.refresh()
+        val reader = router.reader
+
+        assertNull(router.readNode)
+        assertSame(connections[master], reader)
+    }
+
+    @Test
+    fun fallsBackToTheMasterWhenTheReplicaBecomesUnreachable() {
+        val router = router(mapOf(fastReplica to 1.0, slowReplica to null), unreachable = setOf(fastReplica))
+
+        router.refresh()
+        val reader = router.reader
+
+        assertSame(connections[master], reader)
+        assertNull(router.readNode)
+    }
+
+    @Test
+    fun closesThePoolsOfTheNodesThatLeft() {
+        val configuration = RedisServerConfiguration(serverUrl = "master:6379", replicaUrls = "replica1:6380, replica2:6381")
+        val router = router(mapOf(fastReplica to 1.0, slowReplica to 5.0), configuration = configuration)
+        router.refresh()
+        router.reader.close()
+        router.master.close()
+
+        configuration.replicaUrls = "replica2:6381"
+        router.refresh()
+
+        verify(pools.getValue(fastReplica)).close()
+        verify(pools.getValue(master), never()).close()
+        assertEquals(slowReplica, router.readNode)
+    }
+
+    private fun router(latencies: Map<HostAndPort, Double?>, unreachable: Set<HostAndPort> = emptySet(),
+                       configuration: RedisServerConfiguration = RedisServerConfiguration(serverUrl = "master:6379",
+                               replicaUrls = "replica1:6380, replica2:6381")): RedisReplicaRouter {
+        return object : RedisReplicaRouter(configuration, JedisPoolConfig()) {
+
+            override fun ping(replica: HostAndPort) = latencies[replica]
+
+            override fun createPool(node: HostAndPort): JedisPool {
+                val pool = mock(JedisPool::class.java)
+                pools[node] = pool
+                if (node in unreachable) {
+                    `when`(pool.resource).thenThrow(JedisConnectionException("Connection refused"))
+                } else {
+                    `when`(pool.resource).thenReturn(connections.getOrPut(node) { mock(Jedis::class.java) })
+                }
+                return pool
+            }
+        }
+    }
+}
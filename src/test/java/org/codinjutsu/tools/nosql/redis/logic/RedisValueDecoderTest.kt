@@ -0,0 +1,50 @@
+package org.codinjutsu.tools.nosql.redis.logic
+
+import org.codinjutsu.tools.nosql.redis.model.RedisDecodedValue
+import org.codinjutsu.tools.nosql.redis.model.RedisValueFormat
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import java.io.ByteArrayOutputStream
+import java.util.zip.GZIPOutputStream
+
+internal class RedisValueDecoderTest {
+
+    @Test
+    fun decodesUtf8Text() {
+        assertEquals(RedisDecodedValue(RedisValueFormat.TEXT, "héllo"), RedisValueDecoder.decode("héllo".toByteArray(), false))
+    }
+
+    @Test
+    fun dropsCharacterCutByTheEndOfAPreview() {
+        val bytes = "hé".toByteArray().copyOf(2)
+
+        assertEquals(RedisDecodedValue(RedisValueFormat.TEXT, "h"), RedisValueDecoder.decode(bytes, true))
+        assertEquals(RedisDecodedValue(RedisValueFormat.BINARY, "68c3"), RedisValueDecoder.decode(bytes, false))
+    }
+
+    @Test
+    fun inflatesGzipEvenWhenTruncated() {
+        val output = ByteArrayOutputStream()
+        GZIPOutputStream(output).use { it.write("compressed text".toByteArray()) }
+        val bytes = output.toByteArray()
+
+        assertEquals(RedisDecodedValue(RedisValueFormat.GZIP, "compressed text"), RedisValueDecoder.decode(bytes, false))
+        assertEquals(RedisValueFormat.GZIP, RedisValueDecoder.decode(bytes.copyOf(bytes.size - 8), true).format)
+    }
+
+    @Test
+    fun decodesRawAndFramedSnappy() {
+        // "a" followed by a copy of 9 bytes at offset 1
+        val block = byteArrayOf(0x0A, 0x00, 'a'.toByte(), 0x15, 0x01)
+        assertEquals(RedisDecodedValue(RedisValueFormat.SNAPPY, "aaaaaaaaaa"), RedisValueDecoder.decode(block, false))
+
+        val framed = byteArrayOf(0xFF.toByte(), 0x06, 0x00, 0x00) + "sNaPpY".toByteArray() +
+                byteArrayOf(0x00, (4 + block.size).toByte(), 0x00, 0x00, 0, 0, 0, 0) + block
+        assertEquals(RedisDecodedValue(RedisValueFormat.SNAPPY, "aaaaaaaaaa"), RedisValueDecoder.decode(framed, false))
+    }
+
+    @Test
+    fun fallsBackToHex() {
+        assertEquals(RedisDecodedValue(RedisValueFormat.BINARY, "00ff10"), RedisValueDecoder.decode(byteArrayOf(0x00, 0xFF.toByte(), 0x10), false))
+    }
+}
@@ -0,0 +1,100 @@
+package org.codinjutsu.tools.nosql.redis.logic.dump
+
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyType
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+import java.io.ByteArrayOutputStream
+import java.nio.file.Files
+
+internal class RdbParserTest {
+
+    @Test
+    fun indexesKeysAndReadsValuesFromDump() {
+        val dump = ByteArrayOutputStream().apply {
+            write("REDIS0009".toByteArray())
+            write(0xFE); write(0)
+            write(0); writeString("greeting"); writeString("hello")
+            write(1); writeString("queue"); write(3); writeString("a"); writeString("b"); writeString("c")
+            write(0xFE); write(2)
+            write(0); writeString("other"); writeString("value")
+            write(0xFF); write(ByteArray(8))
+        }
+        val path = Files.createTempFile("dump", ".rdb")
+        try {
+            Files.write(path, dump.toByteArray())
+            val index = RdbParser.index(path) { false }
+
+            assertEquals(listOf(0, 2), index.databases.toList())
+            assertEquals(listOf("greeting", "queue"), index.getEntries(0).map { it.key })
+
+            val queue = index.getEntry(0, "queue")!!
+            assertEquals(RedisKeyType.LIST, RdbParser.getKeyType(queue.valueType))
+            assertEquals(3L, queue.cardinality)
+
+            RdbInput(path).use {
+                val parser = RdbParser(it)
+                assertEquals("hello", String(parser.readStringPreview(index.getEntry(0, "greeting")!!, 1024)!!, Charsets.UTF_8))
+                assertEquals(listOf("b", "c"), parser.readValues(queue, 1, 10))
+            }
+        } finally {
+            Files.delete(path)
+        }
+    }
+
+    @Test
+    fun sortsKeysByNameAndFindsThemByBinarySearch() {
+        val dump = ByteArrayOutputStream().apply {
+            write("REDIS0009".toByteArray())
+            write(0xFE); write(0)
+            listOf("user:2", "order:1", "user:10", "cart").forEach {
+                write(0); writeString(it); writeString("value of $it")
+            }
+            write(0xFF); write(ByteArray(8))
+        }
+        val path = Files.createTempFile("dump", ".rdb")
+        try {
+            Files.write(path, dump.toByteArray())
+            val index = RdbParser.index(path) { false }
+
+            assertEquals(listOf("cart", "order:1", "user:10", "user:2"), index.getEntries(0).map { it.key })
+            listOf("cart", "order:1", "user:10", "user:2").forEach {
+                assertEquals(it, index.getEntry(0, it)!!.key)
+            }
+            assertNull(index.getEntry(0, "user:1"))
+            assertNull(index.getEntry(1, "cart"))
+        } finally {
+            Files.delete(path)
+        }
+    }
+
+    @Test
+    fun readsWholeStringWithProgressUntilCancelled() {
+        val dump = ByteArrayOutputStream().apply {
+            write("REDIS0009".toByteArray())
+            write(0xFE); write(0)
+            write(0); writeString("greeting"); writeString("hello world")
+            write(0xFF); write(ByteArray(8))
+        }
+        val path = Files.createTempFile("dump", ".rdb")
+        try {
+            Files.write(path, dump.toByteArray())
+            val entry = RdbParser.index(path) { false }.getEntry(0, "greeting")!!
+
+            RdbInput(path).use { input ->
+                val progress = mutableListOf<Long>()
+                assertEquals("hello world", String(RdbParser(input).readString(entry, { progress.add(it) }, { false })!!, Charsets.UTF_8))
+                assertEquals(listOf(11L), progress)
+
+                assertNull(RdbParser(input).readString(entry, {}, { true }))
+            }
+        } finally {
+            Files.delete(path)
+        }
+    }
+
+    private fun ByteArrayOutputStream.writeString(value: String) {
+        write(value.length)
+        write(value.toByteArray())
+    }
+}
@@ -0,0 +1,44 @@
+package org.codinjutsu.tools.nosql.redis.logic.dump
+
+import org.codinjutsu.tools.nosql.commons.model.DatabaseContext
+import org.codinjutsu.tools.nosql.redis.configuration.RedisServerConfiguration
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito.`when`
+import org.mockito.Mockito.mock
+import java.nio.file.Files
+
+internal class RedisDumpClientTest {
+
+    @Test
+    fun fileUrlIsADump() {
+        assertTrue(RedisDumpClient.isDumpFile(RedisServerConfiguration(serverUrl = "file:/tmp/missing.rdb")))
+    }
+
+    @Test
+    fun existingRdbFileIsADump() {
+        val path = Files.createTempFile("dump", ".rdb")
+        try {
+            assertTrue(RedisDumpClient.isDumpFile(RedisServerConfiguration(serverUrl = path.toString())))
+        } finally {
+            Files.delete(path)
+        }
+    }
+
+    @Test
+    fun hostEndingWithRdbIsAServer() {
+        assertFalse(RedisDumpClient.isDumpFile(RedisServerConfiguration(serverUrl = "cache.rdb")))
+        assertFalse(RedisDumpClient.isDumpFile(RedisServerConfiguration(serverUrl = "localhost:6379")))
+    }
+
+    @Test
+    fun refusesToChangeTheDump() {
+        val context = mock(DatabaseContext::class.java)
+        `when`(context.serverConfiguration).thenReturn(RedisServerConfiguration(serverUrl = "file:/tmp/dump.rdb"))
+
+        assertThrows(IllegalStateException::class.java) { RedisDumpClient().delete(context, "key") }
+        assertThrows(IllegalStateException::class.java) { RedisDumpClient().update(context, null) }
+    }
+}
@@ -0,0 +1,22 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+internal class RedisMemoryProfileTest {
+
+    @Test
+    fun aggregatesByPrefixAndKeepsBiggestKeys() {
+        val profile = RedisMemoryProfile(":", 1, 2)
+        profile.add(RedisKeyStatistics("user:1", RedisKeyType.HASH, 100, "ziplist", -1, 3))
+        profile.add(RedisKeyStatistics("user:2", RedisKeyType.HASH, 300, "hashtable", -1, 600))
+        profile.add(RedisKeyStatistics("session:1", RedisKeyType.STRING, 50, "embstr", 60, 10))
+        profile.add(RedisKeyStatistics("counter", RedisKeyType.STRING, 200, "int", -1, 2))
+
+        assertEquals(4L, profile.scannedKeys)
+        assertEquals(650L, profile.totalMemoryUsage)
+        assertEquals(listOf("user", "", "session"), profile.getPrefixes().map { it.prefix })
+        assertEquals(RedisPrefixStatistics("user", 2, 400, 603), profile.getPrefixes()[0])
+        assertEquals(listOf("user:2", "counter"), profile.getBiggestKeys().map { it.key })
+    }
+}
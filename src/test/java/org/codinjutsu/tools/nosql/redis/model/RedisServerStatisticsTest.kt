@@ -0,0 +1,28 @@
+package org.codinjutsu.tools.nosql.redis.model
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+
+internal class RedisServerStatisticsTest {
+
+    @Test
+    fun parsesKeyspaceAndMemorySections() {
+        val statistics = RedisServerStatistics.parse(
+                "# Keyspace\r\ndb0:keys=12,expires=3,avg_ttl=1000\r\ndb4:keys=1,expires=0,avg_ttl=0\r\n",
+                "# Memory\r\nused_memory:1048576\r\nused_memory_human:1.00M\r\n")
+
+        assertEquals(1048576L, statistics.usedMemory)
+        assertEquals(RedisDatabaseStatistics(12, 3), statistics.getDatabase("0"))
+        assertEquals(RedisDatabaseStatistics(1, 0), statistics.getDatabase("4"))
+        assertNull(statistics.getDatabase("1"))
+    }
+
+    @Test
+    fun sumsClusterMasters() {
+        val first = RedisServerStatistics.parse("db0:keys=2,expires=1,avg_ttl=0", "used_memory:100")
+        val second = RedisServerStatistics.parse("db0:keys=3,expires=0,avg_ttl=0", "used_memory:50")
+
+        assertEquals(RedisServerStatistics(150, mapOf("0" to RedisDatabaseStatistics(5, 1))), first + second)
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.view
+
+import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.result.NullResultDescriptor
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyType
+import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseKey
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.FragmentedKeyNodeDescriptor
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisKeyValueDescriptor
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+import javax.swing.event.TreeModelEvent
+import javax.swing.event.TreeModelListener
+import javax.swing.tree.TreeNode
+import javax.swing.tree.TreePath
+
+internal class RedisKeyTrieTest {
+
+    @Test
+    fun groupsAreListedBeforeKeys() {
+        val root = wrap("plain", "user:1", "user:2", "order:1")
+
+        assertEquals(listOf("user", "order", "plain"), childKeys(root))
+        assertEquals(listOf("1", "2"), childKeys(root.getChildAt(0)))
+        assertEquals(listOf("1"), childKeys(root.getChildAt(1)))
+    }
+
+    @Test
+    fun nestedGroupsFollowEveryFragment() {
+        val root = wrap("app:user:1", "app:user:2", "app:order:1", "app:version")
+
+        val app = root.getChildAt(0)
+        assertEquals(listOf("app"), childKeys(root))
+        assertEquals(listOf("user", "order", "version"), childKeys(app))
+        assertEquals(listOf("1", "2"), childKeys(app.getChildAt(0)))
+    }
+
+    @Test
+    fun keyNamedLikeAGroupStaysNextToIt() {
+        val root = wrap("user", "user:1")
+
+        assertEquals(listOf("user", "user"), childKeys(root))
+        assertFalse(root.getChildAt(0).isLeaf)
+        assertEquals(listOf("1"), childKeys(root.getChildAt(0)))
+    }
+
+    @Test
+    fun keyNodesAreCopiedWithTheirChildren() {
+        val source = NoSqlTreeNode(NullResultDescriptor())
+        val keyNode = keyNode("user:1")
+        val valueNode = keyNode("value")
+        keyNode.add(valueNode)
+        source.add(keyNode)
+
+        val root = RedisFragmentedKeyTreeModel.wrapNodes(source, ":")
+
+        val copy = root.getChildAt(0).getChildAt(0) as NoSqlTreeNode
+        assertNotSame(keyNode, copy)
+        assertEquals(1, copy.childCount)
+        assertNotSame(valueNode, copy.getChildAt(0))
+        assertEquals(1, keyNode.childCount)
+    }
+
+    @Test
+    fun noSeparatorKeepsTheSourceTree() {
+        val source = NoSqlTreeNode(NullResultDescriptor())
+        source.add(keyNode("user:1"))
+
+        assertSame(source, RedisFragmentedKeyTreeModel.wrapNodes(source, ""))
+    }
+
+    @Test
+    fun groupsKeepTheStartOfTheirKeys() {
+        val root = wrap("app:user:1", "app::1")
+
+        val app = root.getChildAt(0)
+        assertEquals("app:", keyPrefix(app))
+        assertEquals("app:user:", keyPrefix(app.getChildAt(0)))
+        assertEquals("app::", keyPrefix(app.getChildAt(1)))
+    }
+
+    @Test
+    fun keyEndingWithTheSeparatorIsReadFromItsNode() {
+        val source = NoSqlTreeNode(NullResultDescriptor())
+        source.add(databaseKeyNode("a:b:"))
+        source.add(databaseKeyNode("a:b"))
+
+        val root = RedisFragmentedKeyTreeModel.wrapNodes(source, ":")
+
+        val group = root.getChildAt(0)
+        assertEquals(listOf("b", "b"), childKeys(group))
+        assertEquals("a:b:", RedisPanel.findKey(pathTo(group.getChildAt(0))))
+        assertEquals("a:b", RedisPanel.findKey(pathTo(group.getChildAt(1))))
+        assertNull(RedisPanel.findKey(pathTo(group)))
+    }
+
+    @Test
+    fun groupedKeyWithoutItsDatabaseKeyIsNotGuessed() {
+        val root = wrap("a:b:")
+
+        assertNull(RedisPanel.findKey(pathTo(root.getChildAt(0).getChildAt(0))))
+    }
+
+    @Test
+    fun separatorChangeRegroupsOnce() {
+        val source = NoSqlTreeNode(NullResultDescriptor())
+        source.add(keyNode("user:1"))
+        val model = RedisFragmentedKeyTreeModel(source)
+        val structureChanges = mutableListOf<Any>()
+        model.addTreeModelListener(object : TreeModelListener {
+            override fun treeStructureChanged(event: TreeModelEvent) {
+                structureChanges.add(event.treePath.lastPathComponent)
+            }
+
+            override fun treeNodesChanged(event: TreeModelEvent) {}
+
+            override fun treeNodesInserted(event: TreeModelEvent) {}
+
+            override fun treeNodesRemoved(event: TreeModelEvent) {}
+        })
+
+        model.setSeparator(":")
+        val groupedRoot = model.root
+        model.reload()
+
+        assertEquals(listOf("user"), childKeys(groupedRoot))
+        assertEquals(listOf<Any>(groupedRoot, model.root), structureChanges)
+        assertNotSame(groupedRoot, model.root)
+    }
+
+    private fun wrap(vararg keys: String): TreeNode {
+        val source = NoSqlTreeNode(NullResultDescriptor())
+        keys.forEach { source.add(keyNode(it)) }
+        return RedisFragmentedKeyTreeModel.wrapNodes(source, ":")
+    }
+
+    private fun keyNode(key: String) =
+            NoSqlTreeNode(RedisKeyValueDescriptor.createDescriptor(RedisKeyType.STRING, key, "value of $key"))
+
+    private fun databaseKeyNode(key: String) =
+            NoSqlTreeNode(RedisKeyValueDescriptor.createDescriptor(RedisKeyType.STRING, key, RedisDatabaseKey(key, RedisKeyType.STRING, 1, -1, "v")))
+
+    private fun pathTo(node: TreeNode) = TreePath((node as NoSqlTreeNode).path)
+
+    private fun keyPrefix(node: TreeNode) = ((node as NoSqlTreeNode).descriptor as FragmentedKeyNodeDescriptor).keyPrefix
+
+    private fun childKeys(node: TreeNode) =
+            (0 until node.childCount).map { (node.getChildAt(it) as NoSqlTreeNode).descriptor.formattedKey }
+}
@@ -32,23 +32,49 @@ import com.intellij.openapi.editor.colors.EditorColorsScheme
 import com.intellij.openapi.editor.colors.impl.DefaultColorsScheme
 import com.intellij.openapi.editor.ex.EditorEx
 import com.intellij.openapi.editor.impl.SettingsImpl
+import com.intellij.openapi.progress.EmptyProgressIndicator
+import com.intellij.openapi.progress.ProgressIndicator
 import com.intellij.openapi.project.Project
+import com.intellij.openapi.ui.Messages
+import com.intellij.openapi.ui.TestDialog
 import com.intellij.testFramework.PlatformLiteFixture
 import org.codinjutsu.tools.nosql.commons.model.Database
+import org.codinjutsu.tools.nosql.commons.model.DatabaseContext
 import org.codinjutsu.tools.nosql.commons.model.SearchResult
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.DatabaseObject
+import org.codinjutsu.tools.nosql.commons.model.internal.layer.SingleDatabaseObject
+import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode
+import org.codinjutsu.tools.nosql.commons.view.nodedescriptor.result.NullResultDescriptor
 import org.codinjutsu.tools.nosql.commons.view.panel.query.QueryOptions
 import org.codinjutsu.tools.nosql.redis.configuration.RedisServerConfiguration
 import org.codinjutsu.tools.nosql.redis.logic.RedisClient
+import org.codinjutsu.tools.nosql.redis.model.RedisBinaryValue
 import org.codinjutsu.tools.nosql.redis.model.RedisContext
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyType
+import org.codinjutsu.tools.nosql.redis.model.RedisScanResult
+import org.codinjutsu.tools.nosql.redis.model.internal.RedisDatabaseKey
+import org.codinjutsu.tools.nosql.redis.view.nodedescriptor.RedisKeyValueDescriptor
 import org.fest.swing.edt.GuiActionRunner
 import org.fest.swing.edt.GuiQuery
+import org.fest.swing.edt.GuiTask
 import org.fest.swing.fixture.Containers
 import org.fest.swing.fixture.FrameFixture
 import org.mockito.Matchers.any
 import org.mockito.Matchers.anyBoolean
+import org.mockito.Matchers.anyString
+import org.mockito.Matchers.eq
 import org.mockito.Mockito.`when`
+import org.mockito.Mockito.doAnswer
 import org.mockito.Mockito.mock
+import org.mockito.Mockito.never
+import org.mockito.Mockito.verify
+import java.util.function.BooleanSupplier
+import java.util.function.Consumer
+import java.util.function.LongConsumer
 import javax.swing.JPanel
+import javax.swing.tree.TreeNode
+import javax.swing.tree.TreePath
+import redis.clients.jedis.ScanParams.SCAN_POINTER_START
 
 //@Disabled("Doesn't work at the moment.")
 class RedisPanelTest : PlatformLiteFixture() {
@@ -63,6 +89,7 @@ class RedisPanelTest : PlatformLiteFixture() {
 
     @Throws(Exception::class)
     public override fun tearDown() {
+        Messages.setTestDialog(TestDialog.DEFAULT)
         super.tearDown()
         frameFixture!!.cleanUp()
     }
@@ -103,10 +130,113 @@ class RedisPanelTest : PlatformLiteFixture() {
             override fun executeInEDT(): RedisPanel? {
                 return object : RedisPanel(dummyProject, RedisContext(redisClientMock, RedisServerConfiguration(), Database("0"))) {
                     override fun addActions(actionResultGroup: DefaultActionGroup, expandAllAction: AnAction, collapseAllAction: AnAction) {}
+
+                    override fun executeInBackground(query: Consumer<ProgressIndicator>) {
+                        query.accept(EmptyProgressIndicator())
+                    }
                 }
             }
         })
 
         frameFixture = Containers.showInFrame(redisPanelWrapper!!)
     }
-}
\ No newline at end of file
+    fun testDeletesTheSelectedKeyEndingWithTheSeparator() {
+        selectKey(1, "a:b:", "a:b")
+        Messages.setTestDialog(TestDialog.OK)
+
+        GuiActionRunner.execute(object : GuiTask() {
+            override fun executeInEDT() {
+                redisPanelWrapper!!.deleteSelectedKey()
+            }
+        })
+
+        verify(redisClientMock).delete(any(DatabaseContext::class.java), eq("a:b:"))
+        verify(redisClientMock, never()).delete(any(DatabaseContext::class.java), eq("a:b"))
+    }
+
+    fun testSelectedGroupHasNoKey() {
+        selectKey(-1, "a:b:", "a:b")
+
+        assertNull(redisPanelWrapper!!.selectedKey)
+    }
+
+    fun testLoadsTheFullValueOfTheSelectedKeyEndingWithTheSeparator() {
+        selectKey(0, "a:b:", "a:b", preview = { RedisBinaryValue(byteArrayOf(1), 2) })
+
+        GuiActionRunner.execute(object : GuiTask() {
+            override fun executeInEDT() {
+                redisPanelWrapper!!.loadFullValue()
+            }
+        })
+
+        verify(redisClientMock).loadFullValue(any(RedisContext::class.java), eq("a:b:"), any(LongConsumer::class.java), any(BooleanSupplier::class.java))
+    }
+
+    fun testAppendsTheScannedBatchesToTheDisplayedKeys() {
+        scanBatches(listOf("a", "b"), listOf("c"))
+
+        assertEquals(listOf("a", "b", "c"), displayedKeys(displayedRoot()))
+    }
+
+    fun testGroupsTheScannedKeysOnceTheScanIsOver() {
+        redisPanelWrapper!!.setGroupSeparator(":")
+        redisPanelWrapper!!.toggleGroupData(true)
+
+        scanBatches(listOf("a:1"), listOf("a:2", "b"))
+
+        val root = displayedRoot()
+        assertEquals(listOf("a", "b"), displayedKeys(root))
+        assertEquals(listOf("1", "2"), displayedKeys(root.getChildAt(0)))
+    }
+
+    private fun scanBatches(vararg batches: List<String>) {
+        doAnswer {
+            @Suppress("UNCHECKED_CAST")
+            val batchConsumer = it.arguments[3] as Consumer<List<DatabaseObject>>
+            batches.forEach { batch -> batchConsumer.accept(batch.map(::record)) }
+            RedisScanResult(batches.flatMap { batch -> batch.map(::record) }, SCAN_POINTER_START)
+        }.`when`(redisClientMock).scanRecords(any(DatabaseContext::class.java), any(QueryOptions::class.java), anyString(),
+                any(), any(BooleanSupplier::class.java))
+
+        GuiActionRunner.execute(object : GuiTask() {
+            override fun executeInEDT() {
+                redisPanelWrapper!!.executeQuery()
+            }
+        })
+    }
+
+    private fun record(key: String) =
+            SingleDatabaseObject(listOf(key), mapOf(key to RedisDatabaseKey(key, RedisKeyType.STRING, 1, -1, "value of $key")))
+
+    /**
+     * The root of the displayed tree, once the updates queued for the Swing thread are done.
+     */
+    private fun displayedRoot(): TreeNode = GuiActionRunner.execute(object : GuiQuery<TreeNode>() {
+        override fun executeInEDT(): TreeNode = redisPanelWrapper!!.resultPanel.resultTableView!!.tree.model.root as TreeNode
+    })
+
+    private fun displayedKeys(node: TreeNode) =
+            (0 until node.childCount).map { (node.getChildAt(it) as NoSqlTreeNode).descriptor.formattedKey }
+
+    /**
+     * Displays the keys grouped by ":" and selects the key at the given index of the first group, the group itself
+     * when the index is negative.
+     */
+    private fun selectKey(index: Int, vararg keys: String, preview: (String) -> Any = { "value of $it" }) {
+        val source = NoSqlTreeNode(NullResultDescriptor())
+        keys.forEach {
+            source.add(NoSqlTreeNode(RedisKeyValueDescriptor.createDescriptor(RedisKeyType.STRING, it,
+                    RedisDatabaseKey(it, RedisKeyType.STRING, 2, -1, preview(it)))))
+        }
+        GuiActionRunner.execute(object : GuiTask() {
+            override fun executeInEDT() {
+                val resultPanel = redisPanelWrapper!!.resultPanel
+                val root = RedisFragmentedKeyTreeModel.wrapNodes(source, ":")
+                resultPanel.updateResultTableTree(root)
+                val group = root.getChildAt(0) as NoSqlTreeNode
+                val selected = if (index < 0) group else group.getChildAt(index) as NoSqlTreeNode
+                resultPanel.resultTableView!!.tree.selectionPath = TreePath(selected.path)
+            }
+        })
+    }
+}
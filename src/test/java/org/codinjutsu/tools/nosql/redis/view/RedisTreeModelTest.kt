@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.view
+
+import org.codinjutsu.tools.nosql.commons.view.NoSqlTreeNode
+import org.codinjutsu.tools.nosql.redis.model.RedisKeyType
+import org.codinjutsu.tools.nosql.redis.model.RedisStreamEntry
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import redis.clients.jedis.Tuple
+
+internal class RedisTreeModelTest {
+
+    @Test
+    fun sortedSetValueShowsMemberAndScore() {
+        val node = createValueNode(RedisKeyType.ZSET, 3, Tuple("member", 1.5))
+
+        assertEquals("[3]", node.descriptor.formattedKey)
+        assertEquals("(member, 1.5)", node.descriptor.formattedValue)
+        assertEquals("(member, 1.5)", node.descriptor.value)
+    }
+
+    @Test
+    fun streamEntryShowsItsFieldsAsChildren() {
+        val node = createValueNode(RedisKeyType.STREAM, 0, RedisStreamEntry("1-0", linkedMapOf("sensor" to "12", "temperature" to "21.5")))
+
+        assertEquals("1-0", node.descriptor.formattedKey)
+        assertEquals(2, node.childCount)
+        val temperature = node.getChildAt(1) as NoSqlTreeNode
+        assertEquals("temperature", temperature.descriptor.formattedKey)
+        assertEquals("21.5", temperature.descriptor.value)
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2015 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.nosql.redis.view
+
+import org.codinjutsu.tools.nosql.commons.model.SearchResult
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+
+internal class RedisTreePreparatorTest {
+
+    @Test
+    fun treesAreCachedUntilInvalidated() {
+        val preparator = RedisTreePreparator()
+        val searchResult = SearchResult("0", emptyList(), 0)
+
+        val flatTree = preparator.prepare(searchResult, false, ":")
+        val groupedTree = preparator.prepare(searchResult, true, ":")
+        assertSame(flatTree, preparator.prepare(searchResult, false, ":"))
+        assertSame(groupedTree, preparator.prepare(searchResult, true, ":"))
+
+        preparator.invalidate()
+
+        assertNotSame(flatTree, preparator.prepare(searchResult, false, ":"))
+        assertNotSame(groupedTree, preparator.prepare(searchResult, true, ":"))
+    }
+}
@@ -30,11 +30,16 @@ import org.fest.swing.fixture.Containers
 import org.fest.swing.fixture.FrameFixture
 import org.junit.jupiter.api.AfterEach
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.mockito.Mockito.mock
 
+private const val REDIS_TIPS = "format: host:port. If cluster: host:port1,host:port2,... " +
+        "With Sentinel: the sentinels host:port1,host:port2,... and a master name. To browse a dump offline: file:/path/to/dump.rdb"
+
 internal class ServerConfigurationPanelTest {
 
     private var configurationPanel: ServerConfigurationPanel? = null
@@ -64,7 +69,7 @@ internal class ServerConfigurationPanelTest {
         frameFixture!!.textBox("labelField").setText("Localhost")
 
         frameFixture!!.label("databaseVendorLabel").requireText("RedisDB")
-        frameFixture!!.label("databaseTipsLabel").requireText("format: host:port. If cluster: host:port1,host:port2,...")
+        frameFixture!!.label("databaseTipsLabel").requireText(REDIS_TIPS)
 
         frameFixture!!.textBox("serverUrlField").setText("localhost:25")
         frameFixture!!.textBox("passwordField").setText("johnpassword")
@@ -100,8 +105,179 @@ internal class ServerConfigurationPanelTest {
 
         frameFixture!!.textBox("labelField").requireText("Localhost")
         frameFixture!!.label("databaseVendorLabel").requireText("RedisDB")
-        frameFixture!!.label("databaseTipsLabel").requireText("format: host:port. If cluster: host:port1,host:port2,...")
+        frameFixture!!.label("databaseTipsLabel").requireText(REDIS_TIPS)
         frameFixture!!.textBox("serverUrlField").requireText("localhost:6379")
         frameFixture!!.textBox("passwordField").requireText("johnpassword")
     }
+
+    @Test
+    fun loadAndApplyPoolSettings() {
+        val configuration = RedisServerConfiguration()
+        configuration.poolMaxTotal = 16
+        configuration.connectionTimeout = 5000
+
+        configurationPanel!!.loadConfigurationData(configuration)
+
+        frameFixture!!.textBox("poolMaxTotalField").requireText("16")
+        frameFixture!!.textBox("poolMaxIdleField").requireText("8")
+        frameFixture!!.textBox("poolMinIdleField").requireText("0")
+        frameFixture!!.textBox("connectionTimeoutField").requireText("5000")
+        frameFixture!!.textBox("socketTimeoutField").requireText("2000")
+
+        frameFixture!!.textBox("poolMinIdleField").setText("2")
+        frameFixture!!.textBox("socketTimeoutField").setText("")
+
+        val appliedConfiguration = RedisServerConfiguration()
+        configurationPanel!!.applyConfigurationData(appliedConfiguration)
+
+        assertEquals(16, appliedConfiguration.poolMaxTotal)
+        assertEquals(8, appliedConfiguration.poolMaxIdle)
+        assertEquals(2, appliedConfiguration.poolMinIdle)
+        assertEquals(5000, appliedConfiguration.connectionTimeout)
+        assertEquals(2000, appliedConfiguration.socketTimeout)
+    }
+
+    @Test
+    fun loadAndApplyPipelineChunkSize() {
+        val configuration = RedisServerConfiguration()
+        configuration.pipelineChunkSize = 250
+
+        configurationPanel!!.loadConfigurationData(configuration)
+
+        frameFixture!!.textBox("pipelineChunkSizeField").requireText("250")
+        frameFixture!!.textBox("pipelineChunkSizeField").setText("50")
+
+        val appliedConfiguration = RedisServerConfiguration()
+        configurationPanel!!.applyConfigurationData(appliedConfiguration)
+
+        assertEquals(50, appliedConfiguration.pipelineChunkSize)
+    }
+
+    @Test
+    fun loadAndApplyValuePageSize() {
+        val configuration = RedisServerConfiguration()
+        configuration.valuePageSize = 20
+
+        configurationPanel!!.loadConfigurationData(configuration)
+
+        frameFixture!!.textBox("valuePageSizeField").requireText("20")
+        frameFixture!!.textBox("valuePageSizeField").setText("500")
+
+        val appliedConfiguration = RedisServerConfiguration()
+        configurationPanel!!.applyConfigurationData(appliedConfiguration)
+
+        assertEquals(500, appliedConfiguration.valuePageSize)
+    }
+
+    @Test
+    fun loadAndApplyProfilerRate() {
+        val configuration = RedisServerConfiguration()
+        configuration.profilerKeysPerSecond = 200
+
+        configurationPanel!!.loadConfigurationData(configuration)
+
+        frameFixture!!.textBox("profilerKeysPerSecondField").requireText("200")
+        frameFixture!!.textBox("profilerKeysPerSecondField").setText("0")
+
+        val appliedConfiguration = RedisServerConfiguration()
+        configurationPanel!!.applyConfigurationData(appliedConfiguration)
+
+        assertEquals(0, appliedConfiguration.profilerKeysPerSecond)
+    }
+
+    @Test
+    fun loadAndApplyClusterSettings() {
+        val configuration = RedisServerConfiguration()
+        configuration.clusterScanParallelism = 8
+
+        configurationPanel!!.loadConfigurationData(configuration)
+
+        frameFixture!!.checkBox("clusterModeField").requireNotSelected()
+        frameFixture!!.textBox("clusterScanParallelismField").requireText("8")
+        frameFixture!!.checkBox("clusterModeField").select()
+        frameFixture!!.textBox("clusterScanParallelismField").setText("2")
+
+        val appliedConfiguration = RedisServerConfiguration()
+        configurationPanel!!.applyConfigurationData(appliedConfiguration)
+
+        assertTrue(appliedConfiguration.isClusterMode)
+        assertEquals(2, appliedConfiguration.clusterScanParallelism)
+    }
+
+    @Test
+    fun loadAndApplyLiveUpdateDelay() {
+        val configuration = RedisServerConfiguration()
+        configuration.liveUpdateDelay = 250
+
+        configurationPanel!!.loadConfigurationData(configuration)
+
+        frameFixture!!.textBox("liveUpdateDelayField").requireText("250")
+        frameFixture!!.textBox("liveUpdateDelayField").setText("1000")
+
+        val appliedConfiguration = RedisServerConfiguration()
+        configurationPanel!!.applyConfigurationData(appliedConfiguration)
+
+        assertEquals(1000, appliedConfiguration.liveUpdateDelay)
+    }
+
+    @Test
+    fun loadAndApplyBulkOperationSettings() {
+        val configuration = RedisServerConfiguration()
+        configuration.bulkChunkSize = 200
+        configuration.bulkKeysPerSecond = 5000
+
+        configurationPanel!!.loadConfigurationData(configuration)
+
+        frameFixture!!.textBox("bulkChunkSizeField").requireText("200")
+        frameFixture!!.textBox("bulkKeysPerSecondField").requireText("5000")
+        frameFixture!!.textBox("bulkChunkSizeField").setText("1000")
+        frameFixture!!.textBox("bulkKeysPerSecondField").setText("0")
+
+        val appliedConfiguration = RedisServerConfiguration()
+        configurationPanel!!.applyConfigurationData(appliedConfiguration)
+
+        assertEquals(1000, appliedConfiguration.bulkChunkSize)
+        assertEquals(0, appliedConfiguration.bulkKeysPerSecond)
+    }
+
+    @Test
+    fun loadAndApplyStatisticsSettings() {
+        val configuration = RedisServerConfiguration()
+        configuration.statisticsRefreshInterval = 60
+
+        configurationPanel!!.loadConfigurationData(configuration)
+
+        frameFixture!!.checkBox("hideEmptyDatabasesField").requireSelected()
+        frameFixture!!.textBox("statisticsRefreshIntervalField").requireText("60")
+        frameFixture!!.checkBox("hideEmptyDatabasesField").unselect()
+        frameFixture!!.textBox("statisticsRefreshIntervalField").setText("0")
+
+        val appliedConfiguration = RedisServerConfiguration()
+        configurationPanel!!.applyConfigurationData(appliedConfiguration)
+
+        assertFalse(appliedConfiguration.isHideEmptyDatabases)
+        assertEquals(0, appliedConfiguration.statisticsRefreshInterval)
+    }
+
+    @Test
+    fun loadAndApplyReplicaSettings() {
+        val configuration = RedisServerConfiguration()
+        configuration.sentinelMasterName = "mymaster"
+
+        configurationPanel!!.loadConfigurationData(configuration)
+
+        frameFixture!!.textBox("replicaUrlsField").requireText("")
+        frameFixture!!.textBox("sentinelMasterNameField").requireText("mymaster")
+        frameFixture!!.textBox("replicaPingIntervalField").requireText("10")
+        frameFixture!!.textBox("replicaUrlsField").setText("localhost:6380, localhost:6381")
+        frameFixture!!.textBox("sentinelMasterNameField").setText(" ")
+        frameFixture!!.textBox("replicaPingIntervalField").setText("30")
+
+        val appliedConfiguration = RedisServerConfiguration()
+        configurationPanel!!.applyConfigurationData(appliedConfiguration)
+
+        assertEquals("localhost:6380, localhost:6381", appliedConfiguration.replicaUrls)
+        assertNull(appliedConfiguration.sentinelMasterName)
+        assertEquals(30, appliedConfiguration.replicaPingInterval)
+    }
 }